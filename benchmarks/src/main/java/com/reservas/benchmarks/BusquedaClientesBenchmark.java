@@ -0,0 +1,104 @@
+package com.reservas.benchmarks;
+
+import com.reservas.busqueda.IndiceClientes;
+import com.reservas.model.Cliente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Benchmark de la búsqueda de clientes</h1>
+ *
+ * Mide {@link IndiceClientes#buscar} con las consultas típicas de la caja de búsqueda (prefijos cortos
+ * y largos, varios términos, teléfono, email y filtro por país) y la construcción completa del índice.
+ *
+ * @author Jaime Pérez
+ * @since 17/10/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BusquedaClientesBenchmark {
+
+    // Mismo límite que la tabla de clientes
+    private static final int LIMITE = 500;
+
+    @Param({"100000"})
+    public int numClientes;
+
+    private List<Cliente> clientes;
+    private IndiceClientes indice;
+    private String emailExistente;
+
+    @Setup
+    public void preparar() {
+
+        clientes = DatosPrueba.clientes(numClientes);
+        indice = IndiceClientes.de(clientes);
+        emailExistente = clientes.get(numClientes / 2).getEmail();
+
+    }
+
+    @Benchmark
+    public List<Cliente> prefijoCorto() {
+        return indice.buscar("ma", null, LIMITE);
+    }
+
+    @Benchmark
+    public List<Cliente> nombreYApellido() {
+        return indice.buscar("maria garc", null, LIMITE);
+    }
+
+    @Benchmark
+    public List<Cliente> tresTerminos() {
+        return indice.buscar("lucia fern rom", null, LIMITE);
+    }
+
+    @Benchmark
+    public List<Cliente> telefono() {
+        return indice.buscar("612 34", null, LIMITE);
+    }
+
+    @Benchmark
+    public List<Cliente> email() {
+        return indice.buscar(emailExistente, null, LIMITE);
+    }
+
+    @Benchmark
+    public List<Cliente> soloPais() {
+        return indice.buscar("", "Portugal", LIMITE);
+    }
+
+    @Benchmark
+    public List<Cliente> nombreYPais() {
+        return indice.buscar("jose", "Mexico", LIMITE);
+    }
+
+    @Benchmark
+    public List<Cliente> sinCoincidencias() {
+        return indice.buscar("zzz", null, LIMITE);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public IndiceClientes construirIndice() {
+        return IndiceClientes.de(clientes);
+    }
+}
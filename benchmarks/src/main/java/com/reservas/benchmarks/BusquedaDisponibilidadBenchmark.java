@@ -0,0 +1,129 @@
+package com.reservas.benchmarks;
+
+import com.reservas.disponibilidad.BuscadorDisponibilidad;
+import com.reservas.disponibilidad.CriteriosBusqueda;
+import com.reservas.disponibilidad.MotorDisponibilidad;
+import com.reservas.disponibilidad.ResultadoBusqueda;
+import com.reservas.model.Propiedad;
+import com.reservas.model.Reserva;
+import com.reservas.precios.MotorPrecios;
+import com.reservas.precios.ReglaPrecio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Benchmark de la búsqueda de disponibilidad</h1>
+ *
+ * Mide {@link BuscadorDisponibilidad#buscar} sobre propiedades y reservas generadas en memoria, con distintos
+ * grados de paralelismo. El motor de disponibilidad recibe cargadores en memoria en lugar de {@code ReservaDAO},
+ * y sus índices quedan cargados tras la primera búsqueda, así que se mide el camino de una búsqueda repetida.
+ * Los precios salen de un {@link MotorPrecios} con reglas generales de fin de semana y de estancia larga, como
+ * en la aplicación.
+ *
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BusquedaDisponibilidadBenchmark {
+
+    private static final int RESERVAS_POR_PROPIEDAD = 20;
+    private static final int MAX_RESULTADOS = 500;
+
+    @Param({"20000"})
+    public int numPropiedades;
+
+    @Param({"1", "4"})
+    public int hilos;
+
+    private ForkJoinPool pool;
+    private BuscadorDisponibilidad buscador;
+
+    private CriteriosBusqueda enCiudad;
+    private CriteriosBusqueda enPais;
+    private CriteriosBusqueda sinFiltros;
+
+    @Setup
+    public void preparar() {
+
+        List<Propiedad> propiedades = DatosPrueba.propiedades(numPropiedades);
+        Map<Integer, List<Reserva>> reservas = DatosPrueba.reservasPorPropiedad(propiedades, RESERVAS_POR_PROPIEDAD);
+
+        MotorDisponibilidad motor = new MotorDisponibilidad(id -> reservas.getOrDefault(id, List.of()), ids -> {
+
+            Map<Integer, List<Reserva>> resultado = new HashMap<>();
+
+            for (int id : ids) {
+                resultado.put(id, reservas.getOrDefault(id, List.of()));
+            }
+
+            return resultado;
+        });
+
+        Map<Integer, Propiedad> porId = new HashMap<>();
+        propiedades.forEach(p -> porId.put(p.getIdPropiedad(), p));
+
+        List<ReglaPrecio> reglas = List.of(
+                new ReglaPrecio.DiasSemana(null, EnumSet.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY), 1.15),
+                new ReglaPrecio.DescuentoEstancia(null, 7, 0.9));
+
+        // Sin reglas de ocupación, el motor nunca pide la ocupación de una ciudad
+        MotorPrecios precios = new MotorPrecios(porId::get, () -> reglas, (ciudad, anio) -> null);
+
+        pool = new ForkJoinPool(hilos);
+        buscador = new BuscadorDisponibilidad(() -> propiedades, motor, precios, pool);
+
+        enCiudad = new CriteriosBusqueda("Málaga", null, 2, DatosPrueba.HOY.plusDays(30),
+                DatosPrueba.HOY.plusDays(37), null, MAX_RESULTADOS);
+        enPais = new CriteriosBusqueda(null, "España", 4, DatosPrueba.HOY.plusDays(30),
+                DatosPrueba.HOY.plusDays(37), 200f, MAX_RESULTADOS);
+        sinFiltros = new CriteriosBusqueda(null, null, 1, DatosPrueba.HOY.plusDays(60),
+                DatosPrueba.HOY.plusDays(62), null, MAX_RESULTADOS);
+
+        // Primera búsqueda fuera de la medición: carga los índices de reservas de todas las propiedades
+        buscador.buscar(sinFiltros);
+
+    }
+
+    @TearDown
+    public void cerrar() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<ResultadoBusqueda> ciudad() {
+        return buscador.buscar(enCiudad);
+    }
+
+    @Benchmark
+    public List<ResultadoBusqueda> paisConPrecioMaximo() {
+        return buscador.buscar(enPais);
+    }
+
+    @Benchmark
+    public List<ResultadoBusqueda> todasLasPropiedades() {
+        return buscador.buscar(sinFiltros);
+    }
+}
@@ -0,0 +1,295 @@
+package com.reservas.benchmarks;
+
+import com.reservas.model.Cliente;
+import com.reservas.model.Pago;
+import com.reservas.model.Propiedad;
+import com.reservas.model.Reserva;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.reservas.util.Textos.normalizar;
+
+/**
+ * <h1>Datos de prueba para los benchmarks</h1>
+ *
+ * Genera clientes, propiedades, reservas y pagos con un aspecto parecido al de la base de datos real
+ * (nombres con tildes, varios países, teléfonos españoles en formato E.164, importes con decimales).
+ *
+ * <h2>Características principales:</h2>
+ * <ul>
+ *     <li>Usa siempre la misma semilla, así que cada ejecución mide exactamente los mismos datos.</li>
+ *     <li>Ofrece los datos como modelos o como {@link ResultSetSimulado} con las columnas de cada tabla.</li>
+ * </ul>
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public final class DatosPrueba {
+
+    public static final long SEMILLA = 20261017L;
+
+    public static final LocalDate HOY = LocalDate.of(2026, 10, 17);
+
+    private static final String[] NOMBRES = {
+            "María", "José", "Lucía", "Álvaro", "Sofía", "Martín", "Inés", "Hugo", "Paula", "Daniel",
+            "Carmen", "Pablo", "Jimena", "Diego", "Noelia", "Jaime", "Begoña", "Óscar", "Irene", "Raúl",
+            "Ana", "Marcos", "Elena", "Iván", "Nuria", "Adrián", "Claudia", "Rubén", "Sara", "Tomás"
+    };
+
+    private static final String[] APELLIDOS = {
+            "García", "Fernández", "González", "Rodríguez", "López", "Martínez", "Sánchez", "Pérez", "Gómez",
+            "Martín", "Jiménez", "Hernández", "Ruiz", "Díaz", "Moreno", "Muñoz", "Álvarez", "Romero", "Alonso",
+            "Gutiérrez", "Navarro", "Torres", "Domínguez", "Vázquez", "Ramos", "Gil", "Ramírez", "Serrano",
+            "Blanco", "Molina", "Morales", "Suárez", "Ortega", "Delgado", "Castro", "Ortiz", "Rubio", "Marín"
+    };
+
+    private static final String[] PAISES = {
+            "España", "España", "España", "España", "Francia", "Portugal", "Italia", "Alemania", "México",
+            "Argentina", "Colombia", "Reino Unido"
+    };
+
+    private static final String[][] CIUDADES = {
+            {"Madrid", "España"}, {"Barcelona", "España"}, {"Valencia", "España"}, {"Sevilla", "España"},
+            {"Málaga", "España"}, {"Cádiz", "España"}, {"Palma", "España"}, {"Santander", "España"},
+            {"A Coruña", "España"}, {"San Sebastián", "España"}, {"Lisboa", "Portugal"}, {"Oporto", "Portugal"},
+            {"París", "Francia"}, {"Niza", "Francia"}, {"Roma", "Italia"}, {"Florencia", "Italia"}
+    };
+
+    private static final String[] DOMINIOS = {"gmail.com", "hotmail.com", "outlook.es", "yahoo.es", "correo.com"};
+
+    private static final String[] ESTADOS_PROPIEDAD = {"disponible", "disponible", "disponible", "ocupada",
+            "mantenimiento"};
+
+    private DatosPrueba() { }
+
+    /**
+     * @param n número de clientes.
+     * @return clientes con IDs consecutivos desde 1 y emails únicos.
+     */
+    public static List<Cliente> clientes(int n) {
+
+        Random aleatorio = new Random(SEMILLA);
+        List<Cliente> clientes = new ArrayList<>(n);
+
+        for (int i = 1; i <= n; i++) {
+
+            String nombre = NOMBRES[aleatorio.nextInt(NOMBRES.length)];
+            String apellidos = APELLIDOS[aleatorio.nextInt(APELLIDOS.length)] + " "
+                    + APELLIDOS[aleatorio.nextInt(APELLIDOS.length)];
+            String email = normalizar(nombre + "." + apellidos.replace(' ', '.')) + i + "@"
+                    + DOMINIOS[aleatorio.nextInt(DOMINIOS.length)];
+            String telefono = "+34" + (600_000_000 + aleatorio.nextInt(100_000_000));
+
+            Cliente cliente = new Cliente(nombre, apellidos, email, telefono, PAISES[aleatorio.nextInt(PAISES.length)]);
+            cliente.setIdCliente(i);
+            cliente.setFechaRegistro(HOY.minusDays(aleatorio.nextInt(1500)));
+
+            clientes.add(cliente);
+
+        }
+
+        return clientes;
+    }
+
+    /**
+     * @param n número de propiedades.
+     * @return propiedades con IDs consecutivos desde 1, repartidas entre varias ciudades.
+     */
+    public static List<Propiedad> propiedades(int n) {
+
+        Random aleatorio = new Random(SEMILLA + 1);
+        List<Propiedad> propiedades = new ArrayList<>(n);
+
+        for (int i = 1; i <= n; i++) {
+
+            String[] ciudad = CIUDADES[aleatorio.nextInt(CIUDADES.length)];
+            float precio = 40 + aleatorio.nextInt(460) + aleatorio.nextInt(100) / 100f;
+
+            propiedades.add(new Propiedad(i, "Apartamento " + i, "Calle Mayor " + (1 + aleatorio.nextInt(200)),
+                    ciudad[0], ciudad[1], precio, 1 + aleatorio.nextInt(10), "Propiedad de prueba " + i,
+                    ESTADOS_PROPIEDAD[aleatorio.nextInt(ESTADOS_PROPIEDAD.length)]));
+
+        }
+
+        return propiedades;
+    }
+
+    /**
+     * Genera reservas activas sin solapes para cada propiedad, a partir de {@link #HOY}.
+     *
+     * @param propiedades propiedades a ocupar.
+     * @param porPropiedad número de reservas de cada propiedad.
+     * @return reservas agrupadas por ID de propiedad.
+     */
+    public static Map<Integer, List<Reserva>> reservasPorPropiedad(List<Propiedad> propiedades, int porPropiedad) {
+
+        Random aleatorio = new Random(SEMILLA + 2);
+        Map<Integer, List<Reserva>> reservas = new HashMap<>();
+        int idReserva = 1;
+
+        for (Propiedad propiedad : propiedades) {
+
+            List<Reserva> lista = new ArrayList<>(porPropiedad);
+            LocalDate inicio = HOY.plusDays(aleatorio.nextInt(10));
+
+            for (int k = 0; k < porPropiedad; k++) {
+
+                LocalDate fin = inicio.plusDays(2 + aleatorio.nextInt(10));
+                Reserva.EstadoReserva estado = aleatorio.nextInt(4) == 0
+                        ? Reserva.EstadoReserva.PENDIENTE : Reserva.EstadoReserva.CONFIRMADA;
+
+                lista.add(new Reserva(idReserva++, 1 + aleatorio.nextInt(1000), propiedad.getIdPropiedad(),
+                        Date.valueOf(inicio), Date.valueOf(fin), 1, estado, 100.0, null));
+
+                inicio = fin.plusDays(aleatorio.nextInt(15));
+
+            }
+
+            reservas.put(propiedad.getIdPropiedad(), lista);
+
+        }
+
+        return reservas;
+    }
+
+    /**
+     * @param n número de pagos.
+     * @return pagos con fechas, importes, métodos y estados variados.
+     */
+    public static List<Pago> pagos(int n) {
+
+        Random aleatorio = new Random(SEMILLA + 3);
+        Pago.MetodoPago[] metodos = Pago.MetodoPago.values();
+        Pago.EstadoPago[] estados = Pago.EstadoPago.values();
+        List<Pago> pagos = new ArrayList<>(n);
+
+        for (int i = 1; i <= n; i++) {
+
+            LocalDateTime fecha = HOY.atStartOfDay().minusMinutes(aleatorio.nextInt(1_000_000));
+            double monto = Math.round((20 + aleatorio.nextDouble() * 3000) * 100) / 100.0;
+
+            pagos.add(new Pago(i, 1 + aleatorio.nextInt(n), fecha, monto, metodos[aleatorio.nextInt(metodos.length)],
+                    estados[aleatorio.nextInt(estados.length)], "REF-" + (100_000 + i)));
+
+        }
+
+        return pagos;
+    }
+
+    /**
+     * @param n número de filas.
+     * @return filas de la tabla {@code clientes}.
+     */
+    public static ResultSetSimulado resultSetClientes(int n) {
+
+        List<Object[]> filas = new ArrayList<>(n);
+
+        for (Cliente c : clientes(n)) {
+
+            filas.add(new Object[]{c.getIdCliente(), c.getNombre(), c.getApellido(), c.getEmail(), c.getTelefono(),
+                    c.getPais(), Date.valueOf(c.getFechaRegistro())});
+
+        }
+
+        return new ResultSetSimulado(List.of("id_cliente", "nombre", "apellidos", "email", "telefono", "pais",
+                "fecha_registro"), filas);
+
+    }
+
+    /**
+     * @param n número de filas.
+     * @return filas de la tabla {@code propiedades}.
+     */
+    public static ResultSetSimulado resultSetPropiedades(int n) {
+
+        List<Object[]> filas = new ArrayList<>(n);
+
+        for (Propiedad p : propiedades(n)) {
+
+            filas.add(new Object[]{p.getIdPropiedad(), p.getNombre(), p.getDireccion(), p.getCiudad(), p.getPais(),
+                    p.getPrecio_noche(), p.getCapacidad(), p.getDescripcion(), p.getEstado_propiedad()});
+
+        }
+
+        return new ResultSetSimulado(List.of("id_propiedad", "nombre", "direccion", "ciudad", "pais", "precio_noche",
+                "capacidad", "descripcion", "estado_propiedad"), filas);
+
+    }
+
+    /**
+     * @param n número de filas (aproximado: se generan reservas de {@code n / 4} propiedades).
+     * @return filas de la tabla {@code reservas}, con el estado en minúsculas como lo guarda la base de datos.
+     */
+    public static ResultSetSimulado resultSetReservas(int n) {
+
+        List<Object[]> filas = new ArrayList<>(n);
+
+        for (List<Reserva> reservas : reservasPorPropiedad(propiedades(Math.max(1, n / 4)), 4).values()) {
+
+            for (Reserva r : reservas) {
+
+                filas.add(new Object[]{r.getId_reserva(), r.getId_cliente(), r.getId_propiedad(), r.getFecha_inicio(),
+                        r.getFecha_fin(), r.getNum_personas(), r.getEstadoReserva().getDescripcion(), r.getPrecio_total(),
+                        r.getMotivo_cancelacion()});
+
+            }
+        }
+
+        return new ResultSetSimulado(List.of("id_reserva", "id_cliente", "id_propiedad", "fecha_inicio", "fecha_fin",
+                "num_personas", "estado", "precio_total", "motivo_cancelacion"), filas);
+
+    }
+
+    /**
+     * @param n número de filas.
+     * @return filas de la tabla {@code pagos}, con método y estado en minúsculas como los guarda la base de datos.
+     */
+    public static ResultSetSimulado resultSetPagos(int n) {
+
+        List<Object[]> filas = new ArrayList<>(n);
+
+        for (Pago p : pagos(n)) {
+
+            filas.add(new Object[]{p.getId(), p.getReserva(), Timestamp.valueOf(p.getFechaPago()), p.getMonto(),
+                    p.getMetodoPago().name().toLowerCase(), p.getEstadoPago().name().toLowerCase(),
+                    p.getReferenciaTransaccion()});
+
+        }
+
+        return new ResultSetSimulado(List.of("id_pago", "id_reserva", "fecha_pago", "monto", "metodo_pago",
+                "estado_pago", "referencia_transaccion"), filas);
+
+    }
+
+    /**
+     * @param n número de filas.
+     * @return filas de la tabla {@code valoraciones}; una de cada diez sin fecha.
+     */
+    public static ResultSetSimulado resultSetValoraciones(int n) {
+
+        Random aleatorio = new Random(SEMILLA + 4);
+        List<Object[]> filas = new ArrayList<>(n);
+
+        for (int i = 1; i <= n; i++) {
+
+            Timestamp fecha = i % 10 == 0 ? null
+                    : Timestamp.valueOf(HOY.atStartOfDay().minusMinutes(aleatorio.nextInt(1_000_000)));
+
+            filas.add(new Object[]{i, i, 1 + aleatorio.nextInt(5), "Comentario de prueba " + i,
+                    aleatorio.nextBoolean(), fecha});
+
+        }
+
+        return new ResultSetSimulado(List.of("id_valoracion", "id_reserva", "puntuacion", "comentario", "anonima",
+                "fecha_valoracion"), filas);
+
+    }
+}
@@ -0,0 +1,67 @@
+package com.reservas.benchmarks;
+
+import com.reservas.model.Pago;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Benchmark del formato de pagos</h1>
+ *
+ * Mide los textos que la tabla de pagos calcula para cada celda visible ({@link Pago#getFechaTexto()}
+ * y {@link Pago#getMontoMostrar()}). Cada invocación formatea un pago distinto para que el JIT no pueda
+ * reutilizar el resultado anterior.
+ *
+ * @author Diego Regueira
+ * @since 17/10/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatoPagoBenchmark {
+
+    // Potencia de dos para recorrer los pagos con una máscara
+    private static final int NUM_PAGOS = 1024;
+
+    private Pago[] pagos;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+
+        List<Pago> lista = DatosPrueba.pagos(NUM_PAGOS);
+        pagos = lista.toArray(new Pago[0]);
+
+    }
+
+    @Benchmark
+    public String fechaTexto() {
+        return pagos[siguiente++ & (NUM_PAGOS - 1)].getFechaTexto();
+    }
+
+    @Benchmark
+    public String montoMostrar() {
+        return pagos[siguiente++ & (NUM_PAGOS - 1)].getMontoMostrar();
+    }
+
+    @Benchmark
+    public String metodoYEstado() {
+
+        Pago pago = pagos[siguiente++ & (NUM_PAGOS - 1)];
+        return pago.getMetodoPagoTexto() + pago.getEstadoPagoTexto();
+
+    }
+}
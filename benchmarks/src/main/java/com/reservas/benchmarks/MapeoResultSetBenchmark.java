@@ -0,0 +1,150 @@
+package com.reservas.benchmarks;
+
+import com.reservas.dao.MapeoFilas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Benchmark del mapeo ResultSet → modelo</h1>
+ *
+ * Mide los métodos {@code getXFromResultSet} que usan todos los listados, páginas y búsquedas de los DAO
+ * (entre ellos {@code leerClientes}, {@code leerPagos} y las páginas de reservas), recorriendo
+ * un {@link ResultSetSimulado} con las columnas de cada tabla.
+ *
+ * <h2>Notas:</h2>
+ * <ul>
+ *     <li>Llama a los mapeos a través de {@link MapeoFilas}, su punto de entrada público, para no compartir
+ *     paquete con la aplicación.</li>
+ *     <li>El resultado es el tiempo medio por fila mapeada ({@link #FILAS} filas por invocación).</li>
+ * </ul>
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(MapeoResultSetBenchmark.FILAS)
+public class MapeoResultSetBenchmark {
+
+    static final int FILAS = 1000;
+
+    private ResultSetSimulado reservas;
+    private ResultSetSimulado pagos;
+    private ResultSetSimulado clientes;
+    private ResultSetSimulado propiedades;
+    private ResultSetSimulado valoraciones;
+
+    @Setup
+    public void preparar() {
+
+        reservas = DatosPrueba.resultSetReservas(FILAS);
+        pagos = DatosPrueba.resultSetPagos(FILAS);
+        clientes = DatosPrueba.resultSetClientes(FILAS);
+        propiedades = DatosPrueba.resultSetPropiedades(FILAS);
+        valoraciones = DatosPrueba.resultSetValoraciones(FILAS);
+
+    }
+
+    @Benchmark
+    public int reservas(Blackhole bh) throws SQLException {
+
+        reservas.reiniciar();
+        ResultSet rs = reservas.resultSet();
+        int n = 0;
+
+        while (rs.next()) {
+
+            bh.consume(MapeoFilas.reserva(rs));
+            n++;
+
+        }
+
+        return n;
+    }
+
+    @Benchmark
+    public int pagos(Blackhole bh) throws SQLException {
+
+        pagos.reiniciar();
+        ResultSet rs = pagos.resultSet();
+        int n = 0;
+
+        while (rs.next()) {
+
+            bh.consume(MapeoFilas.pago(rs));
+            n++;
+
+        }
+
+        return n;
+    }
+
+    @Benchmark
+    public int clientes(Blackhole bh) throws SQLException {
+
+        clientes.reiniciar();
+        ResultSet rs = clientes.resultSet();
+        int n = 0;
+
+        while (rs.next()) {
+
+            bh.consume(MapeoFilas.cliente(rs));
+            n++;
+
+        }
+
+        return n;
+    }
+
+    @Benchmark
+    public int propiedades(Blackhole bh) throws SQLException {
+
+        propiedades.reiniciar();
+        ResultSet rs = propiedades.resultSet();
+        int n = 0;
+
+        while (rs.next()) {
+
+            bh.consume(MapeoFilas.propiedad(rs));
+            n++;
+
+        }
+
+        return n;
+    }
+
+    @Benchmark
+    public int valoraciones(Blackhole bh) throws SQLException {
+
+        valoraciones.reiniciar();
+        ResultSet rs = valoraciones.resultSet();
+        int n = 0;
+
+        while (rs.next()) {
+
+            bh.consume(MapeoFilas.valoracion(rs));
+            n++;
+
+        }
+
+        return n;
+    }
+}
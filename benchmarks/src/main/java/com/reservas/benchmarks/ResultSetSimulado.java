@@ -0,0 +1,177 @@
+package com.reservas.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>ResultSet simulado</h1>
+ *
+ * {@link ResultSet} en memoria que devuelve unas filas fijas. Permite medir los métodos de mapeo de los DAO
+ * sin conexión a la base de datos, de modo que los resultados no dependen de la red ni del estado de Supabase.
+ *
+ * <h2>Características principales:</h2>
+ * <ul>
+ *     <li>Implementa solo lo que usan los mapeos: {@code next}, los {@code getX} por nombre o posición
+ *     de columna, {@code wasNull} y {@code close}. El resto de métodos lanza {@link SQLException}.</li>
+ *     <li>Los nombres de columna se resuelven con un mapa, como hace el driver de PostgreSQL.</li>
+ *     <li>{@link #reiniciar()} vuelve a la primera fila para reutilizar los mismos datos en cada iteración.</li>
+ *     <li>Al ser un proxy dinámico, cada llamada tiene un coste fijo pequeño que se suma por igual a todas
+ *     las mediciones; sirve para comparar versiones de un mismo mapeo, no como tiempo absoluto.</li>
+ * </ul>
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public final class ResultSetSimulado implements InvocationHandler {
+
+    private final Map<String, Integer> columnas = new HashMap<>();
+    private final List<Object[]> filas;
+    private final ResultSet resultSet;
+
+    private int fila = -1;
+    private boolean ultimoNulo;
+
+    /**
+     * @param nombresColumna nombres de las columnas, en el orden de los valores de cada fila.
+     * @param filas valores de cada fila; {@code null} representa un NULL de SQL.
+     */
+    public ResultSetSimulado(List<String> nombresColumna, List<Object[]> filas) {
+
+        for (int i = 0; i < nombresColumna.size(); i++) {
+            columnas.put(nombresColumna.get(i), i);
+        }
+
+        this.filas = filas;
+        this.resultSet = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, this);
+
+    }
+
+    /**
+     * @return el {@link ResultSet} que se pasa a los mapeos.
+     */
+    public ResultSet resultSet() {
+        return resultSet;
+    }
+
+    /**
+     * Coloca el cursor antes de la primera fila.
+     */
+    public void reiniciar() {
+        fila = -1;
+    }
+
+    /**
+     * @return número de filas.
+     */
+    public int filas() {
+        return filas.size();
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method metodo, Object[] args) throws SQLException {
+
+        switch (metodo.getName()) {
+
+            case "next":
+                return ++fila < filas.size();
+
+            case "wasNull":
+                return ultimoNulo;
+
+            case "close":
+                return null;
+
+            case "isClosed":
+                return false;
+
+            case "getString":
+                return valor(args[0]);
+
+            case "getInt": {
+                Object v = valor(args[0]);
+                return v == null ? 0 : ((Number) v).intValue();
+            }
+
+            case "getLong": {
+                Object v = valor(args[0]);
+                return v == null ? 0L : ((Number) v).longValue();
+            }
+
+            case "getDouble": {
+                Object v = valor(args[0]);
+                return v == null ? 0.0 : ((Number) v).doubleValue();
+            }
+
+            case "getFloat": {
+                Object v = valor(args[0]);
+                return v == null ? 0.0f : ((Number) v).floatValue();
+            }
+
+            case "getBoolean": {
+                Object v = valor(args[0]);
+                return v != null && (Boolean) v;
+            }
+
+            case "getDate":
+                return (Date) valor(args[0]);
+
+            case "getTimestamp":
+                return (Timestamp) valor(args[0]);
+
+            case "getObject":
+                return valor(args[0]);
+
+            case "hashCode":
+                return System.identityHashCode(proxy);
+
+            case "equals":
+                return proxy == args[0];
+
+            case "toString":
+                return "ResultSetSimulado[" + filas.size() + " filas]";
+
+            default:
+                throw new SQLException("Operación no soportada por el ResultSet simulado: " + metodo.getName());
+        }
+    }
+
+    private Object valor(Object columna) throws SQLException {
+
+        if (fila < 0 || fila >= filas.size()) {
+            throw new SQLException("El cursor no está sobre una fila");
+        }
+
+        int indice;
+
+        if (columna instanceof String nombre) {
+
+            Integer pos = columnas.get(nombre);
+
+            if (pos == null) {
+                throw new SQLException("La columna " + nombre + " no existe");
+            }
+
+            indice = pos;
+
+        } else {
+
+            // Las posiciones JDBC empiezan en 1
+            indice = (Integer) columna - 1;
+
+        }
+
+        Object v = filas.get(fila)[indice];
+        ultimoNulo = v == null;
+
+        return v;
+    }
+}
@@ -0,0 +1,327 @@
+package com.reservas;
+
+import com.reservas.config.DataBaseConnection;
+import com.reservas.disponibilidad.CriteriosBusqueda;
+import com.reservas.disponibilidad.ResultadoBusqueda;
+import com.reservas.metricas.HistogramaLatencias;
+import com.reservas.metricas.VolcadoMetricas;
+import com.reservas.model.Pago;
+import com.reservas.model.Reserva;
+import com.reservas.precios.Presupuesto;
+import com.reservas.service.ServicioPagos;
+import com.reservas.service.ServicioReservas;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <h1>Aplicación de consola</h1>
+ *
+ * Punto de entrada sin interfaz gráfica, junto a {@link Main}. Usa solo la capa de servicio
+ * ({@link ServicioReservas} y {@link ServicioPagos}), así que funciona en servidores sin pantalla y en
+ * procesos por lotes.
+ *
+ * <h2>Órdenes:</h2>
+ * <ul>
+ *     <li><code>presupuesto &lt;idPropiedad&gt; &lt;entrada&gt; &lt;salida&gt; &lt;personas&gt;</code></li>
+ *     <li><code>buscar &lt;entrada&gt; &lt;salida&gt; &lt;personas&gt; [ciudad]</code></li>
+ *     <li><code>hueco &lt;idPropiedad&gt; &lt;noches&gt; [desde]</code></li>
+ *     <li><code>reservar &lt;idCliente&gt; &lt;idPropiedad&gt; &lt;entrada&gt; &lt;salida&gt; &lt;personas&gt;</code></li>
+ *     <li><code>pagar &lt;idReserva&gt; &lt;metodo&gt; [estado]</code></li>
+ *     <li><code>carga &lt;hilos&gt; &lt;operaciones&gt; &lt;entrada&gt; &lt;salida&gt;</code>: prueba de carga de solo
+ *     lectura con hilos virtuales, que alterna presupuestos y búsquedas y muestra sus percentiles.</li>
+ * </ul>
+ * Las fechas van en formato <code>aaaa-mm-dd</code>. Si la orden falla, el proceso termina con código 1.
+ *
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+public class Consola {
+
+    private static final int MAX_RESULTADOS = 20;
+    private static final int DIAS_HUECO = 365;
+
+    private Consola() { }
+
+    /**
+     * Ejecuta la orden indicada en los argumentos.
+     *
+     * @param args orden y sus parámetros.
+     */
+    public static void main(String[] args) {
+
+        if (args.length == 0) {
+
+            mostrarUso();
+            System.exit(1);
+
+        }
+
+        int codigo = 0;
+
+        try {
+
+            ejecutar(args);
+
+        } catch (IllegalArgumentException | IllegalStateException e) {
+
+            System.err.println(e.getMessage());
+            codigo = 1;
+
+        } catch (RuntimeException e) {
+
+            System.err.println("Error: " + e.getMessage());
+            codigo = 1;
+
+        } finally {
+
+            DataBaseConnection.cerrarSiIniciada();
+
+        }
+
+        System.exit(codigo);
+    }
+
+    private static void ejecutar(String[] args) {
+
+        ServicioReservas reservas = ServicioReservas.getInstance();
+
+        switch (args[0].toLowerCase(Locale.ROOT)) {
+
+            case "presupuesto" -> {
+
+                comprobarArgumentos(args, 5);
+                System.out.println(reservas.presupuestar(entero(args[1]), fecha(args[2]), fecha(args[3]), entero(args[4])));
+
+            }
+
+            case "buscar" -> {
+
+                comprobarArgumentos(args, 4);
+                String ciudad = args.length > 4 ? args[4] : null;
+
+                List<ResultadoBusqueda> resultados = reservas.buscarDisponibilidad(new CriteriosBusqueda(ciudad, null,
+                        entero(args[3]), fecha(args[1]), fecha(args[2]), null, MAX_RESULTADOS));
+
+                if (resultados.isEmpty()) {
+                    System.out.println("No hay propiedades libres");
+                }
+
+                for (ResultadoBusqueda r : resultados) {
+
+                    System.out.printf("#%d %s (%s): %.2f € por %d noches%n", r.propiedad().getIdPropiedad(),
+                            r.propiedad().getNombre(), r.propiedad().getCiudad(), r.precioTotal(), r.noches());
+
+                }
+            }
+
+            case "hueco" -> {
+
+                comprobarArgumentos(args, 3);
+                LocalDate desde = args.length > 3 ? fecha(args[3]) : LocalDate.now();
+
+                reservas.primerHuecoLibre(entero(args[1]), desde, entero(args[2]), desde.plusDays(DIAS_HUECO))
+                        .ifPresentOrElse(dia -> System.out.println("Primer hueco libre: " + dia),
+                                () -> System.out.println("No hay hueco en los próximos " + DIAS_HUECO + " días"));
+
+            }
+
+            case "reservar" -> {
+
+                comprobarArgumentos(args, 6);
+
+                Reserva reserva = reservas.crearReserva(entero(args[1]), entero(args[2]), fecha(args[3]), fecha(args[4]),
+                        entero(args[5]));
+
+                System.out.printf("Reserva %d creada: %.2f €%n", reserva.getId_reserva(), reserva.getPrecio_total());
+
+            }
+
+            case "pagar" -> {
+
+                comprobarArgumentos(args, 3);
+
+                Pago.EstadoPago estado = args.length > 3
+                        ? valor(Pago.EstadoPago.class, args[3]) : Pago.EstadoPago.COMPLETADO;
+
+                Pago pago = ServicioPagos.getInstance().registrarPago(entero(args[1]),
+                        valor(Pago.MetodoPago.class, args[2]), estado);
+
+                System.out.printf("Pago %d registrado: %.2f € (%s)%n", pago.getId(), pago.getMonto(),
+                        pago.getReferenciaTransaccion());
+
+            }
+
+            case "carga" -> {
+
+                comprobarArgumentos(args, 5);
+                probarCarga(reservas, entero(args[1]), entero(args[2]), fecha(args[3]), fecha(args[4]));
+
+            }
+
+            default -> {
+
+                mostrarUso();
+                throw new IllegalArgumentException("Orden desconocida: " + args[0]);
+
+            }
+        }
+    }
+
+    /**
+     * Lanza {@code operaciones} consultas repartidas en {@code hilos} tareas concurrentes, cada una en su hilo
+     * virtual. Las pares presupuestan la primera propiedad libre; las impares buscan propiedades libres.
+     */
+    private static void probarCarga(ServicioReservas reservas, int hilos, int operaciones, LocalDate desde,
+                                    LocalDate hasta) {
+
+        if (hilos < 1 || operaciones < 1) {
+            throw new IllegalArgumentException("Los hilos y las operaciones deben ser mayores que 0");
+        }
+
+        CriteriosBusqueda criterios = new CriteriosBusqueda(null, null, 1, desde, hasta, null, MAX_RESULTADOS);
+        List<ResultadoBusqueda> libres = reservas.buscarDisponibilidad(criterios);
+
+        if (libres.isEmpty()) {
+            throw new IllegalStateException("No hay propiedades libres en esas fechas");
+        }
+
+        int idPropiedad = libres.get(0).propiedad().getIdPropiedad();
+        HistogramaLatencias presupuestos = new HistogramaLatencias();
+        HistogramaLatencias busquedas = new HistogramaLatencias();
+
+        long inicio = System.nanoTime();
+
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            List<Future<?>> tareas = new ArrayList<>(hilos);
+
+            for (int h = 0; h < hilos; h++) {
+
+                int primera = h;
+
+                tareas.add(ejecutor.submit(() -> {
+
+                    for (int i = primera; i < operaciones; i += hilos) {
+
+                        long t0 = System.nanoTime();
+
+                        if (i % 2 == 0) {
+
+                            reservas.presupuestar(idPropiedad, desde, hasta, 1);
+                            presupuestos.registrar((System.nanoTime() - t0) / 1_000);
+
+                        } else {
+
+                            reservas.buscarDisponibilidad(criterios);
+                            busquedas.registrar((System.nanoTime() - t0) / 1_000);
+
+                        }
+                    }
+                }));
+            }
+
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Prueba de carga interrumpida", e);
+
+        } catch (ExecutionException e) {
+
+            throw new RuntimeException("Error en la prueba de carga: " + e.getCause().getMessage(), e.getCause());
+
+        }
+
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.printf("%d operaciones con %d hilos en %.2f s (%.0f op/s)%n", operaciones, hilos, segundos,
+                operaciones / segundos);
+
+        mostrarLatencias("Presupuestos", presupuestos);
+        mostrarLatencias("Búsquedas", busquedas);
+
+        System.out.println();
+        System.out.print(VolcadoMetricas.texto());
+    }
+
+    private static void mostrarLatencias(String nombre, HistogramaLatencias h) {
+
+        System.out.printf("%-12s n=%d media=%.0f µs p50=%d µs p95=%d µs p99=%d µs máx=%d µs%n", nombre, h.total(),
+                h.media(), h.percentil(50), h.percentil(95), h.percentil(99), h.maximo());
+
+    }
+
+    private static void comprobarArgumentos(String[] args, int minimo) {
+
+        if (args.length < minimo) {
+
+            mostrarUso();
+            throw new IllegalArgumentException("Faltan parámetros para la orden " + args[0]);
+
+        }
+    }
+
+    private static int entero(String texto) {
+
+        try {
+
+            return Integer.parseInt(texto);
+
+        } catch (NumberFormatException e) {
+
+            throw new IllegalArgumentException("No es un número entero: " + texto);
+
+        }
+    }
+
+    private static LocalDate fecha(String texto) {
+
+        try {
+
+            return LocalDate.parse(texto);
+
+        } catch (DateTimeParseException e) {
+
+            throw new IllegalArgumentException("Fecha no válida (aaaa-mm-dd): " + texto);
+
+        }
+    }
+
+    private static <E extends Enum<E>> E valor(Class<E> tipo, String texto) {
+
+        try {
+
+            return Enum.valueOf(tipo, texto.toUpperCase(Locale.ROOT));
+
+        } catch (IllegalArgumentException e) {
+
+            throw new IllegalArgumentException("Valor no válido: " + texto);
+
+        }
+    }
+
+    private static void mostrarUso() {
+
+        System.err.println("""
+                Uso: Consola <orden> [parámetros]
+                  presupuesto <idPropiedad> <entrada> <salida> <personas>
+                  buscar <entrada> <salida> <personas> [ciudad]
+                  hueco <idPropiedad> <noches> [desde]
+                  reservar <idCliente> <idPropiedad> <entrada> <salida> <personas>
+                  pagar <idReserva> <TARJETA|EFECTIVO|TRANSFERENCIA|PAYPAL|STRIPE> [COMPLETADO|PENDIENTE|RECHAZADO]
+                  carga <hilos> <operaciones> <entrada> <salida>
+                Fechas en formato aaaa-mm-dd.""");
+
+    }
+}
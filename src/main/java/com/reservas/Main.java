@@ -1,13 +1,16 @@
 package com.reservas;
 
+import com.reservas.cache.CacheEntidades;
+import com.reservas.config.DataBaseConnection;
+import com.reservas.eventos.BusEventos;
+import com.reservas.util.FabricaVistas;
+import com.reservas.util.InformeArranque;
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
+import javafx.application.Platform;
 import javafx.scene.Scene;
-import javafx.scene.image.Image;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.util.Objects;
 
 /**
  * <h1>Aplicación Principal</h1>
@@ -23,6 +26,7 @@ import java.util.Objects;
  *     <li>Extiende la clase {@link javafx.application.Application} de JavaFX.</li>
  *     <li>Inicializa la escena principal desde el archivo <code>main-view.fxml</code>.</li>
  *     <li>Establece el título y el icono de la ventana.</li>
+ *     <li>Precarga en segundo plano el resto de vistas y muestra por consola los tiempos de arranque.</li>
  * </ul>
  *
  * @author Daniel Hernando
@@ -33,6 +37,7 @@ public class Main extends Application {
      * Método de inicio de la aplicación JavaFX.
      * <p>
      * Carga el archivo FXML, crea la escena y configura el escenario principal.
+     * Mientras tanto, {@link FabricaVistas#precargar()} prepara las demás vistas y la conexión con la base de datos.
      * </p>
      *
      * @param stage escenario principal de la aplicación.
@@ -41,16 +46,42 @@ public class Main extends Application {
     @Override
     public void start(Stage stage) throws IOException {
 
-        FXMLLoader fxmlLoader = new FXMLLoader(Main.class.getResource("main-view.fxml"));
-        Scene scene = new Scene(fxmlLoader.load());
+        InformeArranque.registrarDesdeInicio("Inicio de JavaFX");
+
+        // Antes de precargar las vistas, que se suscriben a los avisos
+        BusEventos.iniciar(Platform::runLater);
+        FabricaVistas.precargar();
+
+        long inicio = System.nanoTime();
+        Scene scene = new Scene(FabricaVistas.cargar("main-view.fxml").raiz());
+
+        InformeArranque.registrar("Vista principal", System.nanoTime() - inicio);
 
         stage.setTitle("Gestión de Reservas");
-        stage.getIcons().add(new Image(Objects.requireNonNull(getClass().getResourceAsStream("/images/IconoPrincipal.png"))));
+        stage.getIcons().add(FabricaVistas.icono());
         stage.setScene(scene);
+        stage.setOnShown(e -> InformeArranque.registrarDesdeInicio("Ventana principal visible"));
         stage.show();
 
     }
 
+    /**
+     * Método de cierre de la aplicación JavaFX.
+     * <p>
+     * Detiene la escucha de cambios y cierra el pool de conexiones para liberar las conexiones abiertas con la base de datos
+     * y muestra por consola el rendimiento de las cachés de entidades durante la sesión.
+     * </p>
+     */
+    @Override
+    public void stop() {
+
+        CacheEntidades.estadisticasGlobales().forEach(System.out::println);
+
+        BusEventos.detenerSiIniciado();
+        DataBaseConnection.cerrarSiIniciada();
+
+    }
+
     /**
      * Método principal que lanza la aplicación JavaFX.
      *
@@ -0,0 +1,192 @@
+package com.reservas;
+
+import com.reservas.api.RecursosApi;
+import com.reservas.api.ServidorApi;
+import com.reservas.cache.CacheEntidades;
+import com.reservas.config.DataBaseConnection;
+import com.reservas.dao.ClienteDAO;
+import com.reservas.dao.PagoDAO;
+import com.reservas.dao.PropiedadDAO;
+import com.reservas.dao.ReservaDAO;
+import com.reservas.dao.SeguimientoCambios;
+import com.reservas.dao.ValoracionDAO;
+import com.reservas.disponibilidad.BuscadorDisponibilidad;
+import com.reservas.disponibilidad.MotorDisponibilidad;
+import com.reservas.eventos.BusEventos;
+import com.reservas.eventos.TablaObservada;
+import com.reservas.metricas.VolcadoMetricas;
+import com.reservas.precios.MotorPrecios;
+import com.reservas.service.ServicioPagos;
+import com.reservas.service.ServicioReservas;
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * <h1>Servidor de la API</h1>
+ *
+ * Punto de entrada del modo servidor, junto a {@link Main} y {@link Consola}: sirve la API JSON de
+ * {@link RecursosApi} para el gestor de canales y la web, sin abrir ninguna ventana. Un único proceso atiende a
+ * muchos clientes a la vez, cada petición en un hilo virtual y todas sobre el mismo pool de conexiones.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>Escucha en el puerto de <code>API_PUERTO</code> (del <code>.env</code>), en el del primer argumento si
+ *     se indica, o en el {@value #PUERTO_POR_DEFECTO}.</li>
+ *     <li>Solo acepta conexiones locales salvo que <code>API_DIRECCION</code> indique otra interfaz, por ejemplo
+ *     <code>0.0.0.0</code> para todas.</li>
+ *     <li>Las altas exigen la clave de <code>API_CLAVE</code> en la cabecera {@value ServidorApi#CABECERA_CLAVE};
+ *     sin ella, el servidor arranca solo para consultas.</li>
+ *     <li>Escucha los avisos de cambios de la base de datos para vaciar cachés e índices en memoria cuando
+ *     escriben otros procesos, como la aplicación de escritorio.</li>
+ *     <li>Al detenerse (Ctrl+C o {@code SIGTERM}) termina las peticiones en curso, cierra el pool y muestra las
+ *     estadísticas de las cachés.</li>
+ * </ul>
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public class Servidor {
+
+    private static final int PUERTO_POR_DEFECTO = 8080;
+    private static final String DIRECCION_POR_DEFECTO = "127.0.0.1";
+    private static final int ESPERA_CIERRE_S = 5;
+
+    private static final ReservaDAO RESERVAS = new ReservaDAO();
+
+    // Marca de SeguimientoCambios de la última lectura de reservas; solo la usa el hilo de entrega del bus
+    private static long marcaReservas;
+
+    private Servidor() { }
+
+    /**
+     * Arranca el servidor y lo deja atendiendo peticiones hasta que se detenga el proceso.
+     *
+     * @param args opcionalmente, el puerto.
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public static void main(String[] args) throws IOException {
+
+        Dotenv entorno = Dotenv.configure().ignoreIfMissing().load();
+
+        int puerto = args.length > 0 ? Integer.parseInt(args[0]) : leerPuerto(entorno.get("API_PUERTO"));
+        String direccion = entorno.get("API_DIRECCION", DIRECCION_POR_DEFECTO);
+        String clave = entorno.get("API_CLAVE");
+
+        // Abre el pool antes de aceptar peticiones, para fallar al arrancar si la base de datos no responde
+        DataBaseConnection.getInstance();
+        escucharCambios();
+
+        ServidorApi servidor = new ServidorApi(direccion, puerto, clave);
+        new RecursosApi(ServicioReservas.getInstance(), ServicioPagos.getInstance()).registrar(servidor);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+
+            servidor.detener(ESPERA_CIERRE_S);
+
+            CacheEntidades.estadisticasGlobales().forEach(System.out::println);
+
+            BusEventos.detenerSiIniciado();
+            VolcadoMetricas.detener();
+            DataBaseConnection.cerrarSiIniciada();
+
+        }, "cierre-servidor"));
+
+        servidor.iniciar();
+        System.out.println("API escuchando en http://" + servidor.direccion() + ":" + servidor.puerto() + "/api");
+
+        if (clave == null || clave.isBlank()) {
+            System.err.println("Sin API_CLAVE en el .env: las altas de la API están desactivadas");
+        }
+
+    }
+
+    /**
+     * Vacía las cachés de los DAO y los índices de disponibilidad y precios cuando cambian sus tablas, igual que
+     * hacen las ventanas de la aplicación de escritorio al refrescarse. Las reservas, que son las que más cambian,
+     * se leen por diferencias para descartar solo lo que ha cambiado.
+     */
+    private static void escucharCambios() {
+
+        marcaReservas = SeguimientoCambios.marcaActual();
+
+        // Sin hilo de JavaFX: los avisos se atienden en el hilo del propio bus
+        BusEventos bus = BusEventos.iniciar(Runnable::run);
+
+        bus.suscribir(EnumSet.allOf(TablaObservada.class), Servidor::olvidar);
+
+    }
+
+    private static void olvidar(Set<TablaObservada> tablas) {
+
+        if (tablas.contains(TablaObservada.CLIENTES)) {
+            ClienteDAO.invalidarCache();
+        }
+
+        if (tablas.contains(TablaObservada.PROPIEDADES)) {
+
+            PropiedadDAO.invalidarCache();
+            BuscadorDisponibilidad.getInstance().invalidarPropiedades();
+
+        }
+
+        if (tablas.contains(TablaObservada.RESERVAS)) {
+            leerCambiosReservas();
+        }
+
+        // La ocupación por ciudad que usan los precios se renueva sola cada MotorPrecios.VIGENCIA, como en la
+        // aplicación de escritorio: una reserva nueva no obliga a recompilar las tarifas
+        if (tablas.contains(TablaObservada.PROPIEDADES)) {
+            MotorPrecios.getInstance().olvidarTodas();
+        }
+
+        if (tablas.contains(TablaObservada.PAGOS)) {
+            PagoDAO.invalidarCache();
+        }
+
+        if (tablas.contains(TablaObservada.VALORACIONES)) {
+            ValoracionDAO.invalidarCache();
+        }
+    }
+
+    /**
+     * Aplica a la caché de reservas y a los índices de disponibilidad solo las reservas cambiadas desde el último
+     * aviso. {@link ReservaDAO#leerCambiosReservas} descarta los índices de las propiedades afectadas, salvo los que
+     * ya reflejan la reserva porque la escribió este servidor. Si la lectura falla, se descarta todo.
+     */
+    private static void leerCambiosReservas() {
+
+        try {
+
+            marcaReservas = RESERVAS.leerCambiosReservas(marcaReservas).marca();
+
+        } catch (RuntimeException e) {
+
+            System.err.println("No se han podido leer los cambios de reservas: " + e.getMessage());
+
+            ReservaDAO.invalidarTotales();
+            ReservaDAO.invalidarCache();
+            MotorDisponibilidad.getInstance().olvidarTodas();
+
+        }
+    }
+
+    private static int leerPuerto(String valor) {
+
+        if (valor == null || valor.isBlank()) {
+            return PUERTO_POR_DEFECTO;
+        }
+
+        try {
+
+            return Integer.parseInt(valor.trim());
+
+        } catch (NumberFormatException e) {
+
+            throw new IllegalStateException("Valor no numérico para API_PUERTO: " + valor);
+
+        }
+    }
+}
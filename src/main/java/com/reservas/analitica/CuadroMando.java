@@ -0,0 +1,67 @@
+package com.reservas.analitica;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <h1>Cuadro de mando</h1>
+ *
+ * Los indicadores de un periodo a los niveles que muestra el panel de analítica.
+ *
+ * @param detalle indicadores de cada propiedad en cada mes.
+ * @param porMes suma de todas las propiedades en cada mes, en orden cronológico.
+ * @param porPropiedad suma de todo el periodo para cada propiedad, de mayor a menor RevPAR.
+ * @param total suma de todas las propiedades en todo el periodo.
+ * @author Diego Regueira
+ * @since 17/10/2026
+ */
+public record CuadroMando(List<Indicadores> detalle, List<Indicadores> porMes, List<Indicadores> porPropiedad,
+                          Indicadores total) {
+
+    private static final String TODAS = "Todas";
+
+    /**
+     * Calcula los niveles agregados a partir del detalle por propiedad y mes.
+     *
+     * @param detalle indicadores de cada propiedad en cada mes.
+     * @return el cuadro de mando.
+     */
+    public static CuadroMando de(List<Indicadores> detalle) {
+
+        Map<YearMonth, Indicadores> meses = new TreeMap<>();
+        Map<Integer, Indicadores> propiedades = new LinkedHashMap<>();
+        Indicadores total = new Indicadores(0, TODAS, null, 0, 0, 0, 0);
+
+        for (Indicadores fila : detalle) {
+
+            meses.merge(fila.mes(), fila, (a, b) -> a.sumar(b, 0, TODAS, fila.mes()));
+            propiedades.merge(fila.idPropiedad(), fila, (a, b) -> a.sumar(b, fila.idPropiedad(), fila.propiedad(), null));
+            total = total.sumar(fila, 0, TODAS, null);
+
+        }
+
+        // Una propiedad con un solo mes sigue teniendo ese mes; el resumen del periodo no lo lleva
+        List<Indicadores> porPropiedad = new ArrayList<>();
+
+        for (Indicadores p : propiedades.values()) {
+            porPropiedad.add(new Indicadores(p.idPropiedad(), p.propiedad(), null, p.nochesDisponibles(),
+                    p.nochesVendidas(), p.ingresos(), p.cobrado()));
+        }
+
+        porPropiedad.sort(Comparator.comparingDouble(Indicadores::revpar).reversed()
+                .thenComparingInt(Indicadores::idPropiedad));
+
+        List<Indicadores> porMes = new ArrayList<>();
+
+        for (Indicadores m : meses.values()) {
+            porMes.add(new Indicadores(0, TODAS, m.mes(), m.nochesDisponibles(), m.nochesVendidas(), m.ingresos(), m.cobrado()));
+        }
+
+        return new CuadroMando(List.copyOf(detalle), List.copyOf(porMes), List.copyOf(porPropiedad), total);
+    }
+}
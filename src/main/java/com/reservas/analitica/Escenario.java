@@ -0,0 +1,61 @@
+package com.reservas.analitica;
+
+/**
+ * <h1>Escenario de simulación</h1>
+ *
+ * Supuestos de un análisis «¿y si...?» sobre las reservas del periodo.
+ *
+ * <h2>Cómo se aplican:</h2>
+ * <ul>
+ *     <li>La tarifa de todas las noches cambia en {@code variacionTarifa} (0,10 = un 10 % más cara).</li>
+ *     <li>Las noches vendidas cambian en {@code -elasticidad × variacionTarifa}: con elasticidad 1, subir
+ *     un 10 % la tarifa hace perder un 10 % de las noches.</li>
+ *     <li>Después se pierde además la fracción {@code cancelaciones} de las noches que quedan.</li>
+ *     <li>Con {@code soloConfirmadas} las reservas {@code pendiente} no cuentan.</li>
+ * </ul>
+ * Las noches que añade un escenario nunca llevan la ocupación de una propiedad y mes por encima del 100 %.
+ * Lo cobrado no cambia: son pagos ya hechos.
+ *
+ * @param variacionTarifa cambio relativo de la tarifa, mayor que -1.
+ * @param elasticidad sensibilidad de la demanda al precio, 0 o mayor.
+ * @param cancelaciones fracción de noches que se cancelan, entre 0 y 1.
+ * @param soloConfirmadas si solo cuentan las reservas confirmadas.
+ * @author Diego Regueira
+ * @since 17/10/2026
+ */
+public record Escenario(double variacionTarifa, double elasticidad, double cancelaciones, boolean soloConfirmadas) {
+
+    /**
+     * La situación real: reservas confirmadas y pendientes, sin cambios.
+     */
+    public static final Escenario ACTUAL = new Escenario(0, 0, 0, false);
+
+    public Escenario {
+
+        if (!(variacionTarifa > -1)) {
+            throw new IllegalArgumentException("La variación de tarifa debe ser mayor que -100 %: " + variacionTarifa);
+        }
+
+        if (!(elasticidad >= 0)) {
+            throw new IllegalArgumentException("La elasticidad no puede ser negativa: " + elasticidad);
+        }
+
+        if (!(cancelaciones >= 0 && cancelaciones <= 1)) {
+            throw new IllegalArgumentException("Las cancelaciones deben estar entre 0 y 1: " + cancelaciones);
+        }
+    }
+
+    /**
+     * @return factor por el que se multiplican las noches vendidas.
+     */
+    public double factorNoches() {
+        return Math.max(0, 1 - elasticidad * variacionTarifa) * (1 - cancelaciones);
+    }
+
+    /**
+     * @return factor por el que se multiplica la tarifa de cada noche.
+     */
+    public double factorTarifa() {
+        return 1 + variacionTarifa;
+    }
+}
@@ -0,0 +1,70 @@
+package com.reservas.analitica;
+
+import java.time.YearMonth;
+
+/**
+ * <h1>Indicadores de ocupación e ingresos</h1>
+ *
+ * Ocupación e ingresos de una propiedad en un mes, o la suma de varias propiedades o varios meses.
+ * <p>
+ * Las noches vendidas y los ingresos salen de las reservas {@code confirmada} y {@code pendiente}: el precio total de
+ * cada reserva se reparte a partes iguales entre sus noches, y cada mes se queda con las noches que caen en él.
+ * Lo cobrado son los pagos {@code completado} del mes, según su fecha de pago.
+ * </p>
+ *
+ * @param idPropiedad identificador de la propiedad, o {@code 0} si suma varias.
+ * @param propiedad nombre de la propiedad, o una etiqueta si suma varias.
+ * @param mes mes de los indicadores, o {@code null} si suman todo el periodo.
+ * @param nochesDisponibles noches que la propiedad podía venderse (días del mes por propiedad).
+ * @param nochesVendidas noches ocupadas por reservas.
+ * @param ingresos parte del precio de las reservas que corresponde a esas noches.
+ * @param cobrado importe de los pagos completados.
+ * @author Diego Regueira
+ * @since 17/10/2026
+ */
+public record Indicadores(int idPropiedad, String propiedad, YearMonth mes, long nochesDisponibles,
+                          double nochesVendidas, double ingresos, double cobrado) {
+
+    /**
+     * @return tasa de ocupación, entre 0 y 1: noches vendidas entre noches disponibles.
+     */
+    public double ocupacion() {
+        return nochesDisponibles == 0 ? 0 : nochesVendidas / nochesDisponibles;
+    }
+
+    /**
+     * @return ADR (tarifa media diaria): ingresos por noche vendida.
+     */
+    public double adr() {
+        return nochesVendidas == 0 ? 0 : ingresos / nochesVendidas;
+    }
+
+    /**
+     * @return RevPAR: ingresos por noche disponible, es decir, la ocupación por el ADR.
+     */
+    public double revpar() {
+        return nochesDisponibles == 0 ? 0 : ingresos / nochesDisponibles;
+    }
+
+    /**
+     * Suma estos indicadores con otros. Las tasas se recalculan a partir de las sumas, no se promedian.
+     *
+     * @param otros indicadores a sumar.
+     * @param idPropiedad identificador del resultado.
+     * @param propiedad nombre o etiqueta del resultado.
+     * @param mes mes del resultado, o {@code null}.
+     * @return la suma.
+     */
+    Indicadores sumar(Indicadores otros, int idPropiedad, String propiedad, YearMonth mes) {
+
+        return new Indicadores(idPropiedad, propiedad, mes, nochesDisponibles + otros.nochesDisponibles,
+                nochesVendidas + otros.nochesVendidas, ingresos + otros.ingresos, cobrado + otros.cobrado);
+
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s: ocupación %.1f %% · ADR %.2f € · RevPAR %.2f € · ingresos %.2f € · cobrado %.2f €",
+                propiedad, mes == null ? "" : mes, ocupacion() * 100, adr(), revpar(), ingresos, cobrado);
+    }
+}
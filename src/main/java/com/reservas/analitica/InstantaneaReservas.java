@@ -0,0 +1,282 @@
+package com.reservas.analitica;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <h1>Instantánea de reservas por columnas</h1>
+ *
+ * Copia en memoria de las reservas activas y los cobros de un periodo, guardada por columnas en arrays de tipos
+ * primitivos en lugar de como una lista de {@link com.reservas.model.Reserva}.
+ * <p>
+ * Cada columna es un array contiguo, así que recorrer una columna entera no persigue punteros ni crea objetos,
+ * y las simulaciones pueden repartir las posiciones entre varios hilos sin copiar nada.
+ * Una vez construida es inmutable.
+ * </p>
+ *
+ * <h2>Columnas:</h2>
+ * <ul>
+ *     <li>Propiedades: identificador y nombre.</li>
+ *     <li>Reservas: posición de su propiedad, día de entrada y de salida (días desde la época), tarifa por noche
+ *     y si está pendiente.</li>
+ *     <li>Cobros: importe completado por propiedad y mes, en un array de propiedades × meses.</li>
+ * </ul>
+ *
+ * @author Diego Regueira
+ * @since 17/10/2026
+ */
+public final class InstantaneaReservas {
+
+    private final YearMonth desde;
+    private final int meses;
+    private final int[] limitesMeses;
+
+    private final int[] idsPropiedad;
+    private final String[] nombres;
+
+    private final int[] propiedad;
+    private final int[] inicio;
+    private final int[] fin;
+    private final double[] tarifa;
+    private final boolean[] pendiente;
+
+    private final double[] cobrado;
+
+    private InstantaneaReservas(Constructor c) {
+
+        this.desde = c.desde;
+        this.meses = c.meses;
+        this.limitesMeses = new int[meses + 1];
+
+        for (int m = 0; m <= meses; m++) {
+            limitesMeses[m] = (int) desde.plusMonths(m).atDay(1).toEpochDay();
+        }
+
+        this.idsPropiedad = Arrays.copyOf(c.idsPropiedad, c.numPropiedades);
+        this.nombres = Arrays.copyOf(c.nombres, c.numPropiedades);
+        this.propiedad = Arrays.copyOf(c.propiedad, c.numReservas);
+        this.inicio = Arrays.copyOf(c.inicio, c.numReservas);
+        this.fin = Arrays.copyOf(c.fin, c.numReservas);
+        this.tarifa = Arrays.copyOf(c.tarifa, c.numReservas);
+        this.pendiente = Arrays.copyOf(c.pendiente, c.numReservas);
+        this.cobrado = new double[c.numPropiedades * meses];
+
+        for (int i = 0; i < c.numCobros; i++) {
+            cobrado[c.cobroPropiedad[i] * meses + c.cobroMes[i]] += c.cobroImporte[i];
+        }
+    }
+
+    /**
+     * Crea un constructor para el periodo indicado.
+     *
+     * @param desde primer mes.
+     * @param hasta último mes, incluido.
+     * @return el constructor vacío.
+     * @throws IllegalArgumentException si el último mes es anterior al primero.
+     */
+    public static Constructor constructor(YearMonth desde, YearMonth hasta) {
+        return new Constructor(desde, hasta);
+    }
+
+    public YearMonth desde() {
+        return desde;
+    }
+
+    public int meses() {
+        return meses;
+    }
+
+    public YearMonth mes(int m) {
+        return desde.plusMonths(m);
+    }
+
+    /**
+     * @return días desde la época en que empieza cada mes del periodo, más el día siguiente al último.
+     */
+    int[] limitesMeses() {
+        return limitesMeses;
+    }
+
+    public int propiedades() {
+        return idsPropiedad.length;
+    }
+
+    public int idPropiedad(int p) {
+        return idsPropiedad[p];
+    }
+
+    public String nombrePropiedad(int p) {
+        return nombres[p];
+    }
+
+    public int reservas() {
+        return propiedad.length;
+    }
+
+    int propiedadDe(int r) {
+        return propiedad[r];
+    }
+
+    int inicio(int r) {
+        return inicio[r];
+    }
+
+    int fin(int r) {
+        return fin[r];
+    }
+
+    double tarifa(int r) {
+        return tarifa[r];
+    }
+
+    boolean pendiente(int r) {
+        return pendiente[r];
+    }
+
+    double cobrado(int p, int m) {
+        return cobrado[p * meses + m];
+    }
+
+    /**
+     * <h1>Constructor de la instantánea</h1>
+     * Va añadiendo filas a las columnas, que crecen al doble cuando se llenan. No es seguro entre hilos.
+     */
+    public static final class Constructor {
+
+        private final YearMonth desde;
+        private final int meses;
+        private final Map<Integer, Integer> posiciones = new HashMap<>();
+
+        private int numPropiedades;
+        private int[] idsPropiedad = new int[64];
+        private String[] nombres = new String[64];
+
+        private int numReservas;
+        private int[] propiedad = new int[1024];
+        private int[] inicio = new int[1024];
+        private int[] fin = new int[1024];
+        private double[] tarifa = new double[1024];
+        private boolean[] pendiente = new boolean[1024];
+
+        private int numCobros;
+        private int[] cobroPropiedad = new int[256];
+        private int[] cobroMes = new int[256];
+        private double[] cobroImporte = new double[256];
+
+        private Constructor(YearMonth desde, YearMonth hasta) {
+
+            if (hasta.isBefore(desde)) {
+                throw new IllegalArgumentException("El último mes no puede ser anterior al primero: " + desde + " - " + hasta);
+            }
+
+            this.desde = desde;
+            this.meses = (int) desde.until(hasta, ChronoUnit.MONTHS) + 1;
+
+        }
+
+        /**
+         * Añade una propiedad. Las reservas y cobros de propiedades no añadidas se ignoran.
+         *
+         * @param id identificador de la propiedad.
+         * @param nombre nombre de la propiedad.
+         * @return este constructor.
+         */
+        public Constructor propiedad(int id, String nombre) {
+
+            if (numPropiedades == idsPropiedad.length) {
+
+                idsPropiedad = Arrays.copyOf(idsPropiedad, numPropiedades * 2);
+                nombres = Arrays.copyOf(nombres, numPropiedades * 2);
+
+            }
+
+            posiciones.put(id, numPropiedades);
+            idsPropiedad[numPropiedades] = id;
+            nombres[numPropiedades++] = nombre;
+
+            return this;
+        }
+
+        /**
+         * Añade una reserva activa. El precio total se reparte a partes iguales entre sus noches.
+         *
+         * @param idPropiedad propiedad reservada.
+         * @param entrada día de entrada.
+         * @param salida día de salida (su noche no cuenta).
+         * @param precioTotal precio de toda la estancia.
+         * @param esPendiente si la reserva está pendiente de confirmar.
+         * @return este constructor.
+         */
+        public Constructor reserva(int idPropiedad, LocalDate entrada, LocalDate salida, double precioTotal, boolean esPendiente) {
+
+            Integer p = posiciones.get(idPropiedad);
+            long noches = salida.toEpochDay() - entrada.toEpochDay();
+
+            if (p == null || noches <= 0) {
+                return this;
+            }
+
+            if (numReservas == propiedad.length) {
+
+                int capacidad = numReservas * 2;
+                propiedad = Arrays.copyOf(propiedad, capacidad);
+                inicio = Arrays.copyOf(inicio, capacidad);
+                fin = Arrays.copyOf(fin, capacidad);
+                tarifa = Arrays.copyOf(tarifa, capacidad);
+                pendiente = Arrays.copyOf(pendiente, capacidad);
+
+            }
+
+            propiedad[numReservas] = p;
+            inicio[numReservas] = (int) entrada.toEpochDay();
+            fin[numReservas] = (int) salida.toEpochDay();
+            tarifa[numReservas] = precioTotal / noches;
+            pendiente[numReservas++] = esPendiente;
+
+            return this;
+        }
+
+        /**
+         * Añade lo cobrado de una propiedad en un mes. Los meses fuera del periodo se ignoran.
+         *
+         * @param idPropiedad propiedad de la reserva pagada.
+         * @param mes mes del pago.
+         * @param importe importe cobrado.
+         * @return este constructor.
+         */
+        public Constructor cobro(int idPropiedad, YearMonth mes, double importe) {
+
+            Integer p = posiciones.get(idPropiedad);
+            long m = desde.until(mes, ChronoUnit.MONTHS);
+
+            if (p == null || m < 0 || m >= meses) {
+                return this;
+            }
+
+            if (numCobros == cobroPropiedad.length) {
+
+                cobroPropiedad = Arrays.copyOf(cobroPropiedad, numCobros * 2);
+                cobroMes = Arrays.copyOf(cobroMes, numCobros * 2);
+                cobroImporte = Arrays.copyOf(cobroImporte, numCobros * 2);
+
+            }
+
+            cobroPropiedad[numCobros] = p;
+            cobroMes[numCobros] = (int) m;
+            cobroImporte[numCobros++] = importe;
+
+            return this;
+        }
+
+        /**
+         * @return la instantánea con las filas añadidas hasta ahora.
+         */
+        public InstantaneaReservas construir() {
+            return new InstantaneaReservas(this);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.reservas.analitica;
+
+import com.reservas.dao.AnaliticaDAO;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+/**
+ * <h1>Motor de analítica de ocupación e ingresos</h1>
+ *
+ * Calcula la ocupación, el ADR y el RevPAR de cada propiedad y mes, y simula cómo cambiarían con otros supuestos.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>Los indicadores reales se calculan en la base de datos con una consulta de agregación
+ *     ({@link AnaliticaDAO#leerIndicadores}): solo viaja una fila por propiedad y mes.</li>
+ *     <li>Para las simulaciones se carga una vez una {@link InstantaneaReservas} del periodo, y cada
+ *     {@link Escenario} se calcula sobre ella en memoria, sin volver a consultar.</li>
+ *     <li>La simulación recorre las columnas de reservas con un stream paralelo: cada hilo acumula noches e
+ *     ingresos en sus propios arrays de propiedades × meses, y al final se suman.</li>
+ * </ul>
+ * Con {@link Escenario#ACTUAL} la simulación da los mismos indicadores que la consulta.
+ *
+ * @author Diego Regueira
+ * @since 17/10/2026
+ */
+public class MotorAnalitica {
+
+    // Un periodo más largo no cabe en el panel y dispararía el tamaño de la instantánea
+    static final int MAX_MESES = 120;
+
+    private static volatile MotorAnalitica instancia;
+
+    private final BiFunction<YearMonth, YearMonth, List<Indicadores>> consulta;
+    private final BiFunction<YearMonth, YearMonth, InstantaneaReservas> cargador;
+
+    /**
+     * Crea un motor que obtiene los datos con las funciones indicadas.
+     *
+     * @param consulta función que calcula los indicadores reales de un periodo.
+     * @param cargador función que carga la instantánea de un periodo.
+     */
+    public MotorAnalitica(BiFunction<YearMonth, YearMonth, List<Indicadores>> consulta,
+                          BiFunction<YearMonth, YearMonth, InstantaneaReservas> cargador) {
+
+        this.consulta = consulta;
+        this.cargador = cargador;
+
+    }
+
+    /**
+     * Devuelve el motor compartido por la aplicación, que lee los datos mediante {@link AnaliticaDAO}.
+     *
+     * @return la instancia única del motor.
+     */
+    public static MotorAnalitica getInstance() {
+
+        if (instancia == null) {
+
+            synchronized (MotorAnalitica.class) {
+
+                if (instancia == null) {
+
+                    AnaliticaDAO dao = new AnaliticaDAO();
+                    instancia = new MotorAnalitica(dao::leerIndicadores, dao::leerInstantanea);
+
+                }
+            }
+        }
+
+        return instancia;
+    }
+
+    /**
+     * Calcula en la base de datos los indicadores reales del periodo.
+     *
+     * @param desde primer mes.
+     * @param hasta último mes, incluido.
+     * @return el cuadro de mando del periodo.
+     * @throws IllegalArgumentException si el periodo no es válido.
+     */
+    public CuadroMando indicadores(YearMonth desde, YearMonth hasta) {
+
+        comprobarPeriodo(desde, hasta);
+        return CuadroMando.de(consulta.apply(desde, hasta));
+
+    }
+
+    /**
+     * Carga las reservas y cobros del periodo para simular escenarios sobre ellos.
+     *
+     * @param desde primer mes.
+     * @param hasta último mes, incluido.
+     * @return la instantánea del periodo.
+     * @throws IllegalArgumentException si el periodo no es válido.
+     */
+    public InstantaneaReservas instantanea(YearMonth desde, YearMonth hasta) {
+
+        comprobarPeriodo(desde, hasta);
+        return cargador.apply(desde, hasta);
+
+    }
+
+    /**
+     * Calcula los indicadores que habría con los supuestos del escenario. No consulta la base de datos.
+     *
+     * @param datos instantánea del periodo.
+     * @param escenario supuestos a aplicar.
+     * @return el cuadro de mando simulado.
+     */
+    public static CuadroMando simular(InstantaneaReservas datos, Escenario escenario) {
+
+        int meses = datos.meses();
+        int celdas = datos.propiedades() * meses;
+        int[] limites = datos.limitesMeses();
+
+        Acumulador acumulado = IntStream.range(0, datos.reservas())
+                .parallel()
+                .filter(r -> !escenario.soloConfirmadas() || !datos.pendiente(r))
+                .collect(() -> new Acumulador(celdas), (a, r) -> a.sumar(datos, r, limites), Acumulador::combinar);
+
+        double factorNoches = escenario.factorNoches();
+        double factorTarifa = escenario.factorTarifa();
+        List<Indicadores> detalle = new ArrayList<>(celdas);
+
+        for (int p = 0; p < datos.propiedades(); p++) {
+
+            for (int m = 0; m < meses; m++) {
+
+                int celda = p * meses + m;
+                long disponibles = limites[m + 1] - limites[m];
+                double noches = acumulado.noches[celda];
+                // Las noches que el escenario añade no pueden pasar de las disponibles
+                double vendidas = Math.min(noches * factorNoches, Math.max(noches, disponibles));
+
+                // Las noches que se pierden o se ganan lo hacen con la tarifa media de la celda
+                double ingresos = noches == 0 ? 0 : acumulado.ingresos[celda] * (vendidas / noches) * factorTarifa;
+
+                detalle.add(new Indicadores(datos.idPropiedad(p), datos.nombrePropiedad(p), datos.mes(m), disponibles,
+                        vendidas, ingresos, datos.cobrado(p, m)));
+
+            }
+        }
+
+        return CuadroMando.de(detalle);
+    }
+
+    private static void comprobarPeriodo(YearMonth desde, YearMonth hasta) {
+
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("El último mes no puede ser anterior al primero: " + desde + " - " + hasta);
+        }
+
+        if (desde.until(hasta, ChronoUnit.MONTHS) >= MAX_MESES) {
+            throw new IllegalArgumentException("El periodo no puede superar " + MAX_MESES + " meses");
+        }
+    }
+
+    /**
+     * Noches e ingresos por propiedad y mes que acumula cada hilo de la simulación.
+     */
+    private static final class Acumulador {
+
+        private final double[] noches;
+        private final double[] ingresos;
+
+        Acumulador(int celdas) {
+
+            this.noches = new double[celdas];
+            this.ingresos = new double[celdas];
+
+        }
+
+        /**
+         * Reparte las noches de una reserva entre los meses del periodo en que caen.
+         */
+        void sumar(InstantaneaReservas datos, int r, int[] limites) {
+
+            int inicio = datos.inicio(r);
+            int fin = datos.fin(r);
+            int meses = limites.length - 1;
+
+            // Primer mes que termina después del día de entrada
+            int m = Arrays.binarySearch(limites, inicio);
+            m = m >= 0 ? m : -m - 2;
+            m = Math.max(m, 0);
+
+            int base = datos.propiedadDe(r) * meses;
+            double tarifa = datos.tarifa(r);
+
+            for (; m < meses && limites[m] < fin; m++) {
+
+                int enMes = Math.min(fin, limites[m + 1]) - Math.max(inicio, limites[m]);
+
+                if (enMes > 0) {
+
+                    noches[base + m] += enMes;
+                    ingresos[base + m] += enMes * tarifa;
+
+                }
+            }
+        }
+
+        void combinar(Acumulador otro) {
+
+            for (int i = 0; i < noches.length; i++) {
+
+                noches[i] += otro.noches[i];
+                ingresos[i] += otro.ingresos[i];
+
+            }
+        }
+    }
+}
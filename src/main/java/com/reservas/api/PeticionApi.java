@@ -0,0 +1,366 @@
+package com.reservas.api;
+
+import com.reservas.io.EscritorJSON;
+import com.reservas.io.LectorJSON;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <h1>Petición a la API</h1>
+ *
+ * Envuelve un {@link HttpExchange} con lo que necesita cada recurso: los parámetros de la ruta y de la URL, el
+ * cuerpo JSON y la respuesta.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>Los parámetros de la ruta (<code>/api/reservas/{id}</code>), los del cuerpo y los de la URL se leen como
+ *     texto y se convierten con {@link #entero}, {@link #fecha} o {@link #texto}. Un valor que falta o no es
+ *     válido lanza {@link IllegalArgumentException}, que el servidor responde con un 400.</li>
+ *     <li>{@link #responder(int, Consumer)} escribe el JSON directamente en la conexión, con un búfer y
+ *     comprimido con gzip si el cliente lo acepta, sin montar la respuesta en memoria.</li>
+ * </ul>
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public class PeticionApi {
+
+    /** Tamaño máximo del cuerpo de una petición. */
+    public static final int MAX_CUERPO = 64 * 1024;
+
+    private static final int TAM_BUFFER = 16 * 1024;
+
+    private final HttpExchange intercambio;
+    private final Map<String, String> ruta;
+    private final Map<String, String> consulta;
+
+    private Map<String, String> cuerpo;
+    private int estado = 0;
+
+    /**
+     * @param intercambio petición recibida por el servidor.
+     * @param ruta parámetros sacados de la ruta.
+     */
+    PeticionApi(HttpExchange intercambio, Map<String, String> ruta) {
+
+        this.intercambio = intercambio;
+        this.ruta = ruta;
+        this.consulta = leerConsulta(intercambio.getRequestURI().getRawQuery());
+
+    }
+
+    /**
+     * @return método HTTP de la petición.
+     */
+    public String metodo() {
+        return intercambio.getRequestMethod();
+    }
+
+    /**
+     * @return código de estado enviado, o {@code 0} si todavía no se ha respondido.
+     */
+    public int estado() {
+        return estado;
+    }
+
+    /**
+     * Devuelve un parámetro de la ruta, del cuerpo o de la URL, por ese orden. El cuerpo va antes que la URL para
+     * que un parámetro añadido a la URL de un {@code POST}, como <code>?monto=</code>, no sustituya al del cuerpo.
+     *
+     * @param nombre nombre del parámetro.
+     * @return su valor, o {@code null} si no viene o está vacío.
+     */
+    public String texto(String nombre) {
+
+        String valor = ruta.get(nombre);
+
+        if (valor == null && cuerpo != null) {
+            valor = cuerpo.get(nombre);
+        }
+
+        if (valor == null) {
+            valor = consulta.get(nombre);
+        }
+
+        return valor == null || valor.isBlank() ? null : valor;
+    }
+
+    /**
+     * @param nombre nombre del parámetro.
+     * @return su valor.
+     * @throws IllegalArgumentException si no viene.
+     */
+    public String textoObligatorio(String nombre) {
+
+        String valor = texto(nombre);
+
+        if (valor == null) {
+            throw new IllegalArgumentException("Falta el parámetro " + nombre);
+        }
+
+        return valor;
+    }
+
+    /**
+     * @param nombre nombre del parámetro.
+     * @return su valor como entero.
+     * @throws IllegalArgumentException si no viene o no es un entero.
+     */
+    public int entero(String nombre) {
+        return convertirEntero(nombre, textoObligatorio(nombre));
+    }
+
+    /**
+     * @param nombre nombre del parámetro.
+     * @param porDefecto valor si no viene.
+     * @return su valor como entero, o {@code porDefecto}.
+     * @throws IllegalArgumentException si no es un entero.
+     */
+    public int entero(String nombre, int porDefecto) {
+
+        String valor = texto(nombre);
+        return valor == null ? porDefecto : convertirEntero(nombre, valor);
+
+    }
+
+    /**
+     * @param nombre nombre del parámetro.
+     * @return su valor como número, o {@code null} si no viene.
+     * @throws IllegalArgumentException si no es un número.
+     */
+    public Double decimal(String nombre) {
+
+        String valor = texto(nombre);
+
+        if (valor == null) {
+            return null;
+        }
+
+        try {
+
+            return Double.valueOf(valor);
+
+        } catch (NumberFormatException e) {
+
+            throw new IllegalArgumentException("El parámetro " + nombre + " debe ser un número: " + valor);
+
+        }
+    }
+
+    /**
+     * @param nombre nombre del parámetro.
+     * @return su valor como fecha {@code aaaa-mm-dd}.
+     * @throws IllegalArgumentException si no viene o no es una fecha.
+     */
+    public LocalDate fecha(String nombre) {
+        return convertirFecha(nombre, textoObligatorio(nombre));
+    }
+
+    /**
+     * @param nombre nombre del parámetro.
+     * @param porDefecto valor si no viene.
+     * @return su valor como fecha {@code aaaa-mm-dd}, o {@code porDefecto}.
+     * @throws IllegalArgumentException si no es una fecha.
+     */
+    public LocalDate fecha(String nombre, LocalDate porDefecto) {
+
+        String valor = texto(nombre);
+        return valor == null ? porDefecto : convertirFecha(nombre, valor);
+
+    }
+
+    /**
+     * @param tipo enumerado del valor.
+     * @param nombre nombre del parámetro.
+     * @param porDefecto valor si no viene, o {@code null} si es obligatorio.
+     * @param <E> tipo del enumerado.
+     * @return su valor como constante del enumerado, sin distinguir mayúsculas.
+     * @throws IllegalArgumentException si no viene y es obligatorio, o no es un valor del enumerado.
+     */
+    public <E extends Enum<E>> E enumerado(Class<E> tipo, String nombre, E porDefecto) {
+
+        String valor = porDefecto == null ? textoObligatorio(nombre) : texto(nombre);
+
+        if (valor == null) {
+            return porDefecto;
+        }
+
+        try {
+
+            return Enum.valueOf(tipo, valor.toUpperCase(Locale.ROOT));
+
+        } catch (IllegalArgumentException e) {
+
+            throw new IllegalArgumentException("Valor no válido para " + nombre + ": " + valor);
+
+        }
+    }
+
+    /**
+     * Lee el cuerpo de la petición como un objeto JSON plano, cuyos campos quedan disponibles como parámetros.
+     *
+     * @throws IllegalArgumentException si el cuerpo no es un objeto JSON plano o supera {@link #MAX_CUERPO}.
+     * @throws UncheckedIOException si no se puede leer.
+     */
+    public void leerCuerpo() {
+
+        try (InputStream entrada = intercambio.getRequestBody()) {
+
+            byte[] bytes = entrada.readNBytes(MAX_CUERPO + 1);
+
+            if (bytes.length > MAX_CUERPO) {
+                throw new IllegalArgumentException("El cuerpo supera los " + MAX_CUERPO + " bytes");
+            }
+
+            cuerpo = LectorJSON.leerObjetoPlano(new String(bytes, StandardCharsets.UTF_8));
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Responde con un documento JSON que se escribe directamente en la conexión.
+     *
+     * @param estado código de estado HTTP.
+     * @param contenido escribe el documento.
+     * @throws UncheckedIOException si se pierde la conexión.
+     */
+    public void responder(int estado, Consumer<EscritorJSON> contenido) {
+
+        boolean gzip = aceptaGzip();
+
+        intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+
+        if (gzip) {
+            intercambio.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+
+        try {
+
+            // Longitud 0: la respuesta se envía por trozos a medida que se escribe
+            intercambio.sendResponseHeaders(estado, 0);
+            this.estado = estado;
+
+            OutputStream cuerpoRespuesta = intercambio.getResponseBody();
+
+            if (gzip) {
+                cuerpoRespuesta = new GZIPOutputStream(cuerpoRespuesta, TAM_BUFFER);
+            }
+
+            try (Writer salida = new BufferedWriter(new OutputStreamWriter(cuerpoRespuesta, StandardCharsets.UTF_8),
+                    TAM_BUFFER)) {
+
+                contenido.accept(new EscritorJSON(salida));
+
+            }
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Responde con un mensaje de error.
+     *
+     * @param estado código de estado HTTP.
+     * @param mensaje descripción del error.
+     */
+    public void responderError(int estado, String mensaje) {
+
+        responder(estado, json -> json.abrirObjeto().campo("error", mensaje).cerrarObjeto());
+
+    }
+
+    /**
+     * Responde sin cuerpo, por ejemplo a un método no permitido.
+     *
+     * @param estado código de estado HTTP.
+     * @param cabeceras cabeceras que se añaden a la respuesta.
+     */
+    void responderVacio(int estado, Map<String, String> cabeceras) {
+
+        cabeceras.forEach(intercambio.getResponseHeaders()::set);
+
+        try {
+
+            intercambio.sendResponseHeaders(estado, -1);
+            this.estado = estado;
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean aceptaGzip() {
+
+        String aceptadas = intercambio.getRequestHeaders().getFirst("Accept-Encoding");
+        return aceptadas != null && aceptadas.toLowerCase(Locale.ROOT).contains("gzip");
+
+    }
+
+    private static int convertirEntero(String nombre, String valor) {
+
+        try {
+
+            return Integer.parseInt(valor);
+
+        } catch (NumberFormatException e) {
+
+            throw new IllegalArgumentException("El parámetro " + nombre + " debe ser un entero: " + valor);
+
+        }
+    }
+
+    private static LocalDate convertirFecha(String nombre, String valor) {
+
+        try {
+
+            return LocalDate.parse(valor);
+
+        } catch (DateTimeParseException e) {
+
+            throw new IllegalArgumentException("El parámetro " + nombre + " debe ser una fecha aaaa-mm-dd: " + valor);
+
+        }
+    }
+
+    private static Map<String, String> leerConsulta(String consulta) {
+
+        if (consulta == null || consulta.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, String> parametros = new HashMap<>();
+
+        for (String par : consulta.split("&")) {
+
+            int igual = par.indexOf('=');
+
+            String nombre = URLDecoder.decode(igual < 0 ? par : par.substring(0, igual), StandardCharsets.UTF_8);
+            String valor = igual < 0 ? "" : URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8);
+
+            parametros.putIfAbsent(nombre, valor);
+
+        }
+
+        return Collections.unmodifiableMap(parametros);
+    }
+}
@@ -0,0 +1,387 @@
+package com.reservas.api;
+
+import com.reservas.dao.ClienteDAO;
+import com.reservas.dao.PagoDAO;
+import com.reservas.dao.PropiedadDAO;
+import com.reservas.dao.ReservaDAO;
+import com.reservas.dao.ValoracionDAO;
+import com.reservas.disponibilidad.CriteriosBusqueda;
+import com.reservas.disponibilidad.ResultadoBusqueda;
+import com.reservas.io.EscritorJSON;
+import com.reservas.metricas.VolcadoMetricas;
+import com.reservas.model.Cliente;
+import com.reservas.model.Pago;
+import com.reservas.model.Propiedad;
+import com.reservas.model.Reserva;
+import com.reservas.model.Valoracion;
+import com.reservas.precios.Presupuesto;
+import com.reservas.service.ServicioPagos;
+import com.reservas.service.ServicioReservas;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * <h1>Recursos de la API</h1>
+ *
+ * Rutas REST de clientes, propiedades, reservas, pagos y valoraciones, más la disponibilidad, los presupuestos y
+ * las métricas. Las lecturas van a los DAO y las altas de reservas y pagos a la capa de servicio, con las mismas
+ * comprobaciones que la aplicación de escritorio.
+ *
+ * <h2>Rutas:</h2>
+ * <ul>
+ *     <li><code>GET /api/{recurso}</code>: página ordenada por ID, con <code>despues_de</code> (último ID de la
+ *     página anterior) y <code>limite</code> (hasta {@value #LIMITE_MAXIMO}). La respuesta trae en
+ *     <code>siguiente</code> el valor de <code>despues_de</code> para la página siguiente, o {@code null} si no
+ *     hay más.</li>
+ *     <li><code>GET /api/{recurso}/{id}</code>: una fila, o 404.</li>
+ *     <li><code>POST /api/clientes</code>, <code>/api/reservas</code> y <code>/api/pagos</code>: alta con un
+ *     cuerpo JSON; responden 201 con la fila creada.</li>
+ *     <li><code>GET /api/disponibilidad</code>, <code>/api/propiedades/{id}/presupuesto</code> y
+ *     <code>/api/propiedades/{id}/hueco</code>: búsqueda, precio y primer hueco libre. El
+ *     <code>precio_total</code> de la búsqueda es el mismo que el <code>total</code> del presupuesto y que el
+ *     precio con el que <code>POST /api/reservas</code> guarda la reserva.</li>
+ *     <li><code>GET /api/metricas</code>: tiempos de las consultas y de las peticiones, en JSON.</li>
+ * </ul>
+ * Los nombres de los campos son los de las columnas de la base de datos y las fechas van en formato
+ * <code>aaaa-mm-dd</code>.
+ *
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+public class RecursosApi {
+
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    private static final int MAX_RESULTADOS_BUSQUEDA = 100;
+    private static final int DIAS_HUECO = 365;
+
+    private final ClienteDAO clienteDAO = new ClienteDAO();
+    private final PropiedadDAO propiedadDAO = new PropiedadDAO();
+    private final ReservaDAO reservaDAO = new ReservaDAO();
+    private final PagoDAO pagoDAO = new PagoDAO();
+    private final ValoracionDAO valoracionDAO = new ValoracionDAO();
+
+    private final ServicioReservas reservas;
+    private final ServicioPagos pagos;
+
+    /**
+     * @param reservas servicio de reservas.
+     * @param pagos servicio de pagos.
+     */
+    public RecursosApi(ServicioReservas reservas, ServicioPagos pagos) {
+
+        this.reservas = reservas;
+        this.pagos = pagos;
+
+    }
+
+    /**
+     * Registra todas las rutas en un servidor.
+     *
+     * @param servidor servidor que las atenderá.
+     */
+    public void registrar(ServidorApi servidor) {
+
+        servidor.ruta("GET", "/api/clientes", p -> pagina(p, clienteDAO::leerClientesPagina, Cliente::getIdCliente,
+                        RecursosApi::escribirCliente))
+                .ruta("GET", "/api/clientes/{id}", p -> fila(p, "el cliente",
+                        id -> porId(clienteDAO::leerClientesPagina, Cliente::getIdCliente, id),
+                        RecursosApi::escribirCliente))
+                .ruta("POST", "/api/clientes", this::crearCliente)
+
+                .ruta("GET", "/api/propiedades", p -> pagina(p, propiedadDAO::leerPropiedadesPagina,
+                        Propiedad::getIdPropiedad, RecursosApi::escribirPropiedad))
+                .ruta("GET", "/api/propiedades/{id}", p -> fila(p, "la propiedad", propiedadDAO::buscarPropiedadPorId,
+                        RecursosApi::escribirPropiedad))
+                .ruta("GET", "/api/propiedades/{id}/presupuesto", this::presupuestar)
+                .ruta("GET", "/api/propiedades/{id}/hueco", this::buscarHueco)
+                .ruta("GET", "/api/disponibilidad", this::buscarDisponibilidad)
+
+                .ruta("GET", "/api/reservas", p -> pagina(p, reservaDAO::leerReservasPagina, Reserva::getId_reserva,
+                        RecursosApi::escribirReserva))
+                .ruta("GET", "/api/reservas/{id}", p -> fila(p, "la reserva", reservaDAO::buscarReservaID,
+                        RecursosApi::escribirReserva))
+                .ruta("POST", "/api/reservas", this::crearReserva)
+
+                .ruta("GET", "/api/pagos", p -> pagina(p, pagoDAO::leerPagosPagina, Pago::getId,
+                        RecursosApi::escribirPago))
+                .ruta("GET", "/api/pagos/{id}", p -> fila(p, "el pago", pagoDAO::buscarPagoPorId,
+                        RecursosApi::escribirPago))
+                .ruta("POST", "/api/pagos", this::registrarPago)
+
+                .ruta("GET", "/api/valoraciones", p -> pagina(p, valoracionDAO::leerValoracionesPagina,
+                        Valoracion::getId, RecursosApi::escribirValoracion))
+                .ruta("GET", "/api/valoraciones/{id}", p -> fila(p, "la valoración",
+                        id -> porId(valoracionDAO::leerValoracionesPagina, Valoracion::getId, id),
+                        RecursosApi::escribirValoracion))
+
+                .ruta("GET", "/api/metricas", p -> p.responder(200, json -> json.literal(VolcadoMetricas.json())));
+
+    }
+
+    private void crearCliente(PeticionApi p) {
+
+        p.leerCuerpo();
+
+        // El constructor valida el formato de cada campo
+        Cliente cliente = new Cliente(p.textoObligatorio("nombre"), p.textoObligatorio("apellido"),
+                p.textoObligatorio("email"), p.textoObligatorio("telefono"), p.textoObligatorio("pais"));
+
+        if (clienteDAO.buscarClientePorEmail(cliente.getEmail()) != -1) {
+            throw new IllegalStateException("Ya existe un cliente con el email " + cliente.getEmail());
+        }
+
+        if (!clienteDAO.agregarCliente(cliente)) {
+            throw new RuntimeException("No se ha podido guardar el cliente");
+        }
+
+        p.responder(201, json -> escribirCliente(json, cliente));
+
+    }
+
+    private void presupuestar(PeticionApi p) {
+
+        Presupuesto presupuesto = reservas.presupuestar(p.entero("id"), p.fecha("fecha_inicio"), p.fecha("fecha_fin"),
+                p.entero("num_personas", 1));
+
+        p.responder(200, json -> escribirPresupuesto(json, presupuesto));
+
+    }
+
+    private void buscarHueco(PeticionApi p) {
+
+        LocalDate desde = p.fecha("desde", LocalDate.now());
+        LocalDate hasta = p.fecha("hasta", desde.plusDays(DIAS_HUECO));
+
+        LocalDate dia = reservas.primerHuecoLibre(p.entero("id"), desde, p.entero("noches"), hasta)
+                .orElseThrow(() -> new NoSuchElementException("No hay hueco libre entre " + desde + " y " + hasta));
+
+        p.responder(200, json -> json.abrirObjeto()
+                .campo("id_propiedad", p.entero("id"))
+                .campoTexto("fecha_inicio", dia)
+                .campo("noches", p.entero("noches"))
+                .cerrarObjeto());
+
+    }
+
+    private void buscarDisponibilidad(PeticionApi p) {
+
+        Double precioMaximo = p.decimal("precio_maximo");
+
+        CriteriosBusqueda criterios = new CriteriosBusqueda(p.texto("ciudad"), p.texto("pais"),
+                p.entero("num_personas", 1), p.fecha("fecha_inicio"), p.fecha("fecha_fin"),
+                precioMaximo == null ? null : precioMaximo.floatValue(),
+                Math.min(p.entero("limite", LIMITE_POR_DEFECTO), MAX_RESULTADOS_BUSQUEDA));
+
+        List<ResultadoBusqueda> resultados = reservas.buscarDisponibilidad(criterios);
+
+        p.responder(200, json -> {
+
+            json.abrirObjeto().clave("datos").abrirLista();
+
+            for (ResultadoBusqueda r : resultados) {
+
+                json.abrirObjeto().clave("propiedad");
+                escribirPropiedad(json, r.propiedad());
+                // Total de MotorPrecios, el mismo que cotiza /presupuesto y que se cobra al reservar
+                json.campo("noches", r.noches()).campo("precio_total", r.precioTotal()).cerrarObjeto();
+
+            }
+
+            json.cerrarLista().cerrarObjeto();
+
+        });
+    }
+
+    private void crearReserva(PeticionApi p) {
+
+        p.leerCuerpo();
+
+        Reserva reserva = reservas.crearReserva(p.entero("id_cliente"), p.entero("id_propiedad"),
+                p.fecha("fecha_inicio"), p.fecha("fecha_fin"), p.entero("num_personas"));
+
+        p.responder(201, json -> escribirReserva(json, reserva));
+
+    }
+
+    private void registrarPago(PeticionApi p) {
+
+        p.leerCuerpo();
+
+        int idReserva = p.entero("id_reserva");
+        Pago.MetodoPago metodo = p.enumerado(Pago.MetodoPago.class, "metodo_pago", null);
+        Pago.EstadoPago estado = p.enumerado(Pago.EstadoPago.class, "estado_pago", Pago.EstadoPago.COMPLETADO);
+        Double monto = p.decimal("monto");
+
+        Pago pago = monto == null
+                ? pagos.registrarPago(idReserva, metodo, estado)
+                : pagos.registrarPago(idReserva, monto, metodo, estado);
+
+        p.responder(201, json -> escribirPago(json, pago));
+
+    }
+
+    /**
+     * Responde una página de filas leída con la paginación por clave de un DAO.
+     */
+    private static <T> void pagina(PeticionApi p, BiFunction<Integer, Integer, List<T>> lector, ToIntFunction<T> id,
+                                   BiConsumer<EscritorJSON, T> escritor) {
+
+        int despuesDe = p.entero("despues_de", 0);
+        int limite = p.entero("limite", LIMITE_POR_DEFECTO);
+
+        if (despuesDe < 0 || limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("despues_de debe ser 0 o mayor y limite estar entre 1 y " + LIMITE_MAXIMO);
+        }
+
+        List<T> filas = lector.apply(despuesDe, limite);
+
+        p.responder(200, json -> {
+
+            json.abrirObjeto().clave("datos").abrirLista();
+
+            for (T fila : filas) {
+                escritor.accept(json, fila);
+            }
+
+            json.cerrarLista().clave("siguiente");
+
+            if (filas.size() < limite) {
+                json.literal("null");
+            } else {
+                json.valor(id.applyAsInt(filas.get(filas.size() - 1)));
+            }
+
+            json.cerrarObjeto();
+
+        });
+    }
+
+    /**
+     * Responde la fila del ID de la ruta, o lanza un 404 si no existe.
+     */
+    private static <T> void fila(PeticionApi p, String descripcion, IntFunction<T> lector,
+                                 BiConsumer<EscritorJSON, T> escritor) {
+
+        int id = p.entero("id");
+        T fila = lector.apply(id);
+
+        if (fila == null) {
+            throw new NoSuchElementException("No existe " + descripcion + " " + id);
+        }
+
+        p.responder(200, json -> escritor.accept(json, fila));
+
+    }
+
+    /**
+     * Lee una fila por su ID con la consulta de paginación, para las tablas sin consulta por ID.
+     */
+    private static <T> T porId(BiFunction<Integer, Integer, List<T>> lector, ToIntFunction<T> id, int buscado) {
+
+        List<T> filas = lector.apply(buscado - 1, 1);
+        return filas.isEmpty() || id.applyAsInt(filas.get(0)) != buscado ? null : filas.get(0);
+
+    }
+
+    private static void escribirCliente(EscritorJSON json, Cliente c) {
+
+        json.abrirObjeto()
+                .campo("id_cliente", c.getIdCliente())
+                .campo("nombre", c.getNombre())
+                .campo("apellido", c.getApellido())
+                .campo("email", c.getEmail())
+                .campo("telefono", c.getTelefono())
+                .campo("pais", c.getPais())
+                .campoTexto("fecha_registro", c.getFechaRegistro())
+                .cerrarObjeto();
+
+    }
+
+    private static void escribirPropiedad(EscritorJSON json, Propiedad p) {
+
+        json.abrirObjeto()
+                .campo("id_propiedad", p.getIdPropiedad())
+                .campo("nombre", p.getNombre())
+                .campo("direccion", p.getDireccion())
+                .campo("ciudad", p.getCiudad())
+                .campo("pais", p.getPais())
+                .clave("precio_noche").literal(Float.toString(p.getPrecio_noche()))
+                .campo("capacidad", p.getCapacidad())
+                .campo("descripcion", p.getDescripcion())
+                .campo("estado_propiedad", p.getEstado_propiedad())
+                .cerrarObjeto();
+
+    }
+
+    private static void escribirReserva(EscritorJSON json, Reserva r) {
+
+        json.abrirObjeto()
+                .campo("id_reserva", r.getId_reserva())
+                .campo("id_cliente", r.getId_cliente())
+                .campo("id_propiedad", r.getId_propiedad())
+                .campoTexto("fecha_inicio", r.getFecha_inicio())
+                .campoTexto("fecha_fin", r.getFecha_fin())
+                .campo("num_personas", r.getNum_personas())
+                .campo("estado", minusculas(r.getEstadoReserva()))
+                .campo("precio_total", r.getPrecio_total())
+                .campo("motivo_cancelacion", r.getMotivo_cancelacion())
+                .cerrarObjeto();
+
+    }
+
+    private static void escribirPago(EscritorJSON json, Pago p) {
+
+        json.abrirObjeto()
+                .campo("id_pago", p.getId())
+                .campo("id_reserva", p.getReserva())
+                .campoTexto("fecha_pago", p.getFechaPago())
+                .campo("monto", p.getMonto())
+                .campo("metodo_pago", minusculas(p.getMetodoPago()))
+                .campo("estado_pago", minusculas(p.getEstadoPago()))
+                .campo("referencia_transaccion", p.getReferenciaTransaccion())
+                .cerrarObjeto();
+
+    }
+
+    private static void escribirValoracion(EscritorJSON json, Valoracion v) {
+
+        json.abrirObjeto()
+                .campo("id_valoracion", v.getId())
+                .campo("id_reserva", v.getReserva())
+                .campo("puntuacion", v.getPuntuacion())
+                .campo("comentario", v.getComentario())
+                .campo("anonimato", v.isAnonimato())
+                .campoTexto("fecha_valoracion", v.getFechaValoracion())
+                .cerrarObjeto();
+
+    }
+
+    private static void escribirPresupuesto(EscritorJSON json, Presupuesto p) {
+
+        json.abrirObjeto()
+                .campo("id_propiedad", p.idPropiedad())
+                .campoTexto("fecha_inicio", p.desde())
+                .campoTexto("fecha_fin", p.hasta())
+                .campo("num_personas", p.personas())
+                .campo("noches", p.noches())
+                .campo("alojamiento", p.alojamiento())
+                .campo("descuento", p.descuento())
+                .campo("suplemento", p.suplemento())
+                .campo("total", p.total())
+                .cerrarObjeto();
+
+    }
+
+    private static String minusculas(Enum<?> valor) {
+        return valor == null ? null : valor.name().toLowerCase(Locale.ROOT);
+    }
+}
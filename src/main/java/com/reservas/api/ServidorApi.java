@@ -0,0 +1,314 @@
+package com.reservas.api;
+
+import com.reservas.metricas.MetricasConsultas;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <h1>Servidor de la API HTTP</h1>
+ *
+ * Sirve la API JSON con el {@link HttpServer} del JDK. Cada petición se atiende en su propio hilo virtual, así que
+ * las que esperan a la base de datos no ocupan hilos del sistema: el límite real de concurrencia lo pone el pool
+ * de conexiones, que hace esperar al resto.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>Las rutas se registran con {@link #ruta(String, String, Manejador)} y pueden llevar parámetros entre
+ *     llaves, como <code>/api/reservas/{id}</code>, que solo aceptan números.</li>
+ *     <li>Las rutas de escritura (todo lo que no es {@code GET}) exigen la clave de la API en la cabecera
+ *     {@value #CABECERA_CLAVE}; sin clave configurada, quedan desactivadas. Las de lectura son libres, así que por
+ *     defecto el servidor solo escucha en la interfaz local.</li>
+ *     <li>Las excepciones se convierten en respuestas: {@link IllegalArgumentException} en 400,
+ *     {@link NoSuchElementException} en 404, {@link IllegalStateException} en 409 y el resto en 500.</li>
+ *     <li>El tiempo de cada petición se registra en {@link MetricasConsultas} con el nombre
+ *     <code>API &lt;método&gt; &lt;ruta&gt;</code>, así que sus percentiles salen junto a los de las consultas y las
+ *     peticiones lentas aparecen en el registro de consultas lentas.</li>
+ * </ul>
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public class ServidorApi {
+
+    private static final int COLA_CONEXIONES = 1024;
+    private static final String PREFIJO_METRICA = "API ";
+    private static final Pattern PARAMETRO = Pattern.compile("\\{([a-zA-Z]+)}");
+
+    /** Cabecera con la clave que exigen las rutas de escritura. */
+    public static final String CABECERA_CLAVE = "X-Api-Key";
+
+    /**
+     * Atiende una petición a una ruta.
+     */
+    @FunctionalInterface
+    public interface Manejador {
+
+        /**
+         * @param peticion petición a atender; el manejador debe responderla.
+         */
+        void atender(PeticionApi peticion);
+    }
+
+    private final List<Ruta> rutas = new ArrayList<>();
+    private final HttpServer servidor;
+    private final ExecutorService ejecutor;
+    private final byte[] clave;
+
+    /**
+     * Crea el servidor, sin empezar a escuchar.
+     *
+     * @param direccion dirección en la que escuchar, como <code>127.0.0.1</code>, o <code>0.0.0.0</code> para todas
+     *                  las interfaces.
+     * @param puerto puerto TCP; {@code 0} para uno libre cualquiera.
+     * @param clave clave que deben enviar las peticiones de escritura, o {@code null} para rechazarlas todas.
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public ServidorApi(String direccion, int puerto, String clave) throws IOException {
+
+        this.servidor = HttpServer.create(new InetSocketAddress(direccion, puerto), COLA_CONEXIONES);
+        this.ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.clave = clave == null || clave.isBlank() ? null : clave.getBytes(StandardCharsets.UTF_8);
+
+        servidor.setExecutor(ejecutor);
+        servidor.createContext("/", this::atender);
+
+    }
+
+    /**
+     * Registra una ruta. Debe llamarse antes de {@link #iniciar()}.
+     *
+     * @param metodo método HTTP.
+     * @param plantilla ruta, con los parámetros numéricos entre llaves.
+     * @param manejador código que atiende las peticiones.
+     * @return este servidor.
+     */
+    public ServidorApi ruta(String metodo, String plantilla, Manejador manejador) {
+
+        rutas.add(new Ruta(metodo, plantilla, compilar(plantilla), manejador));
+        return this;
+
+    }
+
+    /**
+     * Empieza a atender peticiones.
+     */
+    public void iniciar() {
+
+        servidor.start();
+
+    }
+
+    /**
+     * @return dirección en la que escucha el servidor.
+     */
+    public String direccion() {
+        return servidor.getAddress().getHostString();
+    }
+
+    /**
+     * @return puerto en el que escucha el servidor.
+     */
+    public int puerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Deja de aceptar peticiones, espera a las que están en curso y libera los hilos.
+     *
+     * @param esperaSegundos tiempo máximo de espera de las peticiones en curso.
+     */
+    public void detener(int esperaSegundos) {
+
+        servidor.stop(esperaSegundos);
+        ejecutor.close();
+
+    }
+
+    private void atender(HttpExchange intercambio) {
+
+        long inicio = System.nanoTime();
+        String ruta = intercambio.getRequestURI().getPath();
+        String metodo = intercambio.getRequestMethod();
+
+        String operacion = null;
+        PeticionApi peticion = null;
+
+        try (intercambio) {
+
+            Set<String> permitidos = new LinkedHashSet<>();
+
+            for (Ruta r : rutas) {
+
+                Matcher coincidencia = r.patron.matcher(ruta);
+
+                if (!coincidencia.matches()) {
+                    continue;
+                }
+
+                if (!r.metodo.equals(metodo)) {
+
+                    permitidos.add(r.metodo);
+                    continue;
+
+                }
+
+                peticion = new PeticionApi(intercambio, parametros(r.plantilla, coincidencia));
+                operacion = PREFIJO_METRICA + metodo + " " + r.plantilla;
+
+                if (metodo.equals("GET")) {
+                    ejecutar(r.manejador, peticion);
+                } else if (clave == null) {
+                    peticion.responderError(403, "Las escrituras están desactivadas: falta la clave de la API");
+                } else if (!claveValida(intercambio.getRequestHeaders().getFirst(CABECERA_CLAVE))) {
+                    peticion.responderError(401, "Falta la cabecera " + CABECERA_CLAVE + " o no es válida");
+                } else {
+                    ejecutar(r.manejador, peticion);
+                }
+
+                return;
+
+            }
+
+            peticion = new PeticionApi(intercambio, Map.of());
+
+            if (permitidos.isEmpty()) {
+                peticion.responderError(404, "No existe la ruta " + ruta);
+            } else {
+                peticion.responderVacio(405, Map.of("Allow", String.join(", ", permitidos)));
+            }
+
+        } catch (RuntimeException e) {
+
+            // Petición mal formada antes de llegar al manejador (por ejemplo, una URL mal codificada)
+            System.err.println("Error al atender " + metodo + " " + ruta + ": " + e.getMessage());
+
+        } finally {
+
+            if (operacion != null) {
+
+                boolean error = peticion.estado() == 0 || peticion.estado() >= 500;
+                String uri = metodo + " " + intercambio.getRequestURI();
+
+                MetricasConsultas.registrar(operacion, System.nanoTime() - inicio, error, () -> uri);
+
+            }
+        }
+    }
+
+    /**
+     * Compara en tiempo constante, para no dar pistas de cuántos caracteres de la clave coinciden.
+     */
+    private boolean claveValida(String enviada) {
+
+        return enviada != null && MessageDigest.isEqual(clave, enviada.getBytes(StandardCharsets.UTF_8));
+
+    }
+
+    /**
+     * Ejecuta un manejador y responde el error que lance, si todavía no ha empezado a responder.
+     */
+    private static void ejecutar(Manejador manejador, PeticionApi peticion) {
+
+        int estado;
+        String mensaje;
+
+        try {
+
+            manejador.atender(peticion);
+            return;
+
+        } catch (IllegalArgumentException e) {
+
+            estado = 400;
+            mensaje = e.getMessage();
+
+        } catch (NoSuchElementException e) {
+
+            estado = 404;
+            mensaje = e.getMessage();
+
+        } catch (IllegalStateException e) {
+
+            estado = 409;
+            mensaje = e.getMessage();
+
+        } catch (UncheckedIOException e) {
+
+            // El cliente ha cerrado la conexión: no hay a quién responder
+            System.err.println("Conexión perdida al responder " + peticion.metodo() + ": " + e.getMessage());
+            return;
+
+        } catch (RuntimeException e) {
+
+            System.err.println("Error interno de la API: " + e.getMessage());
+            e.printStackTrace();
+
+            estado = 500;
+            mensaje = "Error interno del servidor";
+
+        }
+
+        if (peticion.estado() != 0) {
+
+            System.err.println("Error tras empezar la respuesta (" + peticion.estado() + "): " + mensaje);
+            return;
+
+        }
+
+        peticion.responderError(estado, mensaje);
+
+    }
+
+    private static Map<String, String> parametros(String plantilla, Matcher coincidencia) {
+
+        Map<String, String> valores = new HashMap<>();
+        Matcher nombres = PARAMETRO.matcher(plantilla);
+
+        while (nombres.find()) {
+            valores.put(nombres.group(1), coincidencia.group(nombres.group(1)));
+        }
+
+        return valores;
+    }
+
+    /**
+     * Convierte una plantilla como <code>/api/reservas/{id}</code> en una expresión con un grupo por parámetro.
+     */
+    private static Pattern compilar(String plantilla) {
+
+        StringBuilder expresion = new StringBuilder();
+        Matcher parametro = PARAMETRO.matcher(plantilla);
+        int desde = 0;
+
+        while (parametro.find()) {
+
+            expresion.append(Pattern.quote(plantilla.substring(desde, parametro.start())));
+            expresion.append("(?<").append(parametro.group(1)).append(">[0-9]{1,9})");
+            desde = parametro.end();
+
+        }
+
+        expresion.append(Pattern.quote(plantilla.substring(desde)));
+        return Pattern.compile(expresion + "/?");
+
+    }
+
+    private record Ruta(String metodo, String plantilla, Pattern patron, Manejador manejador) { }
+}
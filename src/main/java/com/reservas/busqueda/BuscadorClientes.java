@@ -0,0 +1,111 @@
+package com.reservas.busqueda;
+
+import com.reservas.dao.ClienteDAO;
+import com.reservas.model.Cliente;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * <h1>Buscador de clientes</h1>
+ *
+ * Mantiene el {@link IndiceClientes} de la aplicación. El índice se construye con todos los clientes la primera
+ * vez que se necesita y después se actualiza con las escrituras de {@link ClienteDAO}, sin volver a leer la tabla.
+ *
+ * <h2>Uso:</h2>
+ * <ul>
+ *     <li>{@link #indice()} construye el índice si hace falta; consulta la base de datos, así que debe llamarse
+ *     fuera del hilo de JavaFX.</li>
+ *     <li>{@link #indiceSiCargado()} devuelve el índice sin bloquear, para buscar en cada pulsación.</li>
+ *     <li>{@link #invalidar()} descarta el índice para reconstruirlo (botón "ACTUALIZAR").</li>
+ * </ul>
+ *
+ * @author Jaime Pérez
+ * @since 17/10/2026
+ */
+public class BuscadorClientes {
+
+    private static final BuscadorClientes INSTANCIA = new BuscadorClientes(() -> new ClienteDAO().leerClientes());
+
+    private final Supplier<List<Cliente>> fuente;
+    private volatile IndiceClientes indice;
+
+    /**
+     * @param fuente lectura de todos los clientes con la que se construye el índice.
+     */
+    public BuscadorClientes(Supplier<List<Cliente>> fuente) {
+        this.fuente = fuente;
+    }
+
+    /**
+     * @return instancia compartida por la aplicación.
+     */
+    public static BuscadorClientes getInstance() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Devuelve el índice, construyéndolo con todos los clientes si aún no existe.
+     *
+     * @return el índice de clientes.
+     */
+    public IndiceClientes indice() {
+
+        IndiceClientes actual = indice;
+
+        if (actual != null) {
+            return actual;
+        }
+
+        synchronized (this) {
+
+            if (indice == null) {
+                indice = IndiceClientes.de(fuente.get());
+            }
+
+            return indice;
+        }
+    }
+
+    /**
+     * @return el índice si ya está construido, o {@code null} en caso contrario.
+     */
+    public IndiceClientes indiceSiCargado() {
+        return indice;
+    }
+
+    /**
+     * Refleja en el índice (si está construido) el alta o la modificación de un cliente.
+     *
+     * @param cliente cliente guardado, con su ID.
+     */
+    public void registrar(Cliente cliente) {
+
+        IndiceClientes actual = indice;
+
+        if (actual != null) {
+            actual.registrar(cliente);
+        }
+    }
+
+    /**
+     * Refleja en el índice (si está construido) la baja de un cliente.
+     *
+     * @param idCliente ID del cliente eliminado.
+     */
+    public void quitar(int idCliente) {
+
+        IndiceClientes actual = indice;
+
+        if (actual != null) {
+            actual.quitar(idCliente);
+        }
+    }
+
+    /**
+     * Descarta el índice; la siguiente llamada a {@link #indice()} lo vuelve a construir.
+     */
+    public synchronized void invalidar() {
+        indice = null;
+    }
+}
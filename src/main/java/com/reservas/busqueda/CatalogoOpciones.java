@@ -0,0 +1,186 @@
+package com.reservas.busqueda;
+
+import com.reservas.cache.CacheEntidades;
+import com.reservas.dao.ClienteDAO;
+import com.reservas.dao.PropiedadDAO;
+import com.reservas.dao.ReservaDAO;
+import com.reservas.eventos.BusEventos;
+import com.reservas.eventos.TablaObservada;
+import com.reservas.util.EjecutorConsultas;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * <h1>Catálogo de opciones para las listas de selección</h1>
+ *
+ * Sirve por páginas las opciones de clientes, propiedades o reservas que se ofrecen en los formularios, filtradas
+ * por el texto que escribe el usuario. Nunca se leen todas las filas de la tabla: cada página es una consulta por
+ * prefijo con {@code LIMIT} que continúa desde el último ID de la anterior.
+ *
+ * <h2>Características principales:</h2>
+ * <ul>
+ *     <li>Las páginas y las opciones sueltas se guardan durante {@link #VIGENCIA} y se comparten entre todos los
+ *     formularios, así que abrir otra vez un formulario no consulta la base de datos.</li>
+ *     <li>{@link #precargar(String, int)} pide en segundo plano la página que probablemente se verá después.</li>
+ *     <li>Se vacía cuando llega un aviso de cambios de las tablas de las que dependen sus etiquetas.</li>
+ * </ul>
+ * {@link #pagina(String, int)} y {@link #opcion(int)} pueden consultar la base de datos, así que deben llamarse
+ * fuera del hilo de JavaFX.
+ *
+ * @author Jaime Pérez
+ * @since 17/10/2026
+ */
+public class CatalogoOpciones {
+
+    public static final int PAGINA = 30;
+    public static final Duration VIGENCIA = Duration.ofMinutes(5);
+
+    private static final int CAPACIDAD_PAGINAS = 500;
+    private static final int CAPACIDAD_OPCIONES = 2_000;
+
+    /**
+     * Consulta una página de opciones.
+     */
+    @FunctionalInterface
+    public interface ConsultaOpciones {
+
+        /**
+         * @param texto texto escrito por el usuario, ya recortado; vacío para todas.
+         * @param despuesDeId último ID de la página anterior ({@code 0} para la primera).
+         * @param limite número máximo de opciones.
+         * @return las opciones ordenadas por ID.
+         */
+        List<OpcionEntidad> buscar(String texto, int despuesDeId, int limite);
+    }
+
+    private final ConsultaOpciones consulta;
+    private final IntFunction<OpcionEntidad> porId;
+    private final CacheEntidades<ClavePagina, List<OpcionEntidad>> paginas;
+    private final CacheEntidades<Integer, OpcionEntidad> opciones;
+
+    /**
+     * @param nombre nombre con el que aparecen sus cachés en las estadísticas.
+     * @param consulta consulta de una página de opciones.
+     * @param porId consulta de la opción de un ID, o {@code null} si no existe.
+     */
+    public CatalogoOpciones(String nombre, ConsultaOpciones consulta, IntFunction<OpcionEntidad> porId) {
+
+        this.consulta = consulta;
+        this.porId = porId;
+        this.paginas = CacheEntidades.crear(nombre + " (páginas)", CAPACIDAD_PAGINAS, VIGENCIA, UnaryOperator.identity());
+        this.opciones = CacheEntidades.crear(nombre + " (opciones)", CAPACIDAD_OPCIONES, VIGENCIA, UnaryOperator.identity());
+
+    }
+
+    /**
+     * @return catálogo de clientes, con su nombre y su email.
+     */
+    public static CatalogoOpciones clientes() {
+        return Compartidos.CLIENTES;
+    }
+
+    /**
+     * @return catálogo de propiedades, con su nombre y su ciudad.
+     */
+    public static CatalogoOpciones propiedades() {
+        return Compartidos.PROPIEDADES;
+    }
+
+    /**
+     * @return catálogo de reservas, con su cliente, su propiedad y sus fechas.
+     */
+    public static CatalogoOpciones reservas() {
+        return Compartidos.RESERVAS;
+    }
+
+    /**
+     * Devuelve una página de opciones que coinciden con el texto. Las opciones leídas quedan también disponibles
+     * para {@link #opcion(int)}.
+     *
+     * @param texto texto escrito por el usuario; {@code null} o vacío para todas.
+     * @param despuesDeId último ID de la página anterior ({@code 0} para la primera).
+     * @return lista no modificable de hasta {@link #PAGINA} opciones; si tiene menos, no hay más páginas.
+     */
+    public List<OpcionEntidad> pagina(String texto, int despuesDeId) {
+
+        String limpio = texto == null ? "" : texto.trim();
+        ClavePagina clave = new ClavePagina(limpio.toLowerCase(Locale.ROOT), despuesDeId);
+
+        return paginas.obtener(clave, c -> {
+
+            List<OpcionEntidad> leidas = List.copyOf(consulta.buscar(limpio, despuesDeId, PAGINA));
+            opciones.ponerTodas(leidas, OpcionEntidad::id);
+
+            return leidas;
+        });
+    }
+
+    /**
+     * Pide en segundo plano una página para que esté en memoria cuando se necesite.
+     *
+     * @param texto texto escrito por el usuario.
+     * @param despuesDeId último ID de la página anterior.
+     */
+    public void precargar(String texto, int despuesDeId) {
+
+        EjecutorConsultas.enSegundoPlano(() -> pagina(texto, despuesDeId));
+
+    }
+
+    /**
+     * Devuelve la opción de un ID, por ejemplo para mostrar la etiqueta del valor de un formulario de edición.
+     *
+     * @param id identificador de la entidad.
+     * @return la opción, o {@code null} si la entidad no existe.
+     */
+    public OpcionEntidad opcion(int id) {
+
+        return opciones.obtener(id, porId::apply);
+
+    }
+
+    /**
+     * Descarta todas las páginas y opciones guardadas.
+     */
+    public void olvidar() {
+
+        paginas.vaciar();
+        opciones.vaciar();
+
+    }
+
+    private record ClavePagina(String texto, int despuesDeId) { }
+
+    /**
+     * Catálogos de la aplicación. Se crean la primera vez que se piden y se vacían con los avisos de
+     * {@link BusEventos}, que también llegan con las escrituras hechas desde esta aplicación.
+     */
+    private static final class Compartidos {
+
+        static final CatalogoOpciones CLIENTES = crear("Opciones de clientes",
+                new ClienteDAO()::buscarOpcionesClientes, new ClienteDAO()::leerOpcionCliente,
+                EnumSet.of(TablaObservada.CLIENTES));
+
+        static final CatalogoOpciones PROPIEDADES = crear("Opciones de propiedades",
+                new PropiedadDAO()::buscarOpcionesPropiedades, new PropiedadDAO()::leerOpcionPropiedad,
+                EnumSet.of(TablaObservada.PROPIEDADES));
+
+        static final CatalogoOpciones RESERVAS = crear("Opciones de reservas",
+                new ReservaDAO()::buscarOpcionesReservas, new ReservaDAO()::leerOpcionReserva,
+                EnumSet.of(TablaObservada.RESERVAS, TablaObservada.CLIENTES, TablaObservada.PROPIEDADES));
+
+        private static CatalogoOpciones crear(String nombre, ConsultaOpciones consulta, IntFunction<OpcionEntidad> porId,
+                                              EnumSet<TablaObservada> tablas) {
+
+            CatalogoOpciones catalogo = new CatalogoOpciones(nombre, consulta, porId);
+            BusEventos.getInstance().suscribir(tablas, cambios -> catalogo.olvidar());
+
+            return catalogo;
+        }
+    }
+}
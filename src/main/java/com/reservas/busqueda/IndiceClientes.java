@@ -0,0 +1,514 @@
+package com.reservas.busqueda;
+
+import com.reservas.model.Cliente;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+import static com.reservas.util.Textos.normalizar;
+import static com.reservas.util.Textos.soloDigitos;
+
+/**
+ * <h1>Índice de clientes en memoria</h1>
+ *
+ * Organiza los clientes cargados para buscarlos mientras el usuario escribe, sin consultar la base de datos
+ * en cada pulsación.
+ *
+ * <h2>Estructuras:</h2>
+ * <ul>
+ *     <li>Mapa hash de email normalizado a cliente, para la búsqueda exacta por email.</li>
+ *     <li>{@link TriePrefijos} con las palabras del nombre y los apellidos y los dígitos del teléfono (con y sin
+ *     prefijo internacional), para la búsqueda por prefijo.</li>
+ *     <li>Lista invertida de posiciones por país.</li>
+ * </ul>
+ *
+ * <h2>Búsqueda:</h2>
+ * <ul>
+ *     <li>El texto se divide en términos; un cliente coincide si cada término es prefijo de alguna de sus palabras
+ *     ("mar gar" encuentra a María García).</li>
+ *     <li>Se recorre solo la lista más corta (el término más selectivo o el país) y el resto de condiciones se
+ *     comprueba sobre cada candidato; el recorrido termina al alcanzar el límite de resultados.</li>
+ *     <li>Cada cliente tiene una firma de 64 bits con la primera letra y las dos primeras letras de sus palabras.
+ *     La mayoría de candidatos que no coinciden se descartan con ella, sin leer sus palabras.</li>
+ * </ul>
+ *
+ * <p>
+ * Las altas y modificaciones se añaden al final; las bajas se marcan y las estructuras se reconstruyen cuando
+ * las posiciones eliminadas son muchas. Es seguro entre hilos: las búsquedas comparten un cerrojo de lectura.
+ * </p>
+ *
+ * @author Jaime Pérez
+ * @since 17/10/2026
+ */
+public class IndiceClientes {
+
+    private static final int MIN_ELIMINADAS_RECONSTRUIR = 1_000;
+    private static final int MIN_DIGITOS_TELEFONO = 6;
+    private static final int MAX_DIGITOS_PREFIJO = 3;
+
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+
+    private Cliente[] clientes = new Cliente[16];
+    private String[][] palabras = new String[16][];
+    private String[] paisesNormalizados = new String[16];
+    private long[] firmas = new long[16];
+    private int numPosiciones;
+    private int eliminadas;
+
+    private final Map<Integer, Integer> posicionPorId = new HashMap<>();
+    private final Map<String, Integer> posicionPorEmail = new HashMap<>();
+    private final Map<String, ListaPosiciones> posicionesPorPais = new HashMap<>();
+    private final Map<String, String> nombresPais = new HashMap<>();
+    private TriePrefijos trie = new TriePrefijos();
+
+    /**
+     * Construye el índice con los clientes indicados.
+     *
+     * @param clientes clientes a indexar.
+     * @return el índice.
+     */
+    public static IndiceClientes de(Collection<Cliente> clientes) {
+
+        IndiceClientes indice = new IndiceClientes();
+
+        for (Cliente c : clientes) {
+            indice.anadir(c);
+        }
+
+        return indice;
+    }
+
+    /**
+     * Añade un cliente o sustituye al que tenga el mismo ID.
+     *
+     * @param cliente cliente dado de alta o modificado.
+     */
+    public void registrar(Cliente cliente) {
+
+        cerrojo.writeLock().lock();
+
+        try {
+
+            marcarEliminado(cliente.getIdCliente());
+            anadir(cliente);
+            reconstruirSiHaceFalta();
+
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un cliente del índice.
+     *
+     * @param idCliente ID del cliente eliminado.
+     */
+    public void quitar(int idCliente) {
+
+        cerrojo.writeLock().lock();
+
+        try {
+
+            marcarEliminado(idCliente);
+            reconstruirSiHaceFalta();
+
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca un cliente por su email exacto, sin distinguir mayúsculas ni tildes.
+     *
+     * @param email email buscado.
+     * @return el cliente, o {@code null} si no está en el índice.
+     */
+    public Cliente buscarPorEmail(String email) {
+
+        cerrojo.readLock().lock();
+
+        try {
+
+            Integer pos = posicionPorEmail.get(normalizar(email));
+            return pos == null ? null : clientes[pos];
+
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca los clientes cuyo nombre, apellidos o teléfono empiezan por cada uno de los términos del texto.
+     * Si el texto contiene una {@code @} se busca por email exacto.
+     *
+     * @param texto texto escrito por el usuario; vacío para filtrar solo por país.
+     * @param pais país por el que filtrar, o {@code null} para todos.
+     * @param limite número máximo de resultados.
+     * @return clientes que coinciden, como mucho {@code limite}.
+     */
+    public List<Cliente> buscar(String texto, String pais, int limite) {
+
+        String[] terminos = terminos(texto);
+        String paisBuscado = pais == null || pais.isBlank() ? null : normalizar(pais);
+        List<Cliente> resultado = new ArrayList<>(Math.min(limite, 64));
+
+        cerrojo.readLock().lock();
+
+        try {
+
+            if (texto != null && texto.contains("@")) {
+
+                Integer pos = posicionPorEmail.get(normalizar(texto));
+
+                if (pos != null && (paisBuscado == null || paisBuscado.equals(paisesNormalizados[pos]))) {
+                    resultado.add(clientes[pos]);
+                }
+
+                return resultado;
+            }
+
+            if (terminos.length == 0 && paisBuscado == null) {
+                return resultado;
+            }
+
+            // Se recorre la lista más corta: la del término más selectivo o la del país
+            int conductor = -1;
+            int menor = Integer.MAX_VALUE;
+
+            for (int i = 0; i < terminos.length; i++) {
+
+                int cuenta = trie.contar(terminos[i]);
+
+                if (cuenta < menor) {
+
+                    menor = cuenta;
+                    conductor = i;
+
+                }
+            }
+
+            ListaPosiciones listaPais = paisBuscado == null ? null : posicionesPorPais.get(paisBuscado);
+
+            if (paisBuscado != null && (listaPais == null || listaPais.tamano == 0)) {
+                return resultado;
+            }
+
+            BitSet vistas = new BitSet(numPosiciones);
+            final int termConductor = conductor;
+            long mascara = firma(terminos);
+
+            IntPredicate visitante = pos -> {
+
+                if (clientes[pos] == null || vistas.get(pos)) {
+                    return true;
+                }
+
+                vistas.set(pos);
+
+                if ((firmas[pos] & mascara) != mascara) {
+                    return true;
+                }
+
+                if (paisBuscado != null && !paisBuscado.equals(paisesNormalizados[pos])) {
+                    return true;
+                }
+
+                for (int i = 0; i < terminos.length; i++) {
+
+                    if (i != termConductor && !tienePrefijo(palabras[pos], terminos[i])) {
+                        return true;
+                    }
+                }
+
+                resultado.add(clientes[pos]);
+                return resultado.size() < limite;
+
+            };
+
+            if (listaPais != null && (conductor == -1 || listaPais.tamano < menor)) {
+
+                // El país es más selectivo: todos los términos se comprueban sobre cada candidato
+                IntPredicate porPais = comprobarTodos(terminos, mascara, paisBuscado, resultado, limite);
+
+                for (int i = 0; i < listaPais.tamano; i++) {
+
+                    if (!porPais.test(listaPais.posiciones[i])) {
+                        break;
+                    }
+                }
+
+            } else {
+                trie.recorrer(terminos[conductor], visitante);
+            }
+
+            return resultado;
+
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return nombres de los países presentes en el índice, en orden alfabético.
+     */
+    public List<String> paises() {
+
+        cerrojo.readLock().lock();
+
+        try {
+
+            TreeMap<String, String> ordenados = new TreeMap<>();
+
+            posicionesPorPais.keySet().forEach(clave -> ordenados.put(clave, nombresPais.get(clave)));
+
+            return new ArrayList<>(ordenados.values());
+
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return número de clientes indexados.
+     */
+    public int tamano() {
+
+        cerrojo.readLock().lock();
+
+        try {
+            return numPosiciones - eliminadas;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visitante para cuando se recorre la lista de un país: comprueba todos los términos en cada candidato.
+     */
+    private IntPredicate comprobarTodos(String[] terminos, long mascara, String pais, List<Cliente> resultado, int limite) {
+
+        return pos -> {
+
+            if (clientes[pos] == null || (firmas[pos] & mascara) != mascara || !pais.equals(paisesNormalizados[pos])) {
+                return true;
+            }
+
+            for (String termino : terminos) {
+
+                if (!tienePrefijo(palabras[pos], termino)) {
+                    return true;
+                }
+            }
+
+            resultado.add(clientes[pos]);
+            return resultado.size() < limite;
+
+        };
+    }
+
+    /**
+     * Añade un cliente en una posición nueva al final. Debe llamarse con el cerrojo de escritura (o al construir).
+     */
+    private void anadir(Cliente c) {
+
+        if (numPosiciones == clientes.length) {
+
+            int capacidad = numPosiciones * 2;
+            clientes = Arrays.copyOf(clientes, capacidad);
+            palabras = Arrays.copyOf(palabras, capacidad);
+            paisesNormalizados = Arrays.copyOf(paisesNormalizados, capacidad);
+            firmas = Arrays.copyOf(firmas, capacidad);
+
+        }
+
+        int pos = numPosiciones++;
+        String[] suyas = palabrasDe(c);
+        String pais = normalizar(c.getPais());
+
+        clientes[pos] = c;
+        palabras[pos] = suyas;
+        paisesNormalizados[pos] = pais;
+        firmas[pos] = firma(suyas);
+
+        posicionPorId.put(c.getIdCliente(), pos);
+
+        if (c.getEmail() != null) {
+            posicionPorEmail.put(normalizar(c.getEmail()), pos);
+        }
+
+        if (!pais.isEmpty()) {
+
+            posicionesPorPais.computeIfAbsent(pais, k -> new ListaPosiciones()).anadir(pos);
+            nombresPais.putIfAbsent(pais, c.getPais().strip());
+
+        }
+
+        for (String palabra : suyas) {
+            trie.insertar(palabra, pos);
+        }
+    }
+
+    /**
+     * Marca como eliminada la posición actual de un cliente. Las listas y el trie la descartan al recorrerla.
+     */
+    private void marcarEliminado(int idCliente) {
+
+        Integer pos = posicionPorId.remove(idCliente);
+
+        if (pos == null) {
+            return;
+        }
+
+        Cliente anterior = clientes[pos];
+
+        if (anterior.getEmail() != null) {
+            posicionPorEmail.remove(normalizar(anterior.getEmail()), pos);
+        }
+
+        clientes[pos] = null;
+        palabras[pos] = null;
+        eliminadas++;
+
+    }
+
+    /**
+     * Vuelve a construir las estructuras con los clientes vigentes cuando las posiciones eliminadas
+     * superan la cuarta parte del total.
+     */
+    private void reconstruirSiHaceFalta() {
+
+        if (eliminadas < MIN_ELIMINADAS_RECONSTRUIR || eliminadas * 4 < numPosiciones) {
+            return;
+        }
+
+        Cliente[] vigentes = Arrays.copyOf(clientes, numPosiciones);
+
+        clientes = new Cliente[Math.max(16, numPosiciones - eliminadas)];
+        palabras = new String[clientes.length][];
+        paisesNormalizados = new String[clientes.length];
+        firmas = new long[clientes.length];
+        numPosiciones = 0;
+        eliminadas = 0;
+        posicionPorId.clear();
+        posicionPorEmail.clear();
+        posicionesPorPais.clear();
+        trie = new TriePrefijos();
+
+        for (Cliente c : vigentes) {
+
+            if (c != null) {
+                anadir(c);
+            }
+        }
+    }
+
+    /**
+     * Obtiene las palabras por las que se puede encontrar a un cliente: cada palabra del nombre y los apellidos
+     * y los dígitos del teléfono, también sin los primeros uno a tres dígitos (el prefijo del país).
+     */
+    private static String[] palabrasDe(Cliente c) {
+
+        List<String> lista = new ArrayList<>(8);
+
+        for (String parte : (normalizar(c.getNombre()) + " " + normalizar(c.getApellido())).split("\\s+")) {
+
+            if (!parte.isEmpty() && !lista.contains(parte)) {
+                lista.add(parte);
+            }
+        }
+
+        String digitos = soloDigitos(c.getTelefono());
+
+        for (int i = 0; i <= MAX_DIGITOS_PREFIJO && digitos.length() - i >= MIN_DIGITOS_TELEFONO; i++) {
+            lista.add(digitos.substring(i));
+        }
+
+        return lista.toArray(new String[0]);
+    }
+
+    /**
+     * Divide el texto buscado en términos normalizados. Los términos que parecen un teléfono se reducen a dígitos.
+     */
+    private static String[] terminos(String texto) {
+
+        String normalizado = normalizar(texto);
+
+        if (normalizado.isEmpty()) {
+            return new String[0];
+        }
+
+        String[] partes = normalizado.split("\\s+");
+
+        for (int i = 0; i < partes.length; i++) {
+
+            char primero = partes[i].charAt(0);
+
+            if (primero == '+' || Character.isDigit(primero)) {
+                partes[i] = soloDigitos(partes[i]);
+            }
+        }
+
+        return Arrays.stream(partes).filter(p -> !p.isEmpty()).toArray(String[]::new);
+    }
+
+    /**
+     * Calcula la firma de un conjunto de palabras: los 32 bits bajos marcan sus primeras letras y los 32 altos
+     * sus dos primeras letras. Si un término es prefijo de una palabra, los bits del término están en la firma
+     * de la palabra; lo contrario no se garantiza, así que la firma solo sirve para descartar.
+     */
+    private static long firma(String[] palabras) {
+
+        long firma = 0;
+
+        for (String palabra : palabras) {
+
+            char primera = palabra.charAt(0);
+            firma |= 1L << (primera & 31);
+
+            if (palabra.length() > 1) {
+                firma |= 1L << (32 + ((primera * 31 + palabra.charAt(1)) & 31));
+            }
+        }
+
+        return firma;
+    }
+
+    private static boolean tienePrefijo(String[] palabras, String termino) {
+
+        for (String palabra : palabras) {
+
+            if (palabra.startsWith(termino)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Lista creciente de posiciones, sin cajas {@link Integer}.
+     */
+    private static final class ListaPosiciones {
+
+        private int[] posiciones = new int[8];
+        private int tamano;
+
+        void anadir(int posicion) {
+
+            if (tamano == posiciones.length) {
+                posiciones = Arrays.copyOf(posiciones, tamano * 2);
+            }
+
+            posiciones[tamano++] = posicion;
+
+        }
+    }
+}
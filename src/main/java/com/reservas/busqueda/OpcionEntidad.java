@@ -0,0 +1,20 @@
+package com.reservas.busqueda;
+
+/**
+ * <h1>Opción de una lista de selección</h1>
+ *
+ * Cliente, propiedad o reserva tal y como se ofrece en las listas desplegables de los formularios: su ID y un
+ * texto legible con el que el usuario la reconoce.
+ *
+ * @param id identificador de la entidad.
+ * @param etiqueta texto que se muestra, con el nombre y el ID.
+ * @author Jaime Pérez
+ * @since 17/10/2026
+ */
+public record OpcionEntidad(int id, String etiqueta) {
+
+    @Override
+    public String toString() {
+        return etiqueta;
+    }
+}
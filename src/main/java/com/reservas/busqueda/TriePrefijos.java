@@ -0,0 +1,327 @@
+package com.reservas.busqueda;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * <h1>Trie de prefijos</h1>
+ *
+ * Asocia palabras (nombres, apellidos, teléfonos) a posiciones enteras y permite recorrer todas las posiciones
+ * cuyas palabras empiezan por un prefijo, sin recorrer las demás.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>Es un <i>burst trie</i>: las ramas poco pobladas son contenedores con una lista de palabras. Cuando un
+ *     contenedor supera {@link #UMBRAL_CONTENEDOR} entradas se divide en un nodo con un hijo por carácter.
+ *     Así el trie no crea un nodo por cada carácter de palabras únicas, como los teléfonos.</li>
+ *     <li>Los contenedores guardan la palabra completa (la misma instancia que recibe {@link #insertar}),
+ *     por lo que insertar y dividir no copian cadenas.</li>
+ *     <li>Cada nodo lleva la cuenta de entradas que cuelgan de él, lo que permite estimar cuántas posiciones
+ *     devolverá un prefijo antes de recorrerlo.</li>
+ *     <li>No admite borrados: quien lo usa marca las posiciones eliminadas y lo reconstruye de vez en cuando.</li>
+ *     <li>No es seguro entre hilos; {@link IndiceClientes} sincroniza su acceso.</li>
+ * </ul>
+ *
+ * @author Jaime Pérez
+ * @since 17/10/2026
+ */
+class TriePrefijos {
+
+    static final int UMBRAL_CONTENEDOR = 48;
+
+    private final Nodo raiz = new Nodo(0);
+    private int entradas;
+
+    /**
+     * Añade una palabra asociada a una posición. Una misma posición puede tener varias palabras.
+     *
+     * @param palabra palabra ya normalizada; las vacías se ignoran.
+     * @param posicion posición asociada.
+     */
+    void insertar(String palabra, int posicion) {
+
+        if (palabra.isEmpty()) {
+            return;
+        }
+
+        Nodo nodo = raiz;
+
+        while (true) {
+
+            nodo.cuenta++;
+
+            if (nodo.esContenedor()) {
+
+                nodo.anadirPalabra(palabra, posicion);
+
+                if (nodo.tamContenedor > UMBRAL_CONTENEDOR) {
+                    nodo.dividir();
+                }
+
+                break;
+            }
+
+            if (nodo.profundidad == palabra.length()) {
+
+                nodo.anadirFinal(posicion);
+                break;
+
+            }
+
+            nodo = nodo.hijo(palabra.charAt(nodo.profundidad), true);
+
+        }
+
+        entradas++;
+
+    }
+
+    /**
+     * Estima cuántas entradas empiezan por un prefijo. Es exacto salvo por las palabras repetidas
+     * de una misma posición, que cuentan una vez por palabra.
+     *
+     * @param prefijo prefijo normalizado.
+     * @return número de entradas bajo el prefijo.
+     */
+    int contar(String prefijo) {
+
+        Nodo nodo = raiz;
+
+        while (nodo != null) {
+
+            if (nodo.esContenedor()) {
+                return nodo.contarPalabras(prefijo);
+            }
+
+            if (nodo.profundidad == prefijo.length()) {
+                return nodo.cuenta;
+            }
+
+            nodo = nodo.hijo(prefijo.charAt(nodo.profundidad), false);
+
+        }
+
+        return 0;
+    }
+
+    /**
+     * Recorre las posiciones de todas las palabras que empiezan por un prefijo. Una posición puede aparecer
+     * más de una vez si varias de sus palabras comparten el prefijo.
+     *
+     * @param prefijo prefijo normalizado.
+     * @param visitante recibe cada posición; si devuelve {@code false} el recorrido se detiene.
+     * @return {@code false} si el visitante detuvo el recorrido.
+     */
+    boolean recorrer(String prefijo, IntPredicate visitante) {
+
+        Nodo nodo = raiz;
+
+        while (nodo != null) {
+
+            if (nodo.esContenedor()) {
+                return nodo.recorrerPalabras(prefijo, visitante);
+            }
+
+            if (nodo.profundidad == prefijo.length()) {
+                return nodo.recorrerTodo(visitante);
+            }
+
+            nodo = nodo.hijo(prefijo.charAt(nodo.profundidad), false);
+
+        }
+
+        return true;
+    }
+
+    /**
+     * @return número de palabras insertadas.
+     */
+    int tamano() {
+        return entradas;
+    }
+
+    /**
+     * Nodo del trie. Empieza siendo contenedor (lista de palabras) y pasa a nodo interno al dividirse.
+     * Todas las palabras que cuelgan de un nodo comparten sus primeros {@code profundidad} caracteres.
+     */
+    private static final class Nodo {
+
+        private final int profundidad;
+
+        // Nodo interno: hijos ordenados por carácter y posiciones de las palabras que terminan aquí
+        private char[] letras;
+        private Nodo[] hijos;
+        private int numHijos;
+        private int[] finales;
+        private int numFinales;
+
+        // Contenedor: palabras pendientes de repartir y sus posiciones
+        private String[] palabras = new String[4];
+        private int[] posicionesContenedor = new int[4];
+        private int tamContenedor;
+
+        private int cuenta;
+
+        Nodo(int profundidad) {
+            this.profundidad = profundidad;
+        }
+
+        boolean esContenedor() {
+            return palabras != null;
+        }
+
+        void anadirPalabra(String palabra, int posicion) {
+
+            if (tamContenedor == palabras.length) {
+
+                palabras = Arrays.copyOf(palabras, tamContenedor * 2);
+                posicionesContenedor = Arrays.copyOf(posicionesContenedor, tamContenedor * 2);
+
+            }
+
+            palabras[tamContenedor] = palabra;
+            posicionesContenedor[tamContenedor] = posicion;
+            tamContenedor++;
+
+        }
+
+        void anadirFinal(int posicion) {
+
+            if (finales == null) {
+                finales = new int[2];
+            } else if (numFinales == finales.length) {
+                finales = Arrays.copyOf(finales, numFinales * 2);
+            }
+
+            finales[numFinales++] = posicion;
+
+        }
+
+        /**
+         * Convierte el contenedor en nodo interno repartiendo sus palabras entre los hijos por el carácter
+         * siguiente a la profundidad del nodo.
+         */
+        void dividir() {
+
+            String[] pendientes = palabras;
+            int[] posiciones = posicionesContenedor;
+            int n = tamContenedor;
+
+            palabras = null;
+            posicionesContenedor = null;
+            tamContenedor = 0;
+            letras = new char[4];
+            hijos = new Nodo[4];
+
+            for (int k = 0; k < n; k++) {
+
+                String palabra = pendientes[k];
+
+                if (palabra.length() == profundidad) {
+
+                    anadirFinal(posiciones[k]);
+                    continue;
+
+                }
+
+                Nodo hijo = hijo(palabra.charAt(profundidad), true);
+                hijo.cuenta++;
+                hijo.anadirPalabra(palabra, posiciones[k]);
+
+            }
+
+            // Un hijo puede recibir todas las palabras (p. ej. teléfonos con el mismo prefijo): se divide también
+            for (int k = 0; k < numHijos; k++) {
+
+                if (hijos[k].tamContenedor > UMBRAL_CONTENEDOR) {
+                    hijos[k].dividir();
+                }
+            }
+        }
+
+        /**
+         * Busca (y opcionalmente crea) el hijo de un carácter. Los hijos se mantienen ordenados para buscarlos
+         * por búsqueda binaria y recorrerlos en orden alfabético.
+         */
+        Nodo hijo(char letra, boolean crear) {
+
+            int pos = Arrays.binarySearch(letras, 0, numHijos, letra);
+
+            if (pos >= 0) {
+                return hijos[pos];
+            }
+
+            if (!crear) {
+                return null;
+            }
+
+            pos = -pos - 1;
+
+            if (numHijos == letras.length) {
+
+                letras = Arrays.copyOf(letras, numHijos * 2);
+                hijos = Arrays.copyOf(hijos, numHijos * 2);
+
+            }
+
+            System.arraycopy(letras, pos, letras, pos + 1, numHijos - pos);
+            System.arraycopy(hijos, pos, hijos, pos + 1, numHijos - pos);
+
+            Nodo nuevo = new Nodo(profundidad + 1);
+            letras[pos] = letra;
+            hijos[pos] = nuevo;
+            numHijos++;
+
+            return nuevo;
+        }
+
+        int contarPalabras(String prefijo) {
+
+            int total = 0;
+
+            for (int k = 0; k < tamContenedor; k++) {
+
+                if (palabras[k].startsWith(prefijo)) {
+                    total++;
+                }
+            }
+
+            return total;
+        }
+
+        boolean recorrerPalabras(String prefijo, IntPredicate visitante) {
+
+            for (int k = 0; k < tamContenedor; k++) {
+
+                if (palabras[k].startsWith(prefijo) && !visitante.test(posicionesContenedor[k])) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        boolean recorrerTodo(IntPredicate visitante) {
+
+            if (esContenedor()) {
+                return recorrerPalabras("", visitante);
+            }
+
+            for (int k = 0; k < numFinales; k++) {
+
+                if (!visitante.test(finales[k])) {
+                    return false;
+                }
+            }
+
+            for (int k = 0; k < numHijos; k++) {
+
+                if (!hijos[k].recorrerTodo(visitante)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
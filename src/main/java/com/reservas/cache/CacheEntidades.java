@@ -0,0 +1,258 @@
+package com.reservas.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * <h1>Caché de entidades con capacidad limitada y caducidad</h1>
+ *
+ * Guarda en memoria las entidades leídas por los DAO para que las búsquedas repetidas (formularios de edición,
+ * cajas de búsqueda) no vuelvan a consultar la base de datos. Los DAO la mantienen al día escribiendo en ella
+ * cada inserción, modificación o borrado que realizan.
+ *
+ * <h2>Características principales:</h2>
+ * <ul>
+ *     <li>Capacidad máxima: al superarla se expulsa la entrada usada hace más tiempo (LRU).</li>
+ *     <li>Caducidad: cada entrada deja de ser válida pasado el tiempo indicado, aunque se siga usando.</li>
+ *     <li>Los modelos son mutables, así que se guarda y se entrega siempre una copia; los cambios hechos
+ *     por un formulario no llegan a la caché hasta que el DAO los escribe.</li>
+ *     <li>Cuenta aciertos, fallos, expulsiones y caducidades; todas las cachés creadas con {@link #crear} quedan
+ *     registradas y sus estadísticas se consultan con {@link #estadisticasGlobales()}.</li>
+ *     <li>Es segura entre hilos; la consulta a la base de datos en un fallo se hace fuera del bloqueo.</li>
+ * </ul>
+ *
+ * @param <K> tipo de la clave.
+ * @param <V> tipo de la entidad guardada.
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public class CacheEntidades<K, V> {
+
+    private static final List<CacheEntidades<?, ?>> REGISTRADAS = new CopyOnWriteArrayList<>();
+
+    private final String nombre;
+    private final int capacidad;
+    private final long vigenciaNanos;
+    private final UnaryOperator<V> copia;
+    private final LinkedHashMap<K, Entrada<V>> entradas;
+
+    private long aciertos;
+    private long fallos;
+    private long expulsiones;
+    private long caducadas;
+
+    // Aumenta con cada escritura; evita guardar una lectura que empezó antes de una escritura más reciente
+    private long version;
+
+    /**
+     * Crea una caché y la registra para {@link #estadisticasGlobales()}. El registro se hace aquí y no en el
+     * constructor para no publicar la caché a otros hilos antes de que esté construida.
+     *
+     * @param nombre nombre con el que aparece en las estadísticas.
+     * @param capacidad número máximo de entradas.
+     * @param vigencia tiempo durante el que una entrada se considera válida.
+     * @param copia función que duplica una entidad; {@link UnaryOperator#identity()} si es inmutable.
+     * @param <K> tipo de la clave.
+     * @param <V> tipo de la entidad guardada.
+     * @return la caché, vacía.
+     * @throws IllegalArgumentException si la capacidad no es positiva.
+     */
+    public static <K, V> CacheEntidades<K, V> crear(String nombre, int capacidad, Duration vigencia, UnaryOperator<V> copia) {
+
+        CacheEntidades<K, V> cache = new CacheEntidades<>(nombre, capacidad, vigencia, copia);
+        REGISTRADAS.add(cache);
+
+        return cache;
+    }
+
+    private CacheEntidades(String nombre, int capacidad, Duration vigencia, UnaryOperator<V> copia) {
+
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad de la caché debe ser positiva");
+        }
+
+        this.nombre = nombre;
+        this.capacidad = capacidad;
+        this.vigenciaNanos = vigencia.toNanos();
+        this.copia = copia;
+
+        // Orden de acceso: la primera entrada es siempre la usada hace más tiempo
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> mayor) {
+
+                if (size() > CacheEntidades.this.capacidad) {
+
+                    expulsiones++;
+                    return true;
+
+                }
+
+                return false;
+            }
+        };
+
+    }
+
+    /**
+     * Devuelve la entidad guardada para la clave o, si no está o ha caducado, la obtiene con el cargador y la guarda.
+     * Un resultado {@code null} del cargador no se guarda, de modo que las claves inexistentes se vuelven a consultar.
+     *
+     * @param clave clave buscada.
+     * @param cargador consulta a la base de datos que se ejecuta en caso de fallo.
+     * @return copia de la entidad, o {@code null} si no existe.
+     */
+    public V obtener(K clave, Function<? super K, ? extends V> cargador) {
+
+        long versionLectura;
+
+        synchronized (this) {
+
+            Entrada<V> entrada = entradas.get(clave);
+
+            if (entrada != null) {
+
+                if (System.nanoTime() - entrada.caducaEn < 0) {
+
+                    aciertos++;
+                    return copia.apply(entrada.valor);
+
+                }
+
+                entradas.remove(clave);
+                caducadas++;
+
+            }
+
+            fallos++;
+            versionLectura = version;
+
+        }
+
+        V valor = cargador.apply(clave);
+
+        if (valor != null) {
+
+            Entrada<V> entrada = new Entrada<>(copia.apply(valor), System.nanoTime() + vigenciaNanos);
+
+            synchronized (this) {
+
+                if (version == versionLectura) {
+                    entradas.put(clave, entrada);
+                }
+            }
+        }
+
+        return valor;
+    }
+
+    /**
+     * Guarda (o sustituye) la entidad de una clave. Los DAO lo usan tras cada escritura correcta.
+     *
+     * @param clave clave de la entidad.
+     * @param valor entidad a guardar; se guarda una copia.
+     */
+    public void poner(K clave, V valor) {
+
+        Entrada<V> entrada = new Entrada<>(copia.apply(valor), System.nanoTime() + vigenciaNanos);
+
+        synchronized (this) {
+
+            entradas.put(clave, entrada);
+            version++;
+
+        }
+    }
+
+    /**
+     * Guarda varias entidades de una vez, por ejemplo las filas de una página recién leída.
+     *
+     * @param valores entidades a guardar.
+     * @param clave función que obtiene la clave de cada entidad.
+     */
+    public void ponerTodas(Iterable<? extends V> valores, Function<? super V, ? extends K> clave) {
+
+        for (V valor : valores) {
+            poner(clave.apply(valor), valor);
+        }
+    }
+
+    /**
+     * Descarta la entidad de una clave.
+     *
+     * @param clave clave a descartar.
+     */
+    public synchronized void quitar(K clave) {
+
+        entradas.remove(clave);
+        version++;
+
+    }
+
+    /**
+     * Descarta todas las entradas que cumplen una condición. Sirve cuando la clave afectada por una escritura
+     * no se conoce (por ejemplo, el email anterior de un cliente modificado).
+     *
+     * @param condicion condición sobre la clave y la entidad guardada.
+     */
+    public synchronized void quitarSi(BiPredicate<? super K, ? super V> condicion) {
+
+        Iterator<Map.Entry<K, Entrada<V>>> it = entradas.entrySet().iterator();
+
+        while (it.hasNext()) {
+
+            Map.Entry<K, Entrada<V>> e = it.next();
+
+            if (condicion.test(e.getKey(), e.getValue().valor)) {
+                it.remove();
+            }
+        }
+
+        version++;
+
+    }
+
+    /**
+     * Descarta todas las entradas.
+     */
+    public synchronized void vaciar() {
+
+        entradas.clear();
+        version++;
+
+    }
+
+    /**
+     * @return contadores actuales de esta caché.
+     */
+    public synchronized EstadisticasCache estadisticas() {
+
+        return new EstadisticasCache(nombre, aciertos, fallos, expulsiones, caducadas, entradas.size(), capacidad);
+
+    }
+
+    /**
+     * @return estadísticas de todas las cachés creadas en la aplicación, en orden de creación.
+     */
+    public static List<EstadisticasCache> estadisticasGlobales() {
+
+        List<EstadisticasCache> resultado = new ArrayList<>(REGISTRADAS.size());
+
+        for (CacheEntidades<?, ?> cache : REGISTRADAS) {
+            resultado.add(cache.estadisticas());
+        }
+
+        return resultado;
+    }
+
+    private record Entrada<V>(V valor, long caducaEn) { }
+}
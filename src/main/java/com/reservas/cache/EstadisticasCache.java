@@ -0,0 +1,38 @@
+package com.reservas.cache;
+
+/**
+ * <h1>Estadísticas de una caché de entidades</h1>
+ *
+ * Instantánea de los contadores de una {@link CacheEntidades}.
+ *
+ * @param nombre nombre de la caché.
+ * @param aciertos lecturas resueltas sin consultar la base de datos.
+ * @param fallos lecturas que han tenido que consultar la base de datos.
+ * @param expulsiones entradas descartadas por superar la capacidad.
+ * @param caducadas entradas descartadas por superar su vigencia.
+ * @param tamano entradas guardadas actualmente.
+ * @param capacidad número máximo de entradas.
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public record EstadisticasCache(String nombre, long aciertos, long fallos, long expulsiones, long caducadas, int tamano,
+                                int capacidad) {
+
+    /**
+     * @return proporción de lecturas resueltas desde memoria, entre 0 y 1 ({@code 0} si aún no hay lecturas).
+     */
+    public double tasaAciertos() {
+
+        long lecturas = aciertos + fallos;
+        return lecturas == 0 ? 0 : (double) aciertos / lecturas;
+
+    }
+
+    @Override
+    public String toString() {
+
+        return String.format("%s: %d/%d entradas · aciertos %.1f%% (%d/%d) · expulsiones %d · caducadas %d",
+                nombre, tamano, capacidad, tasaAciertos() * 100, aciertos, aciertos + fallos, expulsiones, caducadas);
+
+    }
+}
@@ -1,27 +1,50 @@
 package com.reservas.config;
 
 import com.reservas.dao.ClienteDAO;
+import com.reservas.metricas.MetricasConsultas;
+import com.reservas.metricas.VolcadoMetricas;
 import io.github.cdimascio.dotenv.Dotenv;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
 
 /**
  * <h1>Configuración de la conexión a la base de datos.</h1>
  *
  * Clase Singleton para la gestión de la conexión a la base de datos.
  * <p>
- * Garantiza que solo exista una única instancia activa de conexión durante el ciclo de vida de la aplicación.
+ * Garantiza que solo exista una única instancia de configuración durante el ciclo de vida de la aplicación.
+ * Las conexiones se prestan desde un {@link PoolConexiones}, de modo que cerrar la conexión en un DAO
+ * la devuelve al pool en lugar de cerrar el socket con Supabase.
  * </p>
  *
+ * <h2>Variables opcionales del fichero .env:</h2>
+ * <ul>
+ *     <li>{@code DB_POOL_MIN} / {@code DB_POOL_MAX}: tamaño mínimo y máximo del pool (2 / 10).</li>
+ *     <li>{@code DB_POOL_ESPERA_MS}: espera máxima por una conexión libre (5000).</li>
+ *     <li>{@code DB_POOL_INACTIVIDAD_MS}: inactividad tras la que se cierra una conexión sobrante (300000).</li>
+ *     <li>{@code DB_POOL_VALIDACION_MS}: inactividad a partir de la cual se valida al prestar (1000).</li>
+ *     <li>{@code DB_POOL_FUGA_MS}: tiempo de préstamo para avisar de una posible fuga (60000, 0 lo desactiva).</li>
+ *     <li>{@code DB_CACHE_SENTENCIAS}: sentencias preparadas que se guardan por conexión (64, 0 desactiva la caché).</li>
+ *     <li>{@code DB_PREPARE_THRESHOLD}: ejecuciones de una sentencia tras las que el driver la prepara en el servidor
+ *     (1). Con el pooler de Supabase en modo transacción debe ser 0.</li>
+ *     <li>{@code DB_CONSULTA_LENTA_MS}: tiempo a partir del cual una sentencia se registra como lenta (500).</li>
+ *     <li>{@code METRICAS_ARCHIVO} / {@code METRICAS_INTERVALO_S}: archivo donde se vuelcan periódicamente
+ *     las métricas de las consultas, en JSON si termina en {@code .json}, y cada cuántos segundos (60).</li>
+ * </ul>
+ *
  * @author Daniel Hernando
  * @author Jaime Pérez
  * @since 31/10/2025
  */
 public class DataBaseConnection {
 
-    private static DataBaseConnection instance;
-    private Connection connection;
+    private static volatile DataBaseConnection instance;
+    private final PoolConexiones pool;
     private final String url;
     private final String user;
     private final String password;
@@ -44,6 +67,36 @@ public class DataBaseConnection {
 
             }
 
+            Properties propiedades = new Properties();
+            propiedades.setProperty("user", this.user);
+            propiedades.setProperty("password", this.password);
+
+            // El driver de PostgreSQL envía los lotes de INSERT (addBatch) como sentencias de varias filas
+            propiedades.setProperty("reWriteBatchedInserts", "true");
+
+            // Las sentencias de la caché del pool se ejecutan muchas veces: se preparan en el servidor desde la primera,
+            // y a partir de ahí PostgreSQL no vuelve a analizar el SQL y puede reutilizar el plan
+            propiedades.setProperty("prepareThreshold", String.valueOf(leerEntero(dotenv, "DB_PREPARE_THRESHOLD", 1)));
+
+            PoolConexiones.Configuracion config = new PoolConexiones.Configuracion(
+                    leerEntero(dotenv, "DB_POOL_MIN", 2),
+                    leerEntero(dotenv, "DB_POOL_MAX", 10),
+                    leerEntero(dotenv, "DB_POOL_ESPERA_MS", 5_000),
+                    leerEntero(dotenv, "DB_POOL_INACTIVIDAD_MS", 300_000),
+                    leerEntero(dotenv, "DB_POOL_VALIDACION_MS", 1_000),
+                    leerEntero(dotenv, "DB_POOL_FUGA_MS", 60_000),
+                    leerEntero(dotenv, "DB_CACHE_SENTENCIAS", 64)
+            );
+
+            this.pool = new PoolConexiones(this.url, propiedades, config);
+
+            MetricasConsultas.setUmbralLentaMs(leerEntero(dotenv, "DB_CONSULTA_LENTA_MS", 500));
+            String archivoMetricas = dotenv.get("METRICAS_ARCHIVO");
+
+            if (archivoMetricas != null && !archivoMetricas.isBlank()) {
+                VolcadoMetricas.programar(Path.of(archivoMetricas.trim()), leerEntero(dotenv, "METRICAS_INTERVALO_S", 60));
+            }
+
         } catch (Exception e) {
 
             System.err.println("Error al cargar configuración: " + e.getMessage());
@@ -79,19 +132,15 @@ public class DataBaseConnection {
 
 
     /**
-     * Establece una conexión a la base de datos si no existe o está cerrada.
-     * @return objeto Connection
+     * Presta una conexión del pool. Al cerrarla (por ejemplo con <i>try-with-resources</i>)
+     * vuelve al pool para ser reutilizada.
+     * @return objeto Connection, o {@code null} si no se ha podido obtener
      */
     public Connection conectarBD() {
 
         try {
 
-            if (connection == null || connection.isClosed()) {
-
-                connection = DriverManager.getConnection(url, user, password);
-                System.out.println(" Conexión establecida exitosamente");
-
-            }
+            return pool.getConnection();
 
         } catch (SQLException e) {
 
@@ -102,28 +151,86 @@ public class DataBaseConnection {
 
         }
 
-        return connection;
+    }
+
+    /**
+     * Abre una conexión física propia, fuera del pool, para usos que la mantienen abierta durante toda la sesión
+     * (como escuchar notificaciones con {@code LISTEN}). Quien la abre debe cerrarla.
+     * @return conexión nueva con la base de datos
+     * @throws SQLException si no se puede conectar
+     */
+    public Connection abrirConexionDedicada() throws SQLException {
+
+        return DriverManager.getConnection(url, user, password);
 
     }
 
     /**
-     * Cierra la conexión actual si está abierta.
+     * Devuelve el pool de conexiones como {@link DataSource}.
+     * @return origen de datos con las conexiones reutilizables
+     */
+    public DataSource getDataSource() {
+
+        return pool;
+
+    }
+
+    /**
+     * Obtiene las estadísticas de uso del pool de conexiones.
+     * @return instantánea de las estadísticas
+     */
+    public PoolConexiones.Estadisticas getEstadisticasPool() {
+
+        return pool.getEstadisticas();
+
+    }
+
+    /**
+     * Cierra el pool y todas sus conexiones inactivas.
      */
     public void cerrarConexion() {
 
-        try {
+        pool.cerrar();
+        System.out.println("Pool de conexiones cerrado: " + pool.getEstadisticas());
 
-            if (connection != null && !connection.isClosed()) {
+    }
 
-                connection.close();
-                System.out.println("Conexión cerrada exitosamente");
+    /**
+     * Cierra el pool solo si la instancia ya se había creado, para no abrir conexiones al salir
+     * de la aplicación sin haber usado la base de datos.
+     */
+    public static void cerrarSiIniciada() {
 
-            }
+        DataBaseConnection actual = instance;
 
-        } catch (SQLException e) {
+        if (actual != null) {
+
+            actual.cerrarConexion();
+
+        }
+
+    }
+
+    /**
+     * Lee un valor numérico opcional del fichero .env.
+     */
+    private static int leerEntero(Dotenv dotenv, String clave, int porDefecto) {
+
+        String valor = dotenv.get(clave);
+
+        if (valor == null || valor.isBlank()) {
+
+            return porDefecto;
+
+        }
+
+        try {
+
+            return Integer.parseInt(valor.trim());
+
+        } catch (NumberFormatException e) {
 
-            System.err.println("Error al cerrar conexion: " + e.getMessage());
-            throw new RuntimeException(e);
+            throw new IllegalStateException("Valor no numérico para " + clave + ": " + valor);
 
         }
 
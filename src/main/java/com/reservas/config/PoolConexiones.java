@@ -0,0 +1,1014 @@
+package com.reservas.config;
+
+import com.reservas.metricas.MetricasConsultas;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * <h1>Pool de conexiones JDBC</h1>
+ *
+ * Implementación acotada de {@link DataSource} que reutiliza conexiones físicas a la base de datos
+ * en lugar de abrir una nueva (TCP + TLS + autenticación) en cada operación de los DAO.
+ * <p>
+ * Las conexiones que se entregan son envoltorios lógicos: al invocar {@code close()} la conexión física
+ * vuelve al pool en lugar de cerrarse, por lo que los DAO pueden seguir usando <i>try-with-resources</i>.
+ * </p>
+ *
+ * <h2>Características principales:</h2>
+ * <ul>
+ *     <li>Tamaño mínimo y máximo de conexiones físicas.</li>
+ *     <li>Tiempo máximo de espera al solicitar una conexión cuando el pool está agotado.</li>
+ *     <li>Validación al préstamo de las conexiones que llevan un tiempo inactivas.</li>
+ *     <li>Expulsión de conexiones inactivas por encima del mínimo.</li>
+ *     <li>Detección de fugas: avisa de las conexiones prestadas durante demasiado tiempo.</li>
+ *     <li>Caché de sentencias preparadas por conexión física: el mismo SQL se reutiliza entre préstamos.</li>
+ *     <li>Medición de cada sentencia ejecutada, que se registra en {@link MetricasConsultas}.</li>
+ *     <li>Estadísticas de uso consultables en cualquier momento.</li>
+ * </ul>
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public class PoolConexiones implements DataSource {
+
+    private static final long INTERVALO_MANTENIMIENTO_MS = 15_000;
+
+    private final String url;
+    private final Properties propiedades;
+
+    private final int minimo;
+    private final int maximo;
+    private final long tiempoEsperaMs;
+    private final long tiempoInactividadMs;
+    private final long umbralValidacionMs;
+    private final long umbralFugaMs;
+    private final int sentenciasPorConexion;
+
+    private final Semaphore permisos;
+    private final LinkedBlockingDeque<ConexionFisica> inactivas = new LinkedBlockingDeque<>();
+    private final Set<ConexionFisica> prestadas = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totales = new AtomicInteger();
+    private final AtomicInteger esperando = new AtomicInteger();
+
+    private final LongAdder prestamos = new LongAdder();
+    private final LongAdder creadas = new LongAdder();
+    private final LongAdder descartadas = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder fugas = new LongAdder();
+    private final LongAdder esperaTotalNanos = new LongAdder();
+    private final LongAdder sentenciasReutilizadas = new LongAdder();
+    private final LongAdder sentenciasPreparadas = new LongAdder();
+
+    private final ScheduledExecutorService mantenimiento;
+    private volatile boolean cerrado = false;
+    private int loginTimeout = 0;
+
+    /**
+     * Crea el pool y abre las conexiones mínimas configuradas.
+     *
+     * @param url URL JDBC de la base de datos.
+     * @param propiedades propiedades de conexión (usuario, contraseña y parámetros del driver).
+     * @param config parámetros de dimensionado y tiempos del pool.
+     */
+    public PoolConexiones(String url, Properties propiedades, Configuracion config) {
+
+        if (config.minimo() < 0 || config.maximo() < 1 || config.minimo() > config.maximo()) {
+            throw new IllegalArgumentException("Tamaño de pool no válido: mínimo " + config.minimo() + ", máximo " + config.maximo());
+        }
+
+        this.url = url;
+        this.propiedades = propiedades;
+        this.minimo = config.minimo();
+        this.maximo = config.maximo();
+        this.tiempoEsperaMs = config.tiempoEsperaMs();
+        this.tiempoInactividadMs = config.tiempoInactividadMs();
+        this.umbralValidacionMs = config.umbralValidacionMs();
+        this.umbralFugaMs = config.umbralFugaMs();
+        this.sentenciasPorConexion = config.sentenciasPorConexion();
+        this.permisos = new Semaphore(maximo, true);
+
+        this.mantenimiento = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "pool-conexiones-mantenimiento");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        mantenimiento.execute(this::rellenarMinimo);
+        mantenimiento.scheduleWithFixedDelay(this::mantener, INTERVALO_MANTENIMIENTO_MS,
+                INTERVALO_MANTENIMIENTO_MS, TimeUnit.MILLISECONDS);
+
+    }
+
+    /**
+     * Presta una conexión del pool. Si no hay conexiones inactivas y no se ha alcanzado el máximo,
+     * se abre una nueva; si el pool está agotado se espera como mucho el tiempo configurado.
+     *
+     * @return conexión lógica que vuelve al pool al cerrarse.
+     * @throws SQLTimeoutException si no queda ninguna conexión libre dentro del tiempo de espera.
+     * @throws SQLException si el pool está cerrado o no se puede abrir una conexión nueva.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+
+        if (cerrado) {
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+
+        long inicio = System.nanoTime();
+        esperando.incrementAndGet();
+
+        try {
+
+            if (!permisos.tryAcquire(tiempoEsperaMs, TimeUnit.MILLISECONDS)) {
+
+                timeouts.increment();
+                throw new SQLTimeoutException("No hay conexiones libres tras " + tiempoEsperaMs + " ms (máximo " + maximo + ")");
+
+            }
+
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido mientras se esperaba una conexión", e);
+
+        } finally {
+
+            esperando.decrementAndGet();
+
+        }
+
+        try {
+
+            ConexionFisica fisica = obtenerInactivaValida();
+
+            if (fisica == null) {
+                fisica = crear();
+            }
+
+            fisica.prestar(umbralFugaMs > 0);
+            prestadas.add(fisica);
+
+            prestamos.increment();
+            long espera = System.nanoTime() - inicio;
+            esperaTotalNanos.add(espera);
+            MetricasConsultas.registrarEspera(espera);
+
+            return fisica.crearVistaLogica();
+
+        } catch (SQLException | RuntimeException e) {
+
+            permisos.release();
+            throw e;
+
+        }
+    }
+
+    /**
+     * Las credenciales se fijan al crear el pool; no se admiten credenciales por préstamo.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("El pool solo presta conexiones con las credenciales configuradas");
+    }
+
+    /**
+     * Devuelve una instantánea de las estadísticas de uso del pool.
+     *
+     * @return estadísticas actuales.
+     */
+    public Estadisticas getEstadisticas() {
+
+        long numPrestamos = prestamos.sum();
+        double esperaMediaMs = numPrestamos == 0 ? 0 : esperaTotalNanos.sum() / 1_000_000.0 / numPrestamos;
+
+        return new Estadisticas(totales.get(), prestadas.size(), inactivas.size(), esperando.get(), maximo,
+                numPrestamos, creadas.sum(), descartadas.sum(), timeouts.sum(), fugas.sum(), esperaMediaMs,
+                sentenciasReutilizadas.sum(), sentenciasPreparadas.sum());
+
+    }
+
+    /**
+     * Cierra todas las conexiones inactivas y detiene el mantenimiento. Las conexiones prestadas
+     * se cierran físicamente cuando se devuelven.
+     */
+    public void cerrar() {
+
+        cerrado = true;
+        mantenimiento.shutdownNow();
+
+        ConexionFisica fisica;
+
+        while ((fisica = inactivas.pollFirst()) != null) {
+            descartar(fisica);
+        }
+
+    }
+
+    /**
+     * Saca conexiones inactivas (la más reciente primero) hasta encontrar una válida.
+     */
+    private ConexionFisica obtenerInactivaValida() {
+
+        ConexionFisica fisica;
+
+        while ((fisica = inactivas.pollFirst()) != null) {
+
+            if (fisica.esValida(umbralValidacionMs)) {
+                return fisica;
+            }
+
+            descartar(fisica);
+
+        }
+
+        return null;
+    }
+
+    /**
+     * Abre una nueva conexión física con el driver.
+     */
+    private ConexionFisica crear() throws SQLException {
+
+        totales.incrementAndGet();
+
+        try {
+
+            Connection real = DriverManager.getConnection(url, propiedades);
+            creadas.increment();
+            return new ConexionFisica(real);
+
+        } catch (SQLException e) {
+
+            totales.decrementAndGet();
+            throw e;
+
+        }
+    }
+
+    /**
+     * Devuelve una conexión física al pool tras restaurar su estado por defecto.
+     */
+    private void devolver(ConexionFisica fisica) {
+
+        prestadas.remove(fisica);
+
+        try {
+
+            fisica.restaurar();
+
+            if (cerrado) {
+                descartar(fisica);
+            } else {
+                inactivas.offerFirst(fisica);
+            }
+
+        } catch (SQLException e) {
+
+            System.err.println("Conexión descartada al devolverla al pool: " + e.getMessage());
+            descartar(fisica);
+
+        } finally {
+
+            permisos.release();
+
+        }
+    }
+
+    /**
+     * Cierra definitivamente una conexión física.
+     */
+    private void descartar(ConexionFisica fisica) {
+
+        totales.decrementAndGet();
+        descartadas.increment();
+
+        try {
+            fisica.real.close();
+        } catch (SQLException ignored) {
+            // La conexión ya estaba rota; no hay nada más que hacer
+        }
+
+    }
+
+    /**
+     * Tarea periódica: expulsa inactivas sobrantes, avisa de fugas y repone el mínimo.
+     */
+    private void mantener() {
+
+        try {
+
+            long ahora = System.currentTimeMillis();
+
+            Iterator<ConexionFisica> it = inactivas.descendingIterator();
+
+            while (it.hasNext() && totales.get() > minimo) {
+
+                ConexionFisica fisica = it.next();
+
+                if (ahora - fisica.ultimoUso > tiempoInactividadMs && inactivas.remove(fisica)) {
+                    descartar(fisica);
+                }
+
+            }
+
+            if (umbralFugaMs > 0) {
+
+                for (ConexionFisica fisica : prestadas) {
+
+                    if (!fisica.fugaNotificada && ahora - fisica.prestadaDesde > umbralFugaMs) {
+
+                        fisica.fugaNotificada = true;
+                        fugas.increment();
+
+                        System.err.println("Posible fuga de conexión: prestada hace " + (ahora - fisica.prestadaDesde) + " ms");
+
+                        if (fisica.origenPrestamo != null) {
+                            fisica.origenPrestamo.printStackTrace();
+                        }
+
+                    }
+
+                }
+
+            }
+
+            rellenarMinimo();
+
+        } catch (RuntimeException e) {
+            System.err.println("Error en el mantenimiento del pool: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Abre conexiones inactivas hasta alcanzar el mínimo configurado.
+     */
+    private void rellenarMinimo() {
+
+        while (!cerrado && totales.get() < minimo) {
+
+            try {
+
+                inactivas.offerLast(crear());
+
+            } catch (SQLException e) {
+
+                System.err.println("No se ha podido abrir la conexión mínima del pool: " + e.getMessage());
+                return;
+
+            }
+
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return DriverManager.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        DriverManager.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        this.loginTimeout = seconds;
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+
+        throw new SQLException("El pool no envuelve " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * Parámetros de dimensionado y tiempos del pool.
+     *
+     * @param minimo conexiones físicas que se mantienen abiertas aunque no se usen.
+     * @param maximo número máximo de conexiones físicas simultáneas.
+     * @param tiempoEsperaMs tiempo máximo de espera por una conexión libre.
+     * @param tiempoInactividadMs tiempo tras el que se cierra una conexión inactiva sobrante.
+     * @param umbralValidacionMs inactividad a partir de la cual se valida la conexión antes de prestarla.
+     * @param umbralFugaMs tiempo de préstamo a partir del cual se avisa de una posible fuga ({@code 0} lo desactiva).
+     * @param sentenciasPorConexion sentencias preparadas que se guardan por conexión física ({@code 0} desactiva la caché).
+     */
+    public record Configuracion(int minimo, int maximo, long tiempoEsperaMs, long tiempoInactividadMs,
+                                long umbralValidacionMs, long umbralFugaMs, int sentenciasPorConexion) { }
+
+    /**
+     * Instantánea de las estadísticas del pool.
+     *
+     * @param totales conexiones físicas abiertas.
+     * @param activas conexiones prestadas en este momento.
+     * @param inactivas conexiones disponibles en el pool.
+     * @param esperando hilos esperando una conexión.
+     * @param maximo tamaño máximo configurado.
+     * @param prestamos número total de préstamos atendidos.
+     * @param creadas conexiones físicas abiertas desde el arranque.
+     * @param descartadas conexiones físicas cerradas (inválidas, expulsadas o rotas).
+     * @param timeouts préstamos fallidos por agotamiento del pool.
+     * @param fugas posibles fugas detectadas.
+     * @param esperaMediaMs tiempo medio de obtención de una conexión.
+     * @param sentenciasReutilizadas sentencias preparadas servidas desde la caché de la conexión.
+     * @param sentenciasPreparadas sentencias preparadas que no estaban en la caché y se han creado.
+     */
+    public record Estadisticas(int totales, int activas, int inactivas, int esperando, int maximo, long prestamos,
+                               long creadas, long descartadas, long timeouts, long fugas, double esperaMediaMs,
+                               long sentenciasReutilizadas, long sentenciasPreparadas) {
+
+        /**
+         * @return proporción de sentencias preparadas servidas desde la caché, entre 0 y 1.
+         */
+        public double aciertoSentencias() {
+
+            long total = sentenciasReutilizadas + sentenciasPreparadas;
+            return total == 0 ? 0 : (double) sentenciasReutilizadas / total;
+
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Pool: %d/%d conexiones (%d activas, %d inactivas, %d esperando) - préstamos: %d, " +
+                            "creadas: %d, descartadas: %d, timeouts: %d, fugas: %d, espera media: %.3f ms, " +
+                            "sentencias reutilizadas: %.1f %% (%d de %d)",
+                    totales, maximo, activas, inactivas, esperando, prestamos, creadas, descartadas, timeouts, fugas, esperaMediaMs,
+                    aciertoSentencias() * 100, sentenciasReutilizadas, sentenciasReutilizadas + sentenciasPreparadas);
+        }
+    }
+
+    /**
+     * Conexión física gestionada por el pool junto a sus metadatos de uso.
+     */
+    private final class ConexionFisica {
+
+        private final Connection real;
+        private final Map<ClaveSentencia, PreparedStatement> sentencias;
+        private volatile long ultimoUso = System.currentTimeMillis();
+        private volatile long prestadaDesde;
+        private volatile Throwable origenPrestamo;
+        private volatile boolean fugaNotificada;
+
+        private ConexionFisica(Connection real) {
+
+            this.real = real;
+
+            // Orden de acceso: al llenarse se cierra la sentencia usada hace más tiempo
+            this.sentencias = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ClaveSentencia, PreparedStatement> mayor) {
+
+                    if (size() <= sentenciasPorConexion) {
+                        return false;
+                    }
+
+                    cerrarSentencia(mayor.getValue());
+                    return true;
+
+                }
+            };
+
+        }
+
+        /**
+         * Saca de la caché una sentencia preparada abierta con esa clave, si la hay. Mientras está prestada
+         * no está en la caché, así que dos usos simultáneos del mismo SQL no comparten sentencia.
+         */
+        private PreparedStatement sacarSentencia(ClaveSentencia clave) throws SQLException {
+
+            PreparedStatement sentencia = sentencias.remove(clave);
+
+            if (sentencia != null && sentencia.isClosed()) {
+                return null;
+            }
+
+            return sentencia;
+        }
+
+        /**
+         * Devuelve una sentencia a la caché. Si ya hay otra con la misma clave, se cierra la devuelta.
+         */
+        private void guardarSentencia(ClaveSentencia clave, PreparedStatement sentencia) {
+
+            if (sentencias.putIfAbsent(clave, sentencia) != null) {
+                cerrarSentencia(sentencia);
+            }
+
+        }
+
+        /**
+         * Comprueba con el servidor que la conexión sigue viva, pero solo si lleva inactiva
+         * más tiempo que el umbral: así las conexiones recién usadas no pagan un viaje extra.
+         */
+        private boolean esValida(long umbralMs) {
+
+            try {
+
+                if (real.isClosed()) {
+                    return false;
+                }
+
+                return System.currentTimeMillis() - ultimoUso < umbralMs || real.isValid(2);
+
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private void prestar(boolean registrarOrigen) {
+
+            prestadaDesde = System.currentTimeMillis();
+            fugaNotificada = false;
+            origenPrestamo = registrarOrigen ? new Throwable("Origen del préstamo de la conexión") : null;
+
+        }
+
+        /**
+         * Deja la conexión en su estado por defecto antes de volver al pool.
+         */
+        private void restaurar() throws SQLException {
+
+            if (real.isClosed()) {
+                throw new SQLException("La conexión física está cerrada");
+            }
+
+            if (!real.getAutoCommit()) {
+                real.rollback();
+                real.setAutoCommit(true);
+            }
+
+            ultimoUso = System.currentTimeMillis();
+            origenPrestamo = null;
+
+        }
+
+        /**
+         * Crea una vista lógica de la conexión para un único préstamo.
+         */
+        private Connection crearVistaLogica() {
+
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new VistaLogica(this));
+
+        }
+    }
+
+    /**
+     * Intercepta las llamadas a la conexión prestada: {@code close()} devuelve la conexión al pool
+     * y cierra las sentencias que el DAO haya dejado abiertas. Todas las sentencias se entregan envueltas
+     * en una {@link SentenciaVigilada} que mide su ejecución.
+     */
+    private final class VistaLogica implements InvocationHandler {
+
+        private final ConexionFisica fisica;
+        private final List<SentenciaVigilada> sentencias = new ArrayList<>();
+        private boolean devuelta = false;
+
+        private VistaLogica(ConexionFisica fisica) {
+            this.fisica = fisica;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+            switch (method.getName()) {
+
+                case "close" -> {
+                    cerrarLogica();
+                    return null;
+                }
+                case "isClosed" -> {
+                    return devuelta || fisica.real.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "ConexionPool[" + fisica.real + "]";
+                }
+            }
+
+            if (devuelta) {
+                throw new SQLException("La conexión ya se ha devuelto al pool");
+            }
+
+            if (sentenciasPorConexion > 0 && method.getName().equals("prepareStatement") && esCacheable(args)) {
+                return prepararCacheada((Connection) proxy, method, args);
+            }
+
+            try {
+
+                Object resultado = method.invoke(fisica.real, args);
+
+                if (resultado instanceof Statement sentencia) {
+                    return vigilar((Connection) proxy, method.getReturnType(), sentencia, null);
+                }
+
+                return resultado;
+
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void cerrarLogica() {
+
+            if (devuelta) {
+                return;
+            }
+
+            devuelta = true;
+
+            for (SentenciaVigilada sentencia : sentencias) {
+                sentencia.cerrarLogica();
+            }
+
+            sentencias.clear();
+            devolver(fisica);
+
+        }
+
+        /**
+         * Solo se guardan las variantes {@code prepareStatement(sql)} y {@code prepareStatement(sql, clavesGeneradas)}.
+         */
+        private static boolean esCacheable(Object[] args) {
+            return args.length == 1 || (args.length == 2 && args[1] instanceof Integer);
+        }
+
+        /**
+         * Presta una sentencia de la caché de la conexión física, o la prepara si no estaba.
+         */
+        private Object prepararCacheada(Connection proxy, Method method, Object[] args) throws Throwable {
+
+            int claves = args.length == 1 ? Statement.NO_GENERATED_KEYS : (Integer) args[1];
+            ClaveSentencia clave = new ClaveSentencia((String) args[0], claves);
+            PreparedStatement real = fisica.sacarSentencia(clave);
+
+            if (real != null) {
+
+                sentenciasReutilizadas.increment();
+
+            } else {
+
+                try {
+                    real = (PreparedStatement) method.invoke(fisica.real, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+
+                sentenciasPreparadas.increment();
+
+            }
+
+            return vigilar(proxy, PreparedStatement.class, real, clave);
+
+        }
+
+        /**
+         * Envuelve una sentencia para medirla y la apunta para cerrarla al devolver la conexión.
+         */
+        private Object vigilar(Connection proxy, Class<?> tipo, Statement real, ClaveSentencia clave) {
+
+            SentenciaVigilada vigilada = new SentenciaVigilada(fisica, clave, real, proxy, MetricasConsultas.operacionActual());
+            sentencias.add(vigilada);
+
+            vigilada.envoltorio = (Statement) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, vigilada);
+            return vigilada.envoltorio;
+
+        }
+    }
+
+    /**
+     * Clave de la caché de sentencias: el texto SQL y si se piden las claves generadas.
+     */
+    private record ClaveSentencia(String sql, int clavesGeneradas) { }
+
+    /**
+     * Intercepta las llamadas a una sentencia prestada.
+     *
+     * <h2>Funciones:</h2>
+     * <ul>
+     *     <li>Mide cada ejecución y la registra en {@link MetricasConsultas} con la operación que preparó la sentencia.
+     *     Las filas leídas se cuentan al recorrer el {@link ResultSet} y se registran al cerrarlo.</li>
+     *     <li>Si la sentencia es de la caché, {@code close()} la limpia y la devuelve a la caché de su conexión
+     *     física en lugar de cerrarla.</li>
+     * </ul>
+     */
+    private static final class SentenciaVigilada implements InvocationHandler {
+
+        // Ajustes que cambian el comportamiento de la sentencia: si se tocan, no se devuelve a la caché
+        private static final Set<String> AJUSTES = Set.of("setFetchSize", "setFetchDirection", "setMaxRows",
+                "setLargeMaxRows", "setMaxFieldSize", "setQueryTimeout", "setEscapeProcessing", "setCursorName",
+                "setPoolable", "closeOnCompletion");
+
+        private final ConexionFisica fisica;
+        private final ClaveSentencia clave;
+        private final Statement real;
+        private final Connection conexion;
+        private final String operacion;
+
+        private Statement envoltorio;
+        private ResultSet ultimoReal;
+        private ResultSet ultimoResultado;
+        private boolean alterada = false;
+        private boolean cerrada = false;
+
+        private SentenciaVigilada(ConexionFisica fisica, ClaveSentencia clave, Statement real, Connection conexion,
+                                  String operacion) {
+
+            this.fisica = fisica;
+            this.clave = clave;
+            this.real = real;
+            this.conexion = conexion;
+            this.operacion = operacion;
+
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+            String nombre = method.getName();
+
+            switch (nombre) {
+
+                case "close" -> {
+                    cerrarLogica();
+                    return null;
+                }
+                case "isClosed" -> {
+                    return cerrada || real.isClosed();
+                }
+                case "getConnection" -> {
+                    return conexion;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "SentenciaPool[" + real + "]";
+                }
+            }
+
+            if (cerrada) {
+                throw new SQLException("La sentencia ya está cerrada");
+            }
+
+            if (AJUSTES.contains(nombre)) {
+                alterada = true;
+            }
+
+            if (nombre.startsWith("execute")) {
+                return ejecutar(method, args);
+            }
+
+            Object resultado = invocar(method, args);
+
+            if (nombre.equals("getResultSet") && resultado instanceof ResultSet rs) {
+                return contar(rs);
+            }
+
+            return resultado;
+        }
+
+        /**
+         * Ejecuta la sentencia midiendo el tiempo, y registra el resultado en las métricas.
+         */
+        private Object ejecutar(Method method, Object[] args) throws Throwable {
+
+            long inicio = System.nanoTime();
+            Object resultado;
+
+            try {
+
+                resultado = invocar(method, args);
+
+            } catch (SQLException | RuntimeException e) {
+
+                MetricasConsultas.registrar(operacion, System.nanoTime() - inicio, true, () -> textoSQL(args));
+                throw e;
+
+            }
+
+            MetricasConsultas.registrar(operacion, System.nanoTime() - inicio, false, () -> textoSQL(args));
+
+            switch (resultado) {
+
+                case ResultSet rs -> {
+                    return contar(rs);
+                }
+                case Integer filas -> MetricasConsultas.registrarFilas(operacion, filas);
+                case Long filas -> MetricasConsultas.registrarFilas(operacion, filas);
+                case int[] lote -> MetricasConsultas.registrarFilas(operacion, Arrays.stream(lote).filter(n -> n > 0).sum());
+                case long[] lote -> MetricasConsultas.registrarFilas(operacion, Arrays.stream(lote).filter(n -> n > 0).sum());
+                default -> { }
+
+            }
+
+            return resultado;
+        }
+
+        private Object invocar(Method method, Object[] args) throws Throwable {
+
+            try {
+                return method.invoke(real, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Texto de la sentencia para el registro de consultas lentas. El driver de PostgreSQL devuelve
+         * en {@code toString()} el SQL con los parámetros ya sustituidos.
+         */
+        private String textoSQL(Object[] args) {
+            return args != null && args.length > 0 && args[0] instanceof String sql ? sql : real.toString();
+        }
+
+        /**
+         * Envuelve un resultado para contar las filas que se leen de él.
+         */
+        private ResultSet contar(ResultSet rs) {
+
+            if (rs == ultimoReal) {
+                return ultimoResultado;
+            }
+
+            ultimoReal = rs;
+            ultimoResultado = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, new ResultadoContado(rs, envoltorio, operacion));
+
+            return ultimoResultado;
+        }
+
+        /**
+         * Cierra el último resultado. Si la sentencia es de la caché, la deja sin parámetros en ella, salvo que
+         * se haya cambiado algún ajuste o la limpieza falle; en ese caso, y si no es de la caché, se cierra de verdad.
+         */
+        private void cerrarLogica() {
+
+            if (cerrada) {
+                return;
+            }
+
+            cerrada = true;
+
+            try {
+
+                if (ultimoResultado != null) {
+                    ultimoResultado.close();
+                }
+
+                if (clave == null || alterada || real.isClosed()) {
+
+                    cerrarSentencia(real);
+                    return;
+
+                }
+
+                PreparedStatement preparada = (PreparedStatement) real;
+
+                preparada.clearParameters();
+                preparada.clearBatch();
+                preparada.clearWarnings();
+                fisica.guardarSentencia(clave, preparada);
+
+            } catch (SQLException e) {
+
+                cerrarSentencia(real);
+
+            }
+        }
+    }
+
+    /**
+     * Cuenta las filas que se leen de un {@link ResultSet} y las registra en las métricas al cerrarlo.
+     */
+    private static final class ResultadoContado implements InvocationHandler {
+
+        private final ResultSet real;
+        private final Statement sentencia;
+        private final String operacion;
+
+        private long filas = 0;
+        private boolean registrado = false;
+
+        private ResultadoContado(ResultSet real, Statement sentencia, String operacion) {
+
+            this.real = real;
+            this.sentencia = sentencia;
+            this.operacion = operacion;
+
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+            switch (method.getName()) {
+
+                case "close" -> {
+
+                    if (!registrado) {
+
+                        registrado = true;
+                        MetricasConsultas.registrarFilas(operacion, filas);
+
+                    }
+
+                    real.close();
+                    return null;
+
+                }
+                case "getStatement" -> {
+                    return sentencia;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+            }
+
+            try {
+
+                Object resultado = method.invoke(real, args);
+
+                if (resultado instanceof Boolean hay && hay && method.getName().equals("next")) {
+                    filas++;
+                }
+
+                return resultado;
+
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Cierra una sentencia ignorando los errores: la conexión se descartará al devolverla si está rota.
+     */
+    private static void cerrarSentencia(Statement sentencia) {
+
+        try {
+            sentencia.close();
+        } catch (SQLException ignored) {
+            // La conexión se descartará al devolverla si está rota
+        }
+
+    }
+}
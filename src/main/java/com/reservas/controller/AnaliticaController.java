@@ -0,0 +1,317 @@
+package com.reservas.controller;
+
+import com.reservas.analitica.CuadroMando;
+import com.reservas.analitica.Escenario;
+import com.reservas.analitica.Indicadores;
+import com.reservas.analitica.InstantaneaReservas;
+import com.reservas.analitica.MotorAnalitica;
+import com.reservas.eventos.TablaObservada;
+import com.reservas.util.CanalConsulta;
+import eu.hansolo.tilesfx.Tile;
+import eu.hansolo.tilesfx.TileBuilder;
+import eu.hansolo.tilesfx.skins.BarChartItem;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.fxml.FXML;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.*;
+import javafx.scene.layout.TilePane;
+import javafx.scene.paint.Color;
+import javafx.stage.Stage;
+
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToDoubleFunction;
+
+import static com.reservas.controller.MainController.mostrarAlerta;
+
+/**
+ * <h1>Controlador del panel de analítica</h1>
+ *
+ * Muestra la ocupación, el ADR y el RevPAR del año elegido con tarjetas de TilesFX, y permite ver cómo cambiarían
+ * con otros supuestos de tarifa, demanda y cancelaciones.
+ *
+ * <h2>Funciones principales:</h2>
+ * <ul>
+ *     <li>Indicadores reales del año, calculados en la base de datos por {@link MotorAnalitica}.</li>
+ *     <li>Ocupación de cada mes y las propiedades con mayor RevPAR.</li>
+ *     <li>Simulación «¿y si...?»: cada cambio en los supuestos se recalcula en memoria sobre la instantánea del año,
+ *     sin volver a consultar, y las tarjetas muestran la diferencia con los datos reales.</li>
+ *     <li>Se recarga sola cuando cambian las propiedades, las reservas o los pagos.</li>
+ * </ul>
+ *
+ * @author Diego Regueira
+ * @since 17/10/2026
+ */
+public class AnaliticaController {
+
+    private static final double TARJETA = 204;
+    private static final int MEJORES = 5;
+    private static final Locale ES = Locale.of("es", "ES");
+
+    @FXML private ComboBox<Integer> cbAnio;
+    @FXML private Slider slTarifa;
+    @FXML private Slider slElasticidad;
+    @FXML private Slider slCancelaciones;
+    @FXML private CheckBox chkSoloConfirmadas;
+    @FXML private Label lblEscenario;
+    @FXML private TilePane panelIndicadores;
+    @FXML private Button btnCerrar;
+
+    @FXML private TableView<Indicadores> tblPropiedades;
+    @FXML private TableColumn<Indicadores, String> colPropiedad;
+    @FXML private TableColumn<Indicadores, Number> colOcupacion;
+    @FXML private TableColumn<Indicadores, Number> colNoches;
+    @FXML private TableColumn<Indicadores, Number> colAdr;
+    @FXML private TableColumn<Indicadores, Number> colRevpar;
+    @FXML private TableColumn<Indicadores, Number> colIngresos;
+    @FXML private TableColumn<Indicadores, Number> colCobrado;
+
+    private Tile tileOcupacion;
+    private Tile tileAdr;
+    private Tile tileRevpar;
+    private Tile tileIngresos;
+    private Tile tileCobrado;
+    private Tile tileMeses;
+    private Tile tileMejores;
+    private final XYChart.Series<String, Number> serieOcupacion = new XYChart.Series<>();
+
+    private final CanalConsulta canalCarga = new CanalConsulta();
+    private final CanalConsulta canalSimulacion = new CanalConsulta();
+
+    private CuadroMando real;
+    private InstantaneaReservas instantanea;
+
+    /**
+     * Crea las tarjetas, configura la tabla y carga el año en curso.
+     */
+    @FXML
+    public void initialize() {
+
+        crearTarjetas();
+        configurarColumnas();
+        canalCarga.vincularIndicador(tblPropiedades);
+
+        int actual = Year.now().getValue();
+
+        for (int anio = actual - 3; anio <= actual + 1; anio++) {
+            cbAnio.getItems().add(anio);
+        }
+
+        cbAnio.setValue(actual);
+        cbAnio.valueProperty().addListener((obs, antes, anio) -> cargar());
+
+        slTarifa.valueProperty().addListener((obs, antes, valor) -> simular());
+        slElasticidad.valueProperty().addListener((obs, antes, valor) -> simular());
+        slCancelaciones.valueProperty().addListener((obs, antes, valor) -> simular());
+        chkSoloConfirmadas.selectedProperty().addListener((obs, antes, valor) -> simular());
+
+        SuscripcionVista.suscribir(tblPropiedades, cambios -> cargar(),
+                TablaObservada.PROPIEDADES, TablaObservada.RESERVAS, TablaObservada.PAGOS);
+
+        cargar();
+
+    }
+
+    /**
+     * Crea las tarjetas de TilesFX y las añade al panel.
+     */
+    private void crearTarjetas() {
+
+        tileOcupacion = TileBuilder.create().skinType(Tile.SkinType.PERCENTAGE).prefSize(TARJETA, TARJETA)
+                .title("Ocupación").unit("%").maxValue(100).decimals(1).build();
+
+        tileAdr = numero("ADR", "Ingresos por noche vendida", 2);
+        tileRevpar = numero("RevPAR", "Ingresos por noche disponible", 2);
+        tileIngresos = numero("Ingresos", "Noches del año en reservas activas", 0);
+        tileCobrado = numero("Cobrado", "Pagos completados en el año", 0);
+
+        serieOcupacion.setName("Ocupación (%)");
+
+        tileMeses = TileBuilder.create().skinType(Tile.SkinType.SMOOTHED_CHART).prefSize(TARJETA * 2 + 8, TARJETA)
+                .title("Ocupación por mes").smoothing(true).build();
+        tileMeses.getSeries().add(serieOcupacion);
+
+        tileMejores = TileBuilder.create().skinType(Tile.SkinType.BAR_CHART).prefSize(TARJETA * 2 + 8, TARJETA)
+                .title("Mayor RevPAR").decimals(2).build();
+
+        panelIndicadores.getChildren().addAll(tileOcupacion, tileAdr, tileRevpar, tileIngresos, tileCobrado,
+                tileMeses, tileMejores);
+
+    }
+
+    private static Tile numero(String titulo, String descripcion, int decimales) {
+
+        return TileBuilder.create().skinType(Tile.SkinType.NUMBER).prefSize(TARJETA, TARJETA)
+                .title(titulo).description(descripcion).unit("€").decimals(decimales).textVisible(true).build();
+
+    }
+
+    /**
+     * Enlaza las columnas con los indicadores de cada propiedad.
+     */
+    private void configurarColumnas() {
+
+        colPropiedad.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().propiedad()));
+
+        columna(colOcupacion, i -> i.ocupacion() * 100, "%.1f %%");
+        columna(colNoches, Indicadores::nochesVendidas, "%.0f");
+        columna(colAdr, Indicadores::adr, "%.2f €");
+        columna(colRevpar, Indicadores::revpar, "%.2f €");
+        columna(colIngresos, Indicadores::ingresos, "%.2f €");
+        columna(colCobrado, Indicadores::cobrado, "%.2f €");
+
+    }
+
+    private static void columna(TableColumn<Indicadores, Number> columna, ToDoubleFunction<Indicadores> valor, String formato) {
+
+        columna.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(valor.applyAsDouble(c.getValue())));
+        columna.setCellFactory(c -> new TableCell<>() {
+            @Override
+            protected void updateItem(Number item, boolean empty) {
+
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : String.format(formato, item.doubleValue()));
+
+            }
+        });
+
+    }
+
+    /**
+     * Calcula los indicadores reales del año elegido y carga su instantánea para las simulaciones.
+     */
+    private void cargar() {
+
+        Integer anio = cbAnio.getValue();
+
+        if (anio == null) {
+            return;
+        }
+
+        YearMonth desde = YearMonth.of(anio, 1);
+        YearMonth hasta = YearMonth.of(anio, 12);
+        MotorAnalitica motor = MotorAnalitica.getInstance();
+
+        canalCarga.ejecutar(() -> new Periodo(motor.indicadores(desde, hasta), motor.instantanea(desde, hasta)), periodo -> {
+
+            real = periodo.real();
+            instantanea = periodo.instantanea();
+            simular();
+
+        }, error -> mostrarAlerta("Error", "No se han podido calcular los indicadores: " + error.getMessage(), Alert.AlertType.ERROR));
+
+    }
+
+    /**
+     * Muestra los datos reales o, si algún supuesto ha cambiado, los simulados.
+     */
+    private void simular() {
+
+        if (real == null) {
+            return;
+        }
+
+        Escenario escenario = new Escenario(slTarifa.getValue() / 100, slElasticidad.getValue(),
+                slCancelaciones.getValue() / 100, chkSoloConfirmadas.isSelected());
+
+        if (escenario.equals(Escenario.ACTUAL)) {
+
+            canalSimulacion.cancelar();
+            lblEscenario.setText("Datos reales");
+            mostrar(real);
+            return;
+
+        }
+
+        InstantaneaReservas datos = instantanea;
+
+        canalSimulacion.ejecutar(() -> MotorAnalitica.simular(datos, escenario), simulado -> {
+
+            lblEscenario.setText(String.format("Simulación: tarifa %+.0f %% · elasticidad %.1f · cancelaciones %.0f %%%s",
+                    slTarifa.getValue(), slElasticidad.getValue(), slCancelaciones.getValue(),
+                    chkSoloConfirmadas.isSelected() ? " · solo confirmadas" : ""));
+            mostrar(simulado);
+
+        }, error -> mostrarAlerta("Error", "No se ha podido simular el escenario: " + error.getMessage(), Alert.AlertType.ERROR));
+
+    }
+
+    /**
+     * Pinta un cuadro de mando en las tarjetas y la tabla. Si no es el real, cada tarjeta indica la diferencia.
+     */
+    private void mostrar(CuadroMando cuadro) {
+
+        Indicadores total = cuadro.total();
+        Indicadores referencia = real.total();
+
+        tileOcupacion.setValue(total.ocupacion() * 100);
+        tileAdr.setValue(total.adr());
+        tileRevpar.setValue(total.revpar());
+        tileIngresos.setValue(total.ingresos());
+        tileCobrado.setValue(total.cobrado());
+
+        boolean simulado = cuadro != real;
+
+        tileAdr.setText(diferencia(simulado, total.adr(), referencia.adr()));
+        tileRevpar.setText(diferencia(simulado, total.revpar(), referencia.revpar()));
+        tileIngresos.setText(diferencia(simulado, total.ingresos(), referencia.ingresos()));
+
+        List<XYChart.Data<String, Number>> meses = new ArrayList<>();
+
+        for (Indicadores mes : cuadro.porMes()) {
+            meses.add(new XYChart.Data<>(mes.mes().getMonth().getDisplayName(TextStyle.SHORT, ES), mes.ocupacion() * 100));
+        }
+
+        serieOcupacion.getData().setAll(meses);
+
+        List<BarChartItem> mejores = new ArrayList<>();
+
+        for (Indicadores propiedad : cuadro.porPropiedad().subList(0, Math.min(MEJORES, cuadro.porPropiedad().size()))) {
+            mejores.add(new BarChartItem(propiedad.propiedad(), propiedad.revpar(), Color.web("#85b6d4")));
+        }
+
+        tileMejores.setBarChartItems(mejores);
+        tblPropiedades.getItems().setAll(cuadro.porPropiedad());
+
+    }
+
+    private static String diferencia(boolean simulado, double valor, double referencia) {
+
+        if (!simulado || referencia == 0) {
+            return "";
+        }
+
+        return String.format("%+.1f %% frente al real", (valor / referencia - 1) * 100);
+    }
+
+    /**
+     * Vuelve a los supuestos reales.
+     */
+    @FXML
+    private void restablecer() {
+
+        slTarifa.setValue(0);
+        slElasticidad.setValue(0);
+        slCancelaciones.setValue(0);
+        chkSoloConfirmadas.setSelected(false);
+
+    }
+
+    /**
+     * Cierra la ventana.
+     */
+    @FXML
+    private void cerrar() {
+        ((Stage) btnCerrar.getScene().getWindow()).close();
+    }
+
+    /**
+     * Indicadores reales e instantánea de un mismo periodo, cargados juntos.
+     */
+    private record Periodo(CuadroMando real, InstantaneaReservas instantanea) {
+    }
+}
@@ -0,0 +1,355 @@
+package com.reservas.controller;
+
+import com.reservas.disponibilidad.CalendarioOcupacion;
+import com.reservas.disponibilidad.MotorDisponibilidad;
+import com.reservas.eventos.TablaObservada;
+import com.reservas.util.CanalConsulta;
+import javafx.fxml.FXML;
+import javafx.geometry.Pos;
+import javafx.scene.Cursor;
+import javafx.scene.control.Label;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.SpinnerValueFactory;
+import javafx.scene.layout.GridPane;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * <h1>Controlador del calendario de ocupación</h1>
+ *
+ * Muestra mes a mes las noches ocupadas de una propiedad a partir de su {@link CalendarioOcupacion}.
+ * La vista se incluye en los formularios de propiedades y de reservas con {@code fx:include}.
+ *
+ * <h2>Funciones principales:</h2>
+ * <ul>
+ *     <li>Rejilla de lunes a domingo con las noches ocupadas y libres del mes, y las noches ocupadas en total.</li>
+ *     <li>Resaltado de la estancia que se está editando en el formulario.</li>
+ *     <li>Búsqueda del primer hueco de N noches libres seguidas a partir del mes mostrado.</li>
+ *     <li>Recarga automática cuando cambian las reservas.</li>
+ * </ul>
+ *
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+public class CalendarioController {
+
+    private static final int SEMANAS = 6;
+    private static final String[] DIAS_SEMANA = {"L", "M", "X", "J", "V", "S", "D"};
+    private static final Locale ESPANOL = Locale.forLanguageTag("es-ES");
+    private static final DateTimeFormatter FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private static final String ESTILO_CELDA = "-fx-background-radius: 3; -fx-border-radius: 3; ";
+    private static final String LIBRE = "-fx-background-color: #d9ead3; ";
+    private static final String OCUPADA = "-fx-background-color: #f4c7c3; ";
+    private static final String SELECCIONADA = "-fx-border-color: #366387; -fx-border-width: 2; ";
+
+    @FXML private Label lblMes;
+    @FXML private GridPane gridDias;
+    @FXML private Label lblResumen;
+    @FXML private Spinner<Integer> spnNoches;
+    @FXML private Label lblHueco;
+
+    private final Label[] celdas = new Label[7 * SEMANAS];
+    private final CanalConsulta canalCalendario = new CanalConsulta();
+    private final CanalConsulta canalHueco = new CanalConsulta();
+
+    private Integer idPropiedad;
+    private YearMonth mes = YearMonth.now();
+    private CalendarioOcupacion calendario;
+    private LocalDate seleccionDesde;
+    private LocalDate seleccionHasta;
+    private Consumer<LocalDate> alElegirDia;
+
+    /**
+     * Crea la rejilla de días y se suscribe a los cambios de reservas.
+     */
+    @FXML
+    public void initialize() {
+
+        for (int columna = 0; columna < 7; columna++) {
+
+            Label cabecera = celda();
+            cabecera.setText(DIAS_SEMANA[columna]);
+            cabecera.setStyle("-fx-font-weight: bold; -fx-text-fill: #85b6d4;");
+            gridDias.add(cabecera, columna, 0);
+
+        }
+
+        for (int i = 0; i < celdas.length; i++) {
+
+            Label dia = celda();
+            dia.setCursor(Cursor.HAND);
+            dia.setOnMouseClicked(e -> elegir((LocalDate) dia.getUserData()));
+            celdas[i] = dia;
+            gridDias.add(dia, i % 7, 1 + i / 7);
+
+        }
+
+        spnNoches.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(1, 90, 7));
+        spnNoches.valueProperty().addListener((obs, antes, ahora) -> buscarHueco());
+
+        // Los cambios pueden venir de otro equipo: el índice de la propiedad se vuelve a leer
+        SuscripcionVista.suscribir(gridDias, cambios -> {
+
+            if (idPropiedad != null) {
+
+                MotorDisponibilidad.getInstance().olvidar(idPropiedad);
+                cargar();
+
+            }
+
+        }, TablaObservada.RESERVAS);
+
+        cargar();
+
+    }
+
+    /**
+     * Muestra el calendario de una propiedad.
+     *
+     * @param idPropiedad identificador de la propiedad, o {@code null} para dejar el calendario vacío.
+     */
+    public void mostrarPropiedad(Integer idPropiedad) {
+
+        this.idPropiedad = idPropiedad;
+        calendario = null;
+        cargar();
+
+    }
+
+    /**
+     * Muestra otro mes. Si cambia de año, se pide el calendario de ese año.
+     *
+     * @param mes mes a mostrar.
+     */
+    public void mostrarMes(YearMonth mes) {
+
+        boolean otroAnio = mes.getYear() != this.mes.getYear();
+        this.mes = mes;
+
+        if (otroAnio) {
+
+            cargar();
+
+        } else {
+
+            pintar();
+            buscarHueco();
+
+        }
+    }
+
+    /**
+     * Resalta una estancia y muestra el mes en que empieza.
+     *
+     * @param desde día de entrada, o {@code null} si no hay estancia.
+     * @param hasta día de salida (su noche no se resalta), o {@code null} para resaltar solo la entrada.
+     */
+    public void marcarEstancia(LocalDate desde, LocalDate hasta) {
+
+        seleccionDesde = desde;
+        seleccionHasta = hasta;
+
+        if (desde != null && !YearMonth.from(desde).equals(mes)) {
+
+            mostrarMes(YearMonth.from(desde));
+
+        } else {
+
+            pintar();
+
+        }
+    }
+
+    /**
+     * Define qué hacer cuando se pulsa un día del calendario.
+     *
+     * @param alElegirDia acción que recibe el día pulsado.
+     */
+    public void setAlElegirDia(Consumer<LocalDate> alElegirDia) {
+
+        this.alElegirDia = alElegirDia;
+
+    }
+
+    @FXML
+    private void mesAnterior() {
+
+        mostrarMes(mes.minusMonths(1));
+
+    }
+
+    @FXML
+    private void mesSiguiente() {
+
+        mostrarMes(mes.plusMonths(1));
+
+    }
+
+    /**
+     * Pide en segundo plano el calendario del año mostrado. Solo la primera vez consulta la base de datos.
+     */
+    private void cargar() {
+
+        if (idPropiedad == null) {
+
+            canalCalendario.cancelar();
+            calendario = null;
+            pintar();
+            buscarHueco();
+            return;
+
+        }
+
+        int propiedad = idPropiedad;
+        int anio = mes.getYear();
+
+        canalCalendario.ejecutar(() -> MotorDisponibilidad.getInstance().calendario(propiedad, anio),
+                leido -> {
+
+                    calendario = leido;
+                    pintar();
+
+                },
+                error -> {
+
+                    calendario = null;
+                    pintar();
+                    lblResumen.setText("No se ha podido cargar el calendario: " + error.getMessage());
+
+                });
+
+        buscarHueco();
+
+    }
+
+    /**
+     * Rellena la rejilla con los días del mes y colorea las noches ocupadas y la estancia seleccionada.
+     */
+    private void pintar() {
+
+        String nombreMes = mes.getMonth().getDisplayName(TextStyle.FULL_STANDALONE, ESPANOL);
+        lblMes.setText(nombreMes.substring(0, 1).toUpperCase(ESPANOL) + nombreMes.substring(1) + " " + mes.getYear());
+
+        LocalDate primero = mes.atDay(1);
+        LocalDate inicio = primero.minusDays(primero.getDayOfWeek().getValue() - 1);
+        boolean conDatos = calendario != null && calendario.anio() == mes.getYear();
+
+        for (int i = 0; i < celdas.length; i++) {
+
+            LocalDate dia = inicio.plusDays(i);
+            Label celda = celdas[i];
+            celda.setText(String.valueOf(dia.getDayOfMonth()));
+            celda.setUserData(dia);
+
+            if (!YearMonth.from(dia).equals(mes)) {
+
+                celda.setStyle(ESTILO_CELDA + "-fx-text-fill: #c0c0c0;");
+                continue;
+
+            }
+
+            String estilo = ESTILO_CELDA;
+
+            if (conDatos) {
+                estilo += calendario.ocupada(dia) ? OCUPADA : LIBRE;
+            }
+
+            if (seleccionada(dia)) {
+                estilo += SELECCIONADA;
+            }
+
+            if (dia.equals(LocalDate.now())) {
+                estilo += "-fx-font-weight: bold; ";
+            }
+
+            celda.setStyle(estilo);
+
+        }
+
+        if (idPropiedad == null) {
+
+            lblResumen.setText("Sin propiedad: no hay ocupación que mostrar");
+
+        } else if (conDatos) {
+
+            lblResumen.setText(calendario.nochesOcupadas(mes) + " de " + mes.lengthOfMonth() + " noches ocupadas ("
+                    + calendario.nochesOcupadas() + " en " + mes.getYear() + ")");
+
+        } else {
+
+            lblResumen.setText("Cargando ocupación...");
+
+        }
+    }
+
+    /**
+     * Busca el primer hueco libre de las noches indicadas, desde el mes mostrado (o desde hoy) hasta un año después.
+     */
+    private void buscarHueco() {
+
+        if (idPropiedad == null || spnNoches.getValue() == null) {
+
+            canalHueco.cancelar();
+            lblHueco.setText("");
+            return;
+
+        }
+
+        int propiedad = idPropiedad;
+        int noches = spnNoches.getValue();
+        LocalDate hoy = LocalDate.now();
+        LocalDate desde = mes.atDay(1).isBefore(hoy) ? hoy : mes.atDay(1);
+
+        canalHueco.ejecutar(() -> MotorDisponibilidad.getInstance().primerHuecoLibre(propiedad, desde, noches,
+                        desde.plusYears(1)),
+                this::mostrarHueco,
+                error -> lblHueco.setText("No se ha podido buscar un hueco: " + error.getMessage()));
+
+    }
+
+    private void mostrarHueco(Optional<LocalDate> hueco) {
+
+        int noches = spnNoches.getValue();
+
+        lblHueco.setText(hueco.map(entrada -> "Primer hueco libre: del " + entrada.format(FECHA) + " al "
+                        + entrada.plusDays(noches).format(FECHA))
+                .orElse("No hay " + noches + " noches libres seguidas en el próximo año"));
+
+    }
+
+    private void elegir(LocalDate dia) {
+
+        if (alElegirDia != null && dia != null) {
+            alElegirDia.accept(dia);
+        }
+    }
+
+    private boolean seleccionada(LocalDate dia) {
+
+        if (seleccionDesde == null) {
+            return false;
+        }
+
+        if (seleccionHasta == null || !seleccionHasta.isAfter(seleccionDesde)) {
+            return dia.equals(seleccionDesde);
+        }
+
+        return !dia.isBefore(seleccionDesde) && dia.isBefore(seleccionHasta);
+    }
+
+    private static Label celda() {
+
+        Label celda = new Label();
+        celda.setAlignment(Pos.CENTER);
+        celda.setPrefSize(32, 24);
+
+        return celda;
+    }
+}
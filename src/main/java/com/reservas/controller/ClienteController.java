@@ -1,17 +1,23 @@
 package com.reservas.controller;
 
+import com.reservas.busqueda.BuscadorClientes;
+import com.reservas.busqueda.IndiceClientes;
 import com.reservas.dao.ClienteDAO;
+import com.reservas.eventos.TablaObservada;
+import com.reservas.io.TablaExportable;
+import com.reservas.io.TipoImportacion;
 import com.reservas.model.Cliente;
+import com.reservas.util.CanalConsulta;
+import com.reservas.util.EjecutorConsultas;
+import com.reservas.util.FabricaVistas;
+import com.reservas.util.FuentePaginada;
+import com.reservas.util.ListaPaginada;
+import com.reservas.util.SincronizadorTabla;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.image.Image;
 import javafx.scene.input.MouseButton;
 import javafx.stage.Stage;
 
@@ -19,7 +25,6 @@ import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * <h1>Controlador de Clientes</h1>
@@ -30,7 +35,7 @@ import java.util.Objects;
  * <h2>Funciones principales:</h2>
  * <ul>
  *     <li>Cargar y mostrar los clientes en la tabla.</li>
- *     <li>Buscar clientes por su ID.</li>
+ *     <li>Filtrar la tabla mientras se escribe por nombre, apellidos, teléfono, email o país.</li>
  *     <li>Crear, editar o eliminar clientes existentes.</li>
  *     <li>Refrescar los datos desde la base de datos.</li>
  * </ul>
@@ -50,13 +55,22 @@ public class ClienteController {
     @FXML private TableColumn<Cliente, String> colPais;
     @FXML private TableColumn<Cliente, LocalDate> colFechaRegistro;
 
-    @FXML private TextField txtBusquedaEmail;
+    @FXML private TextField txtBusqueda;
+    @FXML private ComboBox<String> cbPais;
     @FXML private Label lblTotalClientes;
 
+    private static final int MAX_COINCIDENCIAS = 500;
+    private static final String TODOS_LOS_PAISES = "Todos los países";
+
     private final DateTimeFormatter FECHA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
     private final ClienteDAO clienteDAO = new ClienteDAO();
-    private final ObservableList<Cliente> listaClientes = FXCollections.observableArrayList();
+    private final ListaPaginada<Cliente> listaClientes = new ListaPaginada<>(
+            FuentePaginada.de(clienteDAO::leerClientesPagina, clienteDAO::idClienteTrasSaltar), Cliente::getIdCliente);
+    private final CanalConsulta canalClientes = new CanalConsulta();
+    private final SincronizadorTabla<Cliente> sincronizador = new SincronizadorTabla<>(listaClientes, canalClientes,
+            clienteDAO::leerCambiosClientes);
+    private boolean cargandoIndice = false;
 
     /**
      * Inicializa la vista de clientes, configurando las columnas,
@@ -67,8 +81,13 @@ public class ClienteController {
 
         configurarColumnas();
         configurarDobleClickFila();
+        configurarBusqueda();
+        canalClientes.vincularIndicador(tableClientes);
+        listaClientes.vincular(tableClientes);
         cargarClientes();
 
+        SuscripcionVista.suscribir(tableClientes, cambios -> refrescarClientes(), TablaObservada.CLIENTES);
+
     }
 
     /**
@@ -118,9 +137,8 @@ public class ClienteController {
 
             row.setOnMouseClicked(event -> {
 
-                if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2 && !row.isEmpty()) {
+                if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2 && !row.isEmpty() && row.getItem() != null) {
 
-                    Cliente clienteSeleccionado = row.getItem();
                     modificarCliente(new ActionEvent());
 
                 }
@@ -134,15 +152,139 @@ public class ClienteController {
     }
 
     /**
-     * Carga todos los clientes desde la base de datos en la tabla.
+     * Configura la búsqueda mientras se escribe. El índice de clientes se prepara en segundo plano la primera vez
+     * que el usuario entra en el buscador o abre la lista de países.
+     */
+    private void configurarBusqueda() {
+
+        txtBusqueda.textProperty().addListener((obs, anterior, texto) -> filtrar());
+        cbPais.valueProperty().addListener((obs, anterior, pais) -> filtrar());
+
+        txtBusqueda.focusedProperty().addListener((obs, antes, enfocado) -> {
+
+            if (enfocado) {
+                prepararIndice();
+            }
+
+        });
+
+        cbPais.setOnShowing(e -> prepararIndice());
+
+        IndiceClientes indice = BuscadorClientes.getInstance().indiceSiCargado();
+
+        if (indice != null) {
+            llenarPaises(indice);
+        }
+    }
+
+    /**
+     * Construye el índice de clientes en segundo plano si aún no existe y, al terminar, aplica el filtro escrito.
+     */
+    private void prepararIndice() {
+
+        if (cargandoIndice || BuscadorClientes.getInstance().indiceSiCargado() != null) {
+            return;
+        }
+
+        cargandoIndice = true;
+
+        EjecutorConsultas.ejecutar(BuscadorClientes.getInstance()::indice, indice -> {
+
+            cargandoIndice = false;
+            llenarPaises(indice);
+            filtrar();
+
+        }, error -> {
+
+            cargandoIndice = false;
+            mostrarAlerta(Alert.AlertType.ERROR, "Error", "No se ha podido preparar la búsqueda: " + error.getMessage());
+
+        });
+
+    }
+
+    /**
+     * Rellena la lista de países con los del índice, conservando la selección actual.
+     *
+     * @param indice índice de clientes.
+     */
+    private void llenarPaises(IndiceClientes indice) {
+
+        String seleccionado = cbPais.getValue();
+
+        cbPais.getItems().setAll(TODOS_LOS_PAISES);
+        cbPais.getItems().addAll(indice.paises());
+        cbPais.setValue(seleccionado);
+
+    }
+
+    /**
+     * Aplica el texto de búsqueda y el país seleccionado. Sin filtros muestra el listado paginado completo;
+     * con filtros muestra las coincidencias del índice en memoria, sin consultar la base de datos.
+     */
+    private void filtrar() {
+
+        String texto = txtBusqueda.getText() == null ? "" : txtBusqueda.getText().strip();
+        String pais = paisSeleccionado();
+
+        if (texto.isEmpty() && pais == null) {
+
+            tableClientes.setItems(listaClientes);
+            actualizarTotalClientes();
+            return;
+
+        }
+
+        IndiceClientes indice = BuscadorClientes.getInstance().indiceSiCargado();
+
+        if (indice == null) {
+
+            prepararIndice();
+            lblTotalClientes.setText("Preparando búsqueda...");
+            return;
+
+        }
+
+        List<Cliente> coincidencias = indice.buscar(texto, pais, MAX_COINCIDENCIAS);
+        tableClientes.setItems(FXCollections.observableArrayList(coincidencias));
+
+        String limite = coincidencias.size() == MAX_COINCIDENCIAS ? "+" : "";
+        lblTotalClientes.setText("Coincidencias: " + coincidencias.size() + limite + " de " + indice.tamano());
+
+    }
+
+    /**
+     * @return el país elegido en el filtro, o {@code null} si se muestran todos.
+     */
+    private String paisSeleccionado() {
+
+        String pais = cbPais.getValue();
+        return pais == null || pais.equals(TODOS_LOS_PAISES) ? null : pais;
+
+    }
+
+    /**
+     * Carga los clientes desde la base de datos en la tabla.
+     * <p>
+     * Solo se consulta el número total de clientes; las filas se leen por páginas a medida que el usuario
+     * se desplaza por la tabla. Si se pide una recarga mientras otra sigue en curso, la anterior se cancela.
+     * </p>
      */
     public void cargarClientes() {
 
-        listaClientes.clear();
-        List<Cliente> clientes = clienteDAO.leerClientes();
-        listaClientes.addAll(clientes);
-        tableClientes.setItems(listaClientes);
-        actualizarTotalClientes();
+        sincronizador.recargar(clienteDAO::contarClientes, Integer::intValue, total -> filtrar(),
+                error -> mostrarAlerta(Alert.AlertType.ERROR, "Error", "No se han podido cargar los clientes: " + error.getMessage()));
+
+    }
+
+    /**
+     * Aplica a la tabla solo los clientes añadidos, modificados o eliminados desde la última lectura,
+     * conservando la selección y la posición de la tabla.
+     */
+    public void refrescarClientes() {
+
+        sincronizador.refrescar(clienteDAO::contarClientes, Integer::intValue, total -> filtrar(),
+                error -> mostrarAlerta(Alert.AlertType.ERROR, "Error", "No se han podido cargar los clientes: " + error.getMessage()));
 
     }
 
@@ -154,10 +296,36 @@ public class ClienteController {
     @FXML
     private void refrescarTabla(ActionEvent event) {
 
+        ClienteDAO.invalidarTotales();
+        ClienteDAO.invalidarCache();
+        BuscadorClientes.getInstance().invalidar();
         cargarClientes();
 
     }
 
+    /**
+     * Abre la ventana de importación de clientes desde CSV y recarga la tabla al cerrarla.
+     *
+     * @param event evento disparado al hacer clic en el botón "IMPORTAR 📥".
+     */
+    @FXML
+    private void importarClientes(ActionEvent event) {
+
+        ImportarController.abrir(TipoImportacion.CLIENTES);
+        refrescarClientes();
+
+    }
+
+    /**
+     * Abre la ventana de exportación con la tabla de clientes seleccionada.
+     *
+     * @param event evento disparado al hacer clic en el botón "EXPORTAR 📤".
+     */
+    @FXML
+    private void exportarClientes(ActionEvent event) {
+        ExportarController.abrir(TablaExportable.CLIENTES);
+    }
+
     /**
      * Manejo del evento generado al pulsar el botón Añadir en la vista principal.
      *
@@ -168,19 +336,15 @@ public class ClienteController {
 
         try {
 
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/reservas/clientes-form-view.fxml"));
-            Parent root = loader.load();
+            FabricaVistas.Vista<ClienteFormController> vista = FabricaVistas.cargar("clientes-form-view.fxml");
 
-            ClienteFormController controller = loader.getController();
+            ClienteFormController controller = vista.controlador();
             controller.setTitulo("Nuevo Cliente");
 
-            Stage stage = new Stage();
-            stage.setScene(new Scene(root));
-            stage.setTitle("Gestión Clientes");
-            stage.getIcons().add(new Image(Objects.requireNonNull(getClass().getResourceAsStream("/images/IconoPrincipal.png"))));
+            Stage stage = FabricaVistas.ventana(vista.raiz(), "Gestión Clientes");
             stage.showAndWait();
 
-            cargarClientes();
+            refrescarClientes();
 
         } catch (IOException e) {
 
@@ -212,20 +376,16 @@ public class ClienteController {
 
         try {
 
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/reservas/clientes-form-view.fxml"));
-            Parent root = loader.load();
+            FabricaVistas.Vista<ClienteFormController> vista = FabricaVistas.cargar("clientes-form-view.fxml");
 
-            ClienteFormController controller = loader.getController();
+            ClienteFormController controller = vista.controlador();
             controller.setTitulo("Modificar Cliente");
             controller.cargarCliente(clienteSeleccionado);
 
-            Stage stage = new Stage();
-            stage.setTitle("Gestión Clientes");
-            stage.getIcons().add(new Image(Objects.requireNonNull(getClass().getResourceAsStream("/images/IconoPrincipal.png"))));
-            stage.setScene(new Scene(root));
+            Stage stage = FabricaVistas.ventana(vista.raiz(), "Gestión Clientes");
             stage.showAndWait();
 
-            cargarClientes();
+            refrescarClientes();
 
         } catch (IOException e) {
 
@@ -275,63 +435,87 @@ public class ClienteController {
 
         if(respuesta.get() == btnSi) {
 
-            try {
+            EjecutorConsultas.ejecutar(() -> {
 
                 clienteDAO.eliminarCliente(seleccionado);
-                cargarClientes();
-                mostrarAlerta(Alert.AlertType.INFORMATION, "Eliminado", "El cliente \"" + nombreCompleto + "\" ha sido eliminado.");
+                return null;
 
-            } catch (RuntimeException e) {
+            }, ignorado -> {
 
-                mostrarAlerta(Alert.AlertType.ERROR, "Error al eliminar", e.getMessage());
+                refrescarClientes();
+                mostrarAlerta(Alert.AlertType.INFORMATION, "Eliminado", "El cliente \"" + nombreCompleto + "\" ha sido eliminado.");
 
-            }
+            }, error -> mostrarAlerta(Alert.AlertType.ERROR, "Error al eliminar", error.getMessage()));
 
         }
 
     }
 
     /**
-     * Método encargado de la búsqueda de un cliente.
-     * Si se encuentra un cliente, la tabla se posiciona y selecciona en la fila correspondiente.
-     * En caso contrario, se muestra una alerta informativa.
+     * Método encargado de la búsqueda de un cliente al pulsar el botón o Intro.
+     * <p>
+     * Aplica el filtro y, si solo queda un cliente, lo selecciona. Si el índice aún no está preparado y se ha
+     * escrito un email, se busca directamente en la base de datos y se sitúa la tabla en su fila.
+     * </p>
      *
      * @param event evento generado al pulsar el botón de búsqueda (🔍).
      */
     @FXML
-    private void buscarPorEmail(ActionEvent event) {
+    private void buscar(ActionEvent event) {
 
-        String email = txtBusquedaEmail.getText().strip();
+        String texto = txtBusqueda.getText().strip();
 
-        if (email.isEmpty()) {
+        if (texto.isEmpty() && paisSeleccionado() == null) {
 
-            new Alert(Alert.AlertType.WARNING, "Introduzca un email.").show();
+            new Alert(Alert.AlertType.WARNING, "Introduzca un nombre, teléfono o email.").show();
             return;
 
         }
 
-        int id = clienteDAO.buscarClientePorEmail(email);
+        if (BuscadorClientes.getInstance().indiceSiCargado() == null && texto.contains("@")) {
 
-        if (id == -1) {
+            EjecutorConsultas.ejecutar(() -> {
+
+                int id = clienteDAO.buscarClientePorEmail(texto);
+                return id == -1 ? -1 : clienteDAO.posicionCliente(id);
+
+            }, posicion -> seleccionarCliente(posicion, texto),
+                    error -> mostrarAlerta(Alert.AlertType.ERROR, "Error", "No se ha podido buscar el cliente: " + error.getMessage()));
 
-            new Alert(Alert.AlertType.INFORMATION,"No se ha encontrado ningún cliente con el email: " + email).show();
             return;
+        }
+
+        filtrar();
+
+        if (tableClientes.getItems().size() == 1) {
+
+            tableClientes.getSelectionModel().select(0);
+
+        } else if (tableClientes.getItems().isEmpty() && BuscadorClientes.getInstance().indiceSiCargado() != null) {
+
+            new Alert(Alert.AlertType.INFORMATION, "No se ha encontrado ningún cliente con: " + texto).show();
 
         }
 
-        int index = -1;
+    }
 
-        for (int i = 0; i < listaClientes.size(); i++) {
+    /**
+     * Selecciona en la tabla la fila del cliente encontrado y se desplaza hasta ella.
+     * La página correspondiente se carga al hacerse visible.
+     *
+     * @param index posición del cliente en el listado ordenado por ID, o {@code -1} si no existe.
+     * @param email email buscado, para los mensajes al usuario.
+     */
+    private void seleccionarCliente(int index, String email) {
 
-            if (listaClientes.get(i).getIdCliente() == id) {
+        if (index == -1) {
 
-                index = i;
-                break;
+            new Alert(Alert.AlertType.INFORMATION,"No se ha encontrado ningún cliente con el email: " + email).show();
+            return;
 
-            }
         }
 
-        if (index >= 0) {
+        if (index < listaClientes.size()) {
 
             tableClientes.getSelectionModel().clearSelection();
             tableClientes.getSelectionModel().select(index);
@@ -347,9 +531,8 @@ public class ClienteController {
     }
 
     /**
-     * Actualiza la etiqueta con el número total de clientes cargados.
-     * Obtiene el tamaño de la lista {@code listaClientes} y establece el texto del
-     * componente {@code lblTotalClientes} para mostrar el total actual al usuario.
+     * Actualiza la etiqueta con el número total de clientes.
+     * El tamaño de {@code listaClientes} es el {@code COUNT(*)} obtenido al cargar, no el número de filas en memoria.
      */
     private void actualizarTotalClientes() {
 
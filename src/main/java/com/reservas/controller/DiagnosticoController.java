@@ -0,0 +1,215 @@
+package com.reservas.controller;
+
+import com.reservas.config.DataBaseConnection;
+import com.reservas.config.PoolConexiones;
+import com.reservas.metricas.ConsultaLenta;
+import com.reservas.metricas.MetricasConsultas;
+import com.reservas.metricas.ResumenOperacion;
+import com.reservas.metricas.VolcadoMetricas;
+import com.reservas.util.FabricaVistas;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Function;
+
+import static com.reservas.controller.MainController.mostrarAlerta;
+
+/**
+ * <h1>Controlador de la ventana de diagnóstico</h1>
+ * Muestra cómo se está comportando la base de datos durante la sesión, a partir de {@link MetricasConsultas}
+ * y de las estadísticas del pool de conexiones.
+ *
+ * <h2>Funciones principales:</h2>
+ * <ul>
+ *     <li>Tiempos por operación de los DAO: llamadas, errores, filas, media y percentiles.</li>
+ *     <li>Estado del pool, espera por una conexión y aprovechamiento de la caché de sentencias.</li>
+ *     <li>Últimas consultas lentas, con el SQL y sus parámetros.</li>
+ *     <li>Exportar las métricas a un archivo de texto o JSON y ponerlas a cero.</li>
+ * </ul>
+ * La ventana se actualiza sola cada {@value #REFRESCO_S} segundos mientras está abierta.
+ *
+ * @author Jaime Pérez
+ * @since 17/10/2026
+ */
+public class DiagnosticoController {
+
+    private static final int REFRESCO_S = 2;
+
+    @FXML private Label lblPool;
+    @FXML private Label lblEspera;
+    @FXML private Label lblLentas;
+    @FXML private Button btnCerrar;
+
+    @FXML private TableView<ResumenOperacion> tblOperaciones;
+    @FXML private TableColumn<ResumenOperacion, String> colOperacion;
+    @FXML private TableColumn<ResumenOperacion, Number> colLlamadas;
+    @FXML private TableColumn<ResumenOperacion, Number> colErrores;
+    @FXML private TableColumn<ResumenOperacion, Number> colFilas;
+    @FXML private TableColumn<ResumenOperacion, Number> colMedia;
+    @FXML private TableColumn<ResumenOperacion, Number> colP50;
+    @FXML private TableColumn<ResumenOperacion, Number> colP95;
+    @FXML private TableColumn<ResumenOperacion, Number> colP99;
+    @FXML private TableColumn<ResumenOperacion, Number> colMaximo;
+    @FXML private TableColumn<ResumenOperacion, Number> colTotal;
+
+    @FXML private ListView<ConsultaLenta> lstLentas;
+
+    private final Timeline refresco = new Timeline(new KeyFrame(Duration.seconds(REFRESCO_S), e -> actualizar()));
+
+    /**
+     * Abre la ventana de diagnóstico.
+     */
+    public static void abrir() {
+
+        try {
+
+            DiagnosticoController controller = FabricaVistas.abrirUnica("diagnostico-view.fxml", "Diagnóstico");
+
+            // Si ya estaba abierta, solo se ha traído al frente
+            if (controller != null) {
+                controller.btnCerrar.getScene().getWindow().setOnHidden(e -> controller.refresco.stop());
+            }
+
+        } catch (IOException e) {
+
+            e.printStackTrace();
+            mostrarAlerta("Error", "No se ha podido abrir la ventana de diagnóstico.", Alert.AlertType.ERROR);
+
+        }
+
+    }
+
+    /**
+     * Configura las columnas, muestra las métricas actuales y empieza a refrescarlas.
+     */
+    @FXML
+    public void initialize() {
+
+        colOperacion.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().operacion()));
+        colLlamadas.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().llamadas()));
+        colErrores.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().errores()));
+        colFilas.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().filas()));
+
+        configurarTiempo(colMedia, ResumenOperacion::mediaMs);
+        configurarTiempo(colP50, ResumenOperacion::p50Ms);
+        configurarTiempo(colP95, ResumenOperacion::p95Ms);
+        configurarTiempo(colP99, ResumenOperacion::p99Ms);
+        configurarTiempo(colMaximo, ResumenOperacion::maximoMs);
+        configurarTiempo(colTotal, ResumenOperacion::totalMs);
+
+        refresco.setCycleCount(Timeline.INDEFINITE);
+        refresco.play();
+
+        actualizar();
+
+    }
+
+    /**
+     * Vuelve a leer las métricas y el estado del pool. Solo lee contadores en memoria, no consulta la base de datos.
+     */
+    @FXML
+    private void actualizar() {
+
+        PoolConexiones.Estadisticas pool = DataBaseConnection.getInstance().getEstadisticasPool();
+        ResumenOperacion espera = MetricasConsultas.esperaPool();
+
+        lblPool.setText(String.format("Conexiones: %d/%d (%d activas, %d inactivas, %d esperando) · timeouts: %d · fugas: %d · " +
+                        "sentencias reutilizadas: %.1f %%", pool.totales(), pool.maximo(), pool.activas(), pool.inactivas(),
+                pool.esperando(), pool.timeouts(), pool.fugas(), pool.aciertoSentencias() * 100));
+
+        lblEspera.setText(String.format("Espera por una conexión: %d préstamos · media %.3f ms · p95 %.3f ms · máx %.3f ms",
+                espera.llamadas(), espera.mediaMs(), espera.p95Ms(), espera.maximoMs()));
+
+        lblLentas.setText("Consultas lentas (desde " + MetricasConsultas.getUmbralLentaMs() + " ms):");
+
+        // Mantiene el orden que haya elegido el usuario al pulsar en una columna
+        tblOperaciones.getItems().setAll(MetricasConsultas.resumen());
+        tblOperaciones.sort();
+
+        lstLentas.getItems().setAll(MetricasConsultas.consultasLentas());
+
+    }
+
+    /**
+     * Pone a cero las métricas tras confirmarlo.
+     */
+    @FXML
+    private void reiniciar() {
+
+        Alert confirmacion = new Alert(Alert.AlertType.CONFIRMATION, "¿Poner a cero todas las métricas?", ButtonType.YES, ButtonType.NO);
+
+        confirmacion.showAndWait().ifPresent(respuesta -> {
+
+            if (respuesta == ButtonType.YES) {
+
+                MetricasConsultas.reiniciar();
+                actualizar();
+
+            }
+
+        });
+    }
+
+    /**
+     * Guarda las métricas en un archivo de texto o JSON, según la extensión elegida.
+     */
+    @FXML
+    private void exportar() {
+
+        FileChooser selector = new FileChooser();
+        selector.setTitle("Guardar métricas");
+        selector.setInitialFileName("metricas.json");
+        selector.getExtensionFilters().addAll(new FileChooser.ExtensionFilter("JSON", "*.json"),
+                new FileChooser.ExtensionFilter("Texto", "*.txt"));
+
+        File archivo = selector.showSaveDialog(btnCerrar.getScene().getWindow());
+
+        if (archivo == null) {
+            return;
+        }
+
+        try {
+
+            VolcadoMetricas.escribir(archivo.toPath());
+
+        } catch (IOException e) {
+
+            mostrarAlerta("Error", "No se han podido guardar las métricas: " + e.getMessage(), Alert.AlertType.ERROR);
+
+        }
+    }
+
+    /**
+     * Cierra la ventana.
+     */
+    @FXML
+    private void cerrar() {
+        ((Stage) btnCerrar.getScene().getWindow()).close();
+    }
+
+    /**
+     * Configura una columna de tiempo en milisegundos, mostrada con tres decimales.
+     */
+    private static void configurarTiempo(TableColumn<ResumenOperacion, Number> columna, Function<ResumenOperacion, Double> valor) {
+
+        columna.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(valor.apply(c.getValue())));
+        columna.setCellFactory(c -> new TableCell<>() {
+            @Override
+            protected void updateItem(Number item, boolean empty) {
+
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : String.format("%.3f", item.doubleValue()));
+
+            }
+        });
+
+    }
+}
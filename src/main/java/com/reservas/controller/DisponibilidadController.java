@@ -0,0 +1,148 @@
+package com.reservas.controller;
+
+import com.reservas.disponibilidad.BuscadorDisponibilidad;
+import com.reservas.disponibilidad.CriteriosBusqueda;
+import com.reservas.disponibilidad.ResultadoBusqueda;
+import com.reservas.util.CanalConsulta;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.reservas.controller.MainController.mostrarAlerta;
+
+/**
+ * <h1>Controlador de la búsqueda de disponibilidad</h1>
+ * Permite encontrar todas las propiedades libres para unas fechas y un número de personas,
+ * filtrando opcionalmente por ciudad, país y precio máximo por noche.
+ *
+ * <h2>Funciones principales:</h2>
+ * <ul>
+ *     <li>Validar los criterios introducidos.</li>
+ *     <li>Lanzar la búsqueda en segundo plano mediante {@link BuscadorDisponibilidad}.</li>
+ *     <li>Mostrar los resultados ordenados por precio total y el tiempo empleado.</li>
+ * </ul>
+ *
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+public class DisponibilidadController {
+
+    private static final int MAX_RESULTADOS = 500;
+
+    @FXML private DatePicker dpDesde;
+    @FXML private DatePicker dpHasta;
+    @FXML private TextField txtPersonas;
+    @FXML private TextField txtCiudad;
+    @FXML private TextField txtPais;
+    @FXML private TextField txtPrecioMaximo;
+
+    @FXML private TableView<ResultadoBusqueda> tblResultados;
+    @FXML private TableColumn<ResultadoBusqueda, Integer> colId;
+    @FXML private TableColumn<ResultadoBusqueda, String> colNombre;
+    @FXML private TableColumn<ResultadoBusqueda, String> colCiudad;
+    @FXML private TableColumn<ResultadoBusqueda, String> colPais;
+    @FXML private TableColumn<ResultadoBusqueda, Integer> colCapacidad;
+    @FXML private TableColumn<ResultadoBusqueda, String> colPrecioNoche;
+    @FXML private TableColumn<ResultadoBusqueda, Integer> colNoches;
+    @FXML private TableColumn<ResultadoBusqueda, String> colTotal;
+
+    @FXML private Label lblResumen;
+
+    private final CanalConsulta canalBusqueda = new CanalConsulta();
+
+    /**
+     * Configura las columnas y propone como fechas por defecto mañana y pasado mañana.
+     */
+    @FXML
+    public void initialize() {
+
+        configurarColumnas();
+        canalBusqueda.vincularIndicador(tblResultados);
+
+        dpDesde.setValue(LocalDate.now().plusDays(1));
+        dpHasta.setValue(LocalDate.now().plusDays(2));
+
+    }
+
+    /**
+     * Enlaza las columnas con los datos de cada {@link ResultadoBusqueda}.
+     */
+    private void configurarColumnas() {
+
+        colId.setCellValueFactory(c -> new SimpleObjectProperty<>(c.getValue().propiedad().getIdPropiedad()));
+        colNombre.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().propiedad().getNombre()));
+        colCiudad.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().propiedad().getCiudad()));
+        colPais.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().propiedad().getPais()));
+        colCapacidad.setCellValueFactory(c -> new SimpleObjectProperty<>(c.getValue().propiedad().getCapacidad()));
+        colPrecioNoche.setCellValueFactory(c -> new SimpleStringProperty(String.format("%.2f €", c.getValue().propiedad().getPrecio_noche())));
+        colNoches.setCellValueFactory(c -> new SimpleObjectProperty<>(c.getValue().noches()));
+        colTotal.setCellValueFactory(c -> new SimpleStringProperty(String.format("%.2f €", c.getValue().precioTotal())));
+
+    }
+
+    /**
+     * Valida los campos y lanza la búsqueda. Una nueva búsqueda cancela la anterior si sigue en curso.
+     */
+    @FXML
+    private void buscar() {
+
+        CriteriosBusqueda criterios;
+
+        try {
+
+            criterios = new CriteriosBusqueda(txtCiudad.getText(), txtPais.getText(), Integer.parseInt(txtPersonas.getText().strip()),
+                    dpDesde.getValue(), dpHasta.getValue(), leerPrecioMaximo(), MAX_RESULTADOS);
+
+        } catch (NumberFormatException e) {
+
+            mostrarAlerta("Validación", "El número de personas y el precio máximo deben ser números.", Alert.AlertType.WARNING);
+            return;
+
+        } catch (IllegalArgumentException e) {
+
+            mostrarAlerta("Validación", e.getMessage(), Alert.AlertType.WARNING);
+            return;
+
+        }
+
+        long inicio = System.nanoTime();
+
+        canalBusqueda.ejecutar(() -> BuscadorDisponibilidad.getInstance().buscar(criterios), resultados -> {
+
+            double ms = (System.nanoTime() - inicio) / 1_000_000.0;
+            mostrarResultados(resultados, ms);
+
+        }, error -> mostrarAlerta("Error", "No se ha podido completar la búsqueda: " + error.getMessage(), Alert.AlertType.ERROR));
+
+    }
+
+    /**
+     * Muestra los resultados y el resumen de la búsqueda.
+     *
+     * @param resultados propiedades libres ordenadas.
+     * @param ms tiempo total de la búsqueda en milisegundos.
+     */
+    private void mostrarResultados(List<ResultadoBusqueda> resultados, double ms) {
+
+        tblResultados.setItems(FXCollections.observableArrayList(resultados));
+
+        String limite = resultados.size() == MAX_RESULTADOS ? " (se muestran las " + MAX_RESULTADOS + " más baratas)" : "";
+        lblResumen.setText(String.format("Resultados: %d%s   ·   %.1f ms", resultados.size(), limite, ms));
+
+    }
+
+    /**
+     * @return precio máximo por noche introducido, o {@code null} si el campo está vacío.
+     */
+    private Float leerPrecioMaximo() {
+
+        String texto = txtPrecioMaximo.getText();
+        return texto == null || texto.isBlank() ? null : Float.parseFloat(texto.strip().replace(',', '.'));
+
+    }
+}
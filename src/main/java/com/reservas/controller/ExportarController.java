@@ -0,0 +1,221 @@
+package com.reservas.controller;
+
+import com.reservas.io.ExportadorTabla;
+import com.reservas.io.FormatoExportacion;
+import com.reservas.io.ResultadoExportacion;
+import com.reservas.io.TablaExportable;
+import com.reservas.util.EjecutorConsultas;
+import com.reservas.util.FabricaVistas;
+import javafx.concurrent.Task;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+
+import java.io.File;
+import java.io.IOException;
+
+import static com.reservas.controller.MainController.mostrarAlerta;
+
+/**
+ * <h1>Controlador de la exportación de tablas</h1>
+ * Ventana para volcar una tabla completa a un archivo CSV o JSON Lines.
+ *
+ * <h2>Funciones principales:</h2>
+ * <ul>
+ *     <li>Elegir la tabla, el formato, la compresión y el archivo de destino.</li>
+ *     <li>Lanzar la exportación en segundo plano con {@link ExportadorTabla}, mostrando filas escritas y filas por segundo.</li>
+ *     <li>Detener la exportación en curso.</li>
+ * </ul>
+ *
+ * @author Diego Regueira
+ * @since 17/10/2026
+ */
+public class ExportarController {
+
+    @FXML private ComboBox<TablaExportable> cbTabla;
+    @FXML private ComboBox<FormatoExportacion> cbFormato;
+    @FXML private CheckBox chkComprimir;
+    @FXML private ProgressBar pbProgreso;
+    @FXML private Label lblProgreso;
+    @FXML private Button btnExportar;
+    @FXML private Button btnCancelar;
+
+    private ExportadorTabla exportador;
+
+    /**
+     * Abre la ventana de exportación con una tabla ya elegida.
+     *
+     * @param tabla tabla seleccionada al abrir.
+     */
+    public static void abrir(TablaExportable tabla) {
+
+        try {
+
+            FabricaVistas.Vista<ExportarController> vista = FabricaVistas.cargar("exportar-view.fxml");
+
+            ExportarController controller = vista.controlador();
+            controller.cbTabla.setValue(tabla);
+
+            Stage stage = FabricaVistas.ventana(vista.raiz(), "Exportar " + tabla.toString().toLowerCase());
+            stage.setOnCloseRequest(e -> controller.cancelar());
+            stage.show();
+
+        } catch (IOException e) {
+
+            e.printStackTrace();
+            mostrarAlerta("Error", "No se ha podido abrir la ventana de exportación.", Alert.AlertType.ERROR);
+
+        }
+
+    }
+
+    /**
+     * Rellena las tablas y los formatos disponibles.
+     */
+    @FXML
+    public void initialize() {
+
+        cbTabla.getItems().setAll(TablaExportable.values());
+        cbFormato.getItems().setAll(FormatoExportacion.values());
+        cbFormato.setValue(FormatoExportacion.CSV);
+
+    }
+
+    /**
+     * Pide el archivo de destino y lanza la exportación en segundo plano.
+     */
+    @FXML
+    private void exportar() {
+
+        TablaExportable tabla = cbTabla.getValue();
+        FormatoExportacion formato = cbFormato.getValue();
+        boolean comprimir = chkComprimir.isSelected();
+
+        if (tabla == null || formato == null) {
+
+            mostrarAlerta("Validación", "Elige la tabla y el formato.", Alert.AlertType.WARNING);
+            return;
+
+        }
+
+        String extension = formato.extension(comprimir);
+
+        FileChooser selector = new FileChooser();
+        selector.setTitle("Guardar exportación");
+        selector.setInitialFileName(tabla.tabla() + extension);
+        selector.getExtensionFilters().add(new FileChooser.ExtensionFilter(formato + (comprimir ? " (gzip)" : ""), "*" + extension));
+
+        File archivo = selector.showSaveDialog(btnExportar.getScene().getWindow());
+
+        if (archivo == null) {
+            return;
+        }
+
+        exportador = new ExportadorTabla(tabla, formato, comprimir);
+        ExportadorTabla actual = exportador;
+
+        Task<ResultadoExportacion> tarea = new Task<>() {
+
+            @Override
+            protected ResultadoExportacion call() throws Exception {
+
+                return actual.exportar(archivo.toPath(), progreso -> updateMessage(
+                        String.format("%,d filas   ·   %,.0f filas/s", progreso.filas(), progreso.filasPorSegundo())));
+
+            }
+        };
+
+        // El número de filas no se conoce de antemano: la barra queda en modo indeterminado
+        pbProgreso.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+        lblProgreso.textProperty().bind(tarea.messageProperty());
+        enCurso(true);
+
+        tarea.setOnSucceeded(e -> {
+
+            terminar();
+            mostrarResultado(tarea.getValue());
+
+        });
+
+        tarea.setOnFailed(e -> {
+
+            terminar();
+            pbProgreso.setProgress(0);
+            lblProgreso.setText("La exportación no se ha completado");
+            mostrarAlerta("Error al exportar", tarea.getException().getMessage(), Alert.AlertType.ERROR);
+
+        });
+
+        EjecutorConsultas.ejecutarTarea(tarea);
+
+    }
+
+    /**
+     * Pide detener la exportación en curso.
+     */
+    @FXML
+    private void cancelar() {
+
+        if (exportador != null) {
+
+            exportador.cancelar();
+            btnCancelar.setDisable(true);
+
+        }
+
+    }
+
+    /**
+     * Cierra la ventana, deteniendo la exportación si sigue en curso.
+     */
+    @FXML
+    private void cerrar() {
+
+        cancelar();
+        ((Stage) btnExportar.getScene().getWindow()).close();
+
+    }
+
+    /**
+     * Muestra el resumen final de la exportación.
+     *
+     * @param resultado resultado de la exportación.
+     */
+    private void mostrarResultado(ResultadoExportacion resultado) {
+
+        if (resultado.cancelada()) {
+
+            pbProgreso.setProgress(0);
+            lblProgreso.setText(String.format("Detenida tras %,d filas. No se ha guardado ningún archivo.", resultado.filas()));
+            return;
+
+        }
+
+        pbProgreso.setProgress(1);
+        lblProgreso.setText(String.format("Terminada: %,d filas en %.1f s (%,.0f filas/s), %.1f MB\n%s",
+                resultado.filas(), resultado.duracion().toMillis() / 1000.0, resultado.filasPorSegundo(),
+                resultado.bytes() / 1_048_576.0, resultado.archivo().toAbsolutePath()));
+
+    }
+
+    private void terminar() {
+
+        lblProgreso.textProperty().unbind();
+        enCurso(false);
+
+    }
+
+    /**
+     * Activa o desactiva los controles según haya una exportación en curso.
+     */
+    private void enCurso(boolean enCurso) {
+
+        cbTabla.setDisable(enCurso);
+        cbFormato.setDisable(enCurso);
+        chkComprimir.setDisable(enCurso);
+        btnExportar.setDisable(enCurso);
+        btnCancelar.setDisable(!enCurso);
+
+    }
+}
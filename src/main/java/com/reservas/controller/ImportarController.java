@@ -0,0 +1,291 @@
+package com.reservas.controller;
+
+import com.reservas.io.ErrorImportacion;
+import com.reservas.io.ImportadorCSV;
+import com.reservas.io.ResultadoImportacion;
+import com.reservas.io.TipoImportacion;
+import com.reservas.util.EjecutorConsultas;
+import com.reservas.util.FabricaVistas;
+import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+
+import java.io.File;
+import java.io.IOException;
+
+import static com.reservas.controller.MainController.mostrarAlerta;
+
+/**
+ * <h1>Controlador de la importación de CSV</h1>
+ * Ventana para cargar de una vez muchos clientes, propiedades o reservas desde un archivo CSV.
+ *
+ * <h2>Funciones principales:</h2>
+ * <ul>
+ *     <li>Elegir el tipo de datos, el archivo y el tamaño de lote.</li>
+ *     <li>Lanzar la importación en segundo plano con {@link ImportadorCSV} y mostrar su progreso.</li>
+ *     <li>Listar las filas rechazadas e indicar dónde se ha guardado el informe completo.</li>
+ *     <li>Detener la importación conservando los lotes ya guardados.</li>
+ * </ul>
+ *
+ * @author Sofía Abid
+ * @since 17/10/2026
+ */
+public class ImportarController {
+
+    @FXML private ComboBox<TipoImportacion> cbTipo;
+    @FXML private TextField txtArchivo;
+    @FXML private TextField txtLote;
+    @FXML private Button btnElegir;
+    @FXML private Label lblColumnas;
+    @FXML private ProgressBar pbProgreso;
+    @FXML private Label lblProgreso;
+    @FXML private ListView<String> lstErrores;
+    @FXML private Label lblInforme;
+    @FXML private Button btnImportar;
+    @FXML private Button btnCancelar;
+
+    private File archivo;
+    private ImportadorCSV<?> importador;
+
+    /**
+     * Abre la ventana de importación con un tipo de datos ya elegido y espera a que se cierre.
+     * Quien la abre debe recargar sus datos al volver.
+     *
+     * @param tipo tipo de datos seleccionado al abrir.
+     */
+    public static void abrir(TipoImportacion tipo) {
+
+        try {
+
+            FabricaVistas.Vista<ImportarController> vista = FabricaVistas.cargar("importar-view.fxml");
+
+            ImportarController controller = vista.controlador();
+            controller.cbTipo.setValue(tipo);
+
+            Stage stage = FabricaVistas.ventana(vista.raiz(), "Importar " + tipo.toString().toLowerCase());
+            stage.setOnCloseRequest(e -> controller.cancelar());
+            stage.showAndWait();
+
+        } catch (IOException e) {
+
+            e.printStackTrace();
+            mostrarAlerta("Error", "No se ha podido abrir la ventana de importación.", Alert.AlertType.ERROR);
+
+        }
+
+    }
+
+    /**
+     * Rellena los tipos de datos y el tamaño de lote por defecto.
+     */
+    @FXML
+    public void initialize() {
+
+        cbTipo.getItems().setAll(TipoImportacion.values());
+        cbTipo.valueProperty().addListener((obs, anterior, tipo) -> mostrarColumnas(tipo));
+        txtLote.setText(String.valueOf(ImportadorCSV.TAMANO_LOTE_POR_DEFECTO));
+
+    }
+
+    /**
+     * Muestra las columnas que espera el tipo de datos elegido.
+     *
+     * @param tipo tipo de datos elegido.
+     */
+    private void mostrarColumnas(TipoImportacion tipo) {
+
+        if (tipo == null) {
+
+            lblColumnas.setText("");
+            return;
+
+        }
+
+        var destino = tipo.destino();
+        String texto = "Columnas: " + String.join(", ", destino.columnasObligatorias());
+
+        if (!destino.columnasOpcionales().isEmpty()) {
+            texto += "   ·   Opcionales: " + String.join(", ", destino.columnasOpcionales());
+        }
+
+        lblColumnas.setText(texto);
+
+    }
+
+    /**
+     * Abre el selector de archivos para elegir el CSV.
+     */
+    @FXML
+    private void elegirArchivo() {
+
+        FileChooser selector = new FileChooser();
+        selector.setTitle("Elegir archivo CSV");
+        selector.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Archivos CSV", "*.csv", "*.txt"),
+                new FileChooser.ExtensionFilter("Todos los archivos", "*.*"));
+
+        File elegido = selector.showOpenDialog(txtArchivo.getScene().getWindow());
+
+        if (elegido != null) {
+
+            archivo = elegido;
+            txtArchivo.setText(elegido.getAbsolutePath());
+            lblProgreso.setText(String.format("Listo para importar (%.1f MB)", elegido.length() / 1_048_576.0));
+
+        }
+
+    }
+
+    /**
+     * Valida las opciones y lanza la importación en segundo plano.
+     */
+    @FXML
+    private void importar() {
+
+        if (cbTipo.getValue() == null || archivo == null) {
+
+            mostrarAlerta("Validación", "Elige el tipo de datos y el archivo a importar.", Alert.AlertType.WARNING);
+            return;
+
+        }
+
+        int tamanoLote;
+
+        try {
+
+            tamanoLote = Integer.parseInt(txtLote.getText().strip());
+            importador = ImportadorCSV.para(cbTipo.getValue(), tamanoLote);
+
+        } catch (NumberFormatException e) {
+
+            mostrarAlerta("Validación", "El tamaño de lote debe ser un número.", Alert.AlertType.WARNING);
+            return;
+
+        } catch (IllegalArgumentException e) {
+
+            mostrarAlerta("Validación", e.getMessage(), Alert.AlertType.WARNING);
+            return;
+
+        }
+
+        ImportadorCSV<?> actual = importador;
+
+        Task<ResultadoImportacion> tarea = new Task<>() {
+
+            @Override
+            protected ResultadoImportacion call() throws Exception {
+
+                return actual.importar(archivo.toPath(), progreso -> {
+
+                    updateProgress(progreso.fraccion(), 1);
+                    updateMessage(String.format("%,d filas leídas   ·   %,d guardadas   ·   %,d rechazadas",
+                            progreso.filasLeidas(), progreso.insertadas(), progreso.rechazadas()));
+
+                });
+            }
+        };
+
+        pbProgreso.progressProperty().bind(tarea.progressProperty());
+        lblProgreso.textProperty().bind(tarea.messageProperty());
+        lstErrores.getItems().clear();
+        lblInforme.setText("");
+        enCurso(true);
+
+        tarea.setOnSucceeded(e -> {
+
+            terminar();
+            mostrarResultado(tarea.getValue());
+
+        });
+
+        tarea.setOnFailed(e -> {
+
+            terminar();
+            lblProgreso.setText("La importación no se ha completado");
+            mostrarAlerta("Error al importar", tarea.getException().getMessage(), Alert.AlertType.ERROR);
+
+        });
+
+        EjecutorConsultas.ejecutarTarea(tarea);
+
+    }
+
+    /**
+     * Pide detener la importación en curso. Los lotes ya guardados se conservan.
+     */
+    @FXML
+    private void cancelar() {
+
+        if (importador != null) {
+
+            importador.cancelar();
+            btnCancelar.setDisable(true);
+
+        }
+
+    }
+
+    /**
+     * Cierra la ventana, deteniendo la importación si sigue en curso.
+     */
+    @FXML
+    private void cerrar() {
+
+        cancelar();
+        ((Stage) btnImportar.getScene().getWindow()).close();
+
+    }
+
+    /**
+     * Muestra el resumen final y los primeros errores.
+     *
+     * @param resultado resultado de la importación.
+     */
+    private void mostrarResultado(ResultadoImportacion resultado) {
+
+        pbProgreso.setProgress(resultado.cancelada() ? pbProgreso.getProgress() : 1);
+
+        lblProgreso.setText(String.format("%s: %,d filas leídas   ·   %,d guardadas   ·   %,d rechazadas   ·   %.1f s",
+                resultado.cancelada() ? "Detenida" : "Terminada", resultado.filasLeidas(), resultado.insertadas(),
+                resultado.rechazadas(), resultado.duracion().toMillis() / 1000.0));
+
+        lstErrores.setItems(FXCollections.observableArrayList(
+                resultado.primerosErrores().stream().map(ImportarController::describir).toList()));
+
+        if (resultado.informeErrores() != null) {
+
+            String mas = resultado.rechazadas() > resultado.primerosErrores().size() ? "Se muestran los primeros errores. " : "";
+            lblInforme.setText(mas + "Informe completo: " + resultado.informeErrores().toAbsolutePath());
+
+        }
+
+    }
+
+    private static String describir(ErrorImportacion error) {
+        return "Línea " + error.linea() + ": " + error.mensaje();
+    }
+
+    private void terminar() {
+
+        pbProgreso.progressProperty().unbind();
+        lblProgreso.textProperty().unbind();
+        enCurso(false);
+
+    }
+
+    /**
+     * Activa o desactiva los controles según haya una importación en curso.
+     */
+    private void enCurso(boolean enCurso) {
+
+        cbTipo.setDisable(enCurso);
+        txtLote.setDisable(enCurso);
+        btnElegir.setDisable(enCurso);
+        btnImportar.setDisable(enCurso);
+        btnCancelar.setDisable(!enCurso);
+
+    }
+}
@@ -1,18 +1,14 @@
 package com.reservas.controller;
 
-import com.reservas.Main;
+import com.reservas.util.FabricaVistas;
 import javafx.animation.RotateTransition;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.stage.Stage;
 import javafx.util.Duration;
 
 import java.io.IOException;
-import java.util.Objects;
 
 /**
  * <h1>Controlador principal del sistema de reservas</h1>
@@ -60,6 +56,14 @@ public class MainController {
         cargarVista("reservas-view.fxml", "Gestión de reservas");
     }
 
+    /**
+     * Abre la vista de búsqueda de propiedades disponibles.
+     */
+    @FXML
+    public void abrirVistaDisponibilidad() {
+        cargarVista("disponibilidad-view.fxml", "Disponibilidad");
+    }
+
     /**
      * Abre la vista de gestión de pagos.
      */
@@ -76,22 +80,35 @@ public class MainController {
         cargarVista("valoraciones-view.fxml", "Valoraciones");
     }
 
+    /**
+     * Abre la ventana de diagnóstico con las métricas de las consultas.
+     */
+    @FXML
+    public void abrirVistaDiagnostico() {
+        DiagnosticoController.abrir();
+    }
+
+    /**
+     * Abre el panel de analítica de ocupación e ingresos.
+     */
+    @FXML
+    public void abrirVistaAnalitica() {
+        cargarVista("analitica-view.fxml", "Analítica");
+    }
+
 
     /**
      * Carga una vista FXML específica y la muestra en una nueva ventana.
+     * Si esa vista ya está abierta, trae su ventana al frente en lugar de abrir otra.
      *
      * @param ruta ruta del archivo FXML.
      * @param titulo título que se mostrará en la barra de la ventana.
      */
     protected static void cargarVista(String ruta, String titulo) {
 
-        FXMLLoader fxmlLoader = new FXMLLoader(Main.class.getResource(ruta));
-        Scene scene;
-
         try {
 
-            scene = new Scene(fxmlLoader.load());
-
+            FabricaVistas.abrirUnica(ruta, titulo);
 
         } catch (IOException e) {
 
@@ -99,12 +116,6 @@ public class MainController {
 
         }
 
-        Stage stage = new Stage();
-        stage.setScene(scene);
-        stage.getIcons().add(new Image(Objects.requireNonNull(MainController.class.getResourceAsStream("/images/IconoPrincipal.png"))));
-        stage.setTitle(titulo);
-        stage.show();
-
     }
 
     /**
@@ -114,7 +125,7 @@ public class MainController {
     private void cargarLogo() {
         try {
 
-            Image logo = new Image(getClass().getResourceAsStream("/images/iconoInicio.png"));
+            Image logo = FabricaVistas.imagen("/images/iconoInicio.png");
             logoAnimado.setImage(logo);
 
             RotateTransition rotacion = new RotateTransition(Duration.seconds(4), logoAnimado);
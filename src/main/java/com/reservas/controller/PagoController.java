@@ -1,24 +1,26 @@
 package com.reservas.controller;
 
-import com.reservas.Main;
-import com.reservas.config.DataBaseConnection;
 import com.reservas.dao.PagoDAO;
+import com.reservas.eventos.TablaObservada;
+import com.reservas.io.TablaExportable;
 import com.reservas.model.Pago;
+import com.reservas.util.CanalConsulta;
+import com.reservas.util.EjecutorConsultas;
+import com.reservas.util.FabricaVistas;
+import com.reservas.util.FuentePaginada;
+import com.reservas.util.ListaPaginada;
+import com.reservas.util.SincronizadorTabla;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.image.Image;
 import javafx.scene.input.MouseButton;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.sql.Connection;
-import java.util.Objects;
+import java.util.Map;
 
 import static com.reservas.controller.MainController.mostrarAlerta;
 
@@ -58,6 +60,9 @@ public class PagoController {
     @FXML private Label lblTotalPagos;
 
     private PagoDAO pagoDAO;
+    private ListaPaginada<Pago> listaPagos;
+    private SincronizadorTabla<Pago> sincronizador;
+    private final CanalConsulta canalPagos = new CanalConsulta();
 
     /**
      * Inicializa la vista de pagos y carga la información desde la base de datos.
@@ -66,14 +71,24 @@ public class PagoController {
     @FXML
     public void initialize() {
 
-        Connection connection = DataBaseConnection.getInstance().conectarBD();
-        pagoDAO = new PagoDAO(connection);
+        pagoDAO = new PagoDAO();
+        listaPagos = new ListaPaginada<>(FuentePaginada.de(pagoDAO::leerPagosPagina, pagoDAO::idPagoTrasSaltar), Pago::getId);
+        sincronizador = new SincronizadorTabla<>(listaPagos, canalPagos, pagoDAO::leerCambiosPagos);
 
         configurarColumnasTabla();
-        cargarListaPagos();
         configurarDobleClickFila();
+        canalPagos.vincularIndicador(table);
+        listaPagos.vincular(table);
         mostrarTodosPagos();
-        actualizarTotalPagos();
+
+        // Mientras se muestran los pagos de una reserva, la tabla no se toca
+        SuscripcionVista.suscribir(table, cambios -> {
+
+            if (table.getItems() == listaPagos) {
+                refrescarPagos();
+            }
+
+        }, TablaObservada.PAGOS);
 
     }
 
@@ -84,11 +99,12 @@ public class PagoController {
 
         colId.setCellValueFactory(new PropertyValueFactory<>("id"));
         colReserva.setCellValueFactory(new PropertyValueFactory<>("reserva"));
-        colFecha.setCellValueFactory(cellData ->
+        // Las filas valen null mientras su página se está cargando
+        colFecha.setCellValueFactory(cellData -> cellData.getValue() == null ? null :
                 new SimpleStringProperty(cellData.getValue().getFechaTexto())
         );
 
-        colMonto.setCellValueFactory(cellData ->
+        colMonto.setCellValueFactory(cellData -> cellData.getValue() == null ? null :
                 new SimpleStringProperty(cellData.getValue().getMontoMostrar())
         );
 
@@ -97,19 +113,45 @@ public class PagoController {
     }
 
     /**
-     * Carga todos los pagos desde la base de datos y los muestra en la tabla principal.
+     * Carga los pagos desde la base de datos y los muestra en la tabla principal.
+     * <p>
+     * Solo se consulta el número total de pagos; las filas se leen por páginas a medida que el usuario
+     * se desplaza. La consulta se ejecuta en segundo plano y sustituye a cualquier carga anterior en curso.
+     * </p>
      */
     public void cargarListaPagos() {
 
-        pagoDAO.mostrarTodosPagos();
-        ObservableList<Pago> listaPagos = FXCollections.observableArrayList(
-                pagoDAO.getPagosDisponibles()
-        );
+        sincronizador.recargar(pagoDAO::resumirPagosPorEstado, PagoController::contarFilas, this::mostrarResumen,
+                this::avisarError);
+
+    }
+
+    /**
+     * Aplica a la tabla solo los pagos añadidos, modificados o eliminados desde la última lectura,
+     * conservando la selección y la posición de la tabla.
+     */
+    public void refrescarPagos() {
+
+        sincronizador.refrescar(pagoDAO::resumirPagosPorEstado, PagoController::contarFilas, this::mostrarResumen,
+                this::avisarError);
+
+    }
+
+    private static int contarFilas(Map<Pago.EstadoPago, PagoDAO.TotalEstado> resumen) {
+        return resumen.values().stream().mapToInt(PagoDAO.TotalEstado::cantidad).sum();
+    }
+
+    private void mostrarResumen(Map<Pago.EstadoPago, PagoDAO.TotalEstado> resumen) {
 
         table.setItems(listaPagos);
+        actualizarTotalPagos(resumen);
 
     }
 
+    private void avisarError(Throwable error) {
+        mostrarAlerta("Error", "No se han podido cargar los pagos: " + error.getMessage(), Alert.AlertType.ERROR);
+    }
+
     /**
      * Abre el formulario para registrar un nuevo pago.
      */
@@ -118,13 +160,8 @@ public class PagoController {
 
         try {
 
-            FXMLLoader fxmlLoader = new FXMLLoader(Main.class.getResource("pagos-form-view.fxml"));
-            Scene scene = new Scene(fxmlLoader.load());
-
-            Stage stage = new Stage();
-            stage.setScene(scene);
-            stage.setTitle("Gestión Pagos");
-            stage.getIcons().add(new Image(Objects.requireNonNull(getClass().getResourceAsStream("/images/IconoPrincipal.png"))));
+            Stage stage = FabricaVistas.ventana(FabricaVistas.cargar("pagos-form-view.fxml").raiz(), "Gestión Pagos");
+            stage.setOnHidden(e -> refrescarPagos());
             stage.show();
 
         } catch (IOException e) {
@@ -159,20 +196,16 @@ public class PagoController {
 
         try {
 
-            FXMLLoader fxmlLoader = new FXMLLoader(Main.class.getResource("pagos-form-view.fxml"));
-            Scene scene = new Scene(fxmlLoader.load());
+            FabricaVistas.Vista<PagoFormController> vista = FabricaVistas.cargar("pagos-form-view.fxml");
 
-            PagoFormController pagoFormController = fxmlLoader.getController();
+            PagoFormController pagoFormController = vista.controlador();
             pagoFormController.cargarPagoParaEditar(pago, null);
 
-            Stage stage = new Stage();
-            stage.setScene(scene);
-            stage.setTitle("Gestión Pagos");
-            stage.getIcons().add(new Image(Objects.requireNonNull(getClass().getResourceAsStream("/images/IconoPrincipal.png"))));
+            Stage stage = FabricaVistas.ventana(vista.raiz(), "Gestión Pagos");
             stage.show();
 
             // Opcional: recargar la tabla cuando se cierre la ventana
-            stage.setOnHidden(e -> cargarListaPagos());
+            stage.setOnHidden(e -> refrescarPagos());
 
         } catch (IOException e) {
 
@@ -201,26 +234,39 @@ public class PagoController {
 
         if (confirmacion) {
 
-            boolean eliminado = pagoDAO.borrarPago(pagoSeleccionado);
-            cargarListaPagos();
+            EjecutorConsultas.ejecutar(() -> pagoDAO.borrarPago(pagoSeleccionado), eliminado -> {
 
-            if (eliminado) {
+                refrescarPagos();
 
-                mostrarAlerta("Éxito", "El pago " + pagoSeleccionado.getId() + " ha sido eliminado correctamente.",
-                        Alert.AlertType.INFORMATION);
+                if (eliminado) {
 
-            } else {
-                mostrarAlerta("Error", "No se ha podido eliminar el pago.", Alert.AlertType.ERROR);
-            }
+                    mostrarAlerta("Éxito", "El pago " + pagoSeleccionado.getId() + " ha sido eliminado correctamente.",
+                            Alert.AlertType.INFORMATION);
+
+                } else {
+                    mostrarAlerta("Error", "No se ha podido eliminar el pago.", Alert.AlertType.ERROR);
+                }
+
+            }, error -> mostrarAlerta("Error", "No se ha podido eliminar el pago: " + error.getMessage(), Alert.AlertType.ERROR));
         }
     }
 
+    /**
+     * Abre la ventana de exportación con la tabla de pagos seleccionada.
+     */
+    @FXML
+    private void exportarPagos() {
+        ExportarController.abrir(TablaExportable.PAGOS);
+    }
+
     /**
      * Actualiza la tabla recargando los datos desde la base de datos.
      */
     @FXML
     private void actualizarTablaPagos() {
 
+        PagoDAO.invalidarTotales();
+        PagoDAO.invalidarCache();
         cargarListaPagos();
 
     }
@@ -255,7 +301,7 @@ public class PagoController {
             row.setOnMouseClicked(event -> {
                 if (event.getButton() == MouseButton.PRIMARY &&
                         event.getClickCount() == 2 &&
-                        !row.isEmpty()) {
+                        !row.isEmpty() && row.getItem() != null) {
 
                     Pago pagoSeleccionado = row.getItem();
                     abrirFormularioEdicion(pagoSeleccionado);
@@ -281,11 +327,20 @@ public class PagoController {
             return;
         }
 
+        int id;
+
         try {
 
-            int id = Integer.parseInt(idTexto);
+            id = Integer.parseInt(idTexto);
+
+        } catch (NumberFormatException e){
+
+            mostrarAlerta("ERROR","El ID debe ser un número", Alert.AlertType.ERROR);
+            return;
+
+        }
 
-            Pago pagoEncontrado= pagoDAO.buscarPagoPorId(id);
+        canalPagos.ejecutar(() -> pagoDAO.buscarPagoPorId(id), pagoEncontrado -> {
 
             if (pagoEncontrado!=null){
 
@@ -299,11 +354,7 @@ public class PagoController {
 
             }
 
-        } catch (Exception e){
-
-            mostrarAlerta("ERROR","El ID debe ser un número", Alert.AlertType.ERROR);
-
-        }
+        }, error -> mostrarAlerta("Error", "No se ha podido buscar el pago: " + error.getMessage(), Alert.AlertType.ERROR));
 
     }
 
@@ -314,21 +365,23 @@ public class PagoController {
     public void mostrarTodosPagos() {
 
         txtBusquedaId.clear();
-        cargarListaPagos();
+        refrescarPagos();
 
     }
 
     /**
-     * Actualiza la etiqueta inferior que muestra el número total de pagos cargados.
+     * Actualiza la etiqueta inferior con el número total de pagos y los importes cobrados y pendientes.
+     *
+     * @param resumen totales por estado obtenidos con una única consulta agregada.
      */
-    private void actualizarTotalPagos() {
-
-        ObservableList<Pago> listaPagos = FXCollections.observableArrayList(pagoDAO.getPagosDisponibles());
+    private void actualizarTotalPagos(Map<Pago.EstadoPago, PagoDAO.TotalEstado> resumen) {
 
         if (lblTotalPagos != null) {
 
-            int total = listaPagos.size();
-            lblTotalPagos.setText("Total de Pagos: " + total);
+            int total = resumen.values().stream().mapToInt(PagoDAO.TotalEstado::cantidad).sum();
+
+            lblTotalPagos.setText(String.format("Total de Pagos: %d   ·   Cobrado: %.2f €   ·   Pendiente: %.2f €", total,
+                    resumen.get(Pago.EstadoPago.COMPLETADO).monto(), resumen.get(Pago.EstadoPago.PENDIENTE).monto()));
 
         }
     }
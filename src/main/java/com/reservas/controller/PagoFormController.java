@@ -1,14 +1,16 @@
 package com.reservas.controller;
 
-import com.reservas.config.DataBaseConnection;
+import com.reservas.busqueda.CatalogoOpciones;
+import com.reservas.busqueda.OpcionEntidad;
 import com.reservas.dao.PagoDAO;
 import com.reservas.model.Pago;
+import com.reservas.util.EjecutorConsultas;
+import com.reservas.util.SelectorEntidad;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 
-import java.sql.Connection;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -22,6 +24,7 @@ import java.time.format.DateTimeFormatter;
  * <h2>Funciones principales:</h2>
  * <ul>
  *     <li>Validación de campos antes del guardado.</li>
+ *     <li>Elección de la reserva en una lista que busca por cliente, propiedad o ID mientras se escribe.</li>
  *     <li>Inserción o actualización de registros de pagos.</li>
  *     <li>Autogeneración de referencias de transacción.</li>
  *     <li>Gestión de estados y métodos de pago.</li>
@@ -32,7 +35,7 @@ import java.time.format.DateTimeFormatter;
  */
 public class PagoFormController {
 
-    @FXML private ComboBox<String> cbReserva;
+    @FXML private ComboBox<OpcionEntidad> cbReserva;
 
     @FXML private TextField txtMonto;
 
@@ -54,47 +57,46 @@ public class PagoFormController {
     @FXML private Label txtTitulo;
 
     private PagoDAO pagoDAO;
+    private SelectorEntidad selectorReserva;
     private Pago pagoAEditar = null;
     private boolean modoEdicion = false;
 
     /**
      * Inicializa el formulario de pagos con los valores y listas necesarias.
+     * Las reservas se cargan por páginas a medida que se buscan y el monto de la reserva elegida se consulta
+     * en segundo plano, para que la ventana se muestre sin esperar a la base de datos.
      */
     @FXML
     public void initialize() {
 
-        Connection connection = DataBaseConnection.getInstance().conectarBD();
-        pagoDAO = new PagoDAO(connection);
-
-        pagoDAO.mostrarTodosPagos();
-        pagoDAO.mostrarTodosIdReservas();
+        pagoDAO = new PagoDAO();
 
         cbEstado.getItems().addAll("COMPLETADO", "PENDIENTE", "RECHAZADO");
         cbEstado.setValue("PENDIENTE");
 
-        pagoDAO.getListaReservasID().forEach(reserva -> {
-            cbReserva.getItems().add(String.valueOf(reserva));
-        });
+        selectorReserva = new SelectorEntidad(cbReserva, CatalogoOpciones.reservas());
 
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
         txtFecha.setText(LocalDateTime.now().format(formatter));
 
         txtReferencia.setEditable(false);
 
-        if (!modoEdicion) {
+        // La referencia se asigna al guardar, para no consumir una por cada formulario que se abre y se cancela
+        txtReferencia.setPromptText("Se asignará al guardar");
 
-            String referencia = pagoDAO.generarSiguienteReferencia();
-            txtReferencia.setText(referencia);
+        selectorReserva.idProperty().addListener((obs, antes, reservaId) -> {
 
-        }
+            if (reservaId == null || modoEdicion) {
+                return;
+            }
 
-        cbReserva.setOnAction(event -> {
+            EjecutorConsultas.ejecutar(() -> pagoDAO.leerMontoDeReserva(reservaId), monto -> monto.ifPresent(valor -> {
 
-            Integer reservaId = Integer.valueOf(cbReserva.getValue());
+                txtMonto.setText(String.format("%.2f", valor));
+                txtMonto.setEditable(false);
 
-            if (reservaId != null) {
-                pagoDAO.cargarMontoDeReserva(reservaId, txtMonto);
-            }
+            }), error -> mostrarAlerta("Error", "No se ha podido leer el monto de la reserva: " + error.getMessage(),
+                    Alert.AlertType.ERROR));
 
         });
     }
@@ -106,9 +108,9 @@ public class PagoFormController {
      */
     private boolean validarFormulario() {
 
-        if (cbReserva.getValue() == null) {
+        if (selectorReserva.getId() == null) {
 
-            mostrarAlerta("Validación", "Selecciona una reserva", Alert.AlertType.WARNING);
+            mostrarAlerta("Validación", "Selecciona una reserva de la lista", Alert.AlertType.WARNING);
             return false;
 
         }
@@ -169,13 +171,22 @@ public class PagoFormController {
         } else {
 
             pago = new Pago();
-            pago.setReserva(Integer.parseInt(cbReserva.getValue()));
+            pago.setReserva(selectorReserva.getId());
             pago.setMonto(Double.parseDouble(txtMonto.getText().trim().replace(",", ".")));
             pago.setFechaPago(LocalDateTime.now());
 
-            String referencia = pagoDAO.generarSiguienteReferencia();
-            pago.setReferenciaTransaccion(referencia);
-            txtReferencia.setText(referencia);
+            try {
+
+                String referencia = pagoDAO.generarSiguienteReferencia();
+                pago.setReferenciaTransaccion(referencia);
+                txtReferencia.setText(referencia);
+
+            } catch (RuntimeException e) {
+
+                mostrarAlerta("Error", "No se pudo asignar una referencia al pago", Alert.AlertType.ERROR);
+                return;
+
+            }
 
             mensaje = "Pago registrado correctamente";
 
@@ -224,7 +235,7 @@ public class PagoFormController {
 
         txtTitulo.setText("Modificacion de Pagos");
 
-        cbReserva.setValue(String.valueOf(pago.getReserva()));
+        selectorReserva.setId(pago.getReserva());
         cbReserva.setDisable(true);
 
         txtMonto.setText(String.valueOf(pago.getMonto()));
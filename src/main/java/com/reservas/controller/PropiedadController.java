@@ -1,23 +1,30 @@
 package com.reservas.controller;
 
+import com.reservas.dao.PagoDAO;
 import com.reservas.dao.PropiedadDAO;
+import com.reservas.eventos.TablaObservada;
+import com.reservas.io.TablaExportable;
+import com.reservas.io.TipoImportacion;
 import com.reservas.model.Propiedad;
+import com.reservas.util.CanalConsulta;
+import com.reservas.util.EjecutorConsultas;
+import com.reservas.util.FabricaVistas;
+import com.reservas.util.FuentePaginada;
+import com.reservas.util.ListaPaginada;
+import com.reservas.util.SincronizadorTabla;
+import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.image.Image;
 import javafx.scene.input.MouseButton;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static com.reservas.controller.MainController.mostrarAlerta;
 
@@ -52,6 +59,7 @@ public class PropiedadController {
     @FXML private TableColumn<Propiedad, Integer> colCapacidad;
     @FXML private TableColumn<Propiedad, String> colDescripcion;
     @FXML private TableColumn<Propiedad, String> colEstado;
+    @FXML private TableColumn<Propiedad, String> colIngresos;
 
     @FXML private TextField txtBusquedaId;
     @FXML private Label lblTotalPropiedades;
@@ -60,6 +68,13 @@ public class PropiedadController {
             actualizarContador();
 
     private final PropiedadDAO propiedadDAO = new PropiedadDAO();
+    private final PagoDAO pagoDAO = new PagoDAO();
+    private Map<Integer, Double> ingresosPorPropiedad = Map.of();
+    private final ListaPaginada<Propiedad> listaPropiedades = new ListaPaginada<>(
+            FuentePaginada.de(propiedadDAO::leerPropiedadesPagina, propiedadDAO::idPropiedadTrasSaltar), Propiedad::getIdPropiedad);
+    private final CanalConsulta canalPropiedades = new CanalConsulta();
+    private final SincronizadorTabla<Propiedad> sincronizador = new SincronizadorTabla<>(listaPropiedades,
+            canalPropiedades, propiedadDAO::leerCambiosPropiedades);
 
     /**
      * Inicializa la vista de propiedades, configurando las columnas,
@@ -70,8 +85,23 @@ public class PropiedadController {
     public void initialize() {
 
         configurarColumnas();
+        canalPropiedades.vincularIndicador(tblPropiedades);
+        listaPropiedades.vincular(tblPropiedades);
         cargarPropiedades();
 
+        // Los ingresos de cada propiedad dependen de los pagos
+        SuscripcionVista.suscribir(tblPropiedades, cambios -> {
+
+            if (cambios.contains(TablaObservada.PAGOS)) {
+                PagoDAO.invalidarTotales();
+            }
+
+            if (tblPropiedades.getItems() == listaPropiedades) {
+                refrescarPropiedades();
+            }
+
+        }, TablaObservada.PROPIEDADES, TablaObservada.PAGOS);
+
         tblPropiedades.itemsProperty().addListener((obs,
                oldList, newList) -> {
 
@@ -89,7 +119,7 @@ public class PropiedadController {
 
             fila.setOnMouseClicked(event -> {
 
-                if (!fila.isEmpty() && event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2) {
+                if (!fila.isEmpty() && fila.getItem() != null && event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2) {
 
                     Propiedad propiedadSeleccionada = fila.getItem();
                     abrirFormularioEdicion(propiedadSeleccionada);
@@ -115,26 +145,60 @@ public class PropiedadController {
         colCapacidad.setCellValueFactory(new PropertyValueFactory<>("capacidad"));
         colDescripcion.setCellValueFactory(new PropertyValueFactory<>("descripcion"));
         colEstado.setCellValueFactory(new PropertyValueFactory<>("estado_propiedad"));
+        colIngresos.setCellValueFactory(cellData -> cellData.getValue() == null ? null : new SimpleStringProperty(
+                String.format("%.2f €", ingresosPorPropiedad.getOrDefault(cellData.getValue().getIdPropiedad(), 0.0))));
 
     }
 
     /**
-     * Carga todas las propiedades disponibles desde la base de datos y
-     * las muestra en la tabla principal.
+     * Carga las propiedades desde la base de datos y las muestra en la tabla principal.
+     * <p>
+     * Solo se consultan los totales agregados (propiedades por estado e ingresos por propiedad); las filas se leen
+     * por páginas a medida que el usuario se desplaza. La consulta se ejecuta en segundo plano y sustituye a
+     * cualquier carga anterior en curso.
+     * </p>
      */
     private void cargarPropiedades() {
 
-        List<Propiedad> propiedades = propiedadDAO.leerPropiedades();
-        ObservableList<Propiedad> listaPropiedades = FXCollections.observableArrayList(propiedades);
-        tblPropiedades.setItems(listaPropiedades);
+        sincronizador.recargar(this::leerTotales, Totales::filas, this::mostrarTotales, this::avisarError);
 
-        if (listaPropiedades != null) {
+    }
 
-            listaPropiedades.addListener(contadorListener);
+    /**
+     * Aplica a la tabla solo las propiedades añadidas, modificadas o eliminadas desde la última lectura,
+     * conservando la selección y la posición de la tabla.
+     */
+    public void refrescarPropiedades() {
+
+        sincronizador.refrescar(this::leerTotales, Totales::filas, this::mostrarTotales, this::avisarError);
+
+    }
+
+    private Totales leerTotales() {
+        return new Totales(propiedadDAO.contarPropiedadesPorEstado(), pagoDAO.ingresosPorPropiedad());
+    }
 
+    private void mostrarTotales(Totales totales) {
+
+        boolean ingresosCambiados = !totales.ingresos().equals(ingresosPorPropiedad);
+
+        ingresosPorPropiedad = totales.ingresos();
+        tblPropiedades.setItems(listaPropiedades);
+
+        // La columna de ingresos no forma parte de la fila: si cambian, hay que volver a pintar las celdas
+        if (ingresosCambiados) {
+            tblPropiedades.refresh();
         }
 
+        lblTotalPropiedades.setTooltip(new Tooltip(totales.porEstado().entrySet().stream()
+                .map(e -> e.getKey() + ": " + e.getValue())
+                .collect(Collectors.joining("\n"))));
         actualizarContador();
+
+    }
+
+    private void avisarError(Throwable error) {
+        mostrarAlerta("Error", "No se han podido cargar las propiedades: " + error.getMessage(), Alert.AlertType.ERROR);
     }
 
     /**
@@ -196,8 +260,13 @@ public class PropiedadController {
 
         if (confirmacion.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
 
-            propiedadDAO.eliminarPropiedad(propiedadSeleccionada);
-            cargarPropiedades();
+            EjecutorConsultas.ejecutar(() -> {
+
+                propiedadDAO.eliminarPropiedad(propiedadSeleccionada);
+                return null;
+
+            }, ignorado -> refrescarPropiedades(), error -> mostrarAlerta("Error",
+                    "No se ha podido eliminar la propiedad: " + error.getMessage(), Alert.AlertType.ERROR));
 
         }
     }
@@ -211,17 +280,13 @@ public class PropiedadController {
 
         try {
 
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/reservas/propiedades-form-view.fxml"));
-            Parent root = loader.load();
+            FabricaVistas.Vista<PropiedadFormController> vista = FabricaVistas.cargar("propiedades-form-view.fxml");
 
-            PropiedadFormController controlador = loader.getController();
+            PropiedadFormController controlador = vista.controlador();
             controlador.setPropiedad(propiedad);
             controlador.setPropiedadController(this);
 
-            Stage stage = new Stage();
-            stage.setScene(new Scene(root));
-            stage.setTitle("Gestión Propiedades");
-            stage.getIcons().add(new Image(Objects.requireNonNull(getClass().getResourceAsStream("/images/IconoPrincipal.png"))));
+            Stage stage = FabricaVistas.ventana(vista.raiz(), "Gestión Propiedades");
             stage.show();
 
         } catch (IOException e) {
@@ -237,11 +302,33 @@ public class PropiedadController {
      */
     public void actualizarTabla() {
 
+        PropiedadDAO.invalidarTotales();
+        PropiedadDAO.invalidarCache();
+        PagoDAO.invalidarTotales();
         cargarPropiedades();
         actualizarContador();
 
     }
 
+    /**
+     * Abre la ventana de importación de propiedades desde CSV y recarga la tabla al cerrarla.
+     */
+    @FXML
+    public void importarPropiedades() {
+
+        ImportarController.abrir(TipoImportacion.PROPIEDADES);
+        refrescarPropiedades();
+
+    }
+
+    /**
+     * Abre la ventana de exportación con la tabla de propiedades seleccionada.
+     */
+    @FXML
+    public void exportarPropiedades() {
+        ExportarController.abrir(TablaExportable.PROPIEDADES);
+    }
+
     /**
      * Busca una propiedad por su identificador (ID) y la muestra en la tabla.
      * <ul>
@@ -257,16 +344,27 @@ public class PropiedadController {
 
         if (idTexto == null || idTexto.trim().isEmpty()) {
 
-            cargarPropiedades();
+            refrescarPropiedades();
             mostrarAlerta("Información", "Se muestran todas las propiedades.", Alert.AlertType.INFORMATION);
             return;
 
         }
 
+        int id;
+
         try {
 
-            int id = Integer.parseInt(idTexto.trim());
-            Propiedad propiedadEncontrada = propiedadDAO.buscarPropiedadPorId(id);
+            id = Integer.parseInt(idTexto.trim());
+
+        } catch (NumberFormatException e) {
+
+            mostrarAlerta("ERROR", "El ID debe ser un número válido.", Alert.AlertType.ERROR);
+            refrescarPropiedades();
+            return;
+
+        }
+
+        canalPropiedades.ejecutar(() -> propiedadDAO.buscarPropiedadPorId(id), propiedadEncontrada -> {
 
             if (propiedadEncontrada != null) {
 
@@ -276,18 +374,14 @@ public class PropiedadController {
             } else {
 
                 mostrarAlerta("Sin Resultado", "No se encontró ninguna propiedad con el ID: " + idTexto, Alert.AlertType.INFORMATION);
-                cargarPropiedades();
+                refrescarPropiedades();
 
             }
 
             actualizarContador();
 
-        } catch (NumberFormatException e) {
-
-            mostrarAlerta("ERROR", "El ID debe ser un número válido.", Alert.AlertType.ERROR);
-            cargarPropiedades();
-
-        }
+        }, error -> mostrarAlerta("Error", "No se ha podido buscar la propiedad: " + error.getMessage(),
+                Alert.AlertType.ERROR));
     }
 
     /**
@@ -299,4 +393,17 @@ public class PropiedadController {
         lblTotalPropiedades.setText("Total Propiedades: " + total);
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Totales agregados que acompañan a la carga de la tabla.
+     *
+     * @param porEstado número de propiedades de cada estado.
+     * @param ingresos importe cobrado de cada propiedad.
+     */
+    private record Totales(Map<String, Integer> porEstado, Map<Integer, Double> ingresos) {
+
+        int filas() {
+            return porEstado.values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+}
@@ -17,6 +17,7 @@ import javafx.stage.Stage;
  * <ul>
  *     <li>Creación y modificación de registros de propiedades.</li>
  *     <li>Validación de campos obligatorios y numéricos.</li>
+ *     <li>Calendario de ocupación de la propiedad que se está modificando.</li>
  *     <li>Comunicación con {@link PropiedadDAO} para operaciones CRUD.</li>
  *     <li>Actualización dinámica de la tabla principal en {@link PropiedadController}.</li>
  * </ul>
@@ -37,6 +38,8 @@ public class PropiedadFormController {
     @FXML private TextArea txtDescripcion;
     @FXML private ComboBox<String> cmbEstado;
 
+    @FXML private CalendarioController calendarioController;
+
     private final PropiedadDAO propiedadDAO = new PropiedadDAO();
     private Propiedad propiedad;
     private PropiedadController propiedadController;
@@ -106,7 +109,7 @@ public class PropiedadFormController {
 
             }
 
-            if (propiedadController != null) { propiedadController.actualizarTabla(); }
+            if (propiedadController != null) { propiedadController.refrescarPropiedades(); }
 
             cerrarVentana();
 
@@ -167,6 +170,7 @@ public class PropiedadFormController {
     public void setPropiedad(Propiedad propiedad) {
 
         this.propiedad = propiedad;
+        calendarioController.mostrarPropiedad(propiedad == null ? null : propiedad.getIdPropiedad());
 
         if (propiedad != null) {
 
@@ -1,21 +1,26 @@
 package com.reservas.controller;
 
-import com.reservas.Main;
 import com.reservas.dao.ReservaDAO;
+import com.reservas.eventos.TablaObservada;
+import com.reservas.io.TablaExportable;
+import com.reservas.io.TipoImportacion;
 import com.reservas.model.Reserva;
+import com.reservas.util.CanalConsulta;
+import com.reservas.util.EjecutorConsultas;
+import com.reservas.util.FabricaVistas;
+import com.reservas.util.FuentePaginada;
+import com.reservas.util.ListaPaginada;
+import com.reservas.util.SincronizadorTabla;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.image.Image;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.util.Objects;
+import java.util.Map;
 
 /**
  * <h1>Controlador de Reservas</h1>
@@ -37,6 +42,10 @@ import java.util.Objects;
 public class ReservaControler {
 
     private ReservaDAO reservaDAO;
+    private ListaPaginada<Reserva> reservas;
+    private SincronizadorTabla<Reserva> sincronizador;
+    private final CanalConsulta canalReservas = new CanalConsulta();
+    private String textoTotalOriginal;
 
     @FXML
     private TableView<Reserva> tableView;
@@ -69,18 +78,77 @@ public class ReservaControler {
     /**
      * Inicializa la vista de reservas configurando las columnas,
      * cargando los datos desde la base de datos y mostrando el total actual.
+     * <p>
+     * La carga se realiza en segundo plano; una nueva llamada cancela la carga anterior. Solo se consulta el
+     * recuento de reservas por estado y las filas se leen por páginas a medida que el usuario se desplaza.
+     * Las llamadas posteriores a la primera (botón ACTUALIZAR) descartan antes los totales guardados en caché.
+     * </p>
      */
     @FXML
     public void initialize() {
 
-        reservaDAO = new ReservaDAO();
-        ObservableList<Reserva> reservas = FXCollections.observableArrayList(reservaDAO.getReservas());
-        configurarColumnas();
+        if (textoTotalOriginal == null) {
+
+            textoTotalOriginal = totalLabel.getText();
+            reservaDAO = new ReservaDAO();
+            reservas = new ListaPaginada<>(FuentePaginada.de(reservaDAO::leerReservasPagina, reservaDAO::idReservaTrasSaltar),
+                    Reserva::getId_reserva);
+            sincronizador = new SincronizadorTabla<>(reservas, canalReservas, reservaDAO::leerCambiosReservas);
+
+            configurarColumnas();
+            canalReservas.vincularIndicador(tableView);
+            reservas.vincular(tableView);
+
+            // Mientras se muestra una búsqueda, la tabla no se toca
+            SuscripcionVista.suscribir(tableView, cambios -> {
+
+                if (tableView.getItems() == reservas) {
+                    refrescarReservas();
+                }
+
+            }, TablaObservada.RESERVAS);
+
+        } else {
+
+            ReservaDAO.invalidarTotales();
+            ReservaDAO.invalidarCache();
+
+        }
+
+        sincronizador.recargar(reservaDAO::contarReservasPorEstado, ReservaControler::contarFilas, this::mostrarTotales,
+                this::avisarError);
+
+    }
+
+    /**
+     * Aplica a la tabla solo las reservas añadidas, modificadas o eliminadas desde la última lectura,
+     * conservando la selección y la posición de la tabla.
+     */
+    public void refrescarReservas() {
+
+        sincronizador.refrescar(reservaDAO::contarReservasPorEstado, ReservaControler::contarFilas, this::mostrarTotales,
+                this::avisarError);
+
+    }
+
+    private static int contarFilas(Map<Reserva.EstadoReserva, Integer> porEstado) {
+        return porEstado.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private void mostrarTotales(Map<Reserva.EstadoReserva, Integer> porEstado) {
+
         tableView.setItems(reservas);
-        totalLabel.setText(totalLabel.getText() + reservas.size());
+        totalLabel.setText(textoTotalOriginal + contarFilas(porEstado));
+        totalLabel.setTooltip(new Tooltip(String.format("Confirmadas: %d%nPendientes: %d%nCanceladas: %d",
+                porEstado.get(Reserva.EstadoReserva.CONFIRMADA), porEstado.get(Reserva.EstadoReserva.PENDIENTE),
+                porEstado.get(Reserva.EstadoReserva.CANCELADA))));
 
     }
 
+    private void avisarError(Throwable error) {
+        MainController.mostrarAlerta("Error", "No se han podido cargar las reservas: " + error.getMessage(), Alert.AlertType.ERROR);
+    }
+
     /**
      * Configura las columnas de la tabla enlazándolas con las propiedades del modelo {@link Reserva}.
      * También formatea las fechas de inicio y fin para mostrarlas como texto legible.
@@ -90,9 +158,10 @@ public class ReservaControler {
         colID.setCellValueFactory(new PropertyValueFactory<>("id_reserva"));
         colID_cliente.setCellValueFactory(new PropertyValueFactory<>("id_cliente"));
         colID_prop.setCellValueFactory(new PropertyValueFactory<>("id_propiedad"));
-        colFechaIni.setCellValueFactory(reservaDateCellDataFeatures ->
+        // Las filas valen null mientras su página se está cargando
+        colFechaIni.setCellValueFactory(reservaDateCellDataFeatures -> reservaDateCellDataFeatures.getValue() == null ? null :
                 new SimpleStringProperty(reservaDateCellDataFeatures.getValue().getFechaIniString()));
-        colFechaFin.setCellValueFactory(reservaDateCellDataFeatures ->
+        colFechaFin.setCellValueFactory(reservaDateCellDataFeatures -> reservaDateCellDataFeatures.getValue() == null ? null :
                 new SimpleStringProperty(reservaDateCellDataFeatures.getValue().getFechaFinString()));
         colNumPersonas.setCellValueFactory(new PropertyValueFactory<>("num_personas"));
         colEstado.setCellValueFactory(new PropertyValueFactory<>("estadoReserva"));
@@ -111,29 +180,42 @@ public class ReservaControler {
      */
     public void aniadirReservaForm() {
 
-        FXMLLoader loader = new FXMLLoader(Main.class.getResource("reservas-form-view.fxml"));
-        Scene scene;
+        FabricaVistas.Vista<ReservaFormController> vista;
 
         try {
 
-            scene = new Scene(loader.load());
+            vista = FabricaVistas.cargar("reservas-form-view.fxml");
 
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
 
-        ReservaFormController formController = loader.getController();
+        ReservaFormController formController = vista.controlador();
         formController.modoEditar = false;
         formController.reservaControler = this;
 
-        Stage stage = new Stage();
-        stage.setScene(scene);
-        stage.setTitle("Gestión Reservas");
-        stage.getIcons().add(new Image(Objects.requireNonNull(getClass().getResourceAsStream("/images/IconoPrincipal.png"))));
+        Stage stage = FabricaVistas.ventana(vista.raiz(), "Gestión Reservas");
         stage.show();
 
     }
 
+    /**
+     * Abre la ventana de importación de reservas desde CSV y recarga la tabla al cerrarla.
+     */
+    public void importarReservas() {
+
+        ImportarController.abrir(TipoImportacion.RESERVAS);
+        refrescarReservas();
+
+    }
+
+    /**
+     * Abre la ventana de exportación con la tabla de reservas seleccionada.
+     */
+    public void exportarReservas() {
+        ExportarController.abrir(TablaExportable.RESERVAS);
+    }
+
     /**
      * Elimina la reserva seleccionada en la tabla previa confirmación del usuario.
      * Si no hay ninguna seleccionada, se muestra una alerta de advertencia.
@@ -147,17 +229,24 @@ public class ReservaControler {
 
         } else {
 
-            if (reservaDAO.eliminarReserva(tableView.getSelectionModel().getSelectedItem()) == 1) {
+            Reserva seleccionada = tableView.getSelectionModel().getSelectedItem();
 
-                MainController.mostrarAlerta("Reserva eliminada", "Reserva eliminada correctamente", Alert.AlertType.INFORMATION);
-                initialize();
+            EjecutorConsultas.ejecutar(() -> reservaDAO.eliminarReserva(seleccionada), filas -> {
 
-            } else {
+                if (filas == 1) {
 
-                MainController.mostrarAlerta("Error", "La reserva seleccionada no existe. Por favor, actualiza la tabla.",
-                        Alert.AlertType.ERROR);
+                    MainController.mostrarAlerta("Reserva eliminada", "Reserva eliminada correctamente", Alert.AlertType.INFORMATION);
+                    refrescarReservas();
 
-            }
+                } else {
+
+                    MainController.mostrarAlerta("Error", "La reserva seleccionada no existe. Por favor, actualiza la tabla.",
+                            Alert.AlertType.ERROR);
+
+                }
+
+            }, error -> MainController.mostrarAlerta("Error", "No se ha podido eliminar la reserva: " + error.getMessage(),
+                    Alert.AlertType.ERROR));
         }
     }
 
@@ -174,25 +263,21 @@ public class ReservaControler {
 
         } else {
 
-            FXMLLoader loader = new FXMLLoader(Main.class.getResource("reservas-form-view.fxml"));
-            Scene scene;
+            FabricaVistas.Vista<ReservaFormController> vista;
 
             try {
 
-                scene = new Scene(loader.load());
+                vista = FabricaVistas.cargar("reservas-form-view.fxml");
 
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
 
-            ReservaFormController formController = loader.getController();
+            ReservaFormController formController = vista.controlador();
             formController.setModoEditar(true, tableView.getSelectionModel().getSelectedItem());
             formController.reservaControler = this;
 
-            Stage stage = new Stage();
-            stage.setScene(scene);
-            stage.setTitle("Gestión Reservas");
-            stage.getIcons().add(new Image(Objects.requireNonNull(getClass().getResourceAsStream("/images/IconoPrincipal.png"))));
+            Stage stage = FabricaVistas.ventana(vista.raiz(), "Gestión Reservas");
             stage.show();
         }
     }
@@ -211,13 +296,13 @@ public class ReservaControler {
 
         if (texto == null || texto.isBlank()) {
 
-            initialize();
+            refrescarReservas();
             return;
         }
-        Reserva r;
+        int id;
         try {
 
-            r = reservaDAO.buscarReservaID(Integer.parseInt(texto));
+            id = Integer.parseInt(texto);
 
         } catch (NumberFormatException e) {
 
@@ -226,16 +311,21 @@ public class ReservaControler {
             return;
         }
 
-        if (r == null) {
+        canalReservas.ejecutar(() -> reservaDAO.buscarReservaID(id), r -> {
 
-            MainController.mostrarAlerta("Error", "No se encontaron reservas con ese ID.", Alert.AlertType.ERROR);
-            txtFieldBuscar.clear();
+            if (r == null) {
 
-        } else {
+                MainController.mostrarAlerta("Error", "No se encontaron reservas con ese ID.", Alert.AlertType.ERROR);
+                txtFieldBuscar.clear();
 
-            ObservableList<Reserva> observableList = FXCollections.observableArrayList(r);
-            tableView.setItems(observableList);
+            } else {
 
-        }
+                ObservableList<Reserva> observableList = FXCollections.observableArrayList(r);
+                tableView.setItems(observableList);
+
+            }
+
+        }, error -> MainController.mostrarAlerta("Error", "No se ha podido buscar la reserva: " + error.getMessage(),
+                Alert.AlertType.ERROR));
     }
 }
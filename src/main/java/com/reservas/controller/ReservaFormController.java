@@ -1,16 +1,23 @@
 package com.reservas.controller;
 
-import com.reservas.dao.ClienteDAO;
-import com.reservas.dao.PropiedadDAO;
+import com.reservas.busqueda.CatalogoOpciones;
+import com.reservas.busqueda.OpcionEntidad;
 import com.reservas.dao.ReservaDAO;
 import com.reservas.model.Reserva;
+import com.reservas.precios.MotorPrecios;
+import com.reservas.precios.Presupuesto;
+import com.reservas.util.CanalConsulta;
+import com.reservas.util.SelectorEntidad;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 
 import java.sql.Date;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Locale;
+import java.util.function.IntSupplier;
 
 /**
  * <h1>Controlador del formulario de Reservas</h1>
@@ -23,7 +30,10 @@ import java.util.ArrayList;
  * <ul>
  *     <li>Alta y edición de reservas existentes.</li>
  *     <li>Validación completa de campos (fechas, IDs, número de personas, precio).</li>
- *     <li>Asignación de clientes, propiedades y estado de reserva mediante listas desplegables.</li>
+ *     <li>Cálculo automático del precio total con {@link MotorPrecios} al elegir propiedad, fechas y personas.</li>
+ *     <li>Calendario de ocupación de la propiedad elegida, en el que se pueden marcar las fechas de la estancia.</li>
+ *     <li>Asignación de clientes y propiedades con listas que buscan por nombre mientras se escribe.</li>
+ *     <li>Asignación del estado de reserva mediante una lista desplegable.</li>
  *     <li>Comunicación con {@link ReservaDAO} para operaciones de base de datos.</li>
  *     <li>Actualización automática de la tabla de reservas tras guardar los cambios.</li>
  * </ul>
@@ -35,8 +45,8 @@ public class ReservaFormController {
 
     @FXML private TextField idReserva;
 
-    @FXML private ComboBox<Integer> idCliente;
-    @FXML private ComboBox<Integer> idPropiedad;
+    @FXML private ComboBox<OpcionEntidad> idCliente;
+    @FXML private ComboBox<OpcionEntidad> idPropiedad;
 
     @FXML private DatePicker fechaInicio;
     @FXML private DatePicker fechaFin;
@@ -45,26 +55,34 @@ public class ReservaFormController {
 
     @FXML private TextField numPersonas;
     @FXML private TextField precio;
+    @FXML private Label lblDesglose;
     @FXML private TextArea motivo;
 
     @FXML private Button btnCancelar;
 
+    @FXML private CalendarioController calendarioController;
+
     public Reserva reservaEditar;
     private final ReservaDAO reservaDAO = new ReservaDAO();
     public boolean modoEditar;
     public ReservaControler reservaControler;
 
+    private SelectorEntidad selectorCliente;
+    private SelectorEntidad selectorPropiedad;
+
+    private final CanalConsulta canalPrecio = new CanalConsulta();
+    private String precioCalculado;
+
     /**
      * Inicializa los componentes del formulario de reserva.
+     * Los clientes y las propiedades se cargan por páginas a medida que se buscan, así que abrir el formulario
+     * no depende del tamaño de las tablas.
      */
     @FXML
     public void initialize() {
 
-        ArrayList<Integer> ids = new ClienteDAO().getIDClientes();
-        ArrayList<Integer> idsProp = new PropiedadDAO().getIDPropiedades();
-
-        idCliente.setItems(FXCollections.observableArrayList(ids));
-        idPropiedad.setItems(FXCollections.observableArrayList(idsProp));
+        selectorCliente = new SelectorEntidad(idCliente, CatalogoOpciones.clientes());
+        selectorPropiedad = new SelectorEntidad(idPropiedad, CatalogoOpciones.propiedades());
 
         ArrayList<Reserva.EstadoReserva> estados = new ArrayList<>();
         estados.add(Reserva.EstadoReserva.CANCELADA);
@@ -75,6 +93,101 @@ public class ReservaFormController {
         estadoCombo.getSelectionModel().select(2);
 
         idReserva.setDisable(true);
+
+        selectorPropiedad.idProperty().addListener((obs, antes, ahora) -> calcularPrecio());
+        fechaInicio.valueProperty().addListener((obs, antes, ahora) -> calcularPrecio());
+        fechaFin.valueProperty().addListener((obs, antes, ahora) -> calcularPrecio());
+        numPersonas.textProperty().addListener((obs, antes, ahora) -> calcularPrecio());
+
+        selectorPropiedad.idProperty().addListener((obs, antes, ahora) -> calendarioController.mostrarPropiedad(ahora));
+        fechaInicio.valueProperty().addListener((obs, antes, ahora) -> marcarEstancia());
+        fechaFin.valueProperty().addListener((obs, antes, ahora) -> marcarEstancia());
+        calendarioController.setAlElegirDia(this::elegirDia);
+    }
+
+    private void marcarEstancia() {
+
+        calendarioController.marcarEstancia(fechaInicio.getValue(), fechaFin.getValue());
+
+    }
+
+    /**
+     * Rellena las fechas con el día pulsado en el calendario: el primero es la entrada y el siguiente, si es
+     * posterior, la salida. Con la estancia ya completa, el día pulsado empieza una nueva.
+     *
+     * @param dia día pulsado.
+     */
+    private void elegirDia(LocalDate dia) {
+
+        LocalDate entrada = fechaInicio.getValue();
+
+        if (entrada == null || fechaFin.getValue() != null || !dia.isAfter(entrada)) {
+
+            fechaFin.setValue(null);
+            fechaInicio.setValue(dia);
+
+        } else {
+
+            fechaFin.setValue(dia);
+
+        }
+    }
+
+    /**
+     * Calcula el precio total en cuanto la propiedad, las fechas y las personas son válidas.
+     * <p>
+     * El precio calculado solo sustituye al del campo si este está vacío o sigue teniendo el último valor calculado;
+     * si se ha escrito otro a mano (o es el de una reserva que se está editando) se respeta y el cálculo solo se
+     * muestra debajo.
+     * </p>
+     */
+    private void calcularPrecio() {
+
+        Integer propiedad = selectorPropiedad.getId();
+        LocalDate desde = fechaInicio.getValue();
+        LocalDate hasta = fechaFin.getValue();
+        int personas = 0;
+
+        try {
+
+            personas = Integer.parseInt(numPersonas.getText() == null ? "" : numPersonas.getText().trim());
+
+        } catch (NumberFormatException e) {
+
+            // Mientras no sea un número no se calcula el precio
+
+        }
+
+        if (propiedad == null || desde == null || hasta == null || !hasta.isAfter(desde) || personas < 1) {
+
+            canalPrecio.cancelar();
+            lblDesglose.setText("");
+            return;
+
+        }
+
+        int huespedes = personas;
+
+        canalPrecio.ejecutar(() -> MotorPrecios.getInstance().presupuestar(propiedad, desde, hasta, huespedes),
+                this::mostrarPresupuesto,
+                error -> lblDesglose.setText("No se ha podido calcular el precio: " + error.getMessage()));
+
+    }
+
+    private void mostrarPresupuesto(Presupuesto presupuesto) {
+
+        String calculado = String.format(Locale.ROOT, "%.2f", presupuesto.total());
+        String actual = precio.getText();
+
+        if (actual == null || actual.isBlank() || actual.equals(precioCalculado)) {
+            precio.setText(calculado);
+        }
+
+        precioCalculado = calculado;
+
+        lblDesglose.setText(calculado.equals(precio.getText()) ? presupuesto.toString()
+                : presupuesto + String.format(" (calculado: %.2f €)", presupuesto.total()));
+
     }
 
     /**
@@ -91,8 +204,8 @@ public class ReservaFormController {
 
         this.modoEditar = modoEditar;
         this.reservaEditar = reservaParaEditar;
-        idCliente.setValue(reservaEditar.getId_cliente());
-        idPropiedad.setValue(reservaEditar.getId_propiedad());
+        selectorCliente.setId(reservaEditar.getId_cliente());
+        selectorPropiedad.setId(reservaEditar.getId_propiedad());
         fechaInicio.setValue(reservaEditar.getFecha_inicio().toLocalDate());
         fechaFin.setValue(reservaEditar.getFecha_fin().toLocalDate());
         numPersonas.setText(String.valueOf(reservaEditar.getNum_personas()));
@@ -111,16 +224,16 @@ public class ReservaFormController {
     @FXML
     private boolean aniadirNuevaReserva() {
 
-        if (idCliente.getValue() == null) {
+        if (selectorCliente.getId() == null) {
 
-            MainController.mostrarAlerta("Error", "El ID Cliente no puede estar vacío.", Alert.AlertType.ERROR);
+            MainController.mostrarAlerta("Error", "Elige un cliente de la lista.", Alert.AlertType.ERROR);
             return false;
 
         }
 
-        if (idPropiedad.getValue() == null) {
+        if (selectorPropiedad.getId() == null) {
 
-            MainController.mostrarAlerta("Error", "El ID propiedad no puede estar vacío.", Alert.AlertType.ERROR);
+            MainController.mostrarAlerta("Error", "Elige una propiedad de la lista.", Alert.AlertType.ERROR);
             return false;
 
         }
@@ -139,6 +252,13 @@ public class ReservaFormController {
 
         }
 
+        if (!fechaFin.getValue().isAfter(fechaInicio.getValue())) {
+
+            MainController.mostrarAlerta("Error", "La fecha fin debe ser posterior a la fecha inicio.", Alert.AlertType.ERROR);
+            return false;
+
+        }
+
         if (numPersonas.getText() == null || numPersonas.getText().isEmpty()) {
 
             MainController.mostrarAlerta("Error", "El número de personas no puede estar vacío.", Alert.AlertType.ERROR);
@@ -177,14 +297,20 @@ public class ReservaFormController {
 
         if (modoEditar) {
 
-            Reserva r = new Reserva(Integer.parseInt(idReserva.getText()), idCliente.getValue(), idPropiedad.getValue(), Date.valueOf(fechaInicio.getValue())
+            Reserva r = new Reserva(Integer.parseInt(idReserva.getText()), selectorCliente.getId(), selectorPropiedad.getId(), Date.valueOf(fechaInicio.getValue())
                     , Date.valueOf(fechaFin.getValue()), Integer.parseInt(numPersonas.getText()), estadoCombo.getValue(),
                     Double.parseDouble(precio.getText()), motivo.getText());
 
-            if (reservaDAO.modificarReserva(r) == 1) {
+            int filas = guardar(() -> reservaDAO.modificarReserva(r));
+
+            if (filas == -1) {
+
+                return false;
+
+            } else if (filas == 1) {
 
                 MainController.mostrarAlerta("Reserva añadida", "Reserva añadida correctamente", Alert.AlertType.INFORMATION);
-                reservaControler.initialize();
+                reservaControler.refrescarReservas();
 
             } else {
 
@@ -194,14 +320,20 @@ public class ReservaFormController {
 
         } else {
 
-            Reserva r = new Reserva(idCliente.getValue(), idPropiedad.getValue(), Date.valueOf(fechaInicio.getValue())
+            Reserva r = new Reserva(selectorCliente.getId(), selectorPropiedad.getId(), Date.valueOf(fechaInicio.getValue())
                     , Date.valueOf(fechaFin.getValue()), Integer.parseInt(numPersonas.getText()), estadoCombo.getValue(),
                     Double.parseDouble(precio.getText()), motivo.getText());
 
-            if (reservaDAO.aniadirReserva(r) == 1) {
+            int filas = guardar(() -> reservaDAO.aniadirReserva(r));
+
+            if (filas == -1) {
+
+                return false;
+
+            } else if (filas == 1) {
 
                 MainController.mostrarAlerta("Reserva añadida", "Reserva añadida correctamente", Alert.AlertType.INFORMATION);
-                reservaControler.initialize();
+                reservaControler.refrescarReservas();
 
             } else {
 
@@ -214,6 +346,27 @@ public class ReservaFormController {
         return true;
     }
 
+    /**
+     * Ejecuta una escritura de reserva y muestra una alerta si la propiedad ya está ocupada en esas fechas.
+     * En ese caso el formulario sigue abierto para que se puedan corregir las fechas.
+     *
+     * @param escritura operación del DAO a ejecutar.
+     * @return Filas afectadas, o {@code -1} si la reserva se solapa con otra.
+     */
+    private int guardar(IntSupplier escritura) {
+
+        try {
+
+            return escritura.getAsInt();
+
+        } catch (IllegalStateException e) {
+
+            MainController.mostrarAlerta("Propiedad no disponible", e.getMessage(), Alert.AlertType.WARNING);
+            return -1;
+
+        }
+    }
+
     /**
      * Cierra la ventana actual del formulario de reserva.
      */
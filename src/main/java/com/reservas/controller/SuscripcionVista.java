@@ -0,0 +1,63 @@
+package com.reservas.controller;
+
+import com.reservas.eventos.BusEventos;
+import com.reservas.eventos.TablaObservada;
+import javafx.scene.Node;
+import javafx.stage.WindowEvent;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * <h1>Suscripción de una vista a los cambios</h1>
+ *
+ * Une las suscripciones de {@link BusEventos} a la vida de una ventana de JavaFX, para que cada controlador se
+ * refresque con los avisos mientras su ventana esté abierta y deje de recibirlos al cerrarla. El bus no sabe nada
+ * de JavaFX, así que este enlace vive en la capa de controladores.
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+final class SuscripcionVista {
+
+    private SuscripcionVista() { }
+
+    /**
+     * Suscribe una vista a los cambios de unas tablas mientras su ventana esté abierta.
+     * La suscripción se cierra sola al ocultarse la ventana.
+     *
+     * @param vista cualquier nodo de la vista; puede no estar todavía en una escena.
+     * @param accion recibe, en el hilo de JavaFX, las tablas que han cambiado.
+     * @param primera tabla que interesa.
+     * @param resto otras tablas que interesan.
+     * @return la suscripción.
+     */
+    static BusEventos.Suscripcion suscribir(Node vista, Consumer<Set<TablaObservada>> accion, TablaObservada primera,
+                                            TablaObservada... resto) {
+
+        BusEventos.Suscripcion suscripcion = BusEventos.getInstance().suscribir(EnumSet.of(primera, resto), accion);
+
+        if (vista.getScene() != null && vista.getScene().getWindow() != null) {
+
+            vista.getScene().getWindow().addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> suscripcion.cerrar());
+
+        } else {
+
+            vista.sceneProperty().addListener((obs, anterior, escena) -> {
+
+                if (escena != null) {
+
+                    escena.windowProperty().addListener((o, antes, ventana) -> {
+
+                        if (ventana != null) {
+                            ventana.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> suscripcion.cerrar());
+                        }
+                    });
+                }
+            });
+        }
+
+        return suscripcion;
+    }
+}
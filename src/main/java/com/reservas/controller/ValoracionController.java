@@ -1,27 +1,26 @@
 package com.reservas.controller;
 
-import com.reservas.config.DataBaseConnection;
 import com.reservas.dao.ValoracionDAO;
+import com.reservas.eventos.TablaObservada;
+import com.reservas.io.TablaExportable;
 import com.reservas.model.Valoracion;
+import com.reservas.util.CanalConsulta;
+import com.reservas.util.EjecutorConsultas;
+import com.reservas.util.FabricaVistas;
+import com.reservas.util.FuentePaginada;
+import com.reservas.util.ListaPaginada;
+import com.reservas.util.SincronizadorTabla;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.image.Image;
 import javafx.scene.input.MouseButton;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.sql.Connection;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.Objects;
 
 /**
  * <h1>Controlador de Valoraciones</h1>
@@ -57,7 +56,9 @@ public class ValoracionController {
     private final DateTimeFormatter FECHA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
     private ValoracionDAO valoracionDAO;
-    private final ObservableList<Valoracion> listaValoracion = FXCollections.observableArrayList();
+    private ListaPaginada<Valoracion> listaValoracion;
+    private final CanalConsulta canalValoraciones = new CanalConsulta();
+    private SincronizadorTabla<Valoracion> sincronizador;
 
     /**
      * Inicializa la vista de valoraciones, configurando las columnas,
@@ -66,12 +67,26 @@ public class ValoracionController {
     @FXML
     public void initialize() {
 
-        Connection connection = DataBaseConnection.getInstance().conectarBD();
-        valoracionDAO = new ValoracionDAO(connection);
+        valoracionDAO = new ValoracionDAO();
+        listaValoracion = new ListaPaginada<>(
+                FuentePaginada.de(valoracionDAO::leerValoracionesPagina, valoracionDAO::idValoracionTrasSaltar), Valoracion::getId);
+        sincronizador = new SincronizadorTabla<>(listaValoracion, canalValoraciones, valoracionDAO::leerCambiosValoraciones);
+
         configurarColumnas();
         configurarDobleClickFila();
+        canalValoraciones.vincularIndicador(tablaValoraciones);
+        listaValoracion.vincular(tablaValoraciones);
         cargarValoraciones();
 
+        // Mientras se muestran los resultados de una búsqueda, la tabla no se toca
+        SuscripcionVista.suscribir(tablaValoraciones, cambios -> {
+
+            if (tablaValoraciones.getItems() == listaValoracion) {
+                refrescarValoraciones();
+            }
+
+        }, TablaObservada.VALORACIONES);
+
     }
 
     /**
@@ -117,7 +132,7 @@ public class ValoracionController {
             TableRow<Valoracion> row = new TableRow<>();
             row.setOnMouseClicked(event -> {
 
-                if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2 && !row.isEmpty()) {
+                if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2 && !row.isEmpty() && row.getItem() != null) {
                     tablaValoraciones.getSelectionModel().select(row.getItem());
                     modificarValoracion(null);
                 }
@@ -129,27 +144,63 @@ public class ValoracionController {
     }
 
     /**
-     * Carga todas las valoraciones desde la base de datos
-     * y las muestra en la tabla.
+     * Carga las valoraciones desde la base de datos y las muestra en la tabla.
+     * <p>
+     * Solo se consulta el número total de valoraciones; las filas se leen por páginas a medida que el usuario
+     * se desplaza. La consulta se ejecuta en segundo plano y sustituye a cualquier carga anterior en curso.
+     * </p>
      */
     private void cargarValoraciones() {
 
-        listaValoracion.clear();
-        listaValoracion.setAll(valoracionDAO.leerValoraciones());
-        tablaValoraciones.setItems(listaValoracion);
+        sincronizador.recargar(valoracionDAO::contarValoraciones, Integer::intValue,
+                total -> tablaValoraciones.setItems(listaValoracion),
+                error -> mostrarAlerta(Alert.AlertType.ERROR, "No se han podido cargar las valoraciones: " + error.getMessage()));
+
+    }
+
+    /**
+     * Aplica a la tabla solo las valoraciones añadidas, modificadas o eliminadas desde la última lectura,
+     * conservando la selección y la posición de la tabla.
+     */
+    private void refrescarValoraciones() {
+
+        sincronizador.refrescar(valoracionDAO::contarValoraciones, Integer::intValue,
+                total -> tablaValoraciones.setItems(listaValoracion),
+                error -> mostrarAlerta(Alert.AlertType.ERROR, "No se han podido cargar las valoraciones: " + error.getMessage()));
 
     }
 
     /**
      * Carga y muestra las valoraciones asociadas a un ID de reserva específico.
+     * Si no existe ninguna, se informa al usuario y la tabla no cambia.
      *
      * @param id Identificador de la reserva cuyos comentarios se desean visualizar.
      */
     private void cargarValoracionesPorId(int id) {
 
-        listaValoracion.setAll(valoracionDAO.buscarPorIDReserva(id));
-        tablaValoraciones.setItems(listaValoracion);
+        canalValoraciones.ejecutar(() -> valoracionDAO.buscarPorIDReserva(id), resultados -> {
+
+            if (resultados.isEmpty()) {
+
+                mostrarAlerta(Alert.AlertType.INFORMATION, "No se han encontrado valoraciones con ese ID.");
+
+            } else {
+
+                tablaValoraciones.setItems(FXCollections.observableArrayList(resultados));
+
+            }
+
+        }, error -> mostrarAlerta(Alert.AlertType.ERROR, "No se han podido buscar las valoraciones: " + error.getMessage()));
+
+    }
 
+    /**
+     * Abre la ventana de exportación con la tabla de valoraciones seleccionada.
+     *
+     * @param event Evento de acción generado por el botón de "EXPORTAR 📤".
+     */
+    @FXML private void exportarValoraciones(ActionEvent event) {
+        ExportarController.abrir(TablaExportable.VALORACIONES);
     }
 
     /**
@@ -159,6 +210,7 @@ public class ValoracionController {
      */
     @FXML private void refrescarTabla(ActionEvent event) {
 
+        ValoracionDAO.invalidarCache();
         cargarValoraciones();
 
     }
@@ -203,19 +255,15 @@ public class ValoracionController {
     private void abrirFormulario(Valoracion valoracion) {
         try {
 
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/reservas/valoraciones-form-view.fxml"));
-            Parent root = loader.load();
+            FabricaVistas.Vista<ValoracionFormController> vista = FabricaVistas.cargar("valoraciones-form-view.fxml");
 
-            ValoracionFormController controller = loader.getController();
+            ValoracionFormController controller = vista.controlador();
             if (valoracion != null) controller.cargarValoracion(valoracion);
 
-            Stage stage = new Stage();
-            stage.setScene(new Scene(root));
-            stage.setTitle("Gestión Valoraciones");
-            stage.getIcons().add(new Image(Objects.requireNonNull(getClass().getResourceAsStream("/images/IconoPrincipal.png"))));
+            Stage stage = FabricaVistas.ventana(vista.raiz(), "Gestión Valoraciones");
             stage.showAndWait();
 
-            cargarValoraciones();
+            refrescarValoraciones();
 
         } catch (IOException e) {
 
@@ -245,8 +293,8 @@ public class ValoracionController {
         confirm.showAndWait().ifPresent(res -> {
 
             if (res == ButtonType.YES) {
-                valoracionDAO.eliminarValoracion(seleccionada);
-                cargarValoraciones();
+                EjecutorConsultas.ejecutar(() -> valoracionDAO.eliminarValoracion(seleccionada), eliminada -> refrescarValoraciones(),
+                        error -> mostrarAlerta(Alert.AlertType.ERROR, "No se ha podido eliminar la valoración: " + error.getMessage()));
             }
 
         });
@@ -269,13 +317,7 @@ public class ValoracionController {
         try {
 
             int id = Integer.parseInt(texto);
-            List<Valoracion> resultados = valoracionDAO.buscarPorIDReserva(id);
-
-            if (resultados.isEmpty()) {
-
-                mostrarAlerta(Alert.AlertType.INFORMATION, "No se han encontrado valoraciones con ese ID.");
-
-            } else { cargarValoracionesPorId(id); }
+            cargarValoracionesPorId(id);
 
         } catch (NumberFormatException e) {
 
@@ -1,13 +1,11 @@
 package com.reservas.controller;
 
-import com.reservas.config.DataBaseConnection;
 import com.reservas.dao.ValoracionDAO;
 import com.reservas.model.Valoracion;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 
-import java.sql.Connection;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -67,8 +65,7 @@ public class ValoracionFormController {
         txtIdValoracion.setEditable(false);
         txtIdValoracion.setDisable(true);
 
-        Connection con = DataBaseConnection.getInstance().conectarBD();
-        valoracionDAO = new ValoracionDAO(con);
+        valoracionDAO = new ValoracionDAO();
 
         btnGuardarValF.setOnAction(e -> guardarValoracion());
         btnCancelarValF.setOnAction(e -> cerrarVentana());
@@ -0,0 +1,180 @@
+package com.reservas.dao;
+
+import com.reservas.analitica.Indicadores;
+import com.reservas.analitica.InstantaneaReservas;
+import com.reservas.config.DataBaseConnection;
+
+import java.sql.*;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <h1>Clase DAO para la analítica de ocupación e ingresos</h1>
+ *
+ * Consultas de solo lectura sobre {@code propiedades}, {@code reservas} y {@code pagos} que alimentan a
+ * {@link com.reservas.analitica.MotorAnalitica}.
+ *
+ * <h2>Responsabilidades principales:</h2>
+ * <ul>
+ *     <li>Calcular en la base de datos las noches vendidas, los ingresos y lo cobrado de cada propiedad y mes.</li>
+ *     <li>Leer las reservas activas y los cobros de un periodo en una {@link InstantaneaReservas}.</li>
+ * </ul>
+ *
+ * Las estancias son semiabiertas {@code [fecha_inicio, fecha_fin)}: la noche del día de salida no cuenta.
+ * Las reservas canceladas no ocupan ni generan ingresos.
+ *
+ * @author Diego Regueira
+ * @since 17/10/2026
+ */
+public class AnaliticaDAO {
+
+    // Cobros completados por propiedad y mes de pago, entre el primer día del periodo y el siguiente al último
+    private static final String SQL_COBROS = """
+                SELECT r.id_propiedad, date_trunc('month', pg.fecha_pago)::date AS mes, SUM(pg.monto) AS cobrado
+                FROM pagos pg
+                JOIN reservas r ON r.id_reserva = pg.id_reserva
+                WHERE pg.estado_pago::text = 'completado' AND pg.fecha_pago >= ? AND pg.fecha_pago < ?
+                GROUP BY r.id_propiedad, date_trunc('month', pg.fecha_pago)
+            """;
+
+    // Reparte cada estancia entre los meses que toca y agrega por propiedad y mes en el servidor, de modo que
+    // solo viaja una fila por propiedad y mes. El precio total se prorratea a partes iguales entre las noches.
+    private static final String SQL_INDICADORES = """
+            WITH meses AS (
+                SELECT m::date AS mes, (m + INTERVAL '1 month')::date AS siguiente
+                FROM generate_series(?::date, ?::date, INTERVAL '1 month') AS m
+            ), ocupacion AS (
+                SELECT r.id_propiedad, m.mes,
+                       SUM(LEAST(r.fecha_fin, m.siguiente) - GREATEST(r.fecha_inicio, m.mes)) AS vendidas,
+                       SUM((LEAST(r.fecha_fin, m.siguiente) - GREATEST(r.fecha_inicio, m.mes))
+                           * r.precio_total / (r.fecha_fin - r.fecha_inicio)) AS ingresos
+                FROM reservas r
+                JOIN meses m ON r.fecha_inicio < m.siguiente AND r.fecha_fin > m.mes
+                WHERE r.estado IN ('confirmada', 'pendiente') AND r.fecha_fin > r.fecha_inicio
+                GROUP BY r.id_propiedad, m.mes
+            ), cobros AS (
+            """ + SQL_COBROS + """
+            )
+            SELECT p.id_propiedad, p.nombre, m.mes, m.siguiente - m.mes AS disponibles,
+                   COALESCE(o.vendidas, 0) AS vendidas, COALESCE(o.ingresos, 0) AS ingresos,
+                   COALESCE(c.cobrado, 0) AS cobrado
+            FROM propiedades p
+            CROSS JOIN meses m
+            LEFT JOIN ocupacion o ON o.id_propiedad = p.id_propiedad AND o.mes = m.mes
+            LEFT JOIN cobros c ON c.id_propiedad = p.id_propiedad AND c.mes = m.mes
+            ORDER BY p.id_propiedad, m.mes
+            """;
+
+    private static final String SQL_PROPIEDADES = "SELECT id_propiedad, nombre FROM propiedades ORDER BY id_propiedad";
+
+    private static final String SQL_RESERVAS = """
+            SELECT id_propiedad, fecha_inicio, fecha_fin, precio_total, estado = 'pendiente' AS pendiente
+            FROM reservas
+            WHERE estado IN ('confirmada', 'pendiente') AND fecha_inicio < ? AND fecha_fin > ?
+            """;
+
+    /**
+     * Calcula los indicadores de cada propiedad en cada mes del periodo. Las propiedades sin reservas
+     * aparecen con ocupación cero.
+     *
+     * @param desde primer mes.
+     * @param hasta último mes, incluido.
+     * @return lista no modificable ordenada por propiedad y mes.
+     */
+    public List<Indicadores> leerIndicadores(YearMonth desde, YearMonth hasta) {
+
+        List<Indicadores> indicadores = new ArrayList<>();
+
+        try (Connection conexion = DataBaseConnection.getInstance().conectarBD();
+             PreparedStatement pstmt = conexion.prepareStatement(SQL_INDICADORES)) {
+
+            pstmt.setDate(1, Date.valueOf(desde.atDay(1)));
+            pstmt.setDate(2, Date.valueOf(hasta.atDay(1)));
+            pstmt.setDate(3, Date.valueOf(desde.atDay(1)));
+            pstmt.setDate(4, Date.valueOf(hasta.plusMonths(1).atDay(1)));
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+
+                    indicadores.add(new Indicadores(rs.getInt("id_propiedad"), rs.getString("nombre"),
+                            YearMonth.from(rs.getDate("mes").toLocalDate()), rs.getLong("disponibles"),
+                            rs.getDouble("vendidas"), rs.getDouble("ingresos"), rs.getDouble("cobrado")));
+
+                }
+            }
+
+        } catch (SQLException e) {
+
+            System.err.println("Error al calcular los indicadores de " + desde + " a " + hasta + ": " + e.getMessage());
+            throw new RuntimeException("No se han podido calcular los indicadores", e);
+
+        }
+
+        return Collections.unmodifiableList(indicadores);
+    }
+
+    /**
+     * Lee las propiedades, las reservas activas que tocan el periodo y lo cobrado en él.
+     * Las tres consultas usan la misma conexión.
+     *
+     * @param desde primer mes.
+     * @param hasta último mes, incluido.
+     * @return la instantánea del periodo.
+     */
+    public InstantaneaReservas leerInstantanea(YearMonth desde, YearMonth hasta) {
+
+        InstantaneaReservas.Constructor datos = InstantaneaReservas.constructor(desde, hasta);
+        Date inicio = Date.valueOf(desde.atDay(1));
+        Date fin = Date.valueOf(hasta.plusMonths(1).atDay(1));
+
+        try (Connection conexion = DataBaseConnection.getInstance().conectarBD()) {
+
+            try (PreparedStatement pstmt = conexion.prepareStatement(SQL_PROPIEDADES);
+                 ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    datos.propiedad(rs.getInt("id_propiedad"), rs.getString("nombre"));
+                }
+            }
+
+            try (PreparedStatement pstmt = conexion.prepareStatement(SQL_RESERVAS)) {
+
+                pstmt.setDate(1, fin);
+                pstmt.setDate(2, inicio);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+
+                    while (rs.next()) {
+                        datos.reserva(rs.getInt("id_propiedad"), rs.getDate("fecha_inicio").toLocalDate(),
+                                rs.getDate("fecha_fin").toLocalDate(), rs.getDouble("precio_total"), rs.getBoolean("pendiente"));
+                    }
+                }
+            }
+
+            try (PreparedStatement pstmt = conexion.prepareStatement(SQL_COBROS)) {
+
+                pstmt.setDate(1, inicio);
+                pstmt.setDate(2, fin);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+
+                    while (rs.next()) {
+                        datos.cobro(rs.getInt("id_propiedad"), YearMonth.from(rs.getDate("mes").toLocalDate()),
+                                rs.getDouble("cobrado"));
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+
+            System.err.println("Error al leer las reservas de " + desde + " a " + hasta + ": " + e.getMessage());
+            throw new RuntimeException("No se han podido leer las reservas del periodo", e);
+
+        }
+
+        return datos.construir();
+    }
+}
@@ -0,0 +1,28 @@
+package com.reservas.dao;
+
+import java.util.List;
+
+/**
+ * <h1>Cambios de una tabla desde una marca</h1>
+ *
+ * Resultado de {@link SeguimientoCambios}: las filas insertadas o modificadas y las claves borradas desde la marca
+ * indicada, junto a la marca desde la que hay que pedir los siguientes cambios.
+ *
+ * @param modificadas filas insertadas o modificadas, ordenadas por clave (no modificable).
+ * @param borradas claves de las filas borradas (no modificable).
+ * @param marca marca a usar en la siguiente consulta de cambios.
+ * @param desbordado {@code true} si había más de {@link SeguimientoCambios#MAX_CAMBIOS} cambios y no se han leído;
+ *                   en ese caso conviene recargar la tabla completa.
+ * @param <T> tipo de las filas.
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public record Cambios<T>(List<T> modificadas, List<Integer> borradas, long marca, boolean desbordado) {
+
+    /**
+     * @return {@code true} si no ha cambiado nada desde la marca anterior.
+     */
+    public boolean vacio() {
+        return !desbordado && modificadas.isEmpty() && borradas.isEmpty();
+    }
+}
@@ -1,11 +1,18 @@
 package com.reservas.dao;
 
+import com.reservas.busqueda.BuscadorClientes;
+import com.reservas.busqueda.OpcionEntidad;
+import com.reservas.cache.CacheEntidades;
 import com.reservas.config.DataBaseConnection;
 import com.reservas.model.Cliente;
+import com.reservas.util.ValorCacheado;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * <h1>Clase DAO para la gestión de clientes</h1>
@@ -20,10 +27,13 @@ import java.util.List;
  * <ul>
  *     <li>Insertar nuevos clientes.</li>
  *     <li>Leer todos los registros de clientes.</li>
+ *     <li>Leer clientes por páginas mediante paginación por clave.</li>
  *     <li>Actualizar datos de un cliente existente.</li>
  *     <li>Eliminar registros por identificador.</li>
  *     <li>Buscar clientes mediante su correo electrónico.</li>
  *     <li>Obtener una lista de todos los ID de clientes existentes.</li>
+ *     <li>Mantener una caché de email a ID que se actualiza con cada escritura.</li>
+ *     <li>Reflejar cada escritura en el índice de búsqueda de {@link BuscadorClientes}.</li>
  * </ul>
  *
  * @author Jaime Pérez
@@ -31,6 +41,36 @@ import java.util.List;
  */
 public class ClienteDAO {
 
+    // Columnas que lee getClienteFromResultSet
+    private static final String COLUMNAS = "id_cliente, nombre, apellidos, email, telefono, pais, fecha_registro";
+
+    private static final String SQL_INSERTAR = """
+            INSERT INTO clientes(nombre, apellidos, email, telefono, pais)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final String SQL_ID_POR_EMAIL = "SELECT id_cliente FROM clientes WHERE email = ?";
+
+    private static final String SQL_OPCION = "SELECT id_cliente, nombre, apellidos, email FROM clientes WHERE id_cliente = ?";
+
+    // Opciones de la lista de selección: ID exacto o prefijo del nombre, apellidos o email, por páginas de clave
+    private static final String SQL_OPCIONES = """
+            SELECT id_cliente, nombre, apellidos, email
+            FROM clientes
+            WHERE id_cliente > ?
+              AND (? = '' OR id_cliente = ? OR nombre ILIKE ? OR apellidos ILIKE ?
+                   OR nombre || ' ' || apellidos ILIKE ? OR email ILIKE ?)
+            ORDER BY id_cliente
+            LIMIT ?
+            """;
+
+    private static final ValorCacheado<Integer> TOTAL_CLIENTES = new ValorCacheado<>(UtilidadesDAO.VIGENCIA_TOTALES,
+            () -> UtilidadesDAO.consultarEntero("SELECT COUNT(*) FROM clientes;"));
+
+    // El ID es inmutable, así que no hace falta copiarlo
+    private static final CacheEntidades<String, Integer> IDS_POR_EMAIL = CacheEntidades.crear("Clientes (email)",
+            UtilidadesDAO.CAPACIDAD_ENTIDADES, UtilidadesDAO.VIGENCIA_ENTIDADES, id -> id);
+
     /**
      * Inserta un cliente en la base de datos.
      *
@@ -39,20 +79,23 @@ public class ClienteDAO {
      */
     public boolean agregarCliente(Cliente cliente) {
 
-        String query = """
-                       INSERT INTO clientes(nombre, apellidos, email, telefono, pais)
-                       VALUES (?, ?, ?, ?, ?);
-                       """;
+        try(Connection con = DataBaseConnection.getInstance().conectarBD();
+            PreparedStatement ps =  con.prepareStatement(SQL_INSERTAR, Statement.RETURN_GENERATED_KEYS)) {
 
-        try(Connection con = DataBaseConnection.getInstance().conectarBD(); PreparedStatement ps =  con.prepareStatement(query)) {
+            enlazarInsercion(ps, cliente);
+            ps.executeUpdate();
+            TOTAL_CLIENTES.invalidar();
 
-            ps.setString(1, cliente.getNombre());
-            ps.setString(2, cliente.getApellido());
-            ps.setString(3, cliente.getEmail());
-            ps.setString(4, cliente.getTelefono());
-            ps.setString(5, cliente.getPais());
+            try (ResultSet claves = ps.getGeneratedKeys()) {
 
-            ps.executeUpdate();
+                if (claves.next()) {
+
+                    cliente.setIdCliente(claves.getInt(1));
+                    IDS_POR_EMAIL.poner(cliente.getEmail(), cliente.getIdCliente());
+                    BuscadorClientes.getInstance().registrar(cliente);
+
+                }
+            }
 
             return true;
 
@@ -68,7 +111,7 @@ public class ClienteDAO {
     /**
      * Obtiene todos los clientes registrados en la base de datos.
      *
-     * @return Lista de objetos {@link Cliente} obtenidos desde la tabla {@code clientes}.
+     * @return Lista no modificable de objetos {@link Cliente} obtenidos desde la tabla {@code clientes}.
      * Si no existen registros, se devuelve una lista vacía.
      */
     public List<Cliente> leerClientes() {
@@ -83,26 +126,7 @@ public class ClienteDAO {
 
             while (rs.next()) {
 
-                int id_cliente = rs.getInt("id_cliente");
-                String nombre = rs.getString("nombre");
-                String apellido = rs.getString("apellidos");
-                String email = rs.getString("email");
-                String telefono = rs.getString("telefono");
-                String pais = rs.getString("pais");
-
-                var cliente = new Cliente(nombre, apellido, email, telefono, pais);
-
-                cliente.setIdCliente(id_cliente);
-
-                Date fechaRegistro = rs.getDate("fecha_registro");
-
-                if (fechaRegistro != null) {
-
-                    cliente.setFechaRegistro(fechaRegistro.toLocalDate());
-
-                }
-
-                clientes.add(cliente);
+                clientes.add(getClienteFromResultSet(rs));
 
             }
 
@@ -113,7 +137,9 @@ public class ClienteDAO {
 
         }
 
-        return clientes;
+        recordarEmails(clientes);
+
+        return Collections.unmodifiableList(clientes);
 
     }
 
@@ -142,10 +168,21 @@ public class ClienteDAO {
 
             int filas = ps.executeUpdate();
 
+            // El email anterior no se conoce aquí: se descarta cualquier entrada que apunte a este cliente
+            IDS_POR_EMAIL.quitarSi((email, id) -> id == cliente.getIdCliente());
+
+            if (filas > 0) {
+
+                IDS_POR_EMAIL.poner(cliente.getEmail(), cliente.getIdCliente());
+                BuscadorClientes.getInstance().registrar(cliente);
+
+            }
+
             return filas > 0;
 
         } catch (SQLException e) {
 
+            IDS_POR_EMAIL.quitarSi((email, id) -> id == cliente.getIdCliente());
             System.err.println("Error al modificar el cliente: " + e.getMessage());
             throw new RuntimeException(e);
 
@@ -177,9 +214,12 @@ public class ClienteDAO {
 
             ps.setInt(1, idCliente);
             int filas = ps.executeUpdate();
+            IDS_POR_EMAIL.quitar(cliente.getEmail());
+            BuscadorClientes.getInstance().quitar(idCliente);
 
             if (filas > 0) {
 
+                TOTAL_CLIENTES.invalidar();
                 System.out.println("Cliente eliminado correctamente: " + cliente.getEmail());
 
             } else {
@@ -198,26 +238,37 @@ public class ClienteDAO {
 
     /**
      * Busca el identificador único de un cliente a partir de su dirección de {@code email}.
+     * Se sirve desde la caché si el cliente ya se había leído o escrito recientemente.
      *
      * @param email, atributo de carácter único con el que se realiza la búsqueda del usuario.
      * @return El valor de {@code id_cliente} si existe el registro, o {@code -1} si no se encontró.
      */
     public int buscarClientePorEmail (String email) {
 
-        String query = """
-                       SELECT id_cliente FROM clientes WHERE email = ?;
-                       """;
+        Integer id = IDS_POR_EMAIL.obtener(email, this::consultarIdPorEmail);
+        return id == null ? -1 : id;
 
-        try (Connection con = DataBaseConnection.getInstance().conectarBD(); PreparedStatement ps = con.prepareStatement(query)) {
+    }
+
+    /**
+     * Consulta en la base de datos el identificador de un cliente a partir de su {@code email}.
+     *
+     * @param email email del cliente.
+     * @return El valor de {@code id_cliente}, o {@code null} si no se encontró.
+     */
+    private Integer consultarIdPorEmail(String email) {
+
+        try (Connection con = DataBaseConnection.getInstance().conectarBD(); PreparedStatement ps = con.prepareStatement(SQL_ID_POR_EMAIL)) {
 
             ps.setString(1, email);
 
-            ResultSet rs = ps.executeQuery();
+            try (ResultSet rs = ps.executeQuery()) {
 
-            if (rs.next()) {
+                if (rs.next()) {
 
-                return rs.getInt("id_cliente");
+                    return rs.getInt("id_cliente");
 
+                }
             }
 
         } catch (SQLException e) {
@@ -227,38 +278,276 @@ public class ClienteDAO {
 
         }
 
-        return -1;
+        return null;
 
     }
 
     /**
-     * Busca en la base de datos e inserta los identificadores de los clientes dentro de un ArrayList.
+     * Busca clientes para la lista de selección de un formulario: los que tienen ese ID o un nombre, apellidos
+     * o email que empiezan por el texto, en páginas ordenadas por {@code id_cliente}.
      *
-     * @return ArrayList de enteros que representan los valores de {@code id_cliente}.
+     * @param texto texto escrito por el usuario; vacío para todos.
+     * @param despuesDeId último {@code id_cliente} de la página anterior ({@code 0} para la primera).
+     * @param limite número máximo de clientes a devolver.
+     * @return Lista no modificable de opciones con el nombre y el email de cada cliente.
      */
-    public ArrayList<Integer> getIDClientes(){
+    public List<OpcionEntidad> buscarOpcionesClientes(String texto, int despuesDeId, int limite) {
+
+        String patron = UtilidadesDAO.patronPrefijo(texto);
+
+        return UtilidadesDAO.consultarOpciones(SQL_OPCIONES, ClienteDAO::getOpcionFromResultSet, despuesDeId, texto,
+                UtilidadesDAO.idEscrito(texto), patron, patron, patron, patron, limite);
+
+    }
+
+    /**
+     * Lee la opción de un cliente, para mostrar su nombre en un formulario de edición.
+     *
+     * @param idCliente ID del cliente.
+     * @return la opción, o {@code null} si el cliente no existe.
+     */
+    public OpcionEntidad leerOpcionCliente(int idCliente) {
+
+        List<OpcionEntidad> opciones = UtilidadesDAO.consultarOpciones(SQL_OPCION, ClienteDAO::getOpcionFromResultSet, idCliente);
+        return opciones.isEmpty() ? null : opciones.get(0);
+
+    }
+
+    /**
+     * Obtiene una página de clientes ordenada por {@code id_cliente} mediante paginación por clave.
+     * <p>
+     * A diferencia de {@code OFFSET}, el coste de la consulta no crece con la posición de la página,
+     * ya que la base de datos parte directamente del índice de la clave primaria.
+     * </p>
+     *
+     * @param despuesDeId último {@code id_cliente} de la página anterior ({@code 0} para la primera).
+     * @param limite número máximo de clientes a devolver.
+     * @return Lista no modificable de objetos {@link Cliente} de la página.
+     */
+    public List<Cliente> leerClientesPagina(int despuesDeId, int limite) {
+
+        List<Cliente> clientes = new ArrayList<>(limite);
+
+        String query = """
+                       SELECT id_cliente, nombre, apellidos, email, telefono, pais, fecha_registro
+                       FROM clientes
+                       WHERE id_cliente > ?
+                       ORDER BY id_cliente
+                       LIMIT ?;
+                       """;
 
-        ArrayList<Integer> ids = new ArrayList<>();
+        try (Connection con = DataBaseConnection.getInstance().conectarBD(); PreparedStatement ps = con.prepareStatement(query)) {
 
-        try (Connection con = DataBaseConnection.getInstance().conectarBD(); Statement st = con.createStatement()) {
+            ps.setInt(1, despuesDeId);
+            ps.setInt(2, limite);
 
-            st.execute("select id_cliente from clientes;");
-            ResultSet rs = st.getResultSet();
+            try (ResultSet rs = ps.executeQuery()) {
 
-            while (rs.next()){
+                while (rs.next()) {
 
-               ids.add(rs.getInt("id_cliente"));
+                    clientes.add(getClienteFromResultSet(rs));
 
+                }
             }
 
         } catch (SQLException e) {
 
-
+            System.err.println("Error al leer la página de clientes: " + e.getMessage());
             throw new RuntimeException(e);
 
         }
 
-        return ids;
+        recordarEmails(clientes);
+
+        return Collections.unmodifiableList(clientes);
+
+    }
+
+    /**
+     * Obtiene el {@code id_cliente} situado {@code salto} filas por detrás de {@code despuesDeId}.
+     * Solo recorre el índice de la clave primaria, por lo que sirve para saltar a páginas lejanas.
+     *
+     * @param despuesDeId clave de partida.
+     * @param salto número de clientes a saltar.
+     * @return El {@code id_cliente} encontrado, o {@code -1} si no hay tantos clientes.
+     */
+    public int idClienteTrasSaltar(int despuesDeId, int salto) {
+
+        String query = """
+                       SELECT id_cliente FROM clientes WHERE id_cliente > ? ORDER BY id_cliente OFFSET ? LIMIT 1;
+                       """;
+
+        return UtilidadesDAO.consultarEntero(query, despuesDeId, salto);
+
+    }
+
+    /**
+     * Cuenta los clientes registrados con un {@code COUNT(*)} en la base de datos.
+     * El resultado se guarda en caché durante unos segundos y se invalida al añadir o eliminar clientes.
+     *
+     * @return Número total de clientes.
+     */
+    public int contarClientes() {
+
+        return TOTAL_CLIENTES.get();
+
+    }
+
+    /**
+     * Obtiene los clientes escritos y borrados desde una marca de {@link SeguimientoCambios}.
+     * Los cambios pueden venir de otros equipos, así que se aplican también a la caché de emails y al total.
+     *
+     * @param desde marca devuelta por la consulta anterior.
+     * @return Los cambios desde la marca.
+     */
+    public Cambios<Cliente> leerCambiosClientes(long desde) {
+
+        Cambios<Cliente> cambios = SeguimientoCambios.leer("clientes", COLUMNAS, "id_cliente", desde,
+                ClienteDAO::getClienteFromResultSet);
+
+        if (cambios.desbordado()) {
+
+            invalidarTotales();
+            invalidarCache();
+
+        } else if (!cambios.vacio()) {
+
+            Set<Integer> afectados = new HashSet<>(cambios.borradas());
+            cambios.modificadas().forEach(c -> afectados.add(c.getIdCliente()));
+
+            TOTAL_CLIENTES.invalidar();
+            IDS_POR_EMAIL.quitarSi((email, id) -> afectados.contains(id));
+            recordarEmails(cambios.modificadas());
+
+        }
+
+        return cambios;
+
+    }
+
+    /**
+     * Descarta los totales guardados en caché para que la siguiente lectura consulte la base de datos.
+     */
+    public static void invalidarTotales() {
+
+        TOTAL_CLIENTES.invalidar();
+
+    }
+
+    /**
+     * Vacía la caché de emails, por ejemplo tras cambios hechos fuera de la aplicación.
+     */
+    public static void invalidarCache() {
+
+        IDS_POR_EMAIL.vaciar();
+
+    }
+
+    /**
+     * Guarda en la caché el ID de cada cliente leído, para que buscarlo después por email no consulte la base de datos.
+     *
+     * @param clientes clientes recién leídos.
+     */
+    private static void recordarEmails(List<Cliente> clientes) {
+
+        for (Cliente c : clientes) {
+
+            if (c.getEmail() != null) {
+                IDS_POR_EMAIL.poner(c.getEmail(), c.getIdCliente());
+            }
+        }
+    }
+
+    /**
+     * Calcula la posición que ocupa un cliente en el listado ordenado por {@code id_cliente}.
+     *
+     * @param idCliente identificador del cliente.
+     * @return Índice (desde 0) del cliente en el listado.
+     */
+    public int posicionCliente(int idCliente) {
+
+        return UtilidadesDAO.consultarEntero("SELECT COUNT(*) FROM clientes WHERE id_cliente < ?;", idCliente);
+
+    }
+
+    /**
+     * Inserta varios clientes en un único lote JDBC con la conexión indicada, sin confirmar la transacción.
+     * <p>
+     *     Lo usa la importación masiva, que decide cuándo confirmar y cómo aislar las filas rechazadas.
+     *     No actualiza las cachés ni los totales: quien importa debe invalidarlos al terminar.
+     * </p>
+     *
+     * @param con conexión con la transacción en curso.
+     * @param clientes clientes a insertar.
+     * @throws SQLException si la base de datos rechaza alguna fila del lote.
+     */
+    public void insertarLote(Connection con, List<Cliente> clientes) throws SQLException {
+
+        try (PreparedStatement ps = con.prepareStatement(SQL_INSERTAR)) {
+
+            for (Cliente cliente : clientes) {
+
+                enlazarInsercion(ps, cliente);
+                ps.addBatch();
+
+            }
+
+            ps.executeBatch();
+
+        }
+    }
+
+    /**
+     * Asigna los parámetros de {@link #SQL_INSERTAR} a partir de un cliente.
+     */
+    private static void enlazarInsercion(PreparedStatement ps, Cliente cliente) throws SQLException {
+
+        ps.setString(1, cliente.getNombre());
+        ps.setString(2, cliente.getApellido());
+        ps.setString(3, cliente.getEmail());
+        ps.setString(4, cliente.getTelefono());
+        ps.setString(5, cliente.getPais());
+
+    }
+
+    /**
+     * Convierte una fila del {@link ResultSet} en un objeto {@link Cliente}.
+     *
+     * @param rs ResultSet posicionado en la fila a convertir.
+     * @return Objeto {@link Cliente} construido a partir de los datos obtenidos.
+     * @throws SQLException si ocurre un error al leer los datos.
+     */
+    static Cliente getClienteFromResultSet(ResultSet rs) throws SQLException {
+
+        var cliente = new Cliente(rs.getString("nombre"), rs.getString("apellidos"), rs.getString("email"),
+                rs.getString("telefono"), rs.getString("pais"));
+
+        cliente.setIdCliente(rs.getInt("id_cliente"));
+
+        Date fechaRegistro = rs.getDate("fecha_registro");
+
+        if (fechaRegistro != null) {
+
+            cliente.setFechaRegistro(fechaRegistro.toLocalDate());
+
+        }
+
+        return cliente;
+
+    }
+
+    /**
+     * Convierte una fila de las consultas de opciones en la opción de un cliente.
+     */
+    private static OpcionEntidad getOpcionFromResultSet(ResultSet rs) throws SQLException {
+
+        String etiqueta = rs.getString("nombre") + " " + rs.getString("apellidos");
+        String email = rs.getString("email");
+
+        if (email != null && !email.isBlank()) {
+            etiqueta += " · " + email;
+        }
 
+        return new OpcionEntidad(rs.getInt("id_cliente"), etiqueta + " (#" + rs.getInt("id_cliente") + ")");
     }
 }
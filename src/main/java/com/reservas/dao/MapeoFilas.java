@@ -0,0 +1,74 @@
+package com.reservas.dao;
+
+import com.reservas.model.Cliente;
+import com.reservas.model.Pago;
+import com.reservas.model.Propiedad;
+import com.reservas.model.Reserva;
+import com.reservas.model.Valoracion;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * <h1>Mapeo de filas a modelos</h1>
+ *
+ * Punto de entrada público a los mapeos {@code getXFromResultSet} de los DAO, que son privados del paquete.
+ * Lo usan los benchmarks, que viven en su propio proyecto y paquete, para medir exactamente el mismo código
+ * que recorren los listados, páginas y búsquedas.
+ * <p>
+ * Cada método convierte la fila actual del {@link ResultSet}, que debe traer las columnas que lee el DAO
+ * correspondiente (su constante {@code COLUMNAS}).
+ * </p>
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public final class MapeoFilas {
+
+    private MapeoFilas() { }
+
+    /**
+     * @param rs resultado posicionado en una fila de {@code reservas}.
+     * @return la reserva de la fila actual.
+     * @throws SQLException si falta alguna columna.
+     */
+    public static Reserva reserva(ResultSet rs) throws SQLException {
+        return ReservaDAO.getReservaFromResultSet(rs);
+    }
+
+    /**
+     * @param rs resultado posicionado en una fila de {@code pagos}.
+     * @return el pago de la fila actual.
+     * @throws SQLException si falta alguna columna.
+     */
+    public static Pago pago(ResultSet rs) throws SQLException {
+        return PagoDAO.getPagoFromResultSet(rs);
+    }
+
+    /**
+     * @param rs resultado posicionado en una fila de {@code clientes}.
+     * @return el cliente de la fila actual.
+     * @throws SQLException si falta alguna columna.
+     */
+    public static Cliente cliente(ResultSet rs) throws SQLException {
+        return ClienteDAO.getClienteFromResultSet(rs);
+    }
+
+    /**
+     * @param rs resultado posicionado en una fila de {@code propiedades}.
+     * @return la propiedad de la fila actual.
+     * @throws SQLException si falta alguna columna.
+     */
+    public static Propiedad propiedad(ResultSet rs) throws SQLException {
+        return PropiedadDAO.getPropiedadFromResultSet(rs);
+    }
+
+    /**
+     * @param rs resultado posicionado en una fila de {@code valoraciones}.
+     * @return la valoración de la fila actual.
+     * @throws SQLException si falta alguna columna.
+     */
+    public static Valoracion valoracion(ResultSet rs) throws SQLException {
+        return ValoracionDAO.getValoracionFromResultSet(rs);
+    }
+}
@@ -1,23 +1,28 @@
 package com.reservas.dao;
 
 //import com.reservas.config.*;
+import com.reservas.cache.CacheEntidades;
 import com.reservas.config.DataBaseConnection;
 import com.reservas.model.Pago;
-import javafx.scene.control.TextField;
+import com.reservas.util.GeneradorReferencias;
+import com.reservas.util.ValorCacheado;
 
-import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
 
 /**
  * <h1>Clase DAO para la gestión de pagos</h1>
  *
  * Esta clase administra todas las operaciones de acceso a datos (CRUD) relacionadas con la entidad {@link Pago}.
  * <p>
- * Además de las funciones básicas, gestiona la integración con un procedimiento almacenado
- * que registra automáticamente un historial de acciones (inserción, actualización o eliminación)
- * en la tabla <b>historico_pagos</b>.
+ * Cada inserción, actualización o eliminación queda registrada en la tabla <b>historico_pagos</b> en la misma
+ * sentencia que modifica el pago, de modo que el pago y su histórico nunca quedan desincronizados.
  * </p>
  *
  * <h2>Responsabilidades principales:</h2>
@@ -26,135 +31,137 @@ import java.util.List;
  *     <li>Actualizar métodos o estados de pago.</li>
  *     <li>Eliminar pagos con registro automático en histórico.</li>
  *     <li>Obtener la lista de pagos existentes y los IDs de reservas.</li>
- *     <li>Generar referencias de transacción incrementales (TXN001, TXN002...).</li>
+ *     <li>Leer pagos por páginas mediante paginación por clave.</li>
+ *     <li>Generar referencias de transacción únicas (TXN001, TXN002...) a partir de bloques de una secuencia.</li>
+ *     <li>Mantener una caché de pagos por ID que se actualiza con cada escritura.</li>
  * </ul>
  *
+ * El DAO no guarda estado propio y devuelve listas no modificables, así que puede compartirse entre hilos.
+ *
  * @author Daniel Hernando
  * @since 03/11/2025
  */
 public class PagoDAO {
 
-    // Procedure creado para introducir datos en la tabla historico_pagos
-    /*
-            CREATE OR REPLACE PROCEDURE registrar_historial_pago(
-            p_id_pago INTEGER,
-            p_accion VARCHAR(20),
-            p_estado_anterior VARCHAR(20) DEFAULT NULL,
-            p_estado_nuevo VARCHAR(20) DEFAULT NULL,
-            p_monto_anterior NUMERIC(10,2) DEFAULT NULL,
-            p_monto_nuevo NUMERIC(10,2) DEFAULT NULL
-        )
-        LANGUAGE plpgsql
-        AS $$
-        BEGIN
-            INSERT INTO historico_pagos (
-                id_pago,
-                accion,
-                estado_anterior,
-                estado_nuevo,
-                monto_anterior,
-                monto_nuevo
-            )
-            VALUES (
-                p_id_pago,
-                p_accion,
-                p_estado_anterior,
-                p_estado_nuevo,
-                p_monto_anterior,
-                p_monto_nuevo
-            );
-        END;
-        $$;
-     */
-
-    private Connection conexion;
-
-    private List<Pago> PagosDisponibles = new ArrayList<>();
-    private List<Integer> listaReservasID = new ArrayList<>();
+    // Columnas que lee getPagoFromResultSet
+    private static final String COLUMNAS = "id_pago, id_reserva, fecha_pago, monto, metodo_pago, estado_pago, referencia_transaccion";
 
-    /**
-     * Crea un nuevo objeto DAO con una conexión activa.
-     *
-     * @param conexion conexión establecida con la base de datos.
-     */
-    public PagoDAO(Connection conexion) {
-
-        this.conexion = conexion;
+    // Las escrituras usan CTE que modifican datos: la operación sobre pagos y la fila de historico_pagos van en
+    // una sola sentencia, que PostgreSQL ejecuta de forma atómica y en un único viaje a la base de datos.
+    // La fila de histórico se toma del RETURNING, así que el estado anterior es el que había al bloquear la fila.
+    private static final String SQL_INSERTAR = """
+            WITH nuevo AS (
+                INSERT INTO pagos(id_reserva, fecha_pago, monto, metodo_pago, estado_pago, referencia_transaccion)
+                VALUES (?, ?, ?, ?, ?, ?)
+                RETURNING *
+            ), historico AS (
+                INSERT INTO historico_pagos(id_pago, accion, estado_anterior, estado_nuevo, monto_anterior, monto_nuevo)
+                SELECT id_pago, 'INSERT', NULL, estado_pago::text, NULL, monto FROM nuevo
+            )
+            SELECT * FROM nuevo
+            """;
 
-    }
+    private static final String SQL_ACTUALIZAR = """
+            WITH anterior AS (
+                SELECT id_pago, estado_pago, monto FROM pagos WHERE id_pago = ? FOR UPDATE
+            ), modificado AS (
+                UPDATE pagos p
+                SET metodo_pago = ?,
+                    estado_pago = ?
+                FROM anterior a
+                WHERE p.id_pago = a.id_pago
+                RETURNING p.*, a.estado_pago::text AS estado_anterior, a.monto AS monto_anterior
+            ), historico AS (
+                INSERT INTO historico_pagos(id_pago, accion, estado_anterior, estado_nuevo, monto_anterior, monto_nuevo)
+                SELECT id_pago, 'UPDATE', estado_anterior, estado_pago::text, monto_anterior, monto FROM modificado
+            )
+            SELECT * FROM modificado
+            """;
 
-    /**
-     * Carga todos los identificadores de reservas disponibles en la base de datos.
-     * <p>Se utiliza para llenar el {@code ComboBox} en el formulario de creación de pagos.</p>
-     */
-    public void mostrarTodosIdReservas() {
+    private static final String SQL_BORRAR = """
+            WITH borrado AS (
+                DELETE FROM pagos WHERE id_pago = ?
+                RETURNING id_pago, estado_pago, monto
+            ), historico AS (
+                INSERT INTO historico_pagos(id_pago, accion, estado_anterior, estado_nuevo, monto_anterior, monto_nuevo)
+                SELECT id_pago, 'DELETE', estado_pago::text, NULL, monto, NULL FROM borrado
+            )
+            SELECT id_pago FROM borrado
+            """;
 
-        listaReservasID.clear();
+    // Texto fijo: el pool reutiliza la misma sentencia preparada en cada búsqueda
+    private static final String SQL_POR_ID = "SELECT " + COLUMNAS + " FROM pagos WHERE id_pago = ?";
+    private static final String SQL_MONTO_RESERVA = "SELECT precio_total FROM reservas WHERE id_reserva = ?";
 
-        try {
+    private static final ValorCacheado<Map<Pago.EstadoPago, TotalEstado>> PAGOS_POR_ESTADO = new ValorCacheado<>(
+            UtilidadesDAO.VIGENCIA_TOTALES, PagoDAO::consultarPagosPorEstado);
 
-            Statement stm = conexion.createStatement();
-            String sql = "SELECT id_reserva FROM reservas";
-            ResultSet result = stm.executeQuery(sql);
+    private static final ValorCacheado<Map<Integer, Double>> INGRESOS_POR_PROPIEDAD = new ValorCacheado<>(
+            UtilidadesDAO.VIGENCIA_TOTALES, () -> UtilidadesDAO.consultarMapa("""
+                    SELECT r.id_propiedad, SUM(p.monto) AS ingresos
+                    FROM pagos p
+                    JOIN reservas r ON r.id_reserva = p.id_reserva
+                    WHERE p.estado_pago = 'completado'
+                    GROUP BY r.id_propiedad;
+                    """, new HashMap<>(), rs -> rs.getInt("id_propiedad"), rs -> rs.getDouble("ingresos")));
 
-            while (result.next()) {
+    // Secuencia de la que se reservan los bloques de referencias; su incremento es el tamaño de cada bloque.
+    // setval la sitúa después de la mayor referencia existente para no repetir las ya emitidas.
+    /*
+            CREATE SEQUENCE IF NOT EXISTS referencias_pago_seq INCREMENT BY 50 MINVALUE 1;
 
-                listaReservasID.add(result.getInt("id_reserva"));
+            SELECT setval('referencias_pago_seq', COALESCE((
+                SELECT MAX(SUBSTRING(referencia_transaccion FROM 4)::BIGINT)
+                FROM pagos
+                WHERE referencia_transaccion ~ '^TXN[0-9]+$'), 0) + 1, false);
 
-            }
+            ALTER TABLE pagos ADD CONSTRAINT pagos_referencia_unica UNIQUE (referencia_transaccion);
+     */
 
-            stm.close();
+    private static final GeneradorReferencias REFERENCIAS = new GeneradorReferencias("TXN%03d",
+            PagoDAO::reservarBloqueReferencias);
 
-        } catch (SQLException ex) {
-            System.err.println(ex.getMessage());
-        }
-    }
+    private static final CacheEntidades<Integer, Pago> PAGOS = CacheEntidades.crear("Pagos",
+            UtilidadesDAO.CAPACIDAD_ENTIDADES, UtilidadesDAO.VIGENCIA_ENTIDADES, PagoDAO::copiar);
 
     /**
-     * Carga el monto total asociado a una reserva específica.
+     * Lee el precio total de una reserva, que es el monto que se propone al registrar su pago.
      *
      * @param reservaId identificador de la reserva.
-     * @param txtMonto campo de texto donde se colocará el valor formateado.
+     * @return el precio total, o vacío si la reserva no existe.
      */
-    public void cargarMontoDeReserva(int reservaId, TextField txtMonto) {
-        try {
-
-            String sql = "SELECT precio_total FROM reservas WHERE id_reserva = ?";
-            PreparedStatement pstmt = conexion.prepareStatement(sql);
-            pstmt.setInt(1, reservaId);
-            ResultSet rs = pstmt.executeQuery();
+    public OptionalDouble leerMontoDeReserva(int reservaId) {
 
-            if (rs.next()) {
+        try (Connection conexion = DataBaseConnection.getInstance().conectarBD();
+             PreparedStatement pstmt = conexion.prepareStatement(SQL_MONTO_RESERVA)) {
 
-                double monto = rs.getDouble("precio_total");
-                txtMonto.setText(String.format("%.2f", monto));
-                txtMonto.setEditable(false);
+            pstmt.setInt(1, reservaId);
 
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? OptionalDouble.of(rs.getDouble("precio_total")) : OptionalDouble.empty();
             }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+
+            System.err.println("Error al leer el monto de la reserva " + reservaId + ": " + e.getMessage());
+            throw new RuntimeException("No se ha podido leer el monto de la reserva", e);
+
         }
     }
 
     /**
      * Inserta un nuevo registro de pago en la base de datos.
      * <p>
-     * Tras insertar el pago, se registra la operación en el histórico de pagos
-     * mediante la llamada al procedimiento almacenado <b>registrar_historial_pago</b>.
+     * La misma sentencia registra la inserción en el histórico de pagos.
      * </p>
      *
-     * @param pago objeto {@link Pago} con los datos a registrar.
+     * @param pago objeto {@link Pago} con los datos a registrar; recibe el ID generado.
      * @return {@code true} si la inserción fue exitosa, {@code false} en caso contrario.
      */
     public boolean insertarPago(Pago pago) {
 
-        String sql = """
-                INSERT INTO pagos(id_reserva, fecha_pago, monto, metodo_pago, estado_pago, referencia_transaccion)
-                VALUES(?,?,?,?,?,?)
-                """;
-
-        try (PreparedStatement preparedStatement = conexion.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+        try (Connection conexion = DataBaseConnection.getInstance().conectarBD();
+             PreparedStatement preparedStatement = conexion.prepareStatement(SQL_INSERTAR)) {
 
             preparedStatement.setInt(1, pago.getReserva());
             preparedStatement.setTimestamp(2, Timestamp.valueOf(pago.getFechaPago()));
@@ -163,32 +170,21 @@ public class PagoDAO {
             preparedStatement.setString(5, pago.getEstadoPago().name().toLowerCase());
             preparedStatement.setString(6, pago.getReferenciaTransaccion());
 
-            int filasAfectadas = preparedStatement.executeUpdate();
-
-            if (filasAfectadas > 0) {
-
-                ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
-
-                if (generatedKeys.next()) {
+            try (ResultSet rs = preparedStatement.executeQuery()) {
 
-                    int idGenerado = generatedKeys.getInt(1);
-                    pago.setId(idGenerado);
+                if (!rs.next()) {
+                    return false;
+                }
 
-                    registrarEnHistorico(
-                            idGenerado,
-                            "INSERT",
-                            null,
-                            pago.getEstadoPago().name().toLowerCase(),
-                            null,
-                            pago.getMonto()
-                    );
+                Pago insertado = getPagoFromResultSet(rs);
+                pago.setId(insertado.getId());
 
-                }
+                invalidarTotales();
+                PAGOS.poner(insertado.getId(), insertado);
 
                 return true;
-            }
 
-            return false;
+            }
 
         } catch (SQLException e) {
 
@@ -200,49 +196,40 @@ public class PagoDAO {
 
     /**
      * Actualiza el método o estado de un pago existente.
-     * <p>Los demás campos (reserva, monto, fecha) no son modificables.</p>
+     * <p>Los demás campos (reserva, monto, fecha) no son modificables. La misma sentencia bloquea la fila,
+     * lee su estado anterior y registra el cambio en el histórico.</p>
      *
      * @param pago objeto {@link Pago} con los nuevos datos a aplicar.
      * @return {@code true} si la actualización fue exitosa.
      */
     public boolean actualizarPago(Pago pago) {
 
-        Pago pagoAnterior = buscarPagoPorId(pago.getId());
+        try (Connection conexion = DataBaseConnection.getInstance().conectarBD();
+             PreparedStatement preparedStatement = conexion.prepareStatement(SQL_ACTUALIZAR)) {
 
-        String sql = """
-        UPDATE pagos
-        SET metodo_pago = ?,
-            estado_pago = ?            
-        WHERE id_pago = ?;
-        """;
+            preparedStatement.setInt(1, pago.getId());
+            preparedStatement.setString(2, pago.getMetodoPago().name().toLowerCase());
+            preparedStatement.setString(3, pago.getEstadoPago().name().toLowerCase());
 
-        try (PreparedStatement preparedStatement = conexion.prepareStatement(sql)) {
+            try (ResultSet rs = preparedStatement.executeQuery()) {
 
-            preparedStatement.setString(1, pago.getMetodoPago().name().toLowerCase());
-            preparedStatement.setString(2, pago.getEstadoPago().name().toLowerCase());
-            preparedStatement.setInt(3, pago.getId());
+                if (!rs.next()) {
 
-            int filasAfectadas = preparedStatement.executeUpdate();
+                    PAGOS.quitar(pago.getId());
+                    return false;
 
-            if (filasAfectadas>0){
+                }
 
-                registrarEnHistorico(
+                invalidarTotales();
+                PAGOS.poner(pago.getId(), getPagoFromResultSet(rs));
 
-                        pago.getId(),
-                        "UPDATE",
-                        pagoAnterior.getEstadoPago().name().toLowerCase(),
-                        pago.getEstadoPago().name().toLowerCase(),
-                        pagoAnterior.getMonto() != 0 ?
-                                pagoAnterior.getMonto() : null,
-                         pago.getMonto()
+                return true;
 
-                );
             }
 
-            return filasAfectadas > 0;
-
         } catch (SQLException e) {
 
+            PAGOS.quitar(pago.getId());
             e.printStackTrace();
             return false;
 
@@ -251,76 +238,64 @@ public class PagoDAO {
 
     /**
      * Obtiene todos los registros de pagos almacenados en la base de datos.
-     * Los resultados se guardan internamente en {@code pagosDisponibles}.
+     * <p>
+     * Cada llamada devuelve una lista nueva; para tablas grandes es preferible {@link #leerPagosPagina(int, int)}
+     * y, para volcados completos, la exportación en streaming.
+     * </p>
+     *
+     * @return lista no modificable de pagos, ordenada por ID.
      */
-    public void mostrarTodosPagos() {
+    public List<Pago> leerPagos() {
 
-        PagosDisponibles.clear();
+        List<Pago> pagos = new ArrayList<>();
 
-        try (Statement statement = conexion.createStatement()) {
+        String sql = "SELECT * FROM pagos ORDER BY id_pago";
 
-            String sql = "SELECT * FROM pagos";
-            ResultSet result = statement.executeQuery(sql);
+        try (Connection conexion = DataBaseConnection.getInstance().conectarBD();
+             Statement statement = conexion.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
 
             while (result.next()) {
 
-                Pago pago = new Pago();
-
-                pago.setId(result.getInt("id_pago"));
-                pago.setReserva(result.getInt("id_reserva"));
-                pago.setFechaPago(result.getTimestamp("fecha_pago").toLocalDateTime());
-                pago.setMonto(result.getDouble("monto"));
-
-                String metodo = result.getString("metodo_pago").toUpperCase().trim();
-                pago.setMetodoPago(Pago.MetodoPago.valueOf(metodo));
-
-                String estado = result.getString("estado_pago").toUpperCase().trim();
-                pago.setEstadoPago(Pago.EstadoPago.valueOf(estado));
-
-                pago.setReferenciaTransaccion(result.getString("referencia_transaccion"));
-
-                PagosDisponibles.add(pago);
+                pagos.add(getPagoFromResultSet(result));
 
             }
 
+            PAGOS.ponerTodas(pagos, Pago::getId);
+
         } catch (SQLException ex) {
             System.err.println(ex.getMessage());
         }
+
+        return Collections.unmodifiableList(pagos);
     }
 
     /**
-     * Elimina un pago de la base de datos y registra la operación en el histórico.
+     * Elimina un pago de la base de datos y registra la operación en el histórico en la misma sentencia.
      *
      * @param pago objeto {@link Pago} que se desea eliminar.
      * @return {@code true} si la eliminación fue exitosa.
      */
     public boolean borrarPago(Pago pago) {
 
-        Pago pagoABorrar = buscarPagoPorId(pago.getId());
+        try (Connection conexion = DataBaseConnection.getInstance().conectarBD();
+             PreparedStatement preparedStatement = conexion.prepareStatement(SQL_BORRAR)) {
 
-        if (pagoABorrar == null) {
-            System.err.println("No se encontró el pago para eliminar");
-            return false;
-        }
+            preparedStatement.setInt(1, pago.getId());
 
-        try {
+            try (ResultSet rs = preparedStatement.executeQuery()) {
 
-            registrarEnHistorico(
-                    pago.getId(),
-                    "DELETE",
-                    pagoABorrar.getEstadoPago().name().toLowerCase(),
-                    null,
-                    pagoABorrar.getMonto(),
-                    null
-            );
+                PAGOS.quitar(pago.getId());
 
-            String sql = "DELETE FROM pagos WHERE id_pago = ?";
+                if (!rs.next()) {
 
-            try (PreparedStatement preparedStatement = conexion.prepareStatement(sql)) {
+                    System.err.println("No se encontró el pago para eliminar");
+                    return false;
 
-                preparedStatement.setInt(1, pago.getId());
-                int filasAfectadas = preparedStatement.executeUpdate();
-                return filasAfectadas > 0;
+                }
+
+                invalidarTotales();
+                return true;
 
             }
 
@@ -333,79 +308,81 @@ public class PagoDAO {
     }
 
     /**
-     * Genera una nueva referencia de transacción incremental.
+     * Devuelve una referencia de transacción nueva y única (TXN001, TXN002...).
+     * <p>
+     *     Las referencias salen de bloques reservados en la secuencia {@code referencias_pago_seq}, así que
+     *     normalmente no se consulta la base de datos y dos equipos que guardan a la vez nunca obtienen la misma.
+     *     Cada llamada consume una referencia: debe pedirse una sola vez por pago, al guardarlo.
+     * </p>
      *
-     * @return Cadena alfanumérica con el formato {@code TXN###}.
+     * @return la referencia asignada.
+     * @throws RuntimeException si no se puede reservar un bloque nuevo.
      */
     public String generarSiguienteReferencia() {
+        return REFERENCIAS.siguiente();
+    }
 
-        try {
-
-            String sql = """
-            SELECT referencia_transaccion 
-            FROM pagos 
-            ORDER BY id_pago DESC LIMIT 1
-            """;
-
-            Statement stmt = conexion.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
-
-            if (rs.next()) {
+    /**
+     * Reserva el siguiente bloque de referencias con un único {@code nextval}. El tamaño del bloque es el
+     * incremento de la secuencia, de modo que basta con cambiarlo en la base de datos.
+     *
+     * @return el bloque reservado.
+     */
+    private static GeneradorReferencias.Bloque reservarBloqueReferencias() {
 
-                String ultimaReferencia = rs.getString("referencia_transaccion");
+        String sql = """
+                SELECT nextval('referencias_pago_seq') AS inicio,
+                       (SELECT increment_by FROM pg_sequences WHERE sequencename = 'referencias_pago_seq') AS tamano
+                """;
 
-                String numeroStr = ultimaReferencia.replace("TXN", "");
-                int numero = Integer.parseInt(numeroStr);
+        try (Connection conexion = DataBaseConnection.getInstance().conectarBD();
+             Statement stmt = conexion.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
 
-                numero++;
+            rs.next();
+            return new GeneradorReferencias.Bloque(rs.getLong("inicio"), rs.getLong("tamano"));
 
-                return String.format("TXN%03d", numero);
+        } catch (SQLException e) {
 
-            }
+            System.err.println("Error al reservar referencias de pago: " + e.getMessage());
+            throw new RuntimeException("No se pudo reservar un bloque de referencias de pago", e);
 
-        } catch (SQLException | NumberFormatException e) {
-            e.printStackTrace();
         }
-
-        return "TXN001";
     }
 
     /**
-     * Busca y devuelve un objeto {@link Pago} según su identificador único.
+     * Busca y devuelve un objeto {@link Pago} según su identificador único. Se sirve desde la caché si ya se había
+     * leído o escrito recientemente, sin consultar la base de datos.
      *
      * @param idPago identificador del pago.
      * @return el objeto encontrado, o {@code null} si no existe.
      */
     public Pago buscarPagoPorId(int idPago) {
 
-        String sql = """
-                    SELECT * 
-                    FROM pagos 
-                    WHERE id_pago = ?
-                    """;
+        return PAGOS.obtener(idPago, this::consultarPagoPorId);
 
-        try (PreparedStatement ps = conexion.prepareStatement(sql)) {
+    }
 
-            ps.setInt(1, idPago);
-            ResultSet rs = ps.executeQuery();
+    /**
+     * Consulta un pago en la base de datos por su identificador.
+     *
+     * @param idPago identificador del pago.
+     * @return el objeto encontrado, o {@code null} si no existe.
+     */
+    private Pago consultarPagoPorId(int idPago) {
 
-            if (rs.next()) {
+        try (Connection conexion = DataBaseConnection.getInstance().conectarBD();
+             PreparedStatement ps = conexion.prepareStatement(SQL_POR_ID)) {
 
-                Pago pago = new Pago();
-                pago.setId(rs.getInt("id_pago"));
-                pago.setReserva(rs.getInt("id_reserva"));
-                pago.setFechaPago(rs.getTimestamp("fecha_pago").toLocalDateTime());
-                pago.setMonto(rs.getDouble("monto"));
+            ps.setInt(1, idPago);
 
-                String metodo = rs.getString("metodo_pago").toUpperCase().trim();
-                pago.setMetodoPago(Pago.MetodoPago.valueOf(metodo));
+            try (ResultSet rs = ps.executeQuery()) {
 
-                String estado = rs.getString("estado_pago").toUpperCase().trim();
-                pago.setEstadoPago(Pago.EstadoPago.valueOf(estado));
+                if (rs.next()) {
 
-                pago.setReferenciaTransaccion(rs.getString("referencia_transaccion"));
-                return pago;
+                    return getPagoFromResultSet(rs);
 
+                }
             }
 
         } catch (SQLException e) {
@@ -416,71 +393,221 @@ public class PagoDAO {
     }
 
     /**
-     * Llama al procedimiento almacenado {@code registrar_historial_pago} para registrar cambios sobre un pago.
+     * Obtiene una página de pagos ordenada por {@code id_pago} mediante paginación por clave.
      *
-     * @param accion
-     * @param estadoAnterior
-     * @param idPago
-     * @param estadoNuevo
-     * @param montoAnterior
-     * @param montoNuevo
+     * @param despuesDeId último {@code id_pago} de la página anterior ({@code 0} para la primera).
+     * @param limite número máximo de filas a devolver.
+     * @return Lista no modificable de objetos {@link Pago} de la página.
      */
-    private void registrarEnHistorico(int idPago, String accion, String estadoAnterior, String estadoNuevo,
-            Double montoAnterior, Double montoNuevo) {
+    public List<Pago> leerPagosPagina(int despuesDeId, int limite) {
 
-        String sql = "CALL registrar_historial_pago(?, ?, ?, ?, ?, ?)";
+        List<Pago> resultado = new ArrayList<>(limite);
 
-        try (CallableStatement callableStatement = conexion.prepareCall(sql)) {
+        String query = """
+                       SELECT id_pago, id_reserva, fecha_pago, monto, metodo_pago, estado_pago, referencia_transaccion
+                       FROM pagos
+                       WHERE id_pago > ?
+                       ORDER BY id_pago
+                       LIMIT ?;
+                       """;
 
-            callableStatement.setInt(1, idPago);
-            callableStatement.setString(2, accion);
+        try (Connection con = DataBaseConnection.getInstance().conectarBD(); PreparedStatement ps = con.prepareStatement(query)) {
 
-            if (estadoAnterior != null) {
-                callableStatement.setString(3, estadoAnterior);
+            ps.setInt(1, despuesDeId);
+            ps.setInt(2, limite);
 
-            } else {
-                callableStatement.setNull(3, Types.VARCHAR);
-            }
+            try (ResultSet rs = ps.executeQuery()) {
+
+                while (rs.next()) {
 
-            if (estadoNuevo != null) {
-                callableStatement.setString(4, estadoNuevo);
+                    resultado.add(getPagoFromResultSet(rs));
 
-            } else {
-                callableStatement.setNull(4, Types.VARCHAR);
+                }
             }
 
-            if (montoAnterior != null) {
-                callableStatement.setBigDecimal(5, BigDecimal.valueOf(montoAnterior));
+        } catch (SQLException e) {
 
-            } else {
-                callableStatement.setNull(5, Types.NUMERIC);
-            }
+            System.err.println("Error al leer la página de pagos: " + e.getMessage());
+            throw new RuntimeException(e);
 
-            if (montoNuevo != null) {
-                callableStatement.setBigDecimal(6, BigDecimal.valueOf(montoNuevo));
+        }
 
-            } else {
-                callableStatement.setNull(6, Types.NUMERIC);
-            }
+        PAGOS.ponerTodas(resultado, Pago::getId);
 
-            callableStatement.execute();
+        return Collections.unmodifiableList(resultado);
 
-        } catch (SQLException e) {
+    }
 
-            System.err.println("Error al registrar en histórico: " + e.getMessage());
-            e.printStackTrace();
+    /**
+     * Obtiene el {@code id_pago} situado {@code salto} filas por detrás de {@code despuesDeId}.
+     * Solo recorre el índice de la clave primaria, por lo que sirve para saltar a páginas lejanas.
+     *
+     * @param despuesDeId clave de partida.
+     * @param salto número de filas a saltar.
+     * @return El {@code id_pago} encontrado, o {@code -1} si no hay tantas filas.
+     */
+    public int idPagoTrasSaltar(int despuesDeId, int salto) {
+
+        String query = """
+                       SELECT id_pago FROM pagos WHERE id_pago > ? ORDER BY id_pago OFFSET ? LIMIT 1;
+                       """;
+
+        return UtilidadesDAO.consultarEntero(query, despuesDeId, salto);
+
+    }
+
+    /**
+     * Cuenta los pagos registrados a partir del resumen por estado, sin consultas adicionales.
+     *
+     * @return Número total de pagos.
+     */
+    public int contarPagos() {
+
+        return resumirPagosPorEstado().values().stream().mapToInt(TotalEstado::cantidad).sum();
+
+    }
+
+    /**
+     * Obtiene el número de pagos y la suma de {@code monto} de cada {@code estado_pago} con una única consulta agregada.
+     * El resultado se guarda en caché durante unos segundos y se invalida con cada escritura sobre pagos.
+     *
+     * @return Mapa no modificable con todos los estados, incluidos los que no tienen pagos.
+     */
+    public Map<Pago.EstadoPago, TotalEstado> resumirPagosPorEstado() {
+
+        return PAGOS_POR_ESTADO.get();
+
+    }
+
+    /**
+     * Suma los importes cobrados (pagos {@code completado}) de las reservas de cada propiedad.
+     * El resultado se guarda en caché igual que el resumen por estado.
+     *
+     * @return Mapa no modificable de {@code id_propiedad} a ingresos; las propiedades sin cobros no aparecen.
+     */
+    public Map<Integer, Double> ingresosPorPropiedad() {
+
+        return INGRESOS_POR_PROPIEDAD.get();
+
+    }
+
+    /**
+     * Obtiene los pagos escritos y borrados desde una marca de {@link SeguimientoCambios}.
+     * Los cambios pueden venir de otros equipos, así que se aplican también a la caché de pagos y a los totales.
+     *
+     * @param desde marca devuelta por la consulta anterior.
+     * @return Los cambios desde la marca.
+     */
+    public Cambios<Pago> leerCambiosPagos(long desde) {
+
+        Cambios<Pago> cambios = SeguimientoCambios.leer("pagos", COLUMNAS, "id_pago", desde, PagoDAO::getPagoFromResultSet);
+
+        if (cambios.desbordado()) {
+
+            invalidarTotales();
+            invalidarCache();
+
+        } else if (!cambios.vacio()) {
+
+            invalidarTotales();
+            PAGOS.ponerTodas(cambios.modificadas(), Pago::getId);
+            cambios.borradas().forEach(PAGOS::quitar);
 
         }
+
+        return cambios;
+
     }
 
-    /** @return lista de IDs de reservas disponibles. */
-    public List<Integer> getListaReservasID() {
-        return listaReservasID;
+    /**
+     * Descarta los totales guardados en caché para que la siguiente lectura consulte la base de datos.
+     */
+    public static void invalidarTotales() {
+
+        PAGOS_POR_ESTADO.invalidar();
+        INGRESOS_POR_PROPIEDAD.invalidar();
+
     }
 
-    /** @return lista de pagos cargados desde la base de datos. */
-    public List<Pago> getPagosDisponibles() {
-        return PagosDisponibles;
+    /**
+     * Vacía la caché de pagos, por ejemplo tras cambios hechos fuera de la aplicación.
+     */
+    public static void invalidarCache() {
+
+        PAGOS.vaciar();
+
+    }
+
+    /**
+     * Ejecuta el recuento y la suma de importes agrupados por estado.
+     *
+     * @return Mapa de estado a totales.
+     */
+    private static Map<Pago.EstadoPago, TotalEstado> consultarPagosPorEstado() {
+
+        Map<Pago.EstadoPago, TotalEstado> totales = new EnumMap<>(Pago.EstadoPago.class);
+
+        for (Pago.EstadoPago estado : Pago.EstadoPago.values()) {
+            totales.put(estado, new TotalEstado(0, 0));
+        }
+
+        String query = """
+                       SELECT estado_pago, COUNT(*) AS cantidad, COALESCE(SUM(monto), 0) AS monto
+                       FROM pagos
+                       GROUP BY estado_pago;
+                       """;
+
+        return UtilidadesDAO.consultarMapa(query, totales,
+                rs -> Pago.EstadoPago.valueOf(rs.getString("estado_pago").toUpperCase().trim()),
+                rs -> new TotalEstado(rs.getInt("cantidad"), rs.getDouble("monto")));
+
     }
 
+    /**
+     * Convierte una fila del {@link ResultSet} en un objeto {@link Pago}.
+     *
+     * @param rs ResultSet posicionado en la fila a convertir.
+     * @return Objeto {@link Pago} construido a partir de los datos obtenidos.
+     * @throws SQLException si ocurre un error al leer los datos.
+     */
+    static Pago getPagoFromResultSet(ResultSet rs) throws SQLException {
+
+        Pago pago = new Pago();
+
+        pago.setId(rs.getInt("id_pago"));
+        pago.setReserva(rs.getInt("id_reserva"));
+        pago.setFechaPago(rs.getTimestamp("fecha_pago").toLocalDateTime());
+        pago.setMonto(rs.getDouble("monto"));
+
+        String metodo = rs.getString("metodo_pago").toUpperCase().trim();
+        pago.setMetodoPago(Pago.MetodoPago.valueOf(metodo));
+
+        String estado = rs.getString("estado_pago").toUpperCase().trim();
+        pago.setEstadoPago(Pago.EstadoPago.valueOf(estado));
+
+        pago.setReferenciaTransaccion(rs.getString("referencia_transaccion"));
+
+        return pago;
+
+    }
+
+    /**
+     * @param p pago a copiar.
+     * @return copia independiente del pago, para guardarla o entregarla desde la caché.
+     */
+    static Pago copiar(Pago p) {
+
+        return new Pago(p.getId(), p.getReserva(), p.getFechaPago(), p.getMonto(), p.getMetodoPago(), p.getEstadoPago(),
+                p.getReferenciaTransaccion());
+
+    }
+
+    /**
+     * Número de pagos y suma de importes de un estado de pago.
+     *
+     * @param cantidad número de pagos.
+     * @param monto suma de {@code monto}.
+     */
+    public record TotalEstado(int cantidad, double monto) { }
+
 }
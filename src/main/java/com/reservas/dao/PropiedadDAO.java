@@ -1,11 +1,17 @@
 package com.reservas.dao;
 
+import com.reservas.busqueda.OpcionEntidad;
+import com.reservas.cache.CacheEntidades;
 import com.reservas.config.DataBaseConnection;
 import com.reservas.model.Propiedad;
+import com.reservas.util.ValorCacheado;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <h1>Clase DAO para la gestión de propiedades</h1>
@@ -22,7 +28,9 @@ import java.util.List;
  *     <li>Actualizar propiedades existentes.</li>
  *     <li>Eliminar propiedades por nombre o ID.</li>
  *     <li>Listar todas las propiedades registradas.</li>
+ *     <li>Leer propiedades por páginas mediante paginación por clave.</li>
  *     <li>Obtener identificadores de propiedades para formularios o combos.</li>
+ *     <li>Mantener una caché de propiedades por ID que se actualiza con cada escritura.</li>
  * </ul>
  *
  * @author Diego Regueira
@@ -30,6 +38,37 @@ import java.util.List;
  */
 public class PropiedadDAO {
 
+    // Columnas que lee getPropiedadFromResultSet
+    private static final String COLUMNAS = "id_propiedad, nombre, direccion, ciudad, pais, precio_noche, capacidad, descripcion, estado_propiedad";
+
+    private static final String SQL_INSERTAR = """
+            INSERT INTO propiedades(nombre, direccion, ciudad, pais, precio_noche, capacidad, descripcion, estado_propiedad)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String SQL_ID_POR_NOMBRE = "SELECT id_propiedad FROM propiedades WHERE nombre = ?";
+
+    // Opciones de la lista de selección: ID exacto o prefijo del nombre o la ciudad, por páginas de clave
+    private static final String SQL_OPCIONES = """
+            SELECT id_propiedad, nombre, ciudad
+            FROM propiedades
+            WHERE id_propiedad > ?
+              AND (? = '' OR id_propiedad = ? OR nombre ILIKE ? OR ciudad ILIKE ?)
+            ORDER BY id_propiedad
+            LIMIT ?
+            """;
+
+    private static final ValorCacheado<Map<String, Integer>> PROPIEDADES_POR_ESTADO = new ValorCacheado<>(
+            UtilidadesDAO.VIGENCIA_TOTALES, () -> UtilidadesDAO.consultarMapa("""
+                    SELECT estado_propiedad, COUNT(*) AS total
+                    FROM propiedades
+                    GROUP BY estado_propiedad
+                    ORDER BY estado_propiedad;
+                    """, new LinkedHashMap<>(), rs -> rs.getString("estado_propiedad"), rs -> rs.getInt("total")));
+
+    private static final CacheEntidades<Integer, Propiedad> PROPIEDADES = CacheEntidades.crear("Propiedades",
+            UtilidadesDAO.CAPACIDAD_ENTIDADES, UtilidadesDAO.VIGENCIA_ENTIDADES, PropiedadDAO::copiar);
+
     /**
      * Inserta una propiedad en la base de datos.
      *
@@ -38,24 +77,22 @@ public class PropiedadDAO {
      */
     public boolean agregarPropiedad(Propiedad propiedad) {
 
-        String query = """
-                       INSERT INTO propiedades(nombre, direccion, ciudad, pais, precio_noche, capacidad, descripcion, estado_propiedad)
-                       VALUES (?, ?, ?, ?, ?, ?, ?, ?);
-                       """;
-
         try (Connection con = DataBaseConnection.getInstance().conectarBD();
-             PreparedStatement ps = con.prepareStatement(query)) {
-
-            ps.setString(1, propiedad.getNombre());
-            ps.setString(2, propiedad.getDireccion());
-            ps.setString(3, propiedad.getCiudad());
-            ps.setString(4, propiedad.getPais());
-            ps.setFloat(5, propiedad.getPrecio_noche());
-            ps.setInt(6, propiedad.getCapacidad());
-            ps.setString(7, propiedad.getDescripcion());
-            ps.setString(8, propiedad.getEstado_propiedad());
+             PreparedStatement ps = con.prepareStatement(SQL_INSERTAR, Statement.RETURN_GENERATED_KEYS)) {
 
+            enlazarInsercion(ps, propiedad);
             ps.executeUpdate();
+            PROPIEDADES_POR_ESTADO.invalidar();
+
+            try (ResultSet claves = ps.getGeneratedKeys()) {
+
+                if (claves.next()) {
+
+                    propiedad.setIdPropiedad(claves.getInt(1));
+                    PROPIEDADES.poner(propiedad.getIdPropiedad(), propiedad);
+
+                }
+            }
 
             return true;
 
@@ -68,7 +105,7 @@ public class PropiedadDAO {
     /**
      * Obtiene todas las propiedades registradas en la base de datos.
      *
-     * @return Lista de objetos {@link Propiedad}. Si no existen registros, se devuelve una lista vacía.
+     * @return Lista no modificable de objetos {@link Propiedad}. Si no existen registros, se devuelve una lista vacía.
      */
     public List<Propiedad> leerPropiedades() {
 
@@ -85,20 +122,7 @@ public class PropiedadDAO {
 
             while (rs.next()) {
 
-                int idPropiedad = rs.getInt("id_propiedad");
-                String nombre = rs.getString("nombre");
-                String direccion = rs.getString("direccion");
-                String ciudad = rs.getString("ciudad");
-                String pais = rs.getString("pais");
-                float precio_noche = rs.getFloat("precio_noche");
-                int capacidad = rs.getInt("capacidad");
-                String descripcion = rs.getString("descripcion");
-                String estado_propiedad = rs.getString("estado_propiedad");
-
-                var propiedad = new Propiedad(idPropiedad, nombre, direccion, ciudad, pais,
-                        precio_noche, capacidad, descripcion, estado_propiedad);
-
-                propiedades.add(propiedad);
+                propiedades.add(getPropiedadFromResultSet(rs));
 
             }
 
@@ -109,7 +133,9 @@ public class PropiedadDAO {
 
         }
 
-        return propiedades;
+        PROPIEDADES.ponerTodas(propiedades, Propiedad::getIdPropiedad);
+
+        return Collections.unmodifiableList(propiedades);
     }
 
     /**
@@ -150,6 +176,8 @@ public class PropiedadDAO {
             ps.setInt(9, idPropiedad);
 
             int filas = ps.executeUpdate();
+            PROPIEDADES_POR_ESTADO.invalidar();
+            PROPIEDADES.quitar(idPropiedad);
 
             if (filas > 0) {
 
@@ -194,6 +222,8 @@ public class PropiedadDAO {
 
             ps.setInt(1, idPropiedad);
             int filas = ps.executeUpdate();
+            PROPIEDADES_POR_ESTADO.invalidar();
+            PROPIEDADES.quitar(idPropiedad);
 
             if (filas > 0) {
                 System.out.println("Propiedad eliminada correctamente: " + propiedad.getNombre());
@@ -215,17 +245,16 @@ public class PropiedadDAO {
      */
     public int buscarPropiedadPorNombre(String nombre) {
 
-        String query = """
-                       SELECT id_propiedad FROM propiedades WHERE nombre = ?;
-                       """;
-
         try (Connection con = DataBaseConnection.getInstance().conectarBD();
-             PreparedStatement ps = con.prepareStatement(query)) {
+             PreparedStatement ps = con.prepareStatement(SQL_ID_POR_NOMBRE)) {
 
             ps.setString(1, nombre);
-            ResultSet rs = ps.executeQuery();
 
-            if (rs.next()) { return rs.getInt("id_propiedad"); }
+            try (ResultSet rs = ps.executeQuery()) {
+
+                if (rs.next()) { return rs.getInt("id_propiedad"); }
+
+            }
 
         } catch (SQLException e) {
 
@@ -265,50 +294,83 @@ public class PropiedadDAO {
             ps.setInt(9, propiedad.getIdPropiedad());
 
             int filas = ps.executeUpdate();
+            PROPIEDADES_POR_ESTADO.invalidar();
+
+            if (filas > 0) {
+                PROPIEDADES.poner(propiedad.getIdPropiedad(), propiedad);
+            } else {
+                PROPIEDADES.quitar(propiedad.getIdPropiedad());
+            }
 
             return filas > 0;
 
         } catch (SQLException e) {
+            PROPIEDADES.quitar(propiedad.getIdPropiedad());
             System.err.println("Error al modificar la propiedad: " + e.getMessage());
             throw new RuntimeException(e);
         }
     }
 
     /**
-     * Obtiene una lista con los identificadores de todas las propiedades existentes.
+     * Busca propiedades para la lista de selección de un formulario: las que tienen ese ID o un nombre o ciudad
+     * que empiezan por el texto, en páginas ordenadas por {@code id_propiedad}.
      *
-     * @return Lista de IDs de propiedades.
+     * @param texto texto escrito por el usuario; vacío para todas.
+     * @param despuesDeId último {@code id_propiedad} de la página anterior ({@code 0} para la primera).
+     * @param limite número máximo de propiedades a devolver.
+     * @return Lista no modificable de opciones con el nombre y la ciudad de cada propiedad.
      */
-    public ArrayList<Integer> getIDPropiedades() {
+    public List<OpcionEntidad> buscarOpcionesPropiedades(String texto, int despuesDeId, int limite) {
 
-        ArrayList<Integer> ids = new ArrayList<>();
+        String patron = UtilidadesDAO.patronPrefijo(texto);
 
-        try (Connection con = DataBaseConnection.getInstance().conectarBD();
-             Statement st = con.createStatement()) {
+        return UtilidadesDAO.consultarOpciones(SQL_OPCIONES, rs -> opcion(rs.getInt("id_propiedad"),
+                rs.getString("nombre"), rs.getString("ciudad")), despuesDeId, texto, UtilidadesDAO.idEscrito(texto),
+                patron, patron, limite);
 
-            st.execute("SELECT id_propiedad FROM propiedades;");
-            ResultSet rs = st.getResultSet();
+    }
 
-            while (rs.next()) {
-                ids.add(rs.getInt("id_propiedad"));
-            }
+    /**
+     * Devuelve la opción de una propiedad, para mostrar su nombre en un formulario de edición.
+     * Se construye con {@link #buscarPropiedadPorId(int)}, así que puede servirse desde la caché.
+     *
+     * @param idPropiedad ID de la propiedad.
+     * @return la opción, o {@code null} si la propiedad no existe.
+     */
+    public OpcionEntidad leerOpcionPropiedad(int idPropiedad) {
 
-        } catch (SQLException e) {
-            System.err.println("Error al obtener IDs de propiedades: " + e.getMessage());
-            throw new RuntimeException(e);
-        }
+        Propiedad propiedad = buscarPropiedadPorId(idPropiedad);
+        return propiedad == null ? null : opcion(idPropiedad, propiedad.getNombre(), propiedad.getCiudad());
+
+    }
+
+    private static OpcionEntidad opcion(int idPropiedad, String nombre, String ciudad) {
+
+        return new OpcionEntidad(idPropiedad, nombre + " · " + ciudad + " (#" + idPropiedad + ")");
 
-        return ids;
     }
 
     /**
-     * Busca una propiedad en la base de datos por su identificador.
+     * Busca una propiedad por su identificador. Se sirve desde la caché si ya se había leído o escrito
+     * recientemente, sin consultar la base de datos.
      *
      * @param idPropiedad ID único de la propiedad.
      * @return Objeto {@link Propiedad} si se encontró, o {@code null} si no existe.
      */
     public Propiedad buscarPropiedadPorId(int idPropiedad) {
 
+        return PROPIEDADES.obtener(idPropiedad, this::consultarPropiedadPorId);
+
+    }
+
+    /**
+     * Consulta una propiedad en la base de datos por su identificador.
+     *
+     * @param idPropiedad ID único de la propiedad.
+     * @return Objeto {@link Propiedad} si se encontró, o {@code null} si no existe.
+     */
+    private Propiedad consultarPropiedadPorId(int idPropiedad) {
+
         String query = """
                    SELECT * FROM propiedades WHERE id_propiedad = ?;
                    """;
@@ -320,17 +382,7 @@ public class PropiedadDAO {
             ResultSet rs = ps.executeQuery();
 
             if (rs.next()) {
-                return new Propiedad(
-                        rs.getInt("id_propiedad"),
-                        rs.getString("nombre"),
-                        rs.getString("direccion"),
-                        rs.getString("ciudad"),
-                        rs.getString("pais"),
-                        rs.getFloat("precio_noche"),
-                        rs.getInt("capacidad"),
-                        rs.getString("descripcion"),
-                        rs.getString("estado_propiedad")
-                );
+                return getPropiedadFromResultSet(rs);
             }
 
         } catch (SQLException e) {
@@ -340,4 +392,214 @@ public class PropiedadDAO {
 
         return null;
     }
+
+    /**
+     * Obtiene una página de propiedades ordenada por {@code id_propiedad} mediante paginación por clave.
+     *
+     * @param despuesDeId último {@code id_propiedad} de la página anterior ({@code 0} para la primera).
+     * @param limite número máximo de filas a devolver.
+     * @return Lista no modificable de objetos {@link Propiedad} de la página.
+     */
+    public List<Propiedad> leerPropiedadesPagina(int despuesDeId, int limite) {
+
+        List<Propiedad> resultado = new ArrayList<>(limite);
+
+        String query = """
+                       SELECT id_propiedad, nombre, direccion, ciudad, pais, precio_noche, capacidad, descripcion, estado_propiedad
+                       FROM propiedades
+                       WHERE id_propiedad > ?
+                       ORDER BY id_propiedad
+                       LIMIT ?;
+                       """;
+
+        try (Connection con = DataBaseConnection.getInstance().conectarBD(); PreparedStatement ps = con.prepareStatement(query)) {
+
+            ps.setInt(1, despuesDeId);
+            ps.setInt(2, limite);
+
+            try (ResultSet rs = ps.executeQuery()) {
+
+                while (rs.next()) {
+
+                    resultado.add(getPropiedadFromResultSet(rs));
+
+                }
+            }
+
+        } catch (SQLException e) {
+
+            System.err.println("Error al leer la página de propiedades: " + e.getMessage());
+            throw new RuntimeException(e);
+
+        }
+
+        PROPIEDADES.ponerTodas(resultado, Propiedad::getIdPropiedad);
+
+        return Collections.unmodifiableList(resultado);
+
+    }
+
+    /**
+     * Obtiene el {@code id_propiedad} situado {@code salto} filas por detrás de {@code despuesDeId}.
+     * Solo recorre el índice de la clave primaria, por lo que sirve para saltar a páginas lejanas.
+     *
+     * @param despuesDeId clave de partida.
+     * @param salto número de filas a saltar.
+     * @return El {@code id_propiedad} encontrado, o {@code -1} si no hay tantas filas.
+     */
+    public int idPropiedadTrasSaltar(int despuesDeId, int salto) {
+
+        String query = """
+                       SELECT id_propiedad FROM propiedades WHERE id_propiedad > ? ORDER BY id_propiedad OFFSET ? LIMIT 1;
+                       """;
+
+        return UtilidadesDAO.consultarEntero(query, despuesDeId, salto);
+
+    }
+
+    /**
+     * Cuenta las propiedades registradas a partir del recuento por estado, sin consultas adicionales.
+     *
+     * @return Número total de propiedades.
+     */
+    public int contarPropiedades() {
+
+        return contarPropiedadesPorEstado().values().stream().mapToInt(Integer::intValue).sum();
+
+    }
+
+    /**
+     * Cuenta las propiedades agrupadas por {@code estado_propiedad} con una única consulta agregada.
+     * El resultado se guarda en caché durante unos segundos y se invalida con cada escritura sobre propiedades.
+     *
+     * @return Mapa no modificable de estado a número de propiedades, ordenado por estado.
+     */
+    public Map<String, Integer> contarPropiedadesPorEstado() {
+
+        return PROPIEDADES_POR_ESTADO.get();
+
+    }
+
+    /**
+     * Obtiene las propiedades escritas y borradas desde una marca de {@link SeguimientoCambios}.
+     * Los cambios pueden venir de otros equipos, así que se aplican también a la caché de propiedades y a los totales.
+     *
+     * @param desde marca devuelta por la consulta anterior.
+     * @return Los cambios desde la marca.
+     */
+    public Cambios<Propiedad> leerCambiosPropiedades(long desde) {
+
+        Cambios<Propiedad> cambios = SeguimientoCambios.leer("propiedades", COLUMNAS, "id_propiedad", desde,
+                PropiedadDAO::getPropiedadFromResultSet);
+
+        if (cambios.desbordado()) {
+
+            invalidarTotales();
+            invalidarCache();
+
+        } else if (!cambios.vacio()) {
+
+            PROPIEDADES_POR_ESTADO.invalidar();
+            PROPIEDADES.ponerTodas(cambios.modificadas(), Propiedad::getIdPropiedad);
+            cambios.borradas().forEach(PROPIEDADES::quitar);
+
+        }
+
+        return cambios;
+
+    }
+
+    /**
+     * Descarta los totales guardados en caché para que la siguiente lectura consulte la base de datos.
+     */
+    public static void invalidarTotales() {
+
+        PROPIEDADES_POR_ESTADO.invalidar();
+
+    }
+
+    /**
+     * Vacía la caché de propiedades, por ejemplo tras cambios hechos fuera de la aplicación.
+     */
+    public static void invalidarCache() {
+
+        PROPIEDADES.vaciar();
+
+    }
+
+    /**
+     * @param p propiedad a copiar.
+     * @return copia independiente de la propiedad, para guardarla o entregarla desde la caché.
+     */
+    static Propiedad copiar(Propiedad p) {
+
+        return new Propiedad(p.getIdPropiedad(), p.getNombre(), p.getDireccion(), p.getCiudad(), p.getPais(),
+                p.getPrecio_noche(), p.getCapacidad(), p.getDescripcion(), p.getEstado_propiedad());
+
+    }
+
+    /**
+     * Inserta varios propiedades en un único lote JDBC con la conexión indicada, sin confirmar la transacción.
+     * <p>
+     *     Lo usa la importación masiva, que decide cuándo confirmar y cómo aislar las filas rechazadas.
+     *     No actualiza las cachés ni los totales: quien importa debe invalidarlos al terminar.
+     * </p>
+     *
+     * @param con conexión con la transacción en curso.
+     * @param propiedades propiedades a insertar.
+     * @throws SQLException si la base de datos rechaza alguna fila del lote.
+     */
+    public void insertarLote(Connection con, List<Propiedad> propiedades) throws SQLException {
+
+        try (PreparedStatement ps = con.prepareStatement(SQL_INSERTAR)) {
+
+            for (Propiedad propiedad : propiedades) {
+
+                enlazarInsercion(ps, propiedad);
+                ps.addBatch();
+
+            }
+
+            ps.executeBatch();
+
+        }
+    }
+
+    /**
+     * Asigna los parámetros de {@link #SQL_INSERTAR} a partir de una propiedad.
+     */
+    private static void enlazarInsercion(PreparedStatement ps, Propiedad propiedad) throws SQLException {
+
+        ps.setString(1, propiedad.getNombre());
+        ps.setString(2, propiedad.getDireccion());
+        ps.setString(3, propiedad.getCiudad());
+        ps.setString(4, propiedad.getPais());
+        ps.setFloat(5, propiedad.getPrecio_noche());
+        ps.setInt(6, propiedad.getCapacidad());
+        ps.setString(7, propiedad.getDescripcion());
+        ps.setString(8, propiedad.getEstado_propiedad());
+
+    }
+
+    /**
+     * Convierte una fila del {@link ResultSet} en un objeto {@link Propiedad}.
+     *
+     * @param rs ResultSet posicionado en la fila a convertir.
+     * @return Objeto {@link Propiedad} construido a partir de los datos obtenidos.
+     * @throws SQLException si ocurre un error al leer los datos.
+     */
+    static Propiedad getPropiedadFromResultSet(ResultSet rs) throws SQLException {
+
+        return new Propiedad(
+                rs.getInt("id_propiedad"),
+                rs.getString("nombre"),
+                rs.getString("direccion"),
+                rs.getString("ciudad"),
+                rs.getString("pais"),
+                rs.getFloat("precio_noche"),
+                rs.getInt("capacidad"),
+                rs.getString("descripcion"),
+                rs.getString("estado_propiedad")
+        );
+    }
 }
@@ -1,10 +1,21 @@
 package com.reservas.dao;
 
+import com.reservas.busqueda.OpcionEntidad;
+import com.reservas.cache.CacheEntidades;
 import com.reservas.config.DataBaseConnection;
+import com.reservas.disponibilidad.MotorDisponibilidad;
 import com.reservas.model.Reserva;
+import com.reservas.util.ValorCacheado;
 
 import java.sql.*;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * <h1>Clase DAO para la gestión de reservas</h1>
@@ -22,41 +33,105 @@ import java.util.ArrayList;
  *     <li>Eliminar reservas por ID.</li>
  *     <li>Buscar reservas individuales por identificador.</li>
  *     <li>Listar todas las reservas registradas.</li>
+ *     <li>Leer reservas por páginas mediante paginación por clave.</li>
+ *     <li>Impedir que dos reservas activas de la misma propiedad se solapen.</li>
+ *     <li>Mantener una caché de reservas por ID que se actualiza con cada escritura.</li>
  * </ul>
  *
+ * El DAO no guarda estado propio (solo las cachés compartidas, que son seguras entre hilos) y las listas que
+ * devuelve no son modificables, así que una misma instancia puede usarse desde varios hilos a la vez.
+ *
  * @author Pablo Armas
  * @since 04/11/2025
  */
 public class ReservaDAO {
 
-    ArrayList<Reserva> reservas;
-
-    /**
-     * Constructor que inicializa la lista de reservas.
+    // Restricción de exclusión que impide solapes en la base de datos aunque escriban varios equipos a la vez.
+    // Las estancias son semiabiertas [fecha_inicio, fecha_fin): el día de salida puede ser el de entrada de otra.
+    // Si se viola, PostgreSQL devuelve SQLSTATE 23P01 (exclusion_violation). Mientras no esté aplicada, las altas y
+    // modificaciones de este DAO ya se protegen con SQL_BLOQUEAR_PROPIEDAD; la restricción cubre además a quien
+    // escriba sin pasar por ellas, como la importación masiva.
+    /*
+            CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+            ALTER TABLE reservas
+            ADD CONSTRAINT reservas_sin_solape
+            EXCLUDE USING gist (
+                id_propiedad WITH =,
+                daterange(fecha_inicio, fecha_fin, '[)') WITH &&
+            )
+            WHERE (estado IN ('confirmada', 'pendiente'));
      */
-    public ReservaDAO() {
-        reservas = new ArrayList<>();
-    }
+
+    private static final String VIOLACION_EXCLUSION = "23P01";
+
+    // Cerrojo por propiedad hasta el fin de la transacción: la búsqueda de solapes y la escritura que la sigue no
+    // pueden intercalarse con las de otra escritura de la misma propiedad, sea de este equipo o de otro
+    private static final String SQL_BLOQUEAR_PROPIEDAD = "SELECT pg_advisory_xact_lock(?)";
+
+    private static final String SQL_SOLAPE = """
+            SELECT id_reserva, fecha_inicio, fecha_fin FROM reservas
+            WHERE id_propiedad = ? AND estado IN ('confirmada', 'pendiente')
+              AND fecha_inicio < ? AND fecha_fin > ? AND id_reserva <> ?
+            LIMIT 1
+            """;
+
+    // Columnas que lee getReservaFromResultSet
+    private static final String COLUMNAS = "id_reserva, id_cliente, id_propiedad, fecha_inicio, fecha_fin, num_personas, estado, precio_total, motivo_cancelacion";
+
+    private static final String SQL_INSERTAR = """
+            INSERT INTO reservas(id_cliente, id_propiedad, fecha_inicio, fecha_fin, num_personas, estado, precio_total,
+                                 motivo_cancelacion)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // Opciones de la lista de selección: ID exacto o prefijo del cliente o de la propiedad, por páginas de clave
+    private static final String SELECT_OPCIONES = """
+            SELECT r.id_reserva, r.fecha_inicio, r.fecha_fin, c.nombre, c.apellidos, p.nombre AS propiedad
+            FROM reservas r
+            JOIN clientes c ON c.id_cliente = r.id_cliente
+            JOIN propiedades p ON p.id_propiedad = r.id_propiedad
+            """;
+
+    private static final String SQL_OPCIONES = SELECT_OPCIONES + """
+            WHERE r.id_reserva > ?
+              AND (? = '' OR r.id_reserva = ? OR c.nombre ILIKE ? OR c.apellidos ILIKE ?
+                   OR c.nombre || ' ' || c.apellidos ILIKE ? OR p.nombre ILIKE ?)
+            ORDER BY r.id_reserva
+            LIMIT ?
+            """;
+
+    private static final String SQL_OPCION = SELECT_OPCIONES + "WHERE r.id_reserva = ?";
+
+    private static final DateTimeFormatter FECHA_OPCION = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private static final ValorCacheado<Map<Reserva.EstadoReserva, Integer>> RESERVAS_POR_ESTADO = new ValorCacheado<>(
+            UtilidadesDAO.VIGENCIA_TOTALES, ReservaDAO::consultarReservasPorEstado);
+
+    private static final CacheEntidades<Integer, Reserva> RESERVAS = CacheEntidades.crear("Reservas",
+            UtilidadesDAO.CAPACIDAD_ENTIDADES, UtilidadesDAO.VIGENCIA_ENTIDADES, ReservaDAO::copiar);
 
     /**
      * Obtiene todas las reservas registradas en la base de datos.
+     * <p>
+     * Cada llamada devuelve una lista nueva; para tablas grandes es preferible {@link #leerReservasPagina(int, int)}.
+     * </p>
      *
-     * @return Lista de objetos {@link Reserva}.
+     * @return Lista no modificable de objetos {@link Reserva}, ordenada por ID.
      */
-    public ArrayList<Reserva> getReservas(){
+    public List<Reserva> leerReservas() {
 
-        String sql = "select id_reserva, id_cliente, id_propiedad, fecha_inicio," +
-                " fecha_fin, num_personas, estado, precio_total, motivo_cancelacion from reservas";
+        List<Reserva> reservas = new ArrayList<>();
 
-        try (Connection con = DataBaseConnection.getInstance().conectarBD(); Statement statement = con.createStatement()){
+        String sql = "select id_reserva, id_cliente, id_propiedad, fecha_inicio," +
+                " fecha_fin, num_personas, estado, precio_total, motivo_cancelacion from reservas order by id_reserva";
 
-            statement.executeQuery(sql);
-            ResultSet rs = statement.getResultSet();
+        try (Connection con = DataBaseConnection.getInstance().conectarBD(); PreparedStatement ps = con.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
 
-            while (rs.next()){
+            while (rs.next()) {
 
-                Reserva reserva = getReservaFromResultSet(rs);
-                reservas.add(reserva);
+                reservas.add(getReservaFromResultSet(rs));
 
             }
 
@@ -64,66 +139,124 @@ public class ReservaDAO {
             throw new RuntimeException(e);
         }
 
-        return reservas;
+        RESERVAS.ponerTodas(reservas, Reserva::getId_reserva);
+
+        return Collections.unmodifiableList(reservas);
     }
 
     /**
      * Inserta una nueva reserva en la base de datos.
+     * <p>
+     * Antes de insertar se comprueba en {@link MotorDisponibilidad} que la propiedad está libre esas noches. Esa
+     * comprobación es orientativa: la que vale se repite en la base de datos, en la misma transacción que la
+     * inserción y con la propiedad bloqueada. El ID generado se asigna a la reserva.
+     * </p>
      *
      * @param r Objeto {@link Reserva} con los datos a registrar.
      * @return Número de filas afectadas (1 si se insertó correctamente).
+     * @throws IllegalStateException si la propiedad ya está reservada en esas fechas.
      */
     public int aniadirReserva(Reserva r){
 
-        String sql = "insert into reservas (id_cliente, id_propiedad, fecha_inicio, fecha_fin," +
-                "num_personas, estado, precio_total, motivo_cancelacion) values" +
-                "(?, ?, ?, ?, ?, ?, ?, ?);";
+        MotorDisponibilidad motor = MotorDisponibilidad.getInstance();
+        motor.comprobarDisponible(r);
 
-        try (Connection con = DataBaseConnection.getInstance().conectarBD();PreparedStatement ps = con.prepareStatement(sql)){
+        try (Connection con = DataBaseConnection.getInstance().conectarBD()) {
 
-            ps.setInt(1, r.getId_cliente());
-            ps.setInt(2, r.getId_propiedad());
-            ps.setDate(3, r.getFecha_inicio());
-            ps.setDate(4, r.getFecha_fin());
-            ps.setInt(5, r.getNum_personas());
-            ps.setString(6, r.getEstadoReserva().toString().toLowerCase());
-            ps.setDouble(7, r.getPrecio_total());
-            ps.setString(8, r.getMotivo_cancelacion());
+            con.setAutoCommit(false);
+            bloquearYComprobar(con, r);
+
+            int filas;
+            boolean conClave;
+
+            try (PreparedStatement ps = con.prepareStatement(SQL_INSERTAR, Statement.RETURN_GENERATED_KEYS)) {
+
+                enlazarInsercion(ps, r);
+                filas = ps.executeUpdate();
+
+                try (ResultSet claves = ps.getGeneratedKeys()) {
+
+                    conClave = claves.next();
+
+                    if (conClave) {
+                        r.setId_reserva(claves.getInt(1));
+                    }
+                }
+            }
 
-            return ps.executeUpdate();
+            con.commit();
+            RESERVAS_POR_ESTADO.invalidar();
+
+            if (conClave) {
+
+                motor.registrar(r);
+                RESERVAS.poner(r.getId_reserva(), r);
+
+            }
+
+            return filas;
 
         } catch (SQLException e) {
-            throw new RuntimeException(e);
+            throw traducirExcepcion(e, r);
         }
     }
 
     /**
-     * Modifica los datos de una reserva existente.
+     * Modifica los datos de una reserva existente, comprobando antes que las nuevas fechas no se solapan
+     * con otra reserva activa de la propiedad. Como en {@link #aniadirReserva(Reserva)}, la comprobación en
+     * memoria se repite en la base de datos con la propiedad bloqueada.
      *
      * @param r Objeto {@link Reserva} con la información actualizada.
      * @return Número de filas afectadas (1 si la actualización fue exitosa).
+     * @throws IllegalStateException si la propiedad ya está reservada en esas fechas.
      */
     public int modificarReserva(Reserva r){
 
+        MotorDisponibilidad motor = MotorDisponibilidad.getInstance();
+        motor.comprobarDisponible(r);
+
         String sql = "update reservas set id_propiedad=?, fecha_inicio=?, fecha_fin=?," +
                 "num_personas=?, estado=?, precio_total=?, motivo_cancelacion=?, id_cliente=? where id_reserva=?;";
 
-        try (Connection con = DataBaseConnection.getInstance().conectarBD(); PreparedStatement ps = con.prepareStatement(sql)){
+        try (Connection con = DataBaseConnection.getInstance().conectarBD()) {
 
-            ps.setInt(1, r.getId_propiedad());
-            ps.setDate(2, r.getFecha_inicio());
-            ps.setDate(3, r.getFecha_fin());
-            ps.setInt(4, r.getNum_personas());
-            ps.setString(5, r.getEstadoReserva().toString().toLowerCase());
-            ps.setDouble(6, r.getPrecio_total());
-            ps.setString(7, r.getMotivo_cancelacion());
-            ps.setInt(8, r.getId_cliente());
-            ps.setInt(9, r.getId_reserva());
+            con.setAutoCommit(false);
+            bloquearYComprobar(con, r);
+
+            int filas;
+
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+
+                ps.setInt(1, r.getId_propiedad());
+                ps.setDate(2, r.getFecha_inicio());
+                ps.setDate(3, r.getFecha_fin());
+                ps.setInt(4, r.getNum_personas());
+                ps.setString(5, r.getEstadoReserva().toString().toLowerCase());
+                ps.setDouble(6, r.getPrecio_total());
+                ps.setString(7, r.getMotivo_cancelacion());
+                ps.setInt(8, r.getId_cliente());
+                ps.setInt(9, r.getId_reserva());
+
+                filas = ps.executeUpdate();
+
+            }
+
+            con.commit();
+            RESERVAS_POR_ESTADO.invalidar();
+
+            if (filas > 0) {
 
-            return ps.executeUpdate();
+                motor.registrar(r);
+                RESERVAS.poner(r.getId_reserva(), r);
+
+            } else {
+                RESERVAS.quitar(r.getId_reserva());
+            }
+
+            return filas;
 
         } catch (SQLException e) {
-            throw new RuntimeException(e);
+            throw traducirExcepcion(e, r);
         }
     }
 
@@ -140,7 +273,13 @@ public class ReservaDAO {
         try (Connection con = DataBaseConnection.getInstance().conectarBD(); PreparedStatement ps = con.prepareStatement(sql)){
 
            ps.setInt(1, r.getId_reserva());
-           return ps.executeUpdate();
+
+           int filas = ps.executeUpdate();
+           RESERVAS_POR_ESTADO.invalidar();
+           MotorDisponibilidad.getInstance().quitar(r.getId_reserva());
+           RESERVAS.quitar(r.getId_reserva());
+
+           return filas;
 
         } catch (SQLException e) {
             throw new RuntimeException(e);
@@ -148,31 +287,443 @@ public class ReservaDAO {
     }
 
     /**
-     * Busca una reserva específica por su identificador único.
+     * Busca una reserva específica por su identificador único. Se sirve desde la caché si ya se había leído
+     * o escrito recientemente, sin consultar la base de datos.
      *
      * @param id ID de la reserva.
      * @return Objeto {@link Reserva} si se encuentra, o {@code null} si no existe.
      */
     public Reserva buscarReservaID(int id){
 
-        try(Connection con = DataBaseConnection.getInstance().conectarBD()){
+        return RESERVAS.obtener(id, this::consultarReservaID);
 
-            String sql = "select * from reservas where id_reserva=?";
+    }
+
+    /**
+     * Consulta una reserva en la base de datos por su identificador.
+     *
+     * @param id ID de la reserva.
+     * @return Objeto {@link Reserva} si se encuentra, o {@code null} si no existe.
+     */
+    private Reserva consultarReservaID(int id){
+
+        String sql = "select * from reservas where id_reserva=?";
+
+        try (Connection con = DataBaseConnection.getInstance().conectarBD(); PreparedStatement pst = con.prepareStatement(sql)) {
 
-            PreparedStatement pst = con.prepareStatement(sql);
             pst.setInt(1, id);
-            pst.executeQuery();
-            ResultSet rs = pst.getResultSet();
 
-            if (rs.next()){
+            try (ResultSet rs = pst.executeQuery()) {
+
+                return rs.next() ? getReservaFromResultSet(rs) : null;
+
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Busca reservas para la lista de selección de un formulario: las que tienen ese ID o cuyo cliente o propiedad
+     * empiezan por el texto, en páginas ordenadas por {@code id_reserva}.
+     *
+     * @param texto texto escrito por el usuario; vacío para todas.
+     * @param despuesDeId último {@code id_reserva} de la página anterior ({@code 0} para la primera).
+     * @param limite número máximo de reservas a devolver.
+     * @return Lista no modificable de opciones con el cliente, la propiedad y las fechas de cada reserva.
+     */
+    public List<OpcionEntidad> buscarOpcionesReservas(String texto, int despuesDeId, int limite) {
+
+        String patron = UtilidadesDAO.patronPrefijo(texto);
+
+        return UtilidadesDAO.consultarOpciones(SQL_OPCIONES, ReservaDAO::getOpcionFromResultSet, despuesDeId, texto,
+                UtilidadesDAO.idEscrito(texto), patron, patron, patron, patron, limite);
+
+    }
+
+    /**
+     * Lee la opción de una reserva, para mostrarla en un formulario de edición.
+     *
+     * @param idReserva ID de la reserva.
+     * @return la opción, o {@code null} si la reserva no existe.
+     */
+    public OpcionEntidad leerOpcionReserva(int idReserva) {
+
+        List<OpcionEntidad> opciones = UtilidadesDAO.consultarOpciones(SQL_OPCION, ReservaDAO::getOpcionFromResultSet, idReserva);
+        return opciones.isEmpty() ? null : opciones.get(0);
+
+    }
+
+    /**
+     * Obtiene una página de reservas ordenada por {@code id_reserva} mediante paginación por clave.
+     *
+     * @param despuesDeId último {@code id_reserva} de la página anterior ({@code 0} para la primera).
+     * @param limite número máximo de filas a devolver.
+     * @return Lista no modificable de objetos {@link Reserva} de la página.
+     */
+    public List<Reserva> leerReservasPagina(int despuesDeId, int limite) {
+
+        List<Reserva> resultado = new ArrayList<>(limite);
+
+        String query = """
+                       SELECT id_reserva, id_cliente, id_propiedad, fecha_inicio, fecha_fin, num_personas, estado, precio_total, motivo_cancelacion
+                       FROM reservas
+                       WHERE id_reserva > ?
+                       ORDER BY id_reserva
+                       LIMIT ?;
+                       """;
+
+        try (Connection con = DataBaseConnection.getInstance().conectarBD(); PreparedStatement ps = con.prepareStatement(query)) {
+
+            ps.setInt(1, despuesDeId);
+            ps.setInt(2, limite);
+
+            try (ResultSet rs = ps.executeQuery()) {
+
+                while (rs.next()) {
+
+                    resultado.add(getReservaFromResultSet(rs));
+
+                }
+            }
+
+        } catch (SQLException e) {
+
+            System.err.println("Error al leer la página de reservas: " + e.getMessage());
+            throw new RuntimeException(e);
+
+        }
+
+        RESERVAS.ponerTodas(resultado, Reserva::getId_reserva);
+
+        return Collections.unmodifiableList(resultado);
+
+    }
+
+    /**
+     * Obtiene el {@code id_reserva} situado {@code salto} filas por detrás de {@code despuesDeId}.
+     * Solo recorre el índice de la clave primaria, por lo que sirve para saltar a páginas lejanas.
+     *
+     * @param despuesDeId clave de partida.
+     * @param salto número de filas a saltar.
+     * @return El {@code id_reserva} encontrado, o {@code -1} si no hay tantas filas.
+     */
+    public int idReservaTrasSaltar(int despuesDeId, int salto) {
+
+        String query = """
+                       SELECT id_reserva FROM reservas WHERE id_reserva > ? ORDER BY id_reserva OFFSET ? LIMIT 1;
+                       """;
+
+        return UtilidadesDAO.consultarEntero(query, despuesDeId, salto);
+
+    }
+
+    /**
+     * Cuenta las reservas registradas a partir del recuento por estado, sin consultas adicionales.
+     *
+     * @return Número total de reservas.
+     */
+    public int contarReservas() {
+
+        return contarReservasPorEstado().values().stream().mapToInt(Integer::intValue).sum();
+
+    }
+
+    /**
+     * Cuenta las reservas agrupadas por estado con una única consulta agregada.
+     * El resultado se guarda en caché durante unos segundos y se invalida con cada escritura sobre reservas.
+     *
+     * @return Mapa no modificable con todos los estados, incluidos los que no tienen reservas.
+     */
+    public Map<Reserva.EstadoReserva, Integer> contarReservasPorEstado() {
+
+        return RESERVAS_POR_ESTADO.get();
+
+    }
+
+    /**
+     * Obtiene las reservas escritas y borradas desde una marca de {@link SeguimientoCambios}.
+     * <p>
+     * Los cambios pueden venir de otros equipos, así que se aplican también a la caché de reservas, a los totales
+     * y al índice de disponibilidad de las propiedades afectadas. Los índices que ya reflejan una reserva, porque
+     * la escribió este proceso, se conservan.
+     * </p>
+     *
+     * @param desde marca devuelta por la consulta anterior.
+     * @return Los cambios desde la marca.
+     */
+    public Cambios<Reserva> leerCambiosReservas(long desde) {
+
+        Cambios<Reserva> cambios = SeguimientoCambios.leer("reservas", COLUMNAS, "id_reserva", desde,
+                ReservaDAO::getReservaFromResultSet);
+
+        MotorDisponibilidad motor = MotorDisponibilidad.getInstance();
+
+        if (cambios.desbordado()) {
+
+            invalidarTotales();
+            invalidarCache();
+            motor.olvidarTodas();
 
-                return getReservaFromResultSet(rs);
+        } else if (!cambios.vacio()) {
 
-            } else { return null; }
+            RESERVAS_POR_ESTADO.invalidar();
+            RESERVAS.ponerTodas(cambios.modificadas(), Reserva::getId_reserva);
+            for (Reserva r : cambios.modificadas()) {
 
-        }catch (SQLException e) {
+                // Las escrituras de este proceso ya están en el índice: solo se descarta si la hizo otro
+                if (!motor.refleja(r)) {
+
+                    motor.quitar(r.getId_reserva());
+                    motor.olvidar(r.getId_propiedad());
+
+                }
+            }
+
+            cambios.borradas().forEach(id -> {
+
+                RESERVAS.quitar(id);
+                motor.quitar(id);
+
+            });
+
+        }
+
+        return cambios;
+
+    }
+
+    /**
+     * Descarta los totales guardados en caché para que la siguiente lectura consulte la base de datos.
+     */
+    public static void invalidarTotales() {
+
+        RESERVAS_POR_ESTADO.invalidar();
+
+    }
+
+    /**
+     * Vacía la caché de reservas, por ejemplo tras cambios hechos fuera de la aplicación.
+     */
+    public static void invalidarCache() {
+
+        RESERVAS.vaciar();
+
+    }
+
+    /**
+     * Ejecuta el recuento agrupado por estado.
+     *
+     * @return Mapa de estado a número de reservas.
+     */
+    private static Map<Reserva.EstadoReserva, Integer> consultarReservasPorEstado() {
+
+        Map<Reserva.EstadoReserva, Integer> totales = new EnumMap<>(Reserva.EstadoReserva.class);
+
+        for (Reserva.EstadoReserva estado : Reserva.EstadoReserva.values()) {
+            totales.put(estado, 0);
+        }
+
+        return UtilidadesDAO.consultarMapa("SELECT estado, COUNT(*) AS total FROM reservas GROUP BY estado;", totales,
+                rs -> Reserva.EstadoReserva.valueOf(rs.getString("estado").toUpperCase().trim()), rs -> rs.getInt("total"));
+
+    }
+
+    /**
+     * Obtiene las reservas que ocupan una propiedad (estado {@code confirmada} o {@code pendiente}).
+     * Es la consulta con la que {@link MotorDisponibilidad} carga el índice de cada propiedad.
+     *
+     * @param idPropiedad identificador de la propiedad.
+     * @return Lista no modificable de reservas activas ordenadas por fecha de inicio.
+     */
+    public List<Reserva> leerReservasActivasDePropiedad(int idPropiedad) {
+
+        List<Reserva> activas = new ArrayList<>();
+
+        String sql = """
+                     SELECT id_reserva, id_cliente, id_propiedad, fecha_inicio, fecha_fin, num_personas, estado,
+                            precio_total, motivo_cancelacion
+                     FROM reservas
+                     WHERE id_propiedad = ? AND estado IN ('confirmada', 'pendiente')
+                     ORDER BY fecha_inicio;
+                     """;
+
+        try (Connection con = DataBaseConnection.getInstance().conectarBD(); PreparedStatement ps = con.prepareStatement(sql)) {
+
+            ps.setInt(1, idPropiedad);
+
+            try (ResultSet rs = ps.executeQuery()) {
+
+                while (rs.next()) {
+                    activas.add(getReservaFromResultSet(rs));
+                }
+            }
+
+        } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+
+        return Collections.unmodifiableList(activas);
+    }
+
+    /**
+     * Obtiene las reservas activas de varias propiedades con una única consulta ({@code id_propiedad = ANY(?)}).
+     * La usa {@link MotorDisponibilidad} para precargar los índices antes de una búsqueda masiva.
+     *
+     * @param idsPropiedad identificadores de las propiedades.
+     * @return Mapa no modificable de {@code id_propiedad} a sus reservas activas; las propiedades sin reservas no aparecen.
+     */
+    public Map<Integer, List<Reserva>> leerReservasActivasDePropiedades(int[] idsPropiedad) {
+
+        Map<Integer, List<Reserva>> activas = new HashMap<>();
+
+        String sql = """
+                     SELECT id_reserva, id_cliente, id_propiedad, fecha_inicio, fecha_fin, num_personas, estado,
+                            precio_total, motivo_cancelacion
+                     FROM reservas
+                     WHERE id_propiedad = ANY(?) AND estado IN ('confirmada', 'pendiente');
+                     """;
+
+        try (Connection con = DataBaseConnection.getInstance().conectarBD(); PreparedStatement ps = con.prepareStatement(sql)) {
+
+            Integer[] ids = Arrays.stream(idsPropiedad).boxed().toArray(Integer[]::new);
+            ps.setArray(1, con.createArrayOf("integer", ids));
+
+            try (ResultSet rs = ps.executeQuery()) {
+
+                while (rs.next()) {
+
+                    Reserva r = getReservaFromResultSet(rs);
+                    activas.computeIfAbsent(r.getId_propiedad(), id -> new ArrayList<>()).add(r);
+
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+
+        activas.replaceAll((id, reservas) -> Collections.unmodifiableList(reservas));
+
+        return Collections.unmodifiableMap(activas);
+    }
+
+    /**
+     * Bloquea la propiedad de la reserva hasta el final de la transacción y busca en la base de datos otra reserva
+     * activa que se solape con ella. Las consultas van por separado para que la búsqueda, en READ COMMITTED, vea
+     * ya confirmado lo que escribió quien tenía el cerrojo antes.
+     * <p>
+     * Si la reserva no ocupa noches (cancelada o finalizada) solo se toma el cerrojo. Si se solapa, se lanza la
+     * excepción sin confirmar nada: al devolver la conexión al pool se deshace la transacción y se suelta el cerrojo.
+     * </p>
+     *
+     * @param con conexión con la transacción en curso.
+     * @param r reserva que se va a guardar.
+     * @throws IllegalStateException si otra reserva activa ocupa alguna de esas noches.
+     */
+    private static void bloquearYComprobar(Connection con, Reserva r) throws SQLException {
+
+        try (PreparedStatement ps = con.prepareStatement(SQL_BLOQUEAR_PROPIEDAD)) {
+
+            ps.setLong(1, r.getId_propiedad());
+            ps.execute();
+
+        }
+
+        Reserva.EstadoReserva estado = r.getEstadoReserva();
+
+        if (estado != Reserva.EstadoReserva.CONFIRMADA && estado != Reserva.EstadoReserva.PENDIENTE) {
+            return;
+        }
+
+        try (PreparedStatement ps = con.prepareStatement(SQL_SOLAPE)) {
+
+            ps.setInt(1, r.getId_propiedad());
+            ps.setDate(2, r.getFecha_fin());
+            ps.setDate(3, r.getFecha_inicio());
+            ps.setInt(4, r.getId_reserva());
+
+            try (ResultSet rs = ps.executeQuery()) {
+
+                if (rs.next()) {
+
+                    // El índice en memoria no la tenía: otro equipo la ha escrito sin que llegara el aviso
+                    MotorDisponibilidad.getInstance().olvidar(r.getId_propiedad());
+
+                    throw new IllegalStateException("La propiedad " + r.getId_propiedad() + " ya está reservada del "
+                            + rs.getDate("fecha_inicio") + " al " + rs.getDate("fecha_fin")
+                            + " (reserva " + rs.getInt("id_reserva") + ")");
+
+                }
+            }
+        }
+    }
+
+    /**
+     * Convierte un error de escritura en la excepción adecuada. Si la restricción de exclusión rechaza la reserva
+     * (otro equipo reservó esas fechas antes), el índice de la propiedad se descarta para volver a leerlo.
+     *
+     * @param e error devuelto por el driver.
+     * @param r reserva que se intentaba guardar.
+     * @return La excepción a lanzar.
+     */
+    private RuntimeException traducirExcepcion(SQLException e, Reserva r) {
+
+        RESERVAS.quitar(r.getId_reserva());
+
+        if (VIOLACION_EXCLUSION.equals(e.getSQLState())) {
+
+            MotorDisponibilidad.getInstance().olvidar(r.getId_propiedad());
+            return new IllegalStateException("La propiedad " + r.getId_propiedad()
+                    + " ya está reservada en esas fechas", e);
+
+        }
+
+        return new RuntimeException(e);
+    }
+
+    /**
+     * Inserta varias reservas en un único lote JDBC con la conexión indicada, sin confirmar la transacción.
+     * <p>
+     *     Lo usa la importación masiva, que decide cuándo confirmar y cómo aislar las filas rechazadas.
+     *     No actualiza las cachés ni los totales: quien importa debe invalidarlos al terminar.
+     * </p>
+     *
+     * @param con conexión con la transacción en curso.
+     * @param reservas reservas a insertar.
+     * @throws SQLException si la base de datos rechaza alguna fila del lote.
+     */
+    public void insertarLote(Connection con, List<Reserva> reservas) throws SQLException {
+
+        try (PreparedStatement ps = con.prepareStatement(SQL_INSERTAR)) {
+
+            for (Reserva r : reservas) {
+
+                enlazarInsercion(ps, r);
+                ps.addBatch();
+
+            }
+
+            ps.executeBatch();
+
+        }
+    }
+
+    /**
+     * Asigna los parámetros de {@link #SQL_INSERTAR} a partir de una reserva.
+     */
+    private static void enlazarInsercion(PreparedStatement ps, Reserva r) throws SQLException {
+
+        ps.setInt(1, r.getId_cliente());
+        ps.setInt(2, r.getId_propiedad());
+        ps.setDate(3, r.getFecha_inicio());
+        ps.setDate(4, r.getFecha_fin());
+        ps.setInt(5, r.getNum_personas());
+        ps.setString(6, r.getEstadoReserva().toString().toLowerCase());
+        ps.setDouble(7, r.getPrecio_total());
+        ps.setString(8, r.getMotivo_cancelacion());
+
     }
 
     /**
@@ -182,7 +733,7 @@ public class ReservaDAO {
      * @return Objeto {@link Reserva} construido a partir de los datos obtenidos.
      * @throws SQLException si ocurre un error al leer los datos.
      */
-    private Reserva getReservaFromResultSet(ResultSet rs) throws SQLException {
+    static Reserva getReservaFromResultSet(ResultSet rs) throws SQLException {
 
         Reserva r = new Reserva();
 
@@ -199,4 +750,32 @@ public class ReservaDAO {
         return r;
 
     }
+
+    /**
+     * @param r reserva a copiar.
+     * @return copia independiente de la reserva (incluidas las fechas, que son mutables).
+     */
+    static Reserva copiar(Reserva r) {
+
+        return new Reserva(r.getId_reserva(), r.getId_cliente(), r.getId_propiedad(), copiarFecha(r.getFecha_inicio()),
+                copiarFecha(r.getFecha_fin()), r.getNum_personas(), r.getEstadoReserva(), r.getPrecio_total(),
+                r.getMotivo_cancelacion());
+
+    }
+
+    private static Date copiarFecha(Date fecha) {
+        return fecha == null ? null : new Date(fecha.getTime());
+    }
+
+    /**
+     * Convierte una fila de las consultas de opciones en la opción de una reserva.
+     */
+    private static OpcionEntidad getOpcionFromResultSet(ResultSet rs) throws SQLException {
+
+        return new OpcionEntidad(rs.getInt("id_reserva"), "#" + rs.getInt("id_reserva") + " · "
+                + rs.getString("nombre") + " " + rs.getString("apellidos") + " · " + rs.getString("propiedad") + " · "
+                + rs.getDate("fecha_inicio").toLocalDate().format(FECHA_OPCION) + " - "
+                + rs.getDate("fecha_fin").toLocalDate().format(FECHA_OPCION));
+
+    }
 }
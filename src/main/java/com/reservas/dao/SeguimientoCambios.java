@@ -0,0 +1,189 @@
+package com.reservas.dao;
+
+import com.reservas.config.DataBaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <h1>Seguimiento de cambios de las tablas</h1>
+ *
+ * Permite a las pantallas de listado pedir solo lo que ha cambiado desde su última lectura, en lugar de recargar
+ * la tabla entera tras cada alta, edición o borrado.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>Cada fila guarda en {@code version} el identificador de la transacción que la escribió por última vez,
+ *     y cada borrado deja una marca en {@code cambios_borrados}. Ambos los rellenan disparadores.</li>
+ *     <li>La marca es el {@code xmin} de la instantánea actual: todas las transacciones anteriores a ella han
+ *     terminado. Cada consulta devuelve lo escrito por las transacciones entre la marca anterior y la nueva, así que
+ *     una transacción lenta que confirma tarde no se pierde: se entrega cuando la marca la alcanza.</li>
+ *     <li>Los índices sobre {@code version} hacen que el coste dependa de lo que ha cambiado, no del tamaño de la tabla.</li>
+ * </ul>
+ *
+ * Las marcas de {@code cambios_borrados} pueden purgarse pasado un tiempo; una pantalla que lleve más tiempo
+ * sin refrescar debe recargar la tabla completa.
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public final class SeguimientoCambios {
+
+    // Columnas y disparadores que necesita el seguimiento de cambios (PostgreSQL 13 o superior):
+    /*
+            CREATE TABLE cambios_borrados (
+                tabla      TEXT        NOT NULL,
+                id         INTEGER     NOT NULL,
+                version    BIGINT      NOT NULL DEFAULT pg_current_xact_id()::text::bigint,
+                borrado_en TIMESTAMPTZ NOT NULL DEFAULT now()
+            );
+            CREATE INDEX cambios_borrados_version ON cambios_borrados (tabla, version);
+
+            CREATE FUNCTION marcar_version() RETURNS trigger AS $$
+            BEGIN
+                NEW.version := pg_current_xact_id()::text::bigint;
+                NEW.updated_at := now();
+                RETURN NEW;
+            END $$ LANGUAGE plpgsql;
+
+            CREATE FUNCTION registrar_borrado() RETURNS trigger AS $$
+            BEGIN
+                INSERT INTO cambios_borrados (tabla, id) VALUES (TG_TABLE_NAME, (to_jsonb(OLD) ->> TG_ARGV[0])::int);
+                RETURN OLD;
+            END $$ LANGUAGE plpgsql;
+
+            -- Para cada tabla: clientes (id_cliente), propiedades (id_propiedad), reservas (id_reserva), pagos (id_pago)
+            -- y valoraciones (id_valoracion)
+            ALTER TABLE reservas
+                ADD COLUMN version    BIGINT      NOT NULL DEFAULT 0,
+                ADD COLUMN updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+            CREATE INDEX reservas_version ON reservas (version);
+            CREATE TRIGGER reservas_version BEFORE INSERT OR UPDATE ON reservas
+                FOR EACH ROW EXECUTE FUNCTION marcar_version();
+            CREATE TRIGGER reservas_borrado AFTER DELETE ON reservas
+                FOR EACH ROW EXECUTE FUNCTION registrar_borrado('id_reserva');
+
+            -- Purga periódica de las marcas de borrado antiguas
+            DELETE FROM cambios_borrados WHERE borrado_en < now() - interval '7 days';
+     */
+
+    /**
+     * Número máximo de cambios que se leen de una vez. Si hay más, es más barato recargar la tabla completa.
+     */
+    public static final int MAX_CAMBIOS = 500;
+
+    private static final String SQL_MARCA = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+
+    // La marca nueva y los borrados salen de la misma instantánea: todo lo anterior a la marca ya es visible
+    private static final String SQL_BORRADOS = """
+                                               WITH m AS (SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint AS marca)
+                                               SELECT m.marca, b.id
+                                               FROM m LEFT JOIN LATERAL (
+                                                   SELECT id FROM cambios_borrados
+                                                   WHERE tabla = ? AND version >= ? AND version < m.marca
+                                                   LIMIT ?
+                                               ) b ON true;
+                                               """;
+
+    private SeguimientoCambios() { }
+
+    /**
+     * Lee la marca actual. Debe leerse antes de cargar una tabla completa y usarse en la siguiente consulta de cambios.
+     *
+     * @return La marca actual.
+     */
+    public static long marcaActual() {
+
+        try (Connection con = DataBaseConnection.getInstance().conectarBD();
+             PreparedStatement ps = con.prepareStatement(SQL_MARCA);
+             ResultSet rs = ps.executeQuery()) {
+
+            rs.next();
+            return rs.getLong(1);
+
+        } catch (SQLException e) {
+
+            System.err.println("Error al leer la marca de cambios: " + e.getMessage());
+            throw new RuntimeException(e);
+
+        }
+    }
+
+    /**
+     * Lee las filas escritas y las claves borradas de una tabla desde una marca.
+     *
+     * @param tabla nombre de la tabla.
+     * @param columnas columnas a leer, separadas por comas.
+     * @param clave columna de la clave primaria.
+     * @param desde marca devuelta por la consulta anterior o por {@link #marcaActual()}.
+     * @param lector convierte la fila actual del {@link ResultSet} en un objeto del modelo.
+     * @return Los cambios desde la marca y la marca siguiente.
+     */
+    static <T> Cambios<T> leer(String tabla, String columnas, String clave, long desde, UtilidadesDAO.LectorColumna<T> lector) {
+
+        String query = "SELECT " + columnas + " FROM " + tabla + " WHERE version >= ? AND version < ? ORDER BY " + clave + " LIMIT ?;";
+
+        List<Integer> borradas = new ArrayList<>();
+        List<T> modificadas = new ArrayList<>();
+        long marca = desde;
+
+        try (Connection con = DataBaseConnection.getInstance().conectarBD()) {
+
+            try (PreparedStatement ps = con.prepareStatement(SQL_BORRADOS)) {
+
+                ps.setString(1, tabla);
+                ps.setLong(2, desde);
+                ps.setInt(3, MAX_CAMBIOS + 1);
+
+                try (ResultSet rs = ps.executeQuery()) {
+
+                    while (rs.next()) {
+
+                        marca = rs.getLong(1);
+                        int id = rs.getInt(2);
+
+                        if (!rs.wasNull()) {
+                            borradas.add(id);
+                        }
+                    }
+                }
+            }
+
+            if (borradas.size() > MAX_CAMBIOS) {
+                return new Cambios<>(List.of(), List.of(), marca, true);
+            }
+
+            try (PreparedStatement ps = con.prepareStatement(query)) {
+
+                ps.setLong(1, desde);
+                ps.setLong(2, marca);
+                ps.setInt(3, MAX_CAMBIOS + 1 - borradas.size());
+
+                try (ResultSet rs = ps.executeQuery()) {
+
+                    while (rs.next()) {
+                        modificadas.add(lector.leer(rs));
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+
+            System.err.println("Error al leer los cambios de " + tabla + ": " + e.getMessage());
+            throw new RuntimeException(e);
+
+        }
+
+        if (borradas.size() + modificadas.size() > MAX_CAMBIOS) {
+            return new Cambios<>(List.of(), List.of(), marca, true);
+        }
+
+        return new Cambios<>(Collections.unmodifiableList(modificadas), Collections.unmodifiableList(borradas), marca, false);
+
+    }
+}
@@ -0,0 +1,217 @@
+package com.reservas.dao;
+
+import com.reservas.config.DataBaseConnection;
+import com.reservas.precios.ReglaPrecio;
+
+import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <h1>Clase DAO para las tarifas</h1>
+ *
+ * Lee lo que necesita {@link com.reservas.precios.MotorPrecios} para calcular el precio de las estancias.
+ *
+ * <h2>Responsabilidades principales:</h2>
+ * <ul>
+ *     <li>Leer las reglas de precio de la tabla {@code reglas_precio}.</li>
+ *     <li>Calcular la ocupación de una ciudad en cada noche de un año, para los recargos por ocupación.</li>
+ * </ul>
+ *
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+public class TarifaDAO {
+
+    // Tabla de reglas de precio. Las columnas que usa cada tipo se indican en ReglaPrecio; el resto quedan a NULL:
+    /*
+            CREATE TABLE reglas_precio (
+                id_regla           SERIAL PRIMARY KEY,
+                id_propiedad       INTEGER REFERENCES propiedades (id_propiedad) ON DELETE CASCADE, -- NULL: todas
+                tipo               TEXT NOT NULL
+                                   CHECK (tipo IN ('temporada', 'dias_semana', 'ocupacion', 'estancia', 'huesped')),
+                nombre             TEXT,
+                fecha_desde        DATE,          -- temporada
+                fecha_hasta        DATE,          -- temporada (incluida)
+                dias_semana        TEXT,          -- dias_semana: ISO separados por comas, 1 = lunes ... 7 = domingo
+                umbral             NUMERIC(4, 3), -- ocupacion: fracción de 0 a 1
+                min_noches         INTEGER,       -- estancia
+                personas_incluidas INTEGER,       -- huesped
+                factor             NUMERIC(6, 3), -- temporada, dias_semana, ocupacion, estancia
+                importe            NUMERIC(10, 2) -- huesped: euros por noche y huésped extra
+            );
+
+            -- Ejemplo: temporada alta, fines de semana, semana larga, ciudad llena y huésped extra
+            INSERT INTO reglas_precio (tipo, nombre, fecha_desde, fecha_hasta, factor)
+                VALUES ('temporada', 'Alta', '2026-07-01', '2026-08-31', 1.30);
+            INSERT INTO reglas_precio (tipo, dias_semana, factor) VALUES ('dias_semana', '5,6', 1.15);
+            INSERT INTO reglas_precio (tipo, min_noches, factor) VALUES ('estancia', 7, 0.90);
+            INSERT INTO reglas_precio (tipo, umbral, factor) VALUES ('ocupacion', 0.80, 1.20);
+            INSERT INTO reglas_precio (tipo, personas_incluidas, importe) VALUES ('huesped', 2, 15);
+     */
+
+    private static final String SQL_REGLAS = """
+            SELECT id_regla, id_propiedad, tipo, nombre, fecha_desde, fecha_hasta, dias_semana, umbral, min_noches,
+                   personas_incluidas, factor, importe
+            FROM reglas_precio
+            ORDER BY id_regla
+            """;
+
+    // Propiedades de la ciudad con una reserva activa cada noche del año, como fracción de las propiedades de la ciudad
+    private static final String SQL_OCUPACION_CIUDAD = """
+            WITH ciudad AS (
+                SELECT id_propiedad FROM propiedades WHERE ciudad = ?
+            )
+            SELECT n::date - ?::date AS dia,
+                   COUNT(DISTINCT r.id_propiedad)::float8 / (SELECT COUNT(*) FROM ciudad) AS ocupacion
+            FROM reservas r
+            JOIN ciudad c ON c.id_propiedad = r.id_propiedad
+            CROSS JOIN LATERAL generate_series(GREATEST(r.fecha_inicio, ?::date), LEAST(r.fecha_fin, ?::date) - 1,
+                                               INTERVAL '1 day') AS n
+            WHERE r.estado IN ('confirmada', 'pendiente') AND r.fecha_inicio < ? AND r.fecha_fin > ?
+            GROUP BY n
+            """;
+
+    /**
+     * Lee todas las reglas de precio.
+     *
+     * @return lista no modificable de reglas, en el orden en que se crearon.
+     */
+    public List<ReglaPrecio> leerReglas() {
+
+        List<ReglaPrecio> reglas = new ArrayList<>();
+
+        try (Connection con = DataBaseConnection.getInstance().conectarBD();
+             PreparedStatement ps = con.prepareStatement(SQL_REGLAS);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+
+                try {
+
+                    reglas.add(getReglaFromResultSet(rs));
+
+                } catch (IllegalArgumentException e) {
+
+                    // Una regla mal configurada no debe impedir presupuestar con las demás
+                    System.err.println("Regla de precio " + rs.getInt("id_regla") + " ignorada: " + e.getMessage());
+
+                }
+            }
+
+        } catch (SQLException e) {
+
+            System.err.println("Error al leer las reglas de precio: " + e.getMessage());
+            throw new RuntimeException("No se han podido leer las reglas de precio", e);
+
+        }
+
+        return Collections.unmodifiableList(reglas);
+    }
+
+    /**
+     * Calcula qué fracción de las propiedades de una ciudad tiene una reserva activa cada noche del año.
+     *
+     * @param ciudad ciudad de las propiedades.
+     * @param anio año.
+     * @return un valor entre 0 y 1 por cada noche del año (0 = 1 de enero).
+     */
+    public double[] leerOcupacionCiudad(String ciudad, int anio) {
+
+        double[] ocupacion = new double[Year.of(anio).length()];
+        Date inicio = Date.valueOf(LocalDate.ofYearDay(anio, 1));
+        Date fin = Date.valueOf(LocalDate.ofYearDay(anio + 1, 1));
+
+        try (Connection con = DataBaseConnection.getInstance().conectarBD();
+             PreparedStatement ps = con.prepareStatement(SQL_OCUPACION_CIUDAD)) {
+
+            ps.setString(1, ciudad);
+            ps.setDate(2, inicio);
+            ps.setDate(3, inicio);
+            ps.setDate(4, fin);
+            ps.setDate(5, fin);
+            ps.setDate(6, inicio);
+
+            try (ResultSet rs = ps.executeQuery()) {
+
+                while (rs.next()) {
+                    ocupacion[rs.getInt("dia")] = rs.getDouble("ocupacion");
+                }
+            }
+
+        } catch (SQLException e) {
+
+            System.err.println("Error al calcular la ocupación de " + ciudad + " en " + anio + ": " + e.getMessage());
+            throw new RuntimeException("No se ha podido calcular la ocupación de " + ciudad, e);
+
+        }
+
+        return ocupacion;
+    }
+
+    /**
+     * Convierte la fila actual en la regla de su tipo.
+     *
+     * @throws IllegalArgumentException si el tipo no existe o faltan columnas.
+     */
+    private static ReglaPrecio getReglaFromResultSet(ResultSet rs) throws SQLException {
+
+        int id = rs.getInt("id_propiedad");
+        Integer idPropiedad = rs.wasNull() ? null : id;
+        String tipo = rs.getString("tipo");
+
+        return switch (tipo) {
+
+            case "temporada" -> new ReglaPrecio.Temporada(idPropiedad, rs.getString("nombre"),
+                    fecha(rs, "fecha_desde"), fecha(rs, "fecha_hasta"), rs.getDouble("factor"));
+            case "dias_semana" -> new ReglaPrecio.DiasSemana(idPropiedad, dias(rs.getString("dias_semana")),
+                    rs.getDouble("factor"));
+            case "ocupacion" -> new ReglaPrecio.RecargoOcupacion(idPropiedad, rs.getDouble("umbral"), rs.getDouble("factor"));
+            case "estancia" -> new ReglaPrecio.DescuentoEstancia(idPropiedad, rs.getInt("min_noches"), rs.getDouble("factor"));
+            case "huesped" -> new ReglaPrecio.SuplementoHuesped(idPropiedad, rs.getInt("personas_incluidas"),
+                    rs.getDouble("importe"));
+            default -> throw new IllegalArgumentException("Tipo de regla desconocido: " + tipo);
+
+        };
+    }
+
+    private static LocalDate fecha(ResultSet rs, String columna) throws SQLException {
+
+        Date fecha = rs.getDate(columna);
+        return fecha == null ? null : fecha.toLocalDate();
+
+    }
+
+    /**
+     * Convierte una lista de días ISO separados por comas ("5,6") en días de la semana.
+     */
+    private static Set<DayOfWeek> dias(String texto) {
+
+        Set<DayOfWeek> dias = EnumSet.noneOf(DayOfWeek.class);
+
+        if (texto == null) {
+            return dias;
+        }
+
+        for (String dia : texto.split(",")) {
+
+            try {
+
+                dias.add(DayOfWeek.of(Integer.parseInt(dia.trim())));
+
+            } catch (RuntimeException e) {
+
+                throw new IllegalArgumentException("Día de la semana no válido: " + dia);
+
+            }
+        }
+
+        return dias;
+    }
+}
@@ -0,0 +1,173 @@
+package com.reservas.dao;
+
+import com.reservas.busqueda.OpcionEntidad;
+import com.reservas.config.DataBaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>Utilidades comunes de los DAO</h1>
+ *
+ * Agrupa consultas auxiliares que comparten todos los DAO, como los recuentos, los totales agrupados
+ * y los saltos sobre la clave primaria que utiliza la paginación por clave.
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+final class UtilidadesDAO {
+
+    /**
+     * Tiempo durante el que los recuentos y totales de las cabeceras se sirven desde caché.
+     * Las escrituras realizadas desde la aplicación los invalidan antes.
+     */
+    static final Duration VIGENCIA_TOTALES = Duration.ofSeconds(30);
+
+    /**
+     * Tiempo y número máximo de entidades que cada DAO guarda en su {@link com.reservas.cache.CacheEntidades}.
+     * Las escrituras hechas desde la aplicación se reflejan al instante; la vigencia acota cuánto tardan en verse
+     * los cambios hechos desde fuera.
+     */
+    static final Duration VIGENCIA_ENTIDADES = Duration.ofMinutes(5);
+    static final int CAPACIDAD_ENTIDADES = 2_000;
+
+    private UtilidadesDAO() { }
+
+    /**
+     * Lee un valor de la fila actual de un {@link ResultSet}.
+     *
+     * @param <T> tipo del valor leído.
+     */
+    @FunctionalInterface
+    interface LectorColumna<T> {
+        T leer(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Ejecuta una consulta que devuelve un único valor entero (un {@code COUNT(*)} o una clave).
+     *
+     * @param query sentencia SQL con parámetros {@code ?}.
+     * @param parametros valores enteros de los parámetros, en orden.
+     * @return El valor de la primera columna de la primera fila, o {@code -1} si la consulta no devuelve filas.
+     */
+    static int consultarEntero(String query, int... parametros) {
+
+        try (Connection con = DataBaseConnection.getInstance().conectarBD(); PreparedStatement ps = con.prepareStatement(query)) {
+
+            for (int i = 0; i < parametros.length; i++) {
+                ps.setInt(i + 1, parametros[i]);
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+
+        } catch (SQLException e) {
+
+            System.err.println("Error en la consulta auxiliar: " + e.getMessage());
+            throw new RuntimeException(e);
+
+        }
+    }
+
+    /**
+     * Ejecuta una consulta agrupada ({@code GROUP BY}) y vuelca cada fila como una entrada del mapa indicado.
+     *
+     * @param query sentencia SQL sin parámetros.
+     * @param destino mapa donde se guardan los resultados (puede venir ya inicializado con valores a cero).
+     * @param clave lector de la columna de agrupación.
+     * @param valor lector del valor agregado.
+     * @return Vista no modificable del mapa {@code destino}.
+     */
+    static <K, V> Map<K, V> consultarMapa(String query, Map<K, V> destino, LectorColumna<K> clave, LectorColumna<V> valor) {
+
+        try (Connection con = DataBaseConnection.getInstance().conectarBD();
+             PreparedStatement ps = con.prepareStatement(query);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                destino.put(clave.leer(rs), valor.leer(rs));
+            }
+
+        } catch (SQLException e) {
+
+            System.err.println("Error en la consulta agrupada: " + e.getMessage());
+            throw new RuntimeException(e);
+
+        }
+
+        return Collections.unmodifiableMap(destino);
+    }
+
+    /**
+     * Ejecuta una consulta de opciones para las listas de selección de los formularios.
+     *
+     * @param query sentencia SQL con parámetros {@code ?}.
+     * @param lector conversión de la fila actual en una opción.
+     * @param parametros valores de los parámetros, en orden.
+     * @return Lista no modificable de opciones.
+     */
+    static List<OpcionEntidad> consultarOpciones(String query, LectorColumna<OpcionEntidad> lector, Object... parametros) {
+
+        List<OpcionEntidad> opciones = new ArrayList<>();
+
+        try (Connection con = DataBaseConnection.getInstance().conectarBD(); PreparedStatement ps = con.prepareStatement(query)) {
+
+            for (int i = 0; i < parametros.length; i++) {
+                ps.setObject(i + 1, parametros[i]);
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+
+                while (rs.next()) {
+                    opciones.add(lector.leer(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+
+            System.err.println("Error al buscar opciones: " + e.getMessage());
+            throw new RuntimeException(e);
+
+        }
+
+        return Collections.unmodifiableList(opciones);
+    }
+
+    /**
+     * Convierte un texto en un patrón {@code ILIKE} que encuentra los valores que empiezan por él.
+     * Los comodines que escriba el usuario se buscan literalmente.
+     *
+     * @param texto texto escrito por el usuario.
+     * @return el patrón.
+     */
+    static String patronPrefijo(String texto) {
+
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+
+    }
+
+    /**
+     * @param texto texto escrito por el usuario.
+     * @return el número escrito, para buscar también por ID, o {@code -1} si el texto no es un número.
+     */
+    static int idEscrito(String texto) {
+
+        try {
+
+            return Integer.parseInt(texto);
+
+        } catch (NumberFormatException e) {
+
+            return -1;
+
+        }
+    }
+}
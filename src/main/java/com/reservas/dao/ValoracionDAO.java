@@ -1,9 +1,12 @@
 package com.reservas.dao;
 
+import com.reservas.cache.CacheEntidades;
+import com.reservas.config.DataBaseConnection;
 import com.reservas.model.Valoracion;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -23,6 +26,8 @@ import java.util.List;
  *     <li>Eliminar valoraciones por ID.</li>
  *     <li>Buscar valoraciones por ID de reserva o de valoración.</li>
  *     <li>Listar todas las valoraciones.</li>
+ *     <li>Leer valoraciones por páginas mediante paginación por clave.</li>
+ *     <li>Mantener una caché de las valoraciones de cada reserva que se actualiza con cada escritura.</li>
  * </ul>
  *
  * @author Sofía Abid
@@ -30,16 +35,12 @@ import java.util.List;
  */
 public class ValoracionDAO {
 
-    private final Connection conexion;
+    // Columnas que lee getValoracionFromResultSet
+    private static final String COLUMNAS = "id_valoracion, id_reserva, puntuacion, comentario, anonima, fecha_valoracion";
 
-    /**
-     * Constructor que recibe una conexión activa a la base de datos.
-     *
-     * @param conexion objeto {@link Connection} ya inicializado.
-     */
-    public ValoracionDAO(Connection conexion) {
-        this.conexion = conexion;
-    }
+    private static final CacheEntidades<Integer, List<Valoracion>> VALORACIONES_POR_RESERVA = CacheEntidades.crear(
+            "Valoraciones (reserva)", UtilidadesDAO.CAPACIDAD_ENTIDADES, UtilidadesDAO.VIGENCIA_ENTIDADES,
+            ValoracionDAO::copiar);
 
     /**
      * Inserta una nueva valoración en la base de datos.
@@ -54,7 +55,8 @@ public class ValoracionDAO {
                 VALUES (?, ?, ?, ?, ?);
                 """;
 
-        try (PreparedStatement ps = conexion.prepareStatement(query)) {
+        try (Connection conexion = DataBaseConnection.getInstance().conectarBD();
+             PreparedStatement ps = conexion.prepareStatement(query)) {
 
             ps.setInt(1, valoracion.getReserva());
             ps.setInt(2, valoracion.getPuntuacion());
@@ -63,6 +65,8 @@ public class ValoracionDAO {
             ps.setTimestamp(5, Timestamp.valueOf(valoracion.getFechaValoracion()));
 
             ps.executeUpdate();
+            VALORACIONES_POR_RESERVA.quitar(valoracion.getReserva());
+
             return true;
 
         } catch (SQLException e) {
@@ -76,7 +80,7 @@ public class ValoracionDAO {
     /**
      * Obtiene todas las valoraciones almacenadas en la base de datos.
      *
-     * @return Lista de objetos {@link Valoracion}.
+     * @return Lista no modificable de objetos {@link Valoracion}.
      */
     public List<Valoracion> leerValoraciones() {
 
@@ -87,31 +91,19 @@ public class ValoracionDAO {
                 FROM valoraciones;
                 """;
 
-        try (Statement st = conexion.createStatement();
+        try (Connection conexion = DataBaseConnection.getInstance().conectarBD();
+             Statement st = conexion.createStatement();
              ResultSet rs = st.executeQuery(query)) {
 
             while (rs.next()) {
 
-                int idValoracion = rs.getInt("id_valoracion");
-                int idReserva = rs.getInt("id_reserva");
-                int puntuacion = rs.getInt("puntuacion");
-                String comentario = rs.getString("comentario");
-                boolean anonima = rs.getBoolean("anonima");
-                Timestamp fechaTS = rs.getTimestamp("fecha_valoracion");
-
-                Valoracion val = new Valoracion(idValoracion, idReserva, puntuacion, comentario, anonima);
-
-                if (fechaTS != null){
-                    val.setFechaValoracion(fechaTS.toLocalDateTime());
-                }
-
-                valoraciones.add(val);
+                valoraciones.add(getValoracionFromResultSet(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error al leer las valoraciones: " + e.getMessage());
         }
 
-        return valoraciones;
+        return Collections.unmodifiableList(valoraciones);
     }
 
     /**
@@ -124,10 +116,14 @@ public class ValoracionDAO {
 
         String query = "DELETE FROM valoraciones WHERE id_valoracion = ?;";
 
-        try (PreparedStatement ps = conexion.prepareStatement(query)) {
+        try (Connection conexion = DataBaseConnection.getInstance().conectarBD();
+             PreparedStatement ps = conexion.prepareStatement(query)) {
 
             ps.setInt(1, valoracion.getId());
-            return ps.executeUpdate() > 0;
+            boolean eliminada = ps.executeUpdate() > 0;
+            olvidarValoracion(valoracion.getId());
+
+            return eliminada;
 
         } catch (SQLException e) {
 
@@ -151,7 +147,8 @@ public class ValoracionDAO {
                 WHERE id_valoracion = ?;
                 """;
 
-        try (PreparedStatement ps = conexion.prepareStatement(query)) {
+        try (Connection conexion = DataBaseConnection.getInstance().conectarBD();
+             PreparedStatement ps = conexion.prepareStatement(query)) {
 
             ps.setInt(1, valoracion.getReserva());
             ps.setInt(2, valoracion.getPuntuacion());
@@ -159,10 +156,18 @@ public class ValoracionDAO {
             ps.setBoolean(4, valoracion.isAnonimato());
             ps.setInt(5, valoracion.getId());
 
-            return ps.executeUpdate() > 0;
+            boolean modificada = ps.executeUpdate() > 0;
+
+            // La valoración puede haber cambiado de reserva: se descartan la lista anterior y la nueva
+            olvidarValoracion(valoracion.getId());
+            VALORACIONES_POR_RESERVA.quitar(valoracion.getReserva());
+
+            return modificada;
 
         } catch (SQLException e) {
 
+            olvidarValoracion(valoracion.getId());
+
             System.err.println("Error al modificar la valoración: " + e.getMessage());
             return false;
 
@@ -170,18 +175,33 @@ public class ValoracionDAO {
     }
 
     /**
-     * Busca todas las valoraciones asociadas a una reserva específica.
+     * Busca todas las valoraciones asociadas a una reserva específica. Se sirve desde la caché si la reserva
+     * se había consultado recientemente y sus valoraciones no han cambiado desde entonces.
      *
      * @param idReserva ID de la reserva a buscar.
-     * @return Lista de valoraciones correspondientes a esa reserva.
+     * @return Lista no modificable de valoraciones correspondientes a esa reserva.
      */
     public List<Valoracion> buscarPorIDReserva(int idReserva) {
 
+        List<Valoracion> valoraciones = VALORACIONES_POR_RESERVA.obtener(idReserva, this::consultarPorIDReserva);
+        return valoraciones == null ? List.of() : Collections.unmodifiableList(valoraciones);
+
+    }
+
+    /**
+     * Consulta en la base de datos las valoraciones de una reserva.
+     *
+     * @param idReserva ID de la reserva a buscar.
+     * @return Lista de valoraciones (vacía si no tiene), o {@code null} si la consulta falla y no debe guardarse.
+     */
+    private List<Valoracion> consultarPorIDReserva(int idReserva) {
+
         List<Valoracion> valoraciones = new ArrayList<>();
 
         String query = "SELECT * FROM valoraciones WHERE id_reserva = ?;";
 
-        try (PreparedStatement ps = conexion.prepareStatement(query)) {
+        try (Connection conexion = DataBaseConnection.getInstance().conectarBD();
+             PreparedStatement ps = conexion.prepareStatement(query)) {
 
             ps.setInt(1, idReserva);
             ResultSet rs = ps.executeQuery();
@@ -202,10 +222,180 @@ public class ValoracionDAO {
 
             }
         } catch (SQLException e) {
+
             System.err.println("Error al buscar por ID de reserva: " + e.getMessage());
+            return null;
+
         }
 
         return valoraciones;
     }
 
+
+    /**
+     * Obtiene una página de valoraciones ordenada por {@code id_valoracion} mediante paginación por clave.
+     *
+     * @param despuesDeId último {@code id_valoracion} de la página anterior ({@code 0} para la primera).
+     * @param limite número máximo de filas a devolver.
+     * @return Lista no modificable de objetos {@link Valoracion} de la página.
+     */
+    public List<Valoracion> leerValoracionesPagina(int despuesDeId, int limite) {
+
+        List<Valoracion> resultado = new ArrayList<>(limite);
+
+        String query = """
+                       SELECT id_valoracion, id_reserva, puntuacion, comentario, anonima, fecha_valoracion
+                       FROM valoraciones
+                       WHERE id_valoracion > ?
+                       ORDER BY id_valoracion
+                       LIMIT ?;
+                       """;
+
+        try (Connection con = DataBaseConnection.getInstance().conectarBD(); PreparedStatement ps = con.prepareStatement(query)) {
+
+            ps.setInt(1, despuesDeId);
+            ps.setInt(2, limite);
+
+            try (ResultSet rs = ps.executeQuery()) {
+
+                while (rs.next()) {
+
+                    resultado.add(getValoracionFromResultSet(rs));
+
+                }
+            }
+
+        } catch (SQLException e) {
+
+            System.err.println("Error al leer la página de valoraciones: " + e.getMessage());
+            throw new RuntimeException(e);
+
+        }
+
+        return Collections.unmodifiableList(resultado);
+
+    }
+
+    /**
+     * Obtiene el {@code id_valoracion} situado {@code salto} filas por detrás de {@code despuesDeId}.
+     * Solo recorre el índice de la clave primaria, por lo que sirve para saltar a páginas lejanas.
+     *
+     * @param despuesDeId clave de partida.
+     * @param salto número de filas a saltar.
+     * @return El {@code id_valoracion} encontrado, o {@code -1} si no hay tantas filas.
+     */
+    public int idValoracionTrasSaltar(int despuesDeId, int salto) {
+
+        String query = """
+                       SELECT id_valoracion FROM valoraciones WHERE id_valoracion > ? ORDER BY id_valoracion OFFSET ? LIMIT 1;
+                       """;
+
+        return UtilidadesDAO.consultarEntero(query, despuesDeId, salto);
+
+    }
+
+    /**
+     * Cuenta las filas de la tabla {@code valoraciones}.
+     *
+     * @return Número total de valoraciones.
+     */
+    public int contarValoraciones() {
+
+        return UtilidadesDAO.consultarEntero("SELECT COUNT(*) FROM valoraciones;");
+
+    }
+
+    /**
+     * Convierte una fila del {@link ResultSet} en un objeto {@link Valoracion}.
+     *
+     * @param rs ResultSet posicionado en la fila a convertir.
+     * @return Objeto {@link Valoracion} construido a partir de los datos obtenidos.
+     * @throws SQLException si ocurre un error al leer los datos.
+     */
+    static Valoracion getValoracionFromResultSet(ResultSet rs) throws SQLException {
+
+        Valoracion val = new Valoracion(rs.getInt("id_valoracion"), rs.getInt("id_reserva"), rs.getInt("puntuacion"),
+                rs.getString("comentario"), rs.getBoolean("anonima"));
+
+        Timestamp fechaTS = rs.getTimestamp("fecha_valoracion");
+
+        if (fechaTS != null) {
+            val.setFechaValoracion(fechaTS.toLocalDateTime());
+        }
+
+        return val;
+
+    }
+
+    /**
+     * Obtiene las valoraciones escritas y borradas desde una marca de {@link SeguimientoCambios}.
+     * Los cambios pueden venir de otros equipos, así que se descartan de la caché las listas afectadas.
+     *
+     * @param desde marca devuelta por la consulta anterior.
+     * @return Los cambios desde la marca.
+     */
+    public Cambios<Valoracion> leerCambiosValoraciones(long desde) {
+
+        Cambios<Valoracion> cambios = SeguimientoCambios.leer("valoraciones", COLUMNAS, "id_valoracion", desde,
+                ValoracionDAO::getValoracionFromResultSet);
+
+        if (cambios.desbordado()) {
+
+            invalidarCache();
+
+        } else if (!cambios.vacio()) {
+
+            cambios.modificadas().forEach(v -> {
+
+                VALORACIONES_POR_RESERVA.quitar(v.getReserva());
+                olvidarValoracion(v.getId());
+
+            });
+            cambios.borradas().forEach(ValoracionDAO::olvidarValoracion);
+
+        }
+
+        return cambios;
+
+    }
+
+    /**
+     * Vacía la caché de valoraciones, por ejemplo tras cambios hechos fuera de la aplicación.
+     */
+    public static void invalidarCache() {
+
+        VALORACIONES_POR_RESERVA.vaciar();
+
+    }
+
+    /**
+     * Descarta de la caché las listas que contienen una valoración.
+     *
+     * @param idValoracion ID de la valoración modificada o eliminada.
+     */
+    private static void olvidarValoracion(int idValoracion) {
+
+        VALORACIONES_POR_RESERVA.quitarSi((idReserva, lista) -> lista.stream().anyMatch(v -> v.getId() == idValoracion));
+
+    }
+
+    /**
+     * @param valoraciones lista a copiar.
+     * @return copia independiente de la lista y de cada valoración, para guardarla o entregarla desde la caché.
+     */
+    static List<Valoracion> copiar(List<Valoracion> valoraciones) {
+
+        List<Valoracion> copia = new ArrayList<>(valoraciones.size());
+
+        for (Valoracion v : valoraciones) {
+
+            Valoracion val = new Valoracion(v.getId(), v.getReserva(), v.getPuntuacion(), v.getComentario(), v.isAnonimato());
+            val.setFechaValoracion(v.getFechaValoracion());
+            copia.add(val);
+
+        }
+
+        return copia;
+    }
+
 }
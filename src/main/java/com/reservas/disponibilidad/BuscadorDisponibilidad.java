@@ -0,0 +1,220 @@
+package com.reservas.disponibilidad;
+
+import com.reservas.dao.PropiedadDAO;
+import com.reservas.model.Propiedad;
+import com.reservas.precios.MotorPrecios;
+import com.reservas.precios.Presupuesto;
+import com.reservas.util.ValorCacheado;
+
+import java.io.Serial;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * <h1>Buscador masivo de disponibilidad</h1>
+ *
+ * Encuentra todas las propiedades libres para un rango de fechas y un tamaño de grupo, opcionalmente filtradas
+ * por ciudad, país y precio máximo, y las devuelve ordenadas por {@link ResultadoBusqueda#ORDEN}. El precio de
+ * cada una es el presupuesto de {@link MotorPrecios}, así que la búsqueda muestra lo mismo que se cobra al reservar.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>{@link IndicePropiedades} reduce los candidatos por ciudad/país y capacidad sin recorrer todas las propiedades.</li>
+ *     <li>{@link MotorDisponibilidad} precarga con una consulta los índices de reservas de los candidatos.</li>
+ *     <li>Solo se presupuestan las propiedades libres; con las tarifas ya compiladas, cada presupuesto es una resta
+ *     de sumas acumuladas por año ({@link com.reservas.precios.TarifaAnual}).</li>
+ *     <li>Los candidatos se reparten en tareas fork/join; cada tarea comprueba los suyos, los ordena y se queda
+ *     con los mejores, y las tareas se combinan mezclando listas ya ordenadas.</li>
+ * </ul>
+ * La lista de propiedades se guarda en caché durante {@link #VIGENCIA_PROPIEDADES}.
+ * Las propiedades en {@code mantenimiento} nunca se ofrecen.
+ *
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+public class BuscadorDisponibilidad {
+
+    public static final Duration VIGENCIA_PROPIEDADES = Duration.ofMinutes(1);
+
+    private static final int UMBRAL_DIVISION = 256;
+    private static final String ESTADO_MANTENIMIENTO = "mantenimiento";
+
+    private static volatile BuscadorDisponibilidad instancia;
+
+    private final ValorCacheado<IndicePropiedades> indice;
+    private final MotorDisponibilidad motor;
+    private final MotorPrecios precios;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param fuente función que devuelve todas las propiedades.
+     * @param motor motor con las reservas activas de cada propiedad.
+     * @param precios motor que presupuesta cada propiedad libre.
+     * @param pool pool fork/join donde se evalúan los candidatos.
+     */
+    public BuscadorDisponibilidad(Supplier<List<Propiedad>> fuente, MotorDisponibilidad motor, MotorPrecios precios,
+                                  ForkJoinPool pool) {
+
+        this.indice = new ValorCacheado<>(VIGENCIA_PROPIEDADES, () -> new IndicePropiedades(fuente.get()));
+        this.motor = motor;
+        this.precios = precios;
+        this.pool = pool;
+
+    }
+
+    /**
+     * Devuelve el buscador compartido por la aplicación, que lee las propiedades mediante {@link PropiedadDAO},
+     * presupuesta con el {@link MotorPrecios} compartido y evalúa en el pool común de fork/join.
+     *
+     * @return la instancia única del buscador.
+     */
+    public static BuscadorDisponibilidad getInstance() {
+
+        if (instancia == null) {
+
+            synchronized (BuscadorDisponibilidad.class) {
+
+                if (instancia == null) {
+
+                    PropiedadDAO dao = new PropiedadDAO();
+                    instancia = new BuscadorDisponibilidad(dao::leerPropiedades, MotorDisponibilidad.getInstance(),
+                            MotorPrecios.getInstance(), ForkJoinPool.commonPool());
+
+                }
+            }
+        }
+
+        return instancia;
+    }
+
+    /**
+     * Busca las propiedades libres que cumplen los criterios.
+     *
+     * @param criterios filtros de la búsqueda.
+     * @return Como mucho {@code criterios.maxResultados()} resultados, ordenados del más barato al más caro.
+     */
+    public List<ResultadoBusqueda> buscar(CriteriosBusqueda criterios) {
+
+        IndicePropiedades propiedades = indice.get();
+        int[] candidatos = propiedades.candidatos(criterios.ciudad(), criterios.pais(), criterios.personas());
+
+        int[] ids = new int[candidatos.length];
+
+        for (int i = 0; i < candidatos.length; i++) {
+            ids[i] = propiedades.en(candidatos[i]).getIdPropiedad();
+        }
+
+        motor.precargar(ids);
+
+        return pool.invoke(new Evaluacion(propiedades, candidatos, 0, candidatos.length, criterios));
+    }
+
+    /**
+     * Descarta la lista de propiedades en caché para que la siguiente búsqueda la vuelva a leer.
+     */
+    public void invalidarPropiedades() {
+
+        indice.invalidar();
+
+    }
+
+    /**
+     * Tarea fork/join que evalúa un tramo de candidatos y devuelve sus mejores resultados ya ordenados.
+     */
+    private final class Evaluacion extends RecursiveTask<List<ResultadoBusqueda>> {
+
+        // ForkJoinTask es Serializable, pero las tareas solo viven en el pool de este proceso y nunca se serializan
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient IndicePropiedades propiedades;
+        private final int[] candidatos;
+        private final int desde;
+        private final int hasta;
+        private final transient CriteriosBusqueda criterios;
+
+        Evaluacion(IndicePropiedades propiedades, int[] candidatos, int desde, int hasta, CriteriosBusqueda criterios) {
+
+            this.propiedades = propiedades;
+            this.candidatos = candidatos;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.criterios = criterios;
+
+        }
+
+        @Override
+        protected List<ResultadoBusqueda> compute() {
+
+            if (hasta - desde <= UMBRAL_DIVISION) {
+                return evaluarTramo();
+            }
+
+            int medio = (desde + hasta) >>> 1;
+
+            Evaluacion izquierda = new Evaluacion(propiedades, candidatos, desde, medio, criterios);
+            Evaluacion derecha = new Evaluacion(propiedades, candidatos, medio, hasta, criterios);
+
+            izquierda.fork();
+            List<ResultadoBusqueda> resultadoDerecha = derecha.compute();
+
+            return mezclar(izquierda.join(), resultadoDerecha);
+        }
+
+        private List<ResultadoBusqueda> evaluarTramo() {
+
+            List<ResultadoBusqueda> libres = new ArrayList<>();
+            int noches = criterios.noches();
+
+            for (int i = desde; i < hasta; i++) {
+
+                Propiedad p = propiedades.en(candidatos[i]);
+
+                if (ESTADO_MANTENIMIENTO.equalsIgnoreCase(p.getEstado_propiedad())
+                        || !propiedades.coincidePais(candidatos[i], criterios.pais())
+                        || !motor.estaLibre(p.getIdPropiedad(), criterios.desde(), criterios.hasta())) {
+                    continue;
+                }
+
+                // El precio máximo se compara con la media por noche del presupuesto, no con la tarifa base:
+                // las temporadas y descuentos pueden dejarla por encima o por debajo
+                Presupuesto presupuesto = precios.presupuestar(p, criterios.desde(), criterios.hasta(), criterios.personas());
+
+                if (criterios.precioMaximoNoche() == null || presupuesto.mediaNoche() <= criterios.precioMaximoNoche()) {
+                    libres.add(new ResultadoBusqueda(p, noches, presupuesto.total()));
+                }
+            }
+
+            libres.sort(ResultadoBusqueda.ORDEN);
+
+            return libres.size() > criterios.maxResultados() ? new ArrayList<>(libres.subList(0, criterios.maxResultados())) : libres;
+        }
+
+        /**
+         * Mezcla dos listas ordenadas conservando como mucho {@code maxResultados} elementos.
+         */
+        private List<ResultadoBusqueda> mezclar(List<ResultadoBusqueda> a, List<ResultadoBusqueda> b) {
+
+            int limite = Math.min(a.size() + b.size(), criterios.maxResultados());
+            List<ResultadoBusqueda> mezcla = new ArrayList<>(limite);
+
+            int i = 0;
+            int j = 0;
+
+            while (mezcla.size() < limite) {
+
+                if (j >= b.size() || (i < a.size() && ResultadoBusqueda.ORDEN.compare(a.get(i), b.get(j)) <= 0)) {
+                    mezcla.add(a.get(i++));
+                } else {
+                    mezcla.add(b.get(j++));
+                }
+            }
+
+            return mezcla;
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.reservas.disponibilidad;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.Optional;
+
+/**
+ * <h1>Calendario de ocupación de una propiedad durante un año</h1>
+ *
+ * Mapa de bits con un bit por noche del año: el bit {@code d} está a 1 si la noche que empieza el día {@code d}
+ * (0 = 1 de enero) está ocupada por una reserva activa. Un año cabe en seis {@code long}.
+ *
+ * <h2>Características principales:</h2>
+ * <ul>
+ *     <li>Se obtiene de {@link MotorDisponibilidad#calendario(int, int)}, que lo deriva del índice de reservas de la
+ *     propiedad y lo actualiza con cada alta o baja sin volver a recorrer las reservas.</li>
+ *     <li>Las consultas de rangos y de huecos trabajan con palabras de 64 noches, no noche a noche.</li>
+ *     <li>Es inmutable: cada cambio devuelve un calendario nuevo, así que se puede leer desde cualquier hilo.</li>
+ * </ul>
+ *
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+public final class CalendarioOcupacion {
+
+    private final int anio;
+    private final int dias;
+    private final long primerDia;
+    private final long[] palabras;
+
+    private CalendarioOcupacion(int anio, long[] palabras) {
+
+        this.anio = anio;
+        this.dias = Year.of(anio).length();
+        this.primerDia = LocalDate.ofYearDay(anio, 1).toEpochDay();
+        this.palabras = palabras;
+
+    }
+
+    /**
+     * Construye el calendario de un año marcando las estancias del índice que caen en él.
+     *
+     * @param indice índice de reservas de la propiedad.
+     * @param anio año.
+     * @return el calendario.
+     */
+    static CalendarioOcupacion de(IndiceReservas indice, int anio) {
+
+        CalendarioOcupacion calendario = new CalendarioOcupacion(anio, new long[(Year.of(anio).length() + 63) >>> 6]);
+        calendario.marcarEstancias(calendario.palabras, indice, calendario.primerDia, calendario.primerDia + calendario.dias);
+
+        return calendario;
+    }
+
+    /**
+     * Devuelve un calendario con las noches de {@code [inicio, fin)} ocupadas.
+     *
+     * @param inicio día de entrada (época Unix en días).
+     * @param fin día de salida (época Unix en días).
+     * @return el nuevo calendario, o este mismo si la estancia no toca el año.
+     */
+    CalendarioOcupacion con(int inicio, int fin) {
+
+        int desde = recortar(inicio);
+        int hasta = recortar(fin);
+
+        if (desde >= hasta) {
+            return this;
+        }
+
+        long[] copia = palabras.clone();
+        poner(copia, desde, hasta, true);
+
+        return new CalendarioOcupacion(anio, copia);
+    }
+
+    /**
+     * Devuelve un calendario sin la estancia {@code [inicio, fin)}. Las noches de ese rango que sigan ocupadas por
+     * otras estancias del índice se vuelven a marcar.
+     *
+     * @param inicio día de entrada (época Unix en días).
+     * @param fin día de salida (época Unix en días).
+     * @param indice índice de reservas ya sin la estancia.
+     * @return el nuevo calendario, o este mismo si la estancia no toca el año.
+     */
+    CalendarioOcupacion sin(int inicio, int fin, IndiceReservas indice) {
+
+        int desde = recortar(inicio);
+        int hasta = recortar(fin);
+
+        if (desde >= hasta) {
+            return this;
+        }
+
+        long[] copia = palabras.clone();
+        poner(copia, desde, hasta, false);
+        marcarEstancias(copia, indice, primerDia + desde, primerDia + hasta);
+
+        return new CalendarioOcupacion(anio, copia);
+    }
+
+    /**
+     * @return año del calendario.
+     */
+    public int anio() {
+        return anio;
+    }
+
+    /**
+     * @return número de noches del año.
+     */
+    public int dias() {
+        return dias;
+    }
+
+    /**
+     * @param noche día de entrada de la noche; debe pertenecer al año.
+     * @return {@code true} si esa noche está ocupada.
+     */
+    public boolean ocupada(LocalDate noche) {
+
+        int d = dia(noche);
+        return (palabras[d >>> 6] & (1L << d)) != 0;
+
+    }
+
+    /**
+     * Indica si todas las noches de {@code [desde, hasta)} están libres.
+     *
+     * @param desde día de entrada; debe pertenecer al año.
+     * @param hasta día de salida; como mucho el 1 de enero siguiente.
+     * @return {@code true} si ninguna noche del rango está ocupada.
+     */
+    public boolean libre(LocalDate desde, LocalDate hasta) {
+
+        int d = dia(desde);
+        int h = (int) (hasta.toEpochDay() - primerDia);
+
+        if (h <= d || h > dias) {
+            throw new IllegalArgumentException("El rango " + desde + " - " + hasta + " no está dentro del año " + anio);
+        }
+
+        return contar(d, h) == 0;
+    }
+
+    /**
+     * @return noches ocupadas en el año.
+     */
+    public int nochesOcupadas() {
+        return contar(0, dias);
+    }
+
+    /**
+     * @param mes mes del año del calendario.
+     * @return noches ocupadas en ese mes.
+     */
+    public int nochesOcupadas(YearMonth mes) {
+
+        int d = dia(mes.atDay(1));
+        return contar(d, d + mes.lengthOfMonth());
+
+    }
+
+    /**
+     * Busca la primera noche, a partir de {@code desde}, en la que empiezan {@code noches} noches libres seguidas
+     * sin salir del año.
+     * <p>
+     * El mapa de libres se reduce con desplazamientos y operaciones AND de palabras completas: tras cada paso, el bit
+     * {@code d} indica si hay {@code k} noches libres desde {@code d}, y {@code k} se duplica en cada paso. Bastan
+     * unas pocas pasadas sobre seis palabras, sea cual sea el número de noches.
+     * </p>
+     *
+     * @param desde primer día de entrada posible; debe pertenecer al año.
+     * @param noches noches seguidas que se buscan.
+     * @return el día de entrada del primer hueco, o vacío si no hay ninguno en el año.
+     */
+    public Optional<LocalDate> primerHueco(LocalDate desde, int noches) {
+
+        if (noches < 1) {
+            throw new IllegalArgumentException("El hueco debe tener al menos una noche");
+        }
+
+        int inicio = dia(desde);
+
+        if (noches > dias - inicio) {
+            return Optional.empty();
+        }
+
+        long[] libres = new long[palabras.length];
+
+        for (int w = 0; w < libres.length; w++) {
+            libres[w] = ~palabras[w];
+        }
+
+        // Las posiciones más allá del último día no son noches del año
+        poner(libres, dias, libres.length << 6, false);
+
+        int cubiertas = 1;
+
+        while (cubiertas < noches) {
+
+            int paso = Math.min(cubiertas, noches - cubiertas);
+            long[] desplazado = desplazar(libres, paso);
+
+            for (int w = 0; w < libres.length; w++) {
+                libres[w] &= desplazado[w];
+            }
+
+            cubiertas += paso;
+
+        }
+
+        int d = siguienteBit(libres, inicio);
+
+        return d < 0 ? Optional.empty() : Optional.of(LocalDate.ofEpochDay(primerDia + d));
+    }
+
+    /**
+     * @return noches libres seguidas desde el 1 de enero.
+     */
+    int libresAlPrincipio() {
+
+        for (int w = 0; w < palabras.length; w++) {
+
+            if (palabras[w] != 0) {
+                return Math.min(dias, (w << 6) + Long.numberOfTrailingZeros(palabras[w]));
+            }
+        }
+
+        return dias;
+    }
+
+    /**
+     * @return noches libres seguidas hasta el 31 de diciembre, incluido.
+     */
+    int libresAlFinal() {
+
+        int ultimo = dias - 1;
+
+        for (int w = ultimo >>> 6; w >= 0; w--) {
+
+            // En la última palabra solo cuentan los bits de días del año
+            long palabra = w == ultimo >>> 6 ? palabras[w] & (-1L >>> (63 - (ultimo & 63))) : palabras[w];
+
+            if (palabra != 0) {
+                return ultimo - ((w << 6) + 63 - Long.numberOfLeadingZeros(palabra));
+            }
+        }
+
+        return dias;
+    }
+
+    /**
+     * @param noche día de entrada de la noche.
+     * @return posición de la noche en el año.
+     * @throws IllegalArgumentException si la noche no es del año.
+     */
+    private int dia(LocalDate noche) {
+
+        long d = noche.toEpochDay() - primerDia;
+
+        if (d < 0 || d >= dias) {
+            throw new IllegalArgumentException("La fecha " + noche + " no es del año " + anio);
+        }
+
+        return (int) d;
+    }
+
+    private int recortar(int epochDay) {
+        return (int) Math.max(0, Math.min(dias, epochDay - primerDia));
+    }
+
+    /**
+     * Marca en {@code destino} las noches de {@code [desde, hasta)} ocupadas por las estancias del índice.
+     */
+    private void marcarEstancias(long[] destino, IndiceReservas indice, long desde, long hasta) {
+
+        for (int i = indice.primeraQuePuedeSolapar((int) desde); i < indice.tamano() && indice.inicioEn(i) < hasta; i++) {
+
+            long inicio = Math.max(desde, indice.inicioEn(i));
+            long fin = Math.min(hasta, indice.finEn(i));
+
+            if (inicio < fin) {
+                poner(destino, (int) (inicio - primerDia), (int) (fin - primerDia), true);
+            }
+        }
+    }
+
+    /**
+     * Cuenta los bits a 1 de {@code [desde, hasta)}.
+     */
+    private int contar(int desde, int hasta) {
+
+        if (desde >= hasta) {
+            return 0;
+        }
+
+        int primera = desde >>> 6;
+        int ultima = (hasta - 1) >>> 6;
+        long mascaraPrimera = -1L << desde;
+        long mascaraUltima = -1L >>> (63 - ((hasta - 1) & 63));
+
+        if (primera == ultima) {
+            return Long.bitCount(palabras[primera] & mascaraPrimera & mascaraUltima);
+        }
+
+        int total = Long.bitCount(palabras[primera] & mascaraPrimera) + Long.bitCount(palabras[ultima] & mascaraUltima);
+
+        for (int w = primera + 1; w < ultima; w++) {
+            total += Long.bitCount(palabras[w]);
+        }
+
+        return total;
+    }
+
+    /**
+     * Pone a 1 o a 0 los bits de {@code [desde, hasta)}, palabra a palabra.
+     */
+    private static void poner(long[] bits, int desde, int hasta, boolean valor) {
+
+        if (desde >= hasta) {
+            return;
+        }
+
+        int primera = desde >>> 6;
+        int ultima = (hasta - 1) >>> 6;
+        long mascaraPrimera = -1L << desde;
+        long mascaraUltima = -1L >>> (63 - ((hasta - 1) & 63));
+
+        for (int w = primera; w <= ultima; w++) {
+
+            long mascara = -1L;
+
+            if (w == primera) {
+                mascara &= mascaraPrimera;
+            }
+
+            if (w == ultima) {
+                mascara &= mascaraUltima;
+            }
+
+            bits[w] = valor ? bits[w] | mascara : bits[w] & ~mascara;
+
+        }
+    }
+
+    /**
+     * Devuelve una copia en la que el bit {@code d} toma el valor del bit {@code d + paso}; los que quedan fuera son 0.
+     */
+    private static long[] desplazar(long[] bits, int paso) {
+
+        long[] resultado = new long[bits.length];
+        int palabrasPaso = paso >>> 6;
+        int bitsPaso = paso & 63;
+
+        for (int w = 0; w + palabrasPaso < bits.length; w++) {
+
+            long valor = bits[w + palabrasPaso] >>> bitsPaso;
+
+            if (bitsPaso != 0 && w + palabrasPaso + 1 < bits.length) {
+                valor |= bits[w + palabrasPaso + 1] << (64 - bitsPaso);
+            }
+
+            resultado[w] = valor;
+
+        }
+
+        return resultado;
+    }
+
+    /**
+     * @return posición del primer bit a 1 desde {@code desde}, o {@code -1} si no hay ninguno.
+     */
+    private static int siguienteBit(long[] bits, int desde) {
+
+        int w = desde >>> 6;
+
+        if (w >= bits.length) {
+            return -1;
+        }
+
+        long palabra = bits[w] & (-1L << desde);
+
+        while (true) {
+
+            if (palabra != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(palabra);
+            }
+
+            if (++w == bits.length) {
+                return -1;
+            }
+
+            palabra = bits[w];
+
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.reservas.disponibilidad;
+
+import java.time.LocalDate;
+
+/**
+ * <h1>Criterios de búsqueda de disponibilidad</h1>
+ *
+ * Filtros de una búsqueda masiva de propiedades libres. Los campos de texto vacíos o {@code null}
+ * no filtran; la comparación de ciudad y país no distingue mayúsculas ni tildes.
+ *
+ * @param ciudad ciudad de la propiedad, o {@code null} para cualquiera.
+ * @param pais país de la propiedad, o {@code null} para cualquiera.
+ * @param personas número de huéspedes; la capacidad debe ser igual o mayor.
+ * @param desde día de entrada.
+ * @param hasta día de salida (su noche no cuenta).
+ * @param precioMaximoNoche precio máximo por noche, comparado con la media del presupuesto de la estancia, o
+ *                          {@code null} sin límite.
+ * @param maxResultados número máximo de resultados a devolver.
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+public record CriteriosBusqueda(String ciudad, String pais, int personas, LocalDate desde, LocalDate hasta,
+                                Float precioMaximoNoche, int maxResultados) {
+
+    /**
+     * Valida los criterios.
+     *
+     * @throws IllegalArgumentException si faltan las fechas, el rango no es válido o los números no son positivos.
+     */
+    public CriteriosBusqueda {
+
+        if (desde == null || hasta == null) {
+            throw new IllegalArgumentException("Las fechas de entrada y salida son obligatorias");
+        }
+
+        if (!hasta.isAfter(desde)) {
+            throw new IllegalArgumentException("La fecha de salida debe ser posterior a la de entrada");
+        }
+
+        if (personas < 1) {
+            throw new IllegalArgumentException("El número de personas debe ser mayor que cero");
+        }
+
+        if (maxResultados < 1) {
+            throw new IllegalArgumentException("El número máximo de resultados debe ser mayor que cero");
+        }
+    }
+
+    /**
+     * @return número de noches del rango.
+     */
+    public int noches() {
+        return (int) (hasta.toEpochDay() - desde.toEpochDay());
+    }
+}
@@ -0,0 +1,121 @@
+package com.reservas.disponibilidad;
+
+import com.reservas.model.Propiedad;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.reservas.util.Textos.normalizar;
+
+/**
+ * <h1>Índice de propiedades para búsquedas</h1>
+ *
+ * Copia inmutable de las propiedades organizada para localizar candidatos sin recorrer toda la lista.
+ * <p>
+ * Guarda las posiciones de las propiedades agrupadas por ciudad y por país. Dentro de cada grupo las posiciones
+ * están ordenadas por capacidad descendente, de modo que las que admiten a un grupo de {@code n} personas forman
+ * un prefijo que se localiza con una búsqueda binaria.
+ * </p>
+ *
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+final class IndicePropiedades {
+
+    private final Propiedad[] propiedades;
+    private final int[] todas;
+    private final Map<String, int[]> porCiudad;
+    private final Map<String, int[]> porPais;
+
+    IndicePropiedades(List<Propiedad> lista) {
+
+        this.propiedades = lista.toArray(new Propiedad[0]);
+
+        Comparator<Integer> porCapacidad = Comparator.comparingInt((Integer i) -> propiedades[i].getCapacidad()).reversed();
+
+        Map<String, List<Integer>> ciudades = new HashMap<>();
+        Map<String, List<Integer>> paises = new HashMap<>();
+        List<Integer> posiciones = new ArrayList<>(propiedades.length);
+
+        for (int i = 0; i < propiedades.length; i++) {
+
+            posiciones.add(i);
+            ciudades.computeIfAbsent(normalizar(propiedades[i].getCiudad()), k -> new ArrayList<>()).add(i);
+            paises.computeIfAbsent(normalizar(propiedades[i].getPais()), k -> new ArrayList<>()).add(i);
+
+        }
+
+        this.todas = ordenar(posiciones, porCapacidad);
+        this.porCiudad = new HashMap<>();
+        this.porPais = new HashMap<>();
+
+        ciudades.forEach((clave, grupo) -> porCiudad.put(clave, ordenar(grupo, porCapacidad)));
+        paises.forEach((clave, grupo) -> porPais.put(clave, ordenar(grupo, porCapacidad)));
+
+    }
+
+    /**
+     * Devuelve las posiciones de las propiedades de la ciudad (o, si no se indica, del país) con capacidad suficiente.
+     * Si se indican ciudad y país, el país se comprueba después con {@link #coincidePais(int, String)}.
+     *
+     * @param ciudad ciudad buscada, o {@code null}.
+     * @param pais país buscado, o {@code null}.
+     * @param personas tamaño del grupo.
+     * @return posiciones candidatas.
+     */
+    int[] candidatos(String ciudad, String pais, int personas) {
+
+        int[] grupo;
+
+        if (!vacio(ciudad)) {
+            grupo = porCiudad.getOrDefault(normalizar(ciudad), new int[0]);
+        } else if (!vacio(pais)) {
+            grupo = porPais.getOrDefault(normalizar(pais), new int[0]);
+        } else {
+            grupo = todas;
+        }
+
+        int bajo = 0;
+        int alto = grupo.length;
+
+        while (bajo < alto) {
+
+            int medio = (bajo + alto) >>> 1;
+
+            if (propiedades[grupo[medio]].getCapacidad() >= personas) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+
+        return Arrays.copyOf(grupo, bajo);
+    }
+
+    boolean coincidePais(int posicion, String pais) {
+        return vacio(pais) || normalizar(propiedades[posicion].getPais()).equals(normalizar(pais));
+    }
+
+    Propiedad en(int posicion) {
+        return propiedades[posicion];
+    }
+
+    int tamano() {
+        return propiedades.length;
+    }
+
+    private static boolean vacio(String texto) {
+        return texto == null || texto.isBlank();
+    }
+
+    private static int[] ordenar(List<Integer> posiciones, Comparator<Integer> orden) {
+
+        posiciones.sort(orden);
+        return posiciones.stream().mapToInt(Integer::intValue).toArray();
+
+    }
+}
@@ -0,0 +1,270 @@
+package com.reservas.disponibilidad;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <h1>Índice de intervalos de una propiedad</h1>
+ *
+ * Guarda las estancias ocupadas de una propiedad como intervalos semiabiertos {@code [inicio, fin)} de días
+ * (días desde la época, {@link java.time.LocalDate#toEpochDay()}), ordenados por día de inicio.
+ * <p>
+ * Junto a cada posición se guarda el máximo día de fin de todos los intervalos hasta ella. Como ese máximo
+ * no decrece, basta una búsqueda binaria para saber si algún intervalo que empieza antes de {@code hasta}
+ * termina después de {@code desde}, es decir, si hay solape.
+ * </p>
+ *
+ * <h2>Características principales:</h2>
+ * <ul>
+ *     <li>Consulta de solape en O(log n).</li>
+ *     <li>Inmutable: cada alta o baja devuelve un índice nuevo, por lo que las lecturas no necesitan bloqueo.</li>
+ *     <li>El día de salida de una estancia puede ser el de entrada de la siguiente.</li>
+ *     <li>Guarda los {@link CalendarioOcupacion} que se le piden; al dar de alta o de baja una estancia, el índice
+ *     nuevo recibe esos calendarios ya actualizados, cambiando solo los bits de la estancia.</li>
+ * </ul>
+ *
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+final class IndiceReservas {
+
+    static final IndiceReservas VACIO = new IndiceReservas(new int[0], new int[0], new int[0]);
+
+    private final int[] ids;
+    private final int[] inicios;
+    private final int[] fines;
+    private final int[] maxFin;
+    private final Map<Integer, CalendarioOcupacion> calendarios = new ConcurrentHashMap<>();
+
+    private IndiceReservas(int[] ids, int[] inicios, int[] fines) {
+
+        this.ids = ids;
+        this.inicios = inicios;
+        this.fines = fines;
+        this.maxFin = new int[ids.length];
+
+        int max = Integer.MIN_VALUE;
+
+        for (int i = 0; i < fines.length; i++) {
+
+            max = Math.max(max, fines[i]);
+            maxFin[i] = max;
+
+        }
+    }
+
+    /**
+     * Construye un índice a partir de intervalos sin ordenar.
+     *
+     * @param ids identificadores de las reservas.
+     * @param inicios días de entrada.
+     * @param fines días de salida.
+     * @return el índice ordenado por día de inicio.
+     */
+    static IndiceReservas de(int[] ids, int[] inicios, int[] fines) {
+
+        Integer[] orden = new Integer[ids.length];
+
+        for (int i = 0; i < orden.length; i++) {
+            orden[i] = i;
+        }
+
+        Arrays.sort(orden, (a, b) -> Integer.compare(inicios[a], inicios[b]));
+
+        int[] idsOrdenados = new int[ids.length];
+        int[] iniciosOrdenados = new int[ids.length];
+        int[] finesOrdenados = new int[ids.length];
+
+        for (int i = 0; i < orden.length; i++) {
+
+            idsOrdenados[i] = ids[orden[i]];
+            iniciosOrdenados[i] = inicios[orden[i]];
+            finesOrdenados[i] = fines[orden[i]];
+
+        }
+
+        return new IndiceReservas(idsOrdenados, iniciosOrdenados, finesOrdenados);
+    }
+
+    /**
+     * Devuelve un índice con el intervalo de la reserva añadido. Si la reserva ya estaba, se reemplaza.
+     *
+     * @param id identificador de la reserva.
+     * @param inicio día de entrada.
+     * @param fin día de salida (excluido).
+     * @return el nuevo índice.
+     */
+    IndiceReservas con(int id, int inicio, int fin) {
+
+        IndiceReservas base = sin(id);
+        int n = base.ids.length;
+        int pos = primeraPosicionMayorQue(base.inicios, inicio);
+
+        int[] nuevosIds = new int[n + 1];
+        int[] nuevosInicios = new int[n + 1];
+        int[] nuevosFines = new int[n + 1];
+
+        insertar(base.ids, nuevosIds, pos, id);
+        insertar(base.inicios, nuevosInicios, pos, inicio);
+        insertar(base.fines, nuevosFines, pos, fin);
+
+        IndiceReservas nuevo = new IndiceReservas(nuevosIds, nuevosInicios, nuevosFines);
+        base.calendarios.forEach((anio, calendario) -> nuevo.calendarios.put(anio, calendario.con(inicio, fin)));
+
+        return nuevo;
+    }
+
+    /**
+     * Devuelve un índice sin el intervalo de la reserva indicada.
+     *
+     * @param id identificador de la reserva.
+     * @return el nuevo índice, o este mismo si la reserva no estaba.
+     */
+    IndiceReservas sin(int id) {
+
+        int pos = -1;
+
+        for (int i = 0; i < ids.length && pos == -1; i++) {
+
+            if (ids[i] == id) {
+                pos = i;
+            }
+        }
+
+        if (pos == -1) {
+            return this;
+        }
+
+        IndiceReservas nuevo = new IndiceReservas(quitar(ids, pos), quitar(inicios, pos), quitar(fines, pos));
+        int inicio = inicios[pos];
+        int fin = fines[pos];
+
+        calendarios.forEach((anio, calendario) -> nuevo.calendarios.put(anio, calendario.sin(inicio, fin, nuevo)));
+
+        return nuevo;
+    }
+
+    /**
+     * @param id identificador de la reserva.
+     * @param inicio día de entrada.
+     * @param fin día de salida (excluido).
+     * @return {@code true} si el índice tiene la reserva con exactamente esa estancia.
+     */
+    boolean contiene(int id, int inicio, int fin) {
+
+        for (int i = 0; i < ids.length; i++) {
+
+            if (ids[i] == id) {
+                return inicios[i] == inicio && fines[i] == fin;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Devuelve el calendario de ocupación de un año, construyéndolo la primera vez que se pide.
+     *
+     * @param anio año.
+     * @return el calendario de las estancias de este índice.
+     */
+    CalendarioOcupacion calendario(int anio) {
+
+        return calendarios.computeIfAbsent(anio, a -> CalendarioOcupacion.de(this, a));
+
+    }
+
+    /**
+     * Busca una estancia que se solape con {@code [desde, hasta)}.
+     * <p>
+     * Una búsqueda binaria localiza el último intervalo que empieza antes de {@code hasta} y otra, sobre el máximo
+     * acumulado de fines, el primero cuyo máximo supera {@code desde}; ese intervalo termina después de {@code desde}.
+     * Si está antes que el primero, hay solape. Solo al excluir una reserva (al modificarla) puede ser necesario
+     * mirar alguno de los siguientes.
+     * </p>
+     *
+     * @param desde día de entrada solicitado.
+     * @param hasta día de salida solicitado (excluido).
+     * @param excluir identificador de reserva a ignorar, o {@code -1}.
+     * @return Posición del intervalo que se solapa, o {@code -1} si el rango está libre.
+     */
+    int buscarSolape(int desde, int hasta, int excluir) {
+
+        int ultimo = primeraPosicionMayorQue(inicios, hasta - 1) - 1;
+
+        for (int i = primeraPosicionMayorQue(maxFin, desde); i <= ultimo; i++) {
+
+            if (fines[i] > desde && ids[i] != excluir) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @param dia día (época Unix en días).
+     * @return primera posición cuyo intervalo, o alguno anterior, termina después de {@code dia}. Los intervalos
+     * anteriores a ella terminan todos en {@code dia} o antes.
+     */
+    int primeraQuePuedeSolapar(int dia) {
+        return primeraPosicionMayorQue(maxFin, dia);
+    }
+
+    int idEn(int posicion) {
+        return ids[posicion];
+    }
+
+    int inicioEn(int posicion) {
+        return inicios[posicion];
+    }
+
+    int finEn(int posicion) {
+        return fines[posicion];
+    }
+
+    int tamano() {
+        return ids.length;
+    }
+
+    /**
+     * Búsqueda binaria de la primera posición de un array ordenado cuyo valor es mayor que {@code dia}.
+     */
+    private static int primeraPosicionMayorQue(int[] dias, int dia) {
+
+        int bajo = 0;
+        int alto = dias.length;
+
+        while (bajo < alto) {
+
+            int medio = (bajo + alto) >>> 1;
+
+            if (dias[medio] <= dia) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+
+        return bajo;
+    }
+
+    private static void insertar(int[] origen, int[] destino, int pos, int valor) {
+
+        System.arraycopy(origen, 0, destino, 0, pos);
+        destino[pos] = valor;
+        System.arraycopy(origen, pos, destino, pos + 1, origen.length - pos);
+
+    }
+
+    private static int[] quitar(int[] origen, int pos) {
+
+        int[] destino = new int[origen.length - 1];
+
+        System.arraycopy(origen, 0, destino, 0, pos);
+        System.arraycopy(origen, pos + 1, destino, pos, origen.length - pos - 1);
+
+        return destino;
+    }
+}
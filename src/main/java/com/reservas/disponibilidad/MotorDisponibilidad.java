@@ -0,0 +1,447 @@
+package com.reservas.disponibilidad;
+
+import com.reservas.dao.ReservaDAO;
+import com.reservas.model.Reserva;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * <h1>Motor de disponibilidad de propiedades</h1>
+ *
+ * Responde en memoria a la pregunta «¿está libre la propiedad X entre A y B?» sin recorrer la tabla {@code reservas}.
+ * <p>
+ * Mantiene un {@link IndiceReservas} por propiedad con las estancias de las reservas {@code confirmada} y
+ * {@code pendiente}. El índice de cada propiedad se carga desde la base de datos la primera vez que se consulta y
+ * después se mantiene al día con las escrituras de {@link ReservaDAO}. Las estancias son semiabiertas:
+ * la noche del día de salida queda libre.
+ * </p>
+ *
+ * <h2>Características principales:</h2>
+ * <ul>
+ *     <li>Consultas de disponibilidad en O(log n) por propiedad, sin bloqueo.</li>
+ *     <li>Carga perezosa por propiedad: solo se leen las reservas activas de las propiedades consultadas.</li>
+ *     <li>Precarga en bloque de muchas propiedades con una sola consulta, para las búsquedas masivas.</li>
+ *     <li>Calendario de ocupación por propiedad y año ({@link CalendarioOcupacion}) y búsqueda de huecos de N noches
+ *     seguidas con operaciones sobre palabras de bits.</li>
+ *     <li>La comprobación en memoria es orientativa: la garantía frente a escrituras concurrentes, de este o de
+ *     otros equipos, la da {@link ReservaDAO}, que vuelve a buscar solapes en la base de datos con un cerrojo por
+ *     propiedad dentro de la transacción de cada escritura.</li>
+ * </ul>
+ *
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+public class MotorDisponibilidad {
+
+    private static volatile MotorDisponibilidad instancia;
+
+    private final IntFunction<List<Reserva>> cargador;
+    private final Function<int[], Map<Integer, List<Reserva>>> cargadorMasivo;
+    private final Map<Integer, IndiceReservas> indices = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> propiedadDeReserva = new ConcurrentHashMap<>();
+
+    // Escrituras vistas por propiedad y vaciados completos: si cambian mientras se lee un índice, no se guarda
+    private final Map<Integer, Long> versiones = new ConcurrentHashMap<>();
+    private final AtomicLong vaciados = new AtomicLong();
+
+    /**
+     * Crea un motor que obtiene las reservas activas con las funciones indicadas.
+     *
+     * @param cargador función que devuelve las reservas {@code confirmada}/{@code pendiente} de una propiedad.
+     * @param cargadorMasivo función que devuelve las reservas activas de varias propiedades, agrupadas por propiedad.
+     */
+    public MotorDisponibilidad(IntFunction<List<Reserva>> cargador, Function<int[], Map<Integer, List<Reserva>>> cargadorMasivo) {
+
+        this.cargador = cargador;
+        this.cargadorMasivo = cargadorMasivo;
+
+    }
+
+    /**
+     * Devuelve el motor compartido por la aplicación, que lee las reservas mediante {@link ReservaDAO}.
+     *
+     * @return la instancia única del motor.
+     */
+    public static MotorDisponibilidad getInstance() {
+
+        if (instancia == null) {
+
+            synchronized (MotorDisponibilidad.class) {
+
+                if (instancia == null) {
+
+                    ReservaDAO dao = new ReservaDAO();
+                    instancia = new MotorDisponibilidad(dao::leerReservasActivasDePropiedad, dao::leerReservasActivasDePropiedades);
+
+                }
+            }
+        }
+
+        return instancia;
+    }
+
+    /**
+     * Indica si la propiedad está libre todas las noches de {@code [desde, hasta)}.
+     *
+     * @param idPropiedad identificador de la propiedad.
+     * @param desde día de entrada.
+     * @param hasta día de salida (su noche no cuenta).
+     * @return {@code true} si ninguna reserva activa ocupa esas noches.
+     */
+    public boolean estaLibre(int idPropiedad, LocalDate desde, LocalDate hasta) {
+
+        return buscarSolape(idPropiedad, desde, hasta, -1).isEmpty();
+
+    }
+
+    /**
+     * Busca una reserva activa que ocupe alguna noche de {@code [desde, hasta)}.
+     *
+     * @param idPropiedad identificador de la propiedad.
+     * @param desde día de entrada.
+     * @param hasta día de salida (su noche no cuenta).
+     * @param excluirReserva reserva que no debe contar (la que se está modificando), o {@code -1}.
+     * @return La estancia que se solapa, o vacío si el rango está libre.
+     * @throws IllegalArgumentException si el día de salida no es posterior al de entrada.
+     */
+    public Optional<Ocupacion> buscarSolape(int idPropiedad, LocalDate desde, LocalDate hasta, int excluirReserva) {
+
+        if (!hasta.isAfter(desde)) {
+            throw new IllegalArgumentException("La fecha de fin debe ser posterior a la fecha de inicio");
+        }
+
+        IndiceReservas indice = indice(idPropiedad);
+        int pos = indice.buscarSolape((int) desde.toEpochDay(), (int) hasta.toEpochDay(), excluirReserva);
+
+        if (pos == -1) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new Ocupacion(indice.idEn(pos), idPropiedad,
+                LocalDate.ofEpochDay(indice.inicioEn(pos)), LocalDate.ofEpochDay(indice.finEn(pos))));
+    }
+
+    /**
+     * Devuelve el calendario de ocupación de una propiedad en un año. Se construye a partir del índice de la propiedad
+     * la primera vez que se pide y después se actualiza con cada alta o baja de reservas.
+     *
+     * @param idPropiedad identificador de la propiedad.
+     * @param anio año.
+     * @return el calendario con las noches ocupadas por reservas activas.
+     */
+    public CalendarioOcupacion calendario(int idPropiedad, int anio) {
+
+        return indice(idPropiedad).calendario(anio);
+
+    }
+
+    /**
+     * Busca el primer día de entrada, entre {@code desde} y {@code limite}, a partir del cual la propiedad tiene
+     * {@code noches} noches libres seguidas. Los huecos pueden cruzar de un año al siguiente.
+     *
+     * @param idPropiedad identificador de la propiedad.
+     * @param desde primer día de entrada posible.
+     * @param noches noches seguidas que se buscan.
+     * @param limite último día de entrada posible.
+     * @return el día de entrada, o vacío si no hay hueco.
+     * @throws IllegalArgumentException si {@code noches} es menor que 1.
+     */
+    public Optional<LocalDate> primerHuecoLibre(int idPropiedad, LocalDate desde, int noches, LocalDate limite) {
+
+        if (noches < 1) {
+            throw new IllegalArgumentException("El hueco debe tener al menos una noche");
+        }
+
+        IndiceReservas indice = indice(idPropiedad);
+        int racha = 0;
+
+        for (int anio = desde.getYear(); anio <= limite.getYear() + (noches - 1) / 365 + 1; anio++) {
+
+            CalendarioOcupacion calendario = indice.calendario(anio);
+            LocalDate primero = LocalDate.ofYearDay(anio, 1);
+            LocalDate inicio = anio == desde.getYear() ? desde : primero;
+
+            // Hueco que empezó el año anterior y sigue en este
+            if (racha > 0 && racha + calendario.libresAlPrincipio() >= noches) {
+
+                LocalDate entrada = primero.minusDays(racha);
+                return entrada.isAfter(limite) ? Optional.empty() : Optional.of(entrada);
+
+            }
+
+            if (!inicio.isAfter(limite)) {
+
+                Optional<LocalDate> hueco = calendario.primerHueco(inicio, noches);
+
+                if (hueco.isPresent()) {
+                    return hueco.get().isAfter(limite) ? Optional.empty() : hueco;
+                }
+            }
+
+            int libresAlFinal = Math.min(calendario.libresAlFinal(), calendario.dias() - (inicio.getDayOfYear() - 1));
+            boolean todoLibre = libresAlFinal == calendario.dias() - (inicio.getDayOfYear() - 1);
+            racha = todoLibre ? racha + libresAlFinal : libresAlFinal;
+
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Comprueba que una reserva puede guardarse sin solaparse con otra activa de la misma propiedad.
+     * Las reservas canceladas no ocupan la propiedad y siempre se aceptan.
+     *
+     * @param reserva reserva a comprobar; si ya tiene ID, se ignora su propia estancia.
+     * @throws IllegalStateException si la propiedad ya está ocupada alguna de esas noches.
+     * @throws IllegalArgumentException si el día de salida no es posterior al de entrada.
+     */
+    public void comprobarDisponible(Reserva reserva) {
+
+        if (!ocupa(reserva)) {
+            return;
+        }
+
+        int excluir = reserva.getId_reserva() > 0 ? reserva.getId_reserva() : -1;
+
+        buscarSolape(reserva.getId_propiedad(), reserva.getFecha_inicio().toLocalDate(),
+                reserva.getFecha_fin().toLocalDate(), excluir).ifPresent(ocupacion -> {
+
+            throw new IllegalStateException("La propiedad " + reserva.getId_propiedad() + " ya está reservada del "
+                    + ocupacion.inicio() + " al " + ocupacion.fin() + " (reserva " + ocupacion.idReserva() + ")");
+
+        });
+    }
+
+    /**
+     * Refleja en el índice una reserva recién insertada o modificada.
+     * Si ha cambiado de propiedad o ha dejado de estar activa, se retira su estancia anterior.
+     *
+     * @param reserva reserva guardada, con su ID.
+     */
+    public void registrar(Reserva reserva) {
+
+        quitar(reserva.getId_reserva());
+
+        if (!ocupa(reserva)) {
+            return;
+        }
+
+        int id = reserva.getId_reserva();
+        int inicio = (int) reserva.getFecha_inicio().toLocalDate().toEpochDay();
+        int fin = (int) reserva.getFecha_fin().toLocalDate().toEpochDay();
+
+        anotarEscritura(reserva.getId_propiedad());
+
+        indices.computeIfPresent(reserva.getId_propiedad(), (prop, indice) -> {
+
+            propiedadDeReserva.put(id, prop);
+            return indice.con(id, inicio, fin);
+
+        });
+    }
+
+    /**
+     * Retira del índice la estancia de una reserva eliminada o cancelada.
+     *
+     * @param idReserva identificador de la reserva.
+     */
+    public void quitar(int idReserva) {
+
+        Integer idPropiedad = propiedadDeReserva.remove(idReserva);
+
+        if (idPropiedad != null) {
+
+            anotarEscritura(idPropiedad);
+            indices.computeIfPresent(idPropiedad, (prop, indice) -> indice.sin(idReserva));
+
+        }
+    }
+
+    /**
+     * Indica si el índice cargado de la propiedad ya tiene la reserva tal y como está guardada, por ejemplo porque
+     * la escribió este mismo proceso y la anotó con {@link #registrar}. Permite no descartar el índice al recibir
+     * el aviso de una escritura propia.
+     *
+     * @param reserva reserva leída de la base de datos.
+     * @return {@code true} si el índice está cargado y coincide con la reserva; {@code false} si no está cargado,
+     * porque podría estar leyéndose con los datos de antes de la escritura.
+     */
+    public boolean refleja(Reserva reserva) {
+
+        IndiceReservas indice = indices.get(reserva.getId_propiedad());
+
+        if (indice == null) {
+            return false;
+        }
+
+        int id = reserva.getId_reserva();
+        Integer anotada = propiedadDeReserva.get(id);
+
+        if (!ocupa(reserva)) {
+            return anotada == null;
+        }
+
+        int inicio = (int) reserva.getFecha_inicio().toLocalDate().toEpochDay();
+        int fin = (int) reserva.getFecha_fin().toLocalDate().toEpochDay();
+
+        return anotada != null && anotada == reserva.getId_propiedad() && indice.contiene(id, inicio, fin);
+    }
+
+    /**
+     * Descarta el índice de una propiedad para que se vuelva a leer de la base de datos en la siguiente consulta.
+     * Se usa cuando la base de datos rechaza una escritura que el índice había dado por válida.
+     *
+     * @param idPropiedad identificador de la propiedad.
+     */
+    public void olvidar(int idPropiedad) {
+
+        anotarEscritura(idPropiedad);
+        indices.remove(idPropiedad);
+        propiedadDeReserva.values().removeIf(prop -> prop == idPropiedad);
+
+    }
+
+    /**
+     * Descarta los índices de todas las propiedades, por ejemplo tras importar reservas en bloque.
+     */
+    public void olvidarTodas() {
+
+        vaciados.incrementAndGet();
+        indices.clear();
+        propiedadDeReserva.clear();
+
+    }
+
+    /**
+     * Carga con una sola consulta los índices de las propiedades indicadas que aún no estén cargados.
+     * Evita una consulta por propiedad cuando se va a comprobar la disponibilidad de muchas a la vez.
+     *
+     * @param idsPropiedad identificadores de las propiedades.
+     */
+    public void precargar(int[] idsPropiedad) {
+
+        int[] pendientes = Arrays.stream(idsPropiedad).filter(id -> !indices.containsKey(id)).toArray();
+
+        if (pendientes.length == 0) {
+            return;
+        }
+
+        long[] leidas = new long[pendientes.length];
+
+        for (int i = 0; i < pendientes.length; i++) {
+            leidas[i] = version(pendientes[i]);
+        }
+
+        Map<Integer, List<Reserva>> activas = cargadorMasivo.apply(pendientes);
+
+        for (int i = 0; i < pendientes.length; i++) {
+
+            int idPropiedad = pendientes[i];
+            guardar(idPropiedad, leidas[i], construir(idPropiedad, activas.getOrDefault(idPropiedad, List.of())));
+
+        }
+    }
+
+    /**
+     * Devuelve el índice de la propiedad, cargándolo la primera vez.
+     * <p>
+     * La consulta se hace fuera del mapa: dentro de {@code computeIfAbsent} dejaría bloqueadas, mientras dura el
+     * viaje a la base de datos, las demás propiedades que comparten su cubo. Si dos hilos cargan a la vez la misma
+     * propiedad, se queda el primer índice guardado.
+     * </p>
+     */
+    private IndiceReservas indice(int idPropiedad) {
+
+        IndiceReservas actual = indices.get(idPropiedad);
+
+        if (actual != null) {
+            return actual;
+        }
+
+        long leida = version(idPropiedad);
+        return guardar(idPropiedad, leida, construir(idPropiedad, cargador.apply(idPropiedad)));
+
+    }
+
+    /**
+     * Guarda un índice recién leído, salvo que la propiedad haya tenido escrituras desde que empezó la lectura:
+     * {@link #registrar} no puede aplicarlas a un índice que todavía no estaba en el mapa. En ese caso el índice
+     * sirve para la consulta en curso y la siguiente lo vuelve a leer.
+     *
+     * @return el índice guardado, el que otro hilo guardó antes, o el leído si no se ha podido guardar.
+     */
+    private IndiceReservas guardar(int idPropiedad, long leida, IndiceReservas cargado) {
+
+        IndiceReservas guardado = indices.compute(idPropiedad, (prop, previo) ->
+                previo != null || version(prop) != leida ? previo : cargado);
+
+        return guardado != null ? guardado : cargado;
+    }
+
+    /**
+     * Ambos contadores solo crecen, así que la suma no se repite mientras alguno de los dos cambie.
+     */
+    private long version(int idPropiedad) {
+        return vaciados.get() + versiones.getOrDefault(idPropiedad, 0L);
+    }
+
+    /**
+     * Se llama antes de tocar el índice, para que una lectura en curso de la propiedad no se guarde sin la escritura.
+     */
+    private void anotarEscritura(int idPropiedad) {
+
+        versiones.merge(idPropiedad, 1L, Long::sum);
+
+    }
+
+    /**
+     * Construye el índice de una propiedad a partir de sus reservas activas.
+     */
+    private IndiceReservas construir(int prop, List<Reserva> activas) {
+
+        int[] ids = new int[activas.size()];
+        int[] inicios = new int[activas.size()];
+        int[] fines = new int[activas.size()];
+
+        for (int i = 0; i < ids.length; i++) {
+
+            Reserva r = activas.get(i);
+
+            ids[i] = r.getId_reserva();
+            inicios[i] = (int) r.getFecha_inicio().toLocalDate().toEpochDay();
+            fines[i] = (int) r.getFecha_fin().toLocalDate().toEpochDay();
+            propiedadDeReserva.put(ids[i], prop);
+
+        }
+
+        return IndiceReservas.de(ids, inicios, fines);
+    }
+
+    /**
+     * Indica si una reserva ocupa la propiedad (solo las confirmadas y pendientes).
+     */
+    private static boolean ocupa(Reserva reserva) {
+
+        return reserva.getEstadoReserva() == Reserva.EstadoReserva.CONFIRMADA
+                || reserva.getEstadoReserva() == Reserva.EstadoReserva.PENDIENTE;
+
+    }
+
+    /**
+     * Estancia de una reserva activa.
+     *
+     * @param idReserva identificador de la reserva.
+     * @param idPropiedad propiedad ocupada.
+     * @param inicio día de entrada.
+     * @param fin día de salida (su noche queda libre).
+     */
+    public record Ocupacion(int idReserva, int idPropiedad, LocalDate inicio, LocalDate fin) { }
+}
@@ -0,0 +1,30 @@
+package com.reservas.disponibilidad;
+
+import com.reservas.model.Propiedad;
+
+import java.util.Comparator;
+
+/**
+ * <h1>Resultado de una búsqueda de disponibilidad</h1>
+ *
+ * Propiedad libre para el rango buscado junto con el precio de la estancia completa.
+ *
+ * @param propiedad propiedad libre.
+ * @param noches número de noches de la estancia.
+ * @param precioTotal total del presupuesto de {@link com.reservas.precios.MotorPrecios} para esas fechas y
+ *                    huéspedes, con todas las reglas de precio: el mismo importe que se cobra al reservar.
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+public record ResultadoBusqueda(Propiedad propiedad, int noches, double precioTotal) {
+
+    /**
+     * Orden de los resultados: primero el menor precio total; a igual precio, la capacidad más ajustada
+     * al grupo y, por último, el ID de la propiedad.
+     */
+    public static final Comparator<ResultadoBusqueda> ORDEN = Comparator
+            .comparingDouble(ResultadoBusqueda::precioTotal)
+            .thenComparingInt(r -> r.propiedad().getCapacidad())
+            .thenComparingInt(r -> r.propiedad().getIdPropiedad());
+
+}
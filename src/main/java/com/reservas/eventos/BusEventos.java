@@ -0,0 +1,243 @@
+package com.reservas.eventos;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * <h1>Bus de eventos de cambios</h1>
+ *
+ * Reparte entre las ventanas abiertas los avisos de que una tabla ha cambiado, para que cada una se refresque
+ * sin que el usuario tenga que pulsar ACTUALIZAR.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>Los avisos llegan con {@link #publicar} desde cualquier hilo: en la aplicación los publica
+ *     {@link OyenteNotificaciones} al recibir un {@code NOTIFY} de PostgreSQL.</li>
+ *     <li>Los avisos que llegan durante {@link #AGRUPACION} se agrupan en un único lote por suscriptor, de modo
+ *     que una ráfaga de escrituras (una importación, por ejemplo) provoca un solo refresco y no satura el hilo
+ *     de JavaFX.</li>
+ *     <li>Cada suscriptor recibe solo las tablas que le interesan, en el hilo de entrega. Lo elige el punto de
+ *     entrada al crear el bus compartido con {@link #iniciar(Executor)}: el de JavaFX en la aplicación de
+ *     escritorio, el propio hilo del bus en el servidor. El bus no depende de JavaFX.</li>
+ * </ul>
+ *
+ * Un bus creado con el constructor no escucha la base de datos: funciona solo dentro del proceso, con los avisos
+ * que se publiquen a mano, y sirve para probar las vistas sin PostgreSQL.
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public class BusEventos {
+
+    public static final Duration AGRUPACION = Duration.ofMillis(250);
+
+    private static volatile BusEventos instancia;
+
+    private final long agrupacionMs;
+    private final Executor entrega;
+    private final ScheduledExecutorService temporizador;
+    private final List<Suscripcion> suscripciones = new CopyOnWriteArrayList<>();
+
+    private final Set<TablaObservada> pendientes = EnumSet.noneOf(TablaObservada.class);
+    private boolean programado = false;
+
+    private OyenteNotificaciones oyente;
+
+    /**
+     * Crea un bus local, sin conexión con la base de datos.
+     *
+     * @param agrupacion tiempo durante el que se agrupan los avisos antes de entregarlos.
+     * @param entrega ejecutor en el que se llama a los suscriptores.
+     */
+    public BusEventos(Duration agrupacion, Executor entrega) {
+
+        this.agrupacionMs = agrupacion.toMillis();
+        this.entrega = entrega;
+        this.temporizador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "bus-eventos");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+    }
+
+    /**
+     * Devuelve el bus compartido, que escucha las notificaciones de la base de datos.
+     *
+     * @return la instancia única del bus.
+     * @throws IllegalStateException si todavía no se ha creado con {@link #iniciar(Executor)}.
+     */
+    public static BusEventos getInstance() {
+
+        BusEventos actual = instancia;
+
+        if (actual == null) {
+            throw new IllegalStateException("El bus de eventos no se ha iniciado");
+        }
+
+        return actual;
+    }
+
+    /**
+     * Crea el bus compartido, que escucha la base de datos y entrega los lotes con el ejecutor indicado. Debe
+     * llamarlo el punto de entrada antes que {@link #getInstance()}: {@code Platform::runLater} en la aplicación de
+     * escritorio, {@code Runnable::run} en un proceso sin interfaz gráfica.
+     *
+     * @param entrega ejecutor en el que se llama a los suscriptores.
+     * @return la instancia única del bus; si ya existía, la existente.
+     */
+    public static BusEventos iniciar(Executor entrega) {
+
+        if (instancia == null) {
+
+            synchronized (BusEventos.class) {
+
+                if (instancia == null) {
+
+                    BusEventos bus = new BusEventos(AGRUPACION, entrega);
+                    bus.oyente = new OyenteNotificaciones(bus);
+                    instancia = bus;
+
+                }
+            }
+        }
+
+        return instancia;
+    }
+
+    /**
+     * Detiene la escucha de la base de datos solo si el bus compartido llegó a crearse.
+     */
+    public static void detenerSiIniciado() {
+
+        BusEventos actual = instancia;
+
+        if (actual != null) {
+            actual.detener();
+        }
+    }
+
+    /**
+     * Suscribe una acción a los cambios de unas tablas.
+     *
+     * @param tablas tablas que interesan.
+     * @param accion recibe, en el hilo de entrega, las tablas de {@code tablas} que han cambiado.
+     * @return la suscripción, que hay que cerrar cuando ya no se necesite.
+     */
+    public Suscripcion suscribir(Set<TablaObservada> tablas, Consumer<Set<TablaObservada>> accion) {
+
+        Suscripcion suscripcion = new Suscripcion(EnumSet.copyOf(tablas), accion);
+        suscripciones.add(suscripcion);
+        return suscripcion;
+
+    }
+
+    /**
+     * Avisa de que una tabla ha cambiado. Puede llamarse desde cualquier hilo.
+     *
+     * @param tabla tabla que ha cambiado.
+     */
+    public void publicar(TablaObservada tabla) {
+
+        synchronized (pendientes) {
+
+            pendientes.add(tabla);
+
+            if (programado) {
+                return;
+            }
+
+            programado = true;
+
+        }
+
+        temporizador.schedule(() -> entrega.execute(this::repartir), agrupacionMs, TimeUnit.MILLISECONDS);
+
+    }
+
+    /**
+     * Detiene la escucha de la base de datos y el temporizador. Los avisos pendientes se descartan.
+     */
+    public void detener() {
+
+        if (oyente != null) {
+            oyente.detener();
+        }
+
+        temporizador.shutdownNow();
+
+    }
+
+    /**
+     * Entrega a cada suscriptor las tablas acumuladas que le interesan.
+     */
+    private void repartir() {
+
+        Set<TablaObservada> lote;
+
+        synchronized (pendientes) {
+
+            lote = pendientes.isEmpty() ? EnumSet.noneOf(TablaObservada.class) : EnumSet.copyOf(pendientes);
+            pendientes.clear();
+            programado = false;
+
+        }
+
+        for (Suscripcion suscripcion : suscripciones) {
+
+            Set<TablaObservada> suyas = EnumSet.copyOf(suscripcion.tablas);
+            suyas.retainAll(lote);
+
+            if (suyas.isEmpty()) {
+                continue;
+            }
+
+            try {
+
+                suscripcion.accion.accept(Collections.unmodifiableSet(suyas));
+
+            } catch (RuntimeException e) {
+
+                System.err.println("Error al avisar de cambios en " + suyas + ": " + e.getMessage());
+
+            }
+        }
+    }
+
+    /**
+     * Suscripción a los cambios de unas tablas.
+     */
+    public final class Suscripcion implements AutoCloseable {
+
+        private final Set<TablaObservada> tablas;
+        private final Consumer<Set<TablaObservada>> accion;
+
+        private Suscripcion(Set<TablaObservada> tablas, Consumer<Set<TablaObservada>> accion) {
+
+            this.tablas = tablas;
+            this.accion = accion;
+
+        }
+
+        /**
+         * Deja de recibir avisos. Se puede llamar más de una vez.
+         */
+        public void cerrar() {
+            suscripciones.remove(this);
+        }
+
+        @Override
+        public void close() {
+            cerrar();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.reservas.eventos;
+
+import com.reservas.config.DataBaseConnection;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * <h1>Oyente de notificaciones de PostgreSQL</h1>
+ *
+ * Mantiene una conexión propia, fuera del pool, suscrita con {@code LISTEN} al canal {@value #CANAL}, y publica
+ * en el {@link BusEventos} cada tabla que avisa de un cambio.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>Un hilo virtual espera las notificaciones con {@link PGConnection#getNotifications(int)}, que bloquea
+ *     hasta que llega alguna o pasa {@link #ESPERA_MS}.</li>
+ *     <li>El disparador es por sentencia y envía solo el nombre de la tabla; PostgreSQL junta los avisos
+ *     iguales de una misma transacción, así que importar mil filas genera un único aviso.</li>
+ *     <li>Si la conexión se pierde, se reintenta con esperas crecientes. Al reconectar se avisa de todas las
+ *     tablas, porque los cambios hechos mientras tanto no han llegado.</li>
+ * </ul>
+ *
+ * {@code LISTEN} necesita una conexión directa o del pooler en modo sesión; en modo transacción no llegan avisos.
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+final class OyenteNotificaciones {
+
+    // Disparador que avisa de los cambios de cada tabla:
+    /*
+            CREATE FUNCTION notificar_cambio() RETURNS trigger AS $$
+            BEGIN
+                PERFORM pg_notify('cambios_tablas', TG_TABLE_NAME);
+                RETURN NULL;
+            END $$ LANGUAGE plpgsql;
+
+            -- Para cada tabla: clientes, propiedades, reservas, pagos y valoraciones
+            CREATE TRIGGER reservas_notificar AFTER INSERT OR UPDATE OR DELETE ON reservas
+                FOR EACH STATEMENT EXECUTE FUNCTION notificar_cambio();
+     */
+
+    static final String CANAL = "cambios_tablas";
+
+    private static final int ESPERA_MS = 1_000;
+    private static final long REINTENTO_INICIAL_MS = 1_000;
+    private static final long REINTENTO_MAXIMO_MS = 30_000;
+
+    private final BusEventos bus;
+    private final Thread hilo;
+
+    private volatile boolean activo = true;
+    private volatile Connection conexion;
+
+    /**
+     * Empieza a escuchar en segundo plano.
+     *
+     * @param bus bus en el que se publican los avisos.
+     */
+    OyenteNotificaciones(BusEventos bus) {
+
+        this.bus = bus;
+        this.hilo = Thread.ofVirtual().name("oyente-notificaciones").start(this::escuchar);
+
+    }
+
+    /**
+     * Deja de escuchar y cierra la conexión.
+     */
+    void detener() {
+
+        activo = false;
+        Connection actual = conexion;
+
+        if (actual != null) {
+
+            try {
+                actual.close();
+            } catch (SQLException ignorada) {
+                // Se está cerrando de todas formas
+            }
+        }
+
+        hilo.interrupt();
+
+    }
+
+    private void escuchar() {
+
+        long reintento = REINTENTO_INICIAL_MS;
+        boolean primeraVez = true;
+
+        while (activo) {
+
+            try (Connection con = DataBaseConnection.getInstance().abrirConexionDedicada()) {
+
+                conexion = con;
+
+                try (Statement st = con.createStatement()) {
+                    st.execute("LISTEN " + CANAL);
+                }
+
+                PGConnection pg = con.unwrap(PGConnection.class);
+                reintento = REINTENTO_INICIAL_MS;
+
+                if (!primeraVez) {
+
+                    for (TablaObservada tabla : TablaObservada.values()) {
+                        bus.publicar(tabla);
+                    }
+                }
+
+                primeraVez = false;
+
+                while (activo) {
+
+                    PGNotification[] avisos = pg.getNotifications(ESPERA_MS);
+
+                    if (avisos == null) {
+                        continue;
+                    }
+
+                    for (PGNotification aviso : avisos) {
+                        TablaObservada.deNombre(aviso.getParameter()).ifPresent(bus::publicar);
+                    }
+                }
+
+            } catch (SQLException | RuntimeException e) {
+
+                if (!activo) {
+                    return;
+                }
+
+                System.err.println("Escucha de cambios interrumpida, se reintenta en " + reintento + " ms: " + e.getMessage());
+
+                try {
+
+                    Thread.sleep(reintento);
+
+                } catch (InterruptedException ie) {
+
+                    Thread.currentThread().interrupt();
+                    return;
+
+                }
+
+                reintento = Math.min(reintento * 2, REINTENTO_MAXIMO_MS);
+
+            } finally {
+
+                conexion = null;
+
+            }
+        }
+    }
+}
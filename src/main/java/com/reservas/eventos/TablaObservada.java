@@ -0,0 +1,51 @@
+package com.reservas.eventos;
+
+import java.util.Optional;
+
+/**
+ * <h1>Tablas que avisan de sus cambios</h1>
+ *
+ * Tablas con el disparador {@code notificar_cambio} descrito en {@link OyenteNotificaciones}.
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public enum TablaObservada {
+
+    CLIENTES("clientes"),
+    PROPIEDADES("propiedades"),
+    RESERVAS("reservas"),
+    PAGOS("pagos"),
+    VALORACIONES("valoraciones");
+
+    private final String tabla;
+
+    TablaObservada(String tabla) {
+        this.tabla = tabla;
+    }
+
+    /**
+     * @return nombre de la tabla en la base de datos.
+     */
+    public String tabla() {
+        return tabla;
+    }
+
+    /**
+     * Busca la tabla por su nombre en la base de datos.
+     *
+     * @param nombre nombre recibido en una notificación.
+     * @return la tabla, o vacío si no es una tabla observada.
+     */
+    public static Optional<TablaObservada> deNombre(String nombre) {
+
+        for (TablaObservada t : values()) {
+
+            if (t.tabla.equals(nombre)) {
+                return Optional.of(t);
+            }
+        }
+
+        return Optional.empty();
+    }
+}
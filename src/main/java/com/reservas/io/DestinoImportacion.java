@@ -0,0 +1,51 @@
+package com.reservas.io;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * <h1>Destino de una importación</h1>
+ *
+ * Describe cómo convertir las filas de un CSV en entidades de un tipo y cómo insertarlas en la base de datos.
+ * {@link ImportadorCSV} se encarga de leer, agrupar en lotes, confirmar e informar de errores.
+ *
+ * @param <T> tipo de entidad que se importa.
+ * @author Sofía Abid
+ * @since 17/10/2026
+ */
+public interface DestinoImportacion<T> {
+
+    /**
+     * @return columnas que debe tener la cabecera del CSV.
+     */
+    List<String> columnasObligatorias();
+
+    /**
+     * @return columnas que el CSV puede incluir o no.
+     */
+    List<String> columnasOpcionales();
+
+    /**
+     * Convierte una fila en entidad, validándola con los setters del modelo.
+     *
+     * @param fila fila del CSV.
+     * @return la entidad lista para insertar.
+     * @throws IllegalArgumentException si algún valor no es válido.
+     */
+    T convertir(FilaCSV fila);
+
+    /**
+     * Inserta un lote con la conexión indicada, sin confirmar la transacción.
+     *
+     * @param conexion conexión con la transacción en curso.
+     * @param lote entidades a insertar.
+     * @throws SQLException si la base de datos rechaza alguna fila del lote.
+     */
+    void insertarLote(Connection conexion, List<T> lote) throws SQLException;
+
+    /**
+     * Se llama al terminar la importación para que cachés, índices y totales vuelvan a leer la base de datos.
+     */
+    void alTerminar();
+}
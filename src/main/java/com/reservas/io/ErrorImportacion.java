@@ -0,0 +1,11 @@
+package com.reservas.io;
+
+/**
+ * <h1>Fila rechazada en una importación</h1>
+ *
+ * @param linea línea del archivo en la que empieza la fila.
+ * @param mensaje motivo del rechazo.
+ * @author Sofía Abid
+ * @since 17/10/2026
+ */
+public record ErrorImportacion(long linea, String mensaje) { }
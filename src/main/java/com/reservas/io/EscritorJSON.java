@@ -0,0 +1,347 @@
+package com.reservas.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * <h1>Escritor de JSON en streaming</h1>
+ *
+ * Escribe objetos y listas JSON directamente sobre un {@link Writer}, valor a valor, sin montar el documento
+ * en memoria. Lo usan las respuestas de la API para volcar páginas de filas a medida que se leen.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>Las comas entre valores se ponen solas: basta con abrir, escribir los valores y cerrar.</li>
+ *     <li>Los textos se escapan con {@link #escribirTexto(Writer, String)}, que también usa
+ *     {@link ExportadorTabla}.</li>
+ *     <li>Los {@code NaN} e infinitos, que no son números JSON válidos, se escriben como {@code null}.</li>
+ *     <li>Los errores de escritura se lanzan como {@link UncheckedIOException}, para poder escribir desde
+ *     lambdas.</li>
+ * </ul>
+ *
+ * Cada escritor se usa para un único documento y desde un único hilo.
+ *
+ * @author Diego Regueira
+ * @since 17/10/2026
+ */
+public class EscritorJSON {
+
+    private static final int MAX_PROFUNDIDAD = 32;
+
+    private final Writer salida;
+
+    // Por cada nivel abierto, si ya tiene algún valor (y el siguiente necesita coma)
+    private final boolean[] conValores = new boolean[MAX_PROFUNDIDAD];
+    private int nivel = 0;
+    private boolean trasClave = false;
+
+    /**
+     * @param salida destino del documento; no se cierra al terminar.
+     */
+    public EscritorJSON(Writer salida) {
+        this.salida = salida;
+    }
+
+    /**
+     * Abre un objeto, como valor suelto o como valor de la última clave.
+     *
+     * @return este escritor.
+     */
+    public EscritorJSON abrirObjeto() {
+        return abrir('{');
+    }
+
+    /**
+     * @return este escritor.
+     */
+    public EscritorJSON cerrarObjeto() {
+        return cerrar('}');
+    }
+
+    /**
+     * Abre una lista, como valor suelto o como valor de la última clave.
+     *
+     * @return este escritor.
+     */
+    public EscritorJSON abrirLista() {
+        return abrir('[');
+    }
+
+    /**
+     * @return este escritor.
+     */
+    public EscritorJSON cerrarLista() {
+        return cerrar(']');
+    }
+
+    /**
+     * Escribe la clave del siguiente valor de un objeto.
+     *
+     * @param nombre nombre de la clave.
+     * @return este escritor.
+     */
+    public EscritorJSON clave(String nombre) {
+
+        separar();
+
+        try {
+
+            escribirTexto(salida, nombre);
+            salida.write(':');
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        trasClave = true;
+        return this;
+    }
+
+    /**
+     * @param valor texto a escribir, o {@code null}.
+     * @return este escritor.
+     */
+    public EscritorJSON valor(String valor) {
+
+        separar();
+
+        try {
+
+            if (valor == null) {
+                salida.write("null");
+            } else {
+                escribirTexto(salida, valor);
+            }
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return this;
+    }
+
+    /**
+     * @param valor número entero a escribir.
+     * @return este escritor.
+     */
+    public EscritorJSON valor(long valor) {
+        return literal(Long.toString(valor));
+    }
+
+    /**
+     * @param valor número a escribir; {@code NaN} e infinitos se escriben como {@code null}.
+     * @return este escritor.
+     */
+    public EscritorJSON valor(double valor) {
+        return literal(Double.isFinite(valor) ? Double.toString(valor) : "null");
+    }
+
+    /**
+     * @param valor booleano a escribir.
+     * @return este escritor.
+     */
+    public EscritorJSON valor(boolean valor) {
+        return literal(Boolean.toString(valor));
+    }
+
+    /**
+     * Escribe un texto ya serializado como JSON, por ejemplo un documento generado por otra clase.
+     *
+     * @param json valor JSON válido.
+     * @return este escritor.
+     */
+    public EscritorJSON literal(String json) {
+
+        separar();
+
+        try {
+
+            salida.write(json);
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return this;
+    }
+
+    /**
+     * Escribe un campo de texto de un objeto.
+     *
+     * @param nombre nombre de la clave.
+     * @param valor texto, o {@code null}.
+     * @return este escritor.
+     */
+    public EscritorJSON campo(String nombre, String valor) {
+        return clave(nombre).valor(valor);
+    }
+
+    /**
+     * Escribe un campo numérico entero de un objeto.
+     *
+     * @param nombre nombre de la clave.
+     * @param valor número.
+     * @return este escritor.
+     */
+    public EscritorJSON campo(String nombre, long valor) {
+        return clave(nombre).valor(valor);
+    }
+
+    /**
+     * Escribe un campo numérico de un objeto.
+     *
+     * @param nombre nombre de la clave.
+     * @param valor número.
+     * @return este escritor.
+     */
+    public EscritorJSON campo(String nombre, double valor) {
+        return clave(nombre).valor(valor);
+    }
+
+    /**
+     * Escribe un campo booleano de un objeto.
+     *
+     * @param nombre nombre de la clave.
+     * @param valor booleano.
+     * @return este escritor.
+     */
+    public EscritorJSON campo(String nombre, boolean valor) {
+        return clave(nombre).valor(valor);
+    }
+
+    /**
+     * Escribe un campo con el texto de cualquier objeto ({@link Object#toString()}), o {@code null}.
+     *
+     * @param nombre nombre de la clave.
+     * @param valor objeto, por ejemplo una fecha o un valor de un enumerado.
+     * @return este escritor.
+     */
+    public EscritorJSON campoTexto(String nombre, Object valor) {
+        return clave(nombre).valor(valor == null ? null : valor.toString());
+    }
+
+    /**
+     * Vacía el búfer del destino, para que el cliente reciba lo escrito hasta ahora.
+     */
+    public void vaciar() {
+
+        try {
+
+            salida.flush();
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private EscritorJSON abrir(char apertura) {
+
+        if (nivel == MAX_PROFUNDIDAD) {
+            throw new IllegalStateException("Demasiados niveles anidados en el JSON");
+        }
+
+        separar();
+
+        try {
+
+            salida.write(apertura);
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        conValores[nivel++] = false;
+        return this;
+    }
+
+    private EscritorJSON cerrar(char cierre) {
+
+        if (nivel == 0) {
+            throw new IllegalStateException("No hay ningún objeto ni lista abiertos");
+        }
+
+        nivel--;
+
+        try {
+
+            salida.write(cierre);
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return this;
+    }
+
+    /**
+     * Escribe la coma que separa un valor del anterior, salvo tras una clave o al principio de un nivel.
+     */
+    private void separar() {
+
+        if (trasClave) {
+
+            trasClave = false;
+            return;
+
+        }
+
+        if (nivel == 0) {
+            return;
+        }
+
+        if (conValores[nivel - 1]) {
+
+            try {
+
+                salida.write(',');
+
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        conValores[nivel - 1] = true;
+    }
+
+    /**
+     * Escribe un texto JSON entre comillas, escapando comillas, barras y caracteres de control.
+     *
+     * @param salida destino.
+     * @param valor texto a escribir.
+     * @throws IOException si no se puede escribir.
+     */
+    public static void escribirTexto(Writer salida, String valor) throws IOException {
+
+        salida.write('"');
+
+        int desde = 0;
+
+        for (int i = 0; i < valor.length(); i++) {
+
+            char c = valor.charAt(i);
+
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+
+            salida.write(valor, desde, i - desde);
+            desde = i + 1;
+
+            switch (c) {
+
+                case '"' -> salida.write("\\\"");
+                case '\\' -> salida.write("\\\\");
+                case '\n' -> salida.write("\\n");
+                case '\r' -> salida.write("\\r");
+                case '\t' -> salida.write("\\t");
+                default -> salida.write(String.format("\\u%04x", (int) c));
+
+            }
+        }
+
+        salida.write(valor, desde, valor.length() - desde);
+        salida.write('"');
+
+    }
+}
@@ -0,0 +1,341 @@
+package com.reservas.io;
+
+import com.reservas.config.DataBaseConnection;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <h1>Exportador de tablas</h1>
+ *
+ * Vuelca una tabla completa a un archivo CSV o JSON Lines, opcionalmente comprimido con gzip, sin cargarla
+ * en memoria.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>La consulta se ejecuta con un cursor de solo avance: con el autocommit desactivado y un
+ *     {@code fetchSize}, el driver de PostgreSQL trae las filas en viajes de {@link #FILAS_POR_VIAJE}
+ *     en lugar de todo el resultado de golpe.</li>
+ *     <li>Cada fila se escribe directamente al archivo a través de un búfer, sin crear objetos del modelo;
+ *     la memoria usada es la misma para mil filas que para un millón.</li>
+ *     <li>Se escribe primero en un archivo {@code .parcial} que se renombra al terminar. Si la exportación
+ *     falla o se detiene, el parcial se borra y no queda un archivo a medias con el nombre definitivo.</li>
+ *     <li>Cada {@link #FILAS_ENTRE_AVISOS} filas se informa del progreso y de las filas por segundo.</li>
+ * </ul>
+ *
+ * Cada exportador se usa para un único archivo.
+ *
+ * @author Diego Regueira
+ * @since 17/10/2026
+ */
+public class ExportadorTabla {
+
+    public static final int FILAS_POR_VIAJE = 2000;
+    public static final int FILAS_ENTRE_AVISOS = 10_000;
+
+    private static final int TAM_BUFFER = 64 * 1024;
+
+    private final TablaExportable tabla;
+    private final FormatoExportacion formato;
+    private final boolean comprimir;
+
+    private volatile boolean cancelado;
+
+    /**
+     * @param tabla tabla a exportar.
+     * @param formato formato del archivo.
+     * @param comprimir si el archivo se comprime con gzip.
+     */
+    public ExportadorTabla(TablaExportable tabla, FormatoExportacion formato, boolean comprimir) {
+
+        this.tabla = tabla;
+        this.formato = formato;
+        this.comprimir = comprimir;
+
+    }
+
+    /**
+     * Pide que la exportación se detenga. Puede llamarse desde cualquier hilo.
+     */
+    public void cancelar() {
+        cancelado = true;
+    }
+
+    /**
+     * Exporta la tabla. Debe llamarse fuera del hilo de JavaFX.
+     *
+     * @param destino archivo a generar; se sobrescribe si existe.
+     * @param progreso recibe el progreso periódicamente (en el hilo de la exportación).
+     * @return el resumen de la exportación.
+     * @throws IOException si no se puede escribir el archivo.
+     * @throws RuntimeException si falla la consulta.
+     */
+    public ResultadoExportacion exportar(Path destino, Consumer<ProgresoExportacion> progreso) throws IOException {
+
+        long inicio = System.nanoTime();
+        long filas = 0;
+        boolean terminado = false;
+
+        Path parcial = destino.resolveSibling(destino.getFileName() + ".parcial");
+
+        try (Writer salida = abrir(parcial);
+             Connection conexion = DataBaseConnection.getInstance().conectarBD()) {
+
+            if (conexion == null) {
+                throw new SQLException("No hay conexión con la base de datos");
+            }
+
+            conexion.setAutoCommit(false);
+
+            try (PreparedStatement ps = conexion.prepareStatement(tabla.consulta(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                ps.setFetchSize(FILAS_POR_VIAJE);
+
+                try (ResultSet rs = ps.executeQuery()) {
+
+                    Columnas columnas = new Columnas(rs.getMetaData());
+
+                    if (formato == FormatoExportacion.CSV) {
+                        escribirCabeceraCSV(salida, columnas);
+                    }
+
+                    while (!cancelado && !Thread.currentThread().isInterrupted() && rs.next()) {
+
+                        if (formato == FormatoExportacion.CSV) {
+                            escribirFilaCSV(salida, rs, columnas);
+                        } else {
+                            escribirFilaJSON(salida, rs, columnas);
+                        }
+
+                        filas++;
+
+                        if (filas % FILAS_ENTRE_AVISOS == 0) {
+                            progreso.accept(new ProgresoExportacion(filas, Duration.ofNanos(System.nanoTime() - inicio)));
+                        }
+                    }
+
+                    terminado = !cancelado && !Thread.currentThread().isInterrupted();
+
+                }
+
+            } finally {
+
+                // Solo se ha leído: se cierra la transacción sin cambios
+                conexion.rollback();
+
+            }
+
+        } catch (SQLException e) {
+
+            System.err.println("Error al exportar " + tabla.tabla() + ": " + e.getMessage());
+            Files.deleteIfExists(parcial);
+            throw new RuntimeException("No se ha podido leer la tabla " + tabla.tabla() + ": " + e.getMessage(), e);
+
+        } catch (IOException | RuntimeException e) {
+
+            Files.deleteIfExists(parcial);
+            throw e;
+
+        }
+
+        Duration duracion = Duration.ofNanos(System.nanoTime() - inicio);
+
+        if (!terminado) {
+
+            Files.deleteIfExists(parcial);
+            return new ResultadoExportacion(null, filas, 0, true, duracion);
+
+        }
+
+        Files.move(parcial, destino, StandardCopyOption.REPLACE_EXISTING);
+        progreso.accept(new ProgresoExportacion(filas, duracion));
+
+        return new ResultadoExportacion(destino, filas, Files.size(destino), false, duracion);
+
+    }
+
+    /**
+     * Abre el archivo de salida en UTF-8, con compresión gzip si se ha pedido.
+     */
+    private Writer abrir(Path archivo) throws IOException {
+
+        OutputStream salida = Files.newOutputStream(archivo);
+
+        if (comprimir) {
+            salida = new GZIPOutputStream(salida, TAM_BUFFER);
+        }
+
+        return new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAM_BUFFER);
+
+    }
+
+    private static void escribirCabeceraCSV(Writer salida, Columnas columnas) throws IOException {
+
+        for (int i = 0; i < columnas.nombres.length; i++) {
+
+            if (i > 0) {
+                salida.write(',');
+            }
+
+            escribirCampoCSV(salida, columnas.nombres[i]);
+
+        }
+
+        salida.write('\n');
+
+    }
+
+    private static void escribirFilaCSV(Writer salida, ResultSet rs, Columnas columnas) throws SQLException, IOException {
+
+        for (int i = 0; i < columnas.nombres.length; i++) {
+
+            if (i > 0) {
+                salida.write(',');
+            }
+
+            String valor = columnas.booleana[i] ? booleano(rs, i + 1) : rs.getString(i + 1);
+
+            if (valor != null) {
+                escribirCampoCSV(salida, valor);
+            }
+        }
+
+        salida.write('\n');
+
+    }
+
+    /**
+     * Escribe un campo CSV, entre comillas solo si contiene separadores, comillas o saltos de línea.
+     */
+    private static void escribirCampoCSV(Writer salida, String valor) throws IOException {
+
+        boolean comillas = false;
+
+        for (int i = 0; i < valor.length() && !comillas; i++) {
+
+            char c = valor.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+
+        }
+
+        if (!comillas) {
+
+            salida.write(valor);
+            return;
+
+        }
+
+        salida.write('"');
+        salida.write(valor.replace("\"", "\"\""));
+        salida.write('"');
+
+    }
+
+    private static void escribirFilaJSON(Writer salida, ResultSet rs, Columnas columnas) throws SQLException, IOException {
+
+        salida.write('{');
+
+        for (int i = 0; i < columnas.nombres.length; i++) {
+
+            salida.write(columnas.clavesJSON[i]);
+
+            String valor = columnas.booleana[i] ? booleano(rs, i + 1) : rs.getString(i + 1);
+
+            if (valor == null) {
+
+                salida.write("null");
+
+            } else if (columnas.booleana[i] || columnas.numerica[i] && esNumeroJSON(valor)) {
+
+                salida.write(valor);
+
+            } else {
+
+                EscritorJSON.escribirTexto(salida, valor);
+
+            }
+        }
+
+        salida.write("}\n");
+
+    }
+
+    /**
+     * PostgreSQL admite {@code NaN} e {@code Infinity} en columnas numéricas, que no son números JSON válidos.
+     */
+    private static boolean esNumeroJSON(String valor) {
+
+        char primero = valor.charAt(0);
+        return primero == '-' ? valor.length() > 1 && Character.isDigit(valor.charAt(1)) : Character.isDigit(primero);
+
+    }
+
+    /**
+     * El driver devuelve {@code t}/{@code f} como texto de un booleano; se escribe {@code true}/{@code false}.
+     */
+    private static String booleano(ResultSet rs, int columna) throws SQLException {
+
+        boolean valor = rs.getBoolean(columna);
+        return rs.wasNull() ? null : String.valueOf(valor);
+
+    }
+
+    /**
+     * Nombres y tipos de las columnas del resultado, calculados una sola vez por exportación.
+     */
+    private static final class Columnas {
+
+        final String[] nombres;
+        final String[] clavesJSON;
+        final boolean[] numerica;
+        final boolean[] booleana;
+
+        Columnas(ResultSetMetaData metadatos) throws SQLException, IOException {
+
+            int n = metadatos.getColumnCount();
+
+            nombres = new String[n];
+            clavesJSON = new String[n];
+            numerica = new boolean[n];
+            booleana = new boolean[n];
+
+            for (int i = 0; i < n; i++) {
+
+                nombres[i] = metadatos.getColumnLabel(i + 1);
+
+                StringWriter clave = new StringWriter();
+                clave.write(i == 0 ? "" : ",");
+                EscritorJSON.escribirTexto(clave, nombres[i]);
+                clave.write(':');
+                clavesJSON[i] = clave.toString();
+
+                switch (metadatos.getColumnType(i + 1)) {
+
+                    case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT, Types.NUMERIC, Types.DECIMAL,
+                         Types.REAL, Types.FLOAT, Types.DOUBLE -> numerica[i] = true;
+                    case Types.BOOLEAN, Types.BIT -> booleana[i] = true;
+                    default -> { }
+
+                }
+            }
+        }
+    }
+}
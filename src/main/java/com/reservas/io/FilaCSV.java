@@ -0,0 +1,143 @@
+package com.reservas.io;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * <h1>Fila de un CSV con acceso por nombre de columna</h1>
+ *
+ * Da acceso a los campos de un registro por el nombre de su columna en la cabecera y los convierte al tipo
+ * esperado. Los errores de conversión se lanzan como {@link IllegalArgumentException} con el nombre de la
+ * columna, igual que los de validación de los modelos, para mostrarlos en el informe de la importación.
+ *
+ * @author Sofía Abid
+ * @since 17/10/2026
+ */
+public class FilaCSV {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final Map<String, Integer> columnas;
+    private final String[] valores;
+    private final long linea;
+
+    /**
+     * @param columnas posición de cada columna, por su nombre normalizado.
+     * @param valores campos del registro.
+     * @param linea línea del archivo en la que empieza el registro.
+     */
+    FilaCSV(Map<String, Integer> columnas, String[] valores, long linea) {
+
+        this.columnas = columnas;
+        this.valores = valores;
+        this.linea = linea;
+
+    }
+
+    /**
+     * @return línea del archivo en la que empieza el registro.
+     */
+    public long linea() {
+        return linea;
+    }
+
+    /**
+     * @param columna nombre de la columna.
+     * @return el valor sin espacios a los lados.
+     * @throws IllegalArgumentException si la columna falta o está vacía.
+     */
+    public String texto(String columna) {
+
+        String valor = textoOpcional(columna, null);
+
+        if (valor == null) {
+            throw new IllegalArgumentException("La columna '" + columna + "' está vacía");
+        }
+
+        return valor;
+    }
+
+    /**
+     * @param columna nombre de la columna.
+     * @param porDefecto valor a devolver si la columna no existe o está vacía.
+     * @return el valor sin espacios a los lados, o {@code porDefecto}.
+     */
+    public String textoOpcional(String columna, String porDefecto) {
+
+        Integer posicion = columnas.get(columna);
+
+        if (posicion == null || posicion >= valores.length) {
+            return porDefecto;
+        }
+
+        String valor = valores[posicion].trim();
+        return valor.isEmpty() ? porDefecto : valor;
+
+    }
+
+    /**
+     * @param columna nombre de la columna.
+     * @return el valor como número entero.
+     * @throws IllegalArgumentException si falta o no es un número entero.
+     */
+    public int entero(String columna) {
+
+        String valor = texto(columna);
+
+        try {
+
+            return Integer.parseInt(valor);
+
+        } catch (NumberFormatException e) {
+
+            throw new IllegalArgumentException("La columna '" + columna + "' debe ser un número entero: " + valor);
+
+        }
+    }
+
+    /**
+     * Lee un número con decimales; admite tanto el punto como la coma decimal.
+     *
+     * @param columna nombre de la columna.
+     * @return el valor como número decimal.
+     * @throws IllegalArgumentException si falta o no es un número.
+     */
+    public double decimal(String columna) {
+
+        String valor = texto(columna);
+
+        try {
+
+            return Double.parseDouble(valor.replace(',', '.'));
+
+        } catch (NumberFormatException e) {
+
+            throw new IllegalArgumentException("La columna '" + columna + "' debe ser un número: " + valor);
+
+        }
+    }
+
+    /**
+     * Lee una fecha en formato ISO ({@code 2026-10-17}) o en el que muestra la aplicación ({@code 17/10/2026}).
+     *
+     * @param columna nombre de la columna.
+     * @return la fecha.
+     * @throws IllegalArgumentException si falta o no tiene un formato válido.
+     */
+    public LocalDate fecha(String columna) {
+
+        String valor = texto(columna);
+
+        try {
+
+            return valor.indexOf('/') >= 0 ? LocalDate.parse(valor, FORMATO_FECHA) : LocalDate.parse(valor);
+
+        } catch (DateTimeParseException e) {
+
+            throw new IllegalArgumentException("La columna '" + columna + "' debe ser una fecha (dd/MM/aaaa): " + valor);
+
+        }
+    }
+}
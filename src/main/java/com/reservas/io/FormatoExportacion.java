@@ -0,0 +1,43 @@
+package com.reservas.io;
+
+/**
+ * <h1>Formatos de exportación</h1>
+ *
+ * <ul>
+ *     <li>{@link #CSV}: una cabecera con los nombres de columna y una fila por registro, separada por comas.
+ *     Se puede volver a importar con {@link ImportadorCSV}.</li>
+ *     <li>{@link #JSONL}: JSON Lines, un objeto JSON por línea. Los números y booleanos se escriben sin comillas.</li>
+ * </ul>
+ *
+ * @author Diego Regueira
+ * @since 17/10/2026
+ */
+public enum FormatoExportacion {
+
+    CSV("CSV", ".csv"),
+
+    JSONL("JSON Lines", ".jsonl");
+
+    private final String descripcion;
+    private final String extension;
+
+    FormatoExportacion(String descripcion, String extension) {
+
+        this.descripcion = descripcion;
+        this.extension = extension;
+
+    }
+
+    /**
+     * @param comprimido si el archivo se comprime con gzip.
+     * @return extensión del archivo, incluido el punto.
+     */
+    public String extension(boolean comprimido) {
+        return comprimido ? extension + ".gz" : extension;
+    }
+
+    @Override
+    public String toString() {
+        return descripcion;
+    }
+}
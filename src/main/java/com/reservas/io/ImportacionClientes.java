@@ -0,0 +1,55 @@
+package com.reservas.io;
+
+import com.reservas.busqueda.BuscadorClientes;
+import com.reservas.dao.ClienteDAO;
+import com.reservas.model.Cliente;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Importación de clientes: una fila por cliente con {@code nombre}, {@code apellidos}, {@code email},
+ * {@code telefono} y {@code pais}. El teléfono puede llevar espacios o guiones.
+ *
+ * @author Sofía Abid
+ * @since 17/10/2026
+ */
+class ImportacionClientes implements DestinoImportacion<Cliente> {
+
+    private final ClienteDAO dao = new ClienteDAO();
+
+    @Override
+    public List<String> columnasObligatorias() {
+        return List.of("nombre", "apellidos", "email", "telefono", "pais");
+    }
+
+    @Override
+    public List<String> columnasOpcionales() {
+        return List.of();
+    }
+
+    @Override
+    public Cliente convertir(FilaCSV fila) {
+
+        String telefono = fila.texto("telefono").replaceAll("[\\s-]", "");
+
+        return new Cliente(fila.texto("nombre"), fila.texto("apellidos"), fila.texto("email"), telefono,
+                fila.texto("pais"));
+
+    }
+
+    @Override
+    public void insertarLote(Connection conexion, List<Cliente> lote) throws SQLException {
+        dao.insertarLote(conexion, lote);
+    }
+
+    @Override
+    public void alTerminar() {
+
+        ClienteDAO.invalidarTotales();
+        ClienteDAO.invalidarCache();
+        BuscadorClientes.getInstance().invalidar();
+
+    }
+}
@@ -0,0 +1,64 @@
+package com.reservas.io;
+
+import com.reservas.dao.PropiedadDAO;
+import com.reservas.disponibilidad.BuscadorDisponibilidad;
+import com.reservas.model.Propiedad;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Importación de propiedades. Si falta {@code estado_propiedad} la propiedad se da de alta como disponible.
+ *
+ * @author Sofía Abid
+ * @since 17/10/2026
+ */
+class ImportacionPropiedades implements DestinoImportacion<Propiedad> {
+
+    private static final String ESTADO_POR_DEFECTO = "disponible";
+
+    private final PropiedadDAO dao = new PropiedadDAO();
+
+    @Override
+    public List<String> columnasObligatorias() {
+        return List.of("nombre", "direccion", "ciudad", "pais", "precio_noche", "capacidad", "descripcion");
+    }
+
+    @Override
+    public List<String> columnasOpcionales() {
+        return List.of("estado_propiedad");
+    }
+
+    @Override
+    public Propiedad convertir(FilaCSV fila) {
+
+        Propiedad propiedad = new Propiedad(null, null, null, null, 0, 0, null, null);
+
+        // Los setters validan cada campo y lanzan IllegalArgumentException con el mensaje del formulario
+        propiedad.setNombre(fila.textoOpcional("nombre", ""));
+        propiedad.setDireccion(fila.textoOpcional("direccion", ""));
+        propiedad.setCiudad(fila.textoOpcional("ciudad", ""));
+        propiedad.setPais(fila.textoOpcional("pais", ""));
+        propiedad.setPrecio_noche((float) fila.decimal("precio_noche"));
+        propiedad.setCapacidad(fila.entero("capacidad"));
+        propiedad.setDescripcion(fila.textoOpcional("descripcion", ""));
+        propiedad.setEstado_propiedad(fila.textoOpcional("estado_propiedad", ESTADO_POR_DEFECTO).toLowerCase());
+
+        return propiedad;
+    }
+
+    @Override
+    public void insertarLote(Connection conexion, List<Propiedad> lote) throws SQLException {
+        dao.insertarLote(conexion, lote);
+    }
+
+    @Override
+    public void alTerminar() {
+
+        PropiedadDAO.invalidarTotales();
+        PropiedadDAO.invalidarCache();
+        BuscadorDisponibilidad.getInstance().invalidarPropiedades();
+
+    }
+}
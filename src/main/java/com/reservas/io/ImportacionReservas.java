@@ -0,0 +1,100 @@
+package com.reservas.io;
+
+import com.reservas.dao.ReservaDAO;
+import com.reservas.disponibilidad.MotorDisponibilidad;
+import com.reservas.model.Reserva;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Importación de reservas. El cliente y la propiedad se indican por su ID; si falta {@code estado}
+ * la reserva queda pendiente.
+ * <p>
+ * Los solapes con otras reservas activas los rechaza la restricción de exclusión de la tabla {@code reservas}
+ * (también entre filas del mismo archivo), y aparecen como error de la fila en el informe.
+ * </p>
+ *
+ * @author Sofía Abid
+ * @since 17/10/2026
+ */
+class ImportacionReservas implements DestinoImportacion<Reserva> {
+
+    private final ReservaDAO dao = new ReservaDAO();
+
+    @Override
+    public List<String> columnasObligatorias() {
+        return List.of("id_cliente", "id_propiedad", "fecha_inicio", "fecha_fin", "num_personas", "precio_total");
+    }
+
+    @Override
+    public List<String> columnasOpcionales() {
+        return List.of("estado", "motivo_cancelacion");
+    }
+
+    @Override
+    public Reserva convertir(FilaCSV fila) {
+
+        LocalDate inicio = fila.fecha("fecha_inicio");
+        LocalDate fin = fila.fecha("fecha_fin");
+
+        if (!fin.isAfter(inicio)) {
+            throw new IllegalArgumentException("La fecha fin debe ser posterior a la fecha inicio.");
+        }
+
+        int personas = fila.entero("num_personas");
+
+        if (personas < 1) {
+            throw new IllegalArgumentException("El número de personas debe ser mayor que cero.");
+        }
+
+        double precio = fila.decimal("precio_total");
+
+        if (precio < 0) {
+            throw new IllegalArgumentException("El precio total no puede ser negativo.");
+        }
+
+        Reserva reserva = new Reserva();
+
+        reserva.setId_cliente(fila.entero("id_cliente"));
+        reserva.setId_propiedad(fila.entero("id_propiedad"));
+        reserva.setFecha_inicio(Date.valueOf(inicio));
+        reserva.setFecha_fin(Date.valueOf(fin));
+        reserva.setNum_personas(personas);
+        reserva.setEstado(estado(fila.textoOpcional("estado", Reserva.EstadoReserva.PENDIENTE.name())));
+        reserva.setPrecio_total(precio);
+        reserva.setMotivo_cancelacion(fila.textoOpcional("motivo_cancelacion", null));
+
+        return reserva;
+    }
+
+    @Override
+    public void insertarLote(Connection conexion, List<Reserva> lote) throws SQLException {
+        dao.insertarLote(conexion, lote);
+    }
+
+    @Override
+    public void alTerminar() {
+
+        ReservaDAO.invalidarTotales();
+        ReservaDAO.invalidarCache();
+        MotorDisponibilidad.getInstance().olvidarTodas();
+
+    }
+
+    private static Reserva.EstadoReserva estado(String texto) {
+
+        try {
+
+            return Reserva.EstadoReserva.valueOf(texto.toUpperCase().trim());
+
+        } catch (IllegalArgumentException e) {
+
+            throw new IllegalArgumentException("El estado debe ser: confirmada, pendiente o cancelada: " + texto);
+
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.reservas.io;
+
+import com.reservas.config.DataBaseConnection;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.reservas.util.Textos.normalizar;
+
+/**
+ * <h1>Importador de CSV por lotes</h1>
+ *
+ * Carga en la base de datos archivos CSV de clientes, propiedades o reservas de cualquier tamaño, leyéndolos
+ * registro a registro e insertándolos en lotes JDBC.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>La primera línea es la cabecera; las columnas se reconocen por nombre, sin importar mayúsculas,
+ *     tildes ni orden. El separador ({@code ,} o {@code ;}) se detecta a partir de ella.</li>
+ *     <li>Cada fila se valida con los setters del modelo; las que no son válidas se anotan y se saltan.</li>
+ *     <li>Las filas válidas se insertan en lotes de tamaño configurable con {@code addBatch}/{@code executeBatch}
+ *     (el driver los reescribe como INSERT de varias filas) y cada lote se confirma en su propia transacción.</li>
+ *     <li>Si la base de datos rechaza un lote (email repetido, reserva solapada, ID inexistente...), se deshace
+ *     y se reintenta por mitades con puntos de guardado hasta aislar las filas culpables; el resto se guarda.</li>
+ *     <li>La memoria usada no depende del tamaño del archivo: solo se guarda un lote y los primeros
+ *     {@link #MAX_ERRORES_EN_MEMORIA} errores. Todos los errores se escriben en un CSV junto al archivo
+ *     importado ({@code nombre.errores.csv}).</li>
+ *     <li>Tras cada lote se informa del progreso. {@link #cancelar()} detiene la lectura; los lotes ya
+ *     confirmados se mantienen.</li>
+ * </ul>
+ *
+ * Cada importador se usa para un único archivo.
+ *
+ * @param <T> tipo de entidad que se importa.
+ * @author Sofía Abid
+ * @since 17/10/2026
+ */
+public class ImportadorCSV<T> {
+
+    public static final int TAMANO_LOTE_POR_DEFECTO = 500;
+    public static final int MAX_ERRORES_EN_MEMORIA = 200;
+
+    private static final int MAX_CABECERA = 64 * 1024;
+
+    private final DestinoImportacion<T> destino;
+    private final int tamanoLote;
+
+    private volatile boolean cancelado;
+
+    private Path archivo;
+    private long filasLeidas;
+    private long insertadas;
+    private long rechazadas;
+    private final List<ErrorImportacion> primerosErrores = new ArrayList<>();
+    private Path informe;
+    private BufferedWriter escritorInforme;
+
+    /**
+     * @param destino tipo de datos a importar.
+     * @param tamanoLote filas por lote y por transacción.
+     */
+    public ImportadorCSV(DestinoImportacion<T> destino, int tamanoLote) {
+
+        if (tamanoLote < 1) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor que cero");
+        }
+
+        this.destino = destino;
+        this.tamanoLote = tamanoLote;
+
+    }
+
+    /**
+     * @param tipo tipo de datos a importar.
+     * @param tamanoLote filas por lote y por transacción.
+     * @return un importador para ese tipo.
+     */
+    public static ImportadorCSV<?> para(TipoImportacion tipo, int tamanoLote) {
+        return new ImportadorCSV<>(tipo.destino(), tamanoLote);
+    }
+
+    /**
+     * Pide que la importación se detenga después del registro en curso. Puede llamarse desde cualquier hilo.
+     */
+    public void cancelar() {
+        cancelado = true;
+    }
+
+    /**
+     * Importa un archivo CSV codificado en UTF-8. Debe llamarse fuera del hilo de JavaFX.
+     *
+     * @param archivo archivo a importar.
+     * @param progreso recibe el progreso tras cada lote (en el hilo de la importación).
+     * @return el resumen de la importación.
+     * @throws IOException si el archivo no se puede leer o su formato no es válido.
+     * @throws IllegalArgumentException si a la cabecera le faltan columnas obligatorias.
+     * @throws RuntimeException si se pierde la conexión con la base de datos.
+     */
+    public ResultadoImportacion importar(Path archivo, Consumer<ProgresoImportacion> progreso) throws IOException {
+
+        long inicio = System.nanoTime();
+        this.archivo = archivo;
+        long tamano = Files.size(archivo);
+
+        try (EntradaContada bytes = new EntradaContada(Files.newInputStream(archivo));
+             BufferedReader texto = new BufferedReader(new InputStreamReader(bytes, StandardCharsets.UTF_8))) {
+
+            texto.mark(MAX_CABECERA);
+            String primeraLinea = texto.readLine();
+
+            if (primeraLinea == null) {
+                throw new IOException("El archivo está vacío");
+            }
+
+            texto.reset();
+
+            LectorCSV lector = new LectorCSV(texto, LectorCSV.detectarSeparador(primeraLinea));
+            Map<String, Integer> columnas = leerCabecera(lector.siguiente());
+
+            try (Connection conexion = DataBaseConnection.getInstance().conectarBD()) {
+
+                conexion.setAutoCommit(false);
+
+                List<T> lote = new ArrayList<>(tamanoLote);
+                long[] lineas = new long[tamanoLote];
+                String[] registro;
+
+                while (!cancelado && !Thread.currentThread().isInterrupted() && (registro = lector.siguiente()) != null) {
+
+                    FilaCSV fila = new FilaCSV(columnas, registro, lector.lineaRegistro());
+                    filasLeidas++;
+
+                    try {
+
+                        T entidad = destino.convertir(fila);
+                        lineas[lote.size()] = fila.linea();
+                        lote.add(entidad);
+
+                    } catch (IllegalArgumentException e) {
+
+                        rechazar(fila.linea(), e.getMessage());
+
+                    }
+
+                    if (lote.size() == tamanoLote) {
+
+                        volcar(conexion, lote, lineas);
+                        lote.clear();
+
+                    }
+
+                    if (filasLeidas % tamanoLote == 0) {
+                        progreso.accept(progreso(bytes.leidos(), tamano));
+                    }
+                }
+
+                if (!lote.isEmpty()) {
+                    volcar(conexion, lote, lineas);
+                }
+
+            } catch (SQLException e) {
+
+                System.err.println("Error en la importación: " + e.getMessage());
+                throw new RuntimeException("La importación se ha interrumpido por un error de la base de datos: "
+                        + e.getMessage(), e);
+
+            } finally {
+
+                destino.alTerminar();
+                cerrarInforme();
+
+            }
+
+            progreso.accept(progreso(cancelado ? bytes.leidos() : tamano, tamano));
+
+        }
+
+        return new ResultadoImportacion(filasLeidas, insertadas, rechazadas, List.copyOf(primerosErrores), informe,
+                cancelado, Duration.ofNanos(System.nanoTime() - inicio));
+
+    }
+
+    /**
+     * Comprueba la cabecera y devuelve la posición de cada columna por su nombre normalizado.
+     */
+    private Map<String, Integer> leerCabecera(String[] cabecera) {
+
+        if (cabecera == null) {
+            throw new IllegalArgumentException("El archivo no tiene cabecera");
+        }
+
+        Map<String, Integer> columnas = new HashMap<>();
+
+        for (int i = 0; i < cabecera.length; i++) {
+            columnas.putIfAbsent(normalizar(cabecera[i]).trim().replace(' ', '_'), i);
+        }
+
+        List<String> faltan = destino.columnasObligatorias().stream().filter(c -> !columnas.containsKey(c)).toList();
+
+        if (!faltan.isEmpty()) {
+            throw new IllegalArgumentException("Faltan columnas obligatorias en la cabecera: " + String.join(", ", faltan));
+        }
+
+        return columnas;
+    }
+
+    /**
+     * Inserta y confirma un lote. Si la base de datos lo rechaza, lo deshace y lo reintenta por partes.
+     */
+    private void volcar(Connection conexion, List<T> lote, long[] lineas) throws SQLException, IOException {
+
+        try {
+
+            destino.insertarLote(conexion, lote);
+            conexion.commit();
+            insertadas += lote.size();
+            return;
+
+        } catch (SQLException e) {
+
+            conexion.rollback();
+
+        }
+
+        int medio = lote.size() / 2;
+
+        if (medio == 0) {
+
+            // Lote de una sola fila: ya sabemos cuál es la culpable
+            insertarAislando(conexion, lote, lineas, 0, 1);
+
+        } else {
+
+            insertarAislando(conexion, lote, lineas, 0, medio);
+            insertarAislando(conexion, lote, lineas, medio, lote.size());
+
+        }
+
+        conexion.commit();
+
+    }
+
+    /**
+     * Inserta las filas {@code [desde, hasta)} del lote bajo un punto de guardado. Si se rechazan, deshace solo
+     * esa parte y la divide por la mitad hasta quedarse con las filas erróneas, que se anotan en el informe.
+     * Con un único error en un lote de {@code n} filas hacen falta unos {@code 2·log2(n)} intentos.
+     */
+    private void insertarAislando(Connection conexion, List<T> lote, long[] lineas, int desde, int hasta)
+            throws SQLException, IOException {
+
+        Savepoint punto = conexion.setSavepoint();
+
+        try {
+
+            destino.insertarLote(conexion, lote.subList(desde, hasta));
+            conexion.releaseSavepoint(punto);
+            insertadas += hasta - desde;
+
+        } catch (SQLException e) {
+
+            conexion.rollback(punto);
+
+            if (hasta - desde == 1) {
+
+                rechazar(lineas[desde], mensaje(e));
+                return;
+
+            }
+
+            int medio = (desde + hasta) >>> 1;
+            insertarAislando(conexion, lote, lineas, desde, medio);
+            insertarAislando(conexion, lote, lineas, medio, hasta);
+
+        }
+    }
+
+    /**
+     * Anota una fila rechazada: en memoria si aún hay sitio y siempre en el informe de errores.
+     */
+    private void rechazar(long linea, String mensaje) throws IOException {
+
+        rechazadas++;
+
+        if (primerosErrores.size() < MAX_ERRORES_EN_MEMORIA) {
+            primerosErrores.add(new ErrorImportacion(linea, mensaje));
+        }
+
+        if (escritorInforme == null) {
+            abrirInforme();
+        }
+
+        escritorInforme.write(linea + ";\"" + mensaje.replace("\"", "\"\"") + "\"");
+        escritorInforme.newLine();
+
+    }
+
+    /**
+     * Crea el informe de errores junto al archivo importado o, si esa carpeta no admite escritura,
+     * en la carpeta temporal.
+     */
+    private void abrirInforme() throws IOException {
+
+        String nombre = archivo.getFileName().toString().replaceFirst("\\.[^.]*$", "");
+        informe = archivo.resolveSibling(nombre + ".errores.csv");
+
+        try {
+
+            escritorInforme = Files.newBufferedWriter(informe, StandardCharsets.UTF_8);
+
+        } catch (IOException e) {
+
+            informe = Files.createTempFile("importacion-", ".errores.csv");
+            escritorInforme = Files.newBufferedWriter(informe, StandardCharsets.UTF_8);
+
+        }
+
+        escritorInforme.write("linea;error");
+        escritorInforme.newLine();
+
+    }
+
+    private void cerrarInforme() throws IOException {
+
+        if (escritorInforme != null) {
+            escritorInforme.close();
+        }
+    }
+
+    private ProgresoImportacion progreso(long bytesLeidos, long bytesTotales) {
+        return new ProgresoImportacion(bytesLeidos, bytesTotales, filasLeidas, insertadas, rechazadas);
+    }
+
+    /**
+     * Traduce los errores de integridad más habituales a un mensaje para el usuario.
+     */
+    private static String mensaje(SQLException e) {
+
+        SQLException causa = e instanceof BatchUpdateException && e.getNextException() != null ? e.getNextException() : e;
+        String estado = causa.getSQLState() == null ? "" : causa.getSQLState();
+
+        return switch (estado) {
+
+            case "23505" -> "Ya existe un registro con esos datos (" + primeraLinea(causa) + ")";
+            case "23503" -> "Hace referencia a un cliente o propiedad que no existe";
+            case "23P01" -> "La propiedad ya está reservada en esas fechas";
+            case "23514", "22001", "22003" -> "Valor no admitido por la base de datos (" + primeraLinea(causa) + ")";
+            default -> primeraLinea(causa);
+
+        };
+    }
+
+    private static String primeraLinea(SQLException e) {
+
+        String mensaje = String.valueOf(e.getMessage());
+        int salto = mensaje.indexOf('\n');
+
+        return salto < 0 ? mensaje : mensaje.substring(0, salto);
+
+    }
+
+    /**
+     * Flujo de entrada que cuenta los bytes leídos, para calcular el progreso sin conocer el número de filas.
+     */
+    private static final class EntradaContada extends FilterInputStream {
+
+        private long leidos;
+
+        EntradaContada(InputStream entrada) {
+            super(entrada);
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            int b = super.read();
+
+            if (b >= 0) {
+                leidos++;
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int desde, int longitud) throws IOException {
+
+            int n = super.read(b, desde, longitud);
+
+            if (n > 0) {
+                leidos += n;
+            }
+
+            return n;
+        }
+
+        long leidos() {
+            return leidos;
+        }
+    }
+}
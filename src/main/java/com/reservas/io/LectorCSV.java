@@ -0,0 +1,251 @@
+package com.reservas.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <h1>Lector de CSV por registros</h1>
+ *
+ * Lee un archivo CSV registro a registro, sin cargarlo entero en memoria. Sigue el formato habitual
+ * (RFC 4180) de las hojas de cálculo:
+ *
+ * <h2>Características principales:</h2>
+ * <ul>
+ *     <li>Separador configurable ({@code ,} o {@code ;}, el de Excel en español).</li>
+ *     <li>Campos entre comillas dobles, que pueden contener separadores, saltos de línea y comillas
+ *     escritas como {@code ""}.</li>
+ *     <li>Acepta finales de línea {@code \n} y {@code \r\n} e ignora la marca BOM inicial de UTF-8.</li>
+ *     <li>Un registro no puede superar {@link #MAX_CARACTERES_REGISTRO} caracteres: así una comilla sin cerrar
+ *     no hace que se lea el resto del archivo en memoria.</li>
+ *     <li>Informa de la línea en la que empieza cada registro, para los mensajes de error.</li>
+ * </ul>
+ *
+ * @author Sofía Abid
+ * @since 17/10/2026
+ */
+public class LectorCSV implements Closeable {
+
+    public static final int MAX_CARACTERES_REGISTRO = 1 << 20;
+
+    private static final int TAM_BUFFER = 8192;
+    private static final char BOM = '\uFEFF';
+
+    private final Reader entrada;
+    private final char separador;
+    private final char[] buffer = new char[TAM_BUFFER];
+
+    private int posicion;
+    private int limite;
+    private boolean primerCaracter = true;
+
+    private long linea = 1;
+    private long lineaRegistro;
+    private int caracteresRegistro;
+
+    private final StringBuilder campo = new StringBuilder();
+
+    /**
+     * @param entrada texto del CSV; el lector lo cierra al cerrarse.
+     * @param separador separador de campos.
+     */
+    public LectorCSV(Reader entrada, char separador) {
+
+        this.entrada = entrada;
+        this.separador = separador;
+
+    }
+
+    /**
+     * Elige el separador de un CSV a partir de su primera línea (la cabecera): {@code ;} si aparece más veces
+     * que {@code ,}, y {@code ,} en caso contrario.
+     *
+     * @param cabecera primera línea del archivo.
+     * @return separador detectado.
+     */
+    public static char detectarSeparador(String cabecera) {
+
+        long comas = cabecera.chars().filter(c -> c == ',').count();
+        long puntosYComa = cabecera.chars().filter(c -> c == ';').count();
+
+        return puntosYComa > comas ? ';' : ',';
+
+    }
+
+    /**
+     * Lee el siguiente registro. Las líneas vacías se saltan.
+     *
+     * @return campos del registro, o {@code null} al llegar al final del archivo.
+     * @throws IOException si falla la lectura o el registro es demasiado largo o tiene comillas sin cerrar.
+     */
+    public String[] siguiente() throws IOException {
+
+        List<String> campos = new ArrayList<>();
+        caracteresRegistro = 0;
+
+        while (true) {
+
+            int c = leer();
+
+            // Salta las líneas vacías entre registros
+            while (campos.isEmpty() && campo.isEmpty() && (c == '\n' || c == '\r')) {
+
+                if (c == '\n') {
+                    linea++;
+                }
+
+                c = leer();
+
+            }
+
+            if (c == -1 && campos.isEmpty() && campo.isEmpty()) {
+                return null;
+            }
+
+            if (campos.isEmpty() && campo.isEmpty()) {
+                lineaRegistro = linea;
+            }
+
+            if (c == '"' && campo.isEmpty()) {
+
+                leerEntreComillas();
+                c = leer();
+
+                if (c != separador && c != '\n' && c != '\r' && c != -1) {
+                    throw new IOException("Línea " + linea + ": carácter inesperado tras cerrar las comillas");
+                }
+
+            } else {
+
+                while (c != separador && c != '\n' && c != '\r' && c != -1) {
+
+                    anadir(c);
+                    c = leer();
+
+                }
+            }
+
+            campos.add(campo.toString());
+            campo.setLength(0);
+
+            if (c == separador) {
+                continue;
+            }
+
+            if (c == '\r') {
+
+                // \r\n cuenta como un único salto de línea
+                if (mirar() == '\n') {
+                    leer();
+                }
+
+                linea++;
+
+            } else if (c == '\n') {
+
+                linea++;
+
+            }
+
+            return campos.toArray(new String[0]);
+
+        }
+    }
+
+    /**
+     * @return línea del archivo (desde 1) en la que empieza el último registro leído.
+     */
+    public long lineaRegistro() {
+        return lineaRegistro;
+    }
+
+    @Override
+    public void close() throws IOException {
+        entrada.close();
+    }
+
+    /**
+     * Lee un campo entre comillas (la comilla inicial ya se ha leído) y lo deja en {@link #campo}.
+     */
+    private void leerEntreComillas() throws IOException {
+
+        long inicio = linea;
+
+        while (true) {
+
+            int c = leer();
+
+            if (c == -1) {
+                throw new IOException("Línea " + inicio + ": comillas sin cerrar");
+            }
+
+            if (c == '"') {
+
+                if (mirar() != '"') {
+                    return;
+                }
+
+                leer();
+
+            } else if (c == '\n') {
+
+                linea++;
+
+            }
+
+            anadir(c);
+
+        }
+    }
+
+    private void anadir(int c) throws IOException {
+
+        if (++caracteresRegistro > MAX_CARACTERES_REGISTRO) {
+            throw new IOException("Línea " + lineaRegistro + ": el registro supera el tamaño máximo permitido");
+        }
+
+        campo.append((char) c);
+
+    }
+
+    private int leer() throws IOException {
+
+        int c = mirar();
+
+        if (c != -1) {
+            posicion++;
+        }
+
+        return c;
+    }
+
+    private int mirar() throws IOException {
+
+        if (posicion == limite) {
+
+            limite = entrada.read(buffer, 0, TAM_BUFFER);
+            posicion = 0;
+
+            if (limite <= 0) {
+
+                limite = 0;
+                return -1;
+
+            }
+        }
+
+        if (primerCaracter) {
+
+            primerCaracter = false;
+
+            if (buffer[posicion] == BOM) {
+                posicion++;
+                return mirar();
+            }
+        }
+
+        return buffer[posicion];
+    }
+}
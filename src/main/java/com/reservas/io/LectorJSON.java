@@ -0,0 +1,243 @@
+package com.reservas.io;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <h1>Lector de objetos JSON planos</h1>
+ *
+ * Lee los cuerpos de las peticiones de la API: un objeto JSON cuyos valores son textos, números, booleanos o
+ * {@code null}. Cada valor se devuelve como texto, igual que los parámetros de una URL, y se convierte al tipo
+ * que corresponda donde se usa.
+ *
+ * <h2>Características principales:</h2>
+ * <ul>
+ *     <li>Los textos se devuelven ya sin escapar; los números y booleanos, tal y como vienen.</li>
+ *     <li>Los valores {@code null} se omiten, como si la clave no estuviera.</li>
+ *     <li>Los objetos y listas anidados no se admiten: ningún cuerpo de la API los necesita.</li>
+ * </ul>
+ *
+ * @author Diego Regueira
+ * @since 17/10/2026
+ */
+public final class LectorJSON {
+
+    private final String texto;
+    private int pos = 0;
+
+    private LectorJSON(String texto) {
+        this.texto = texto;
+    }
+
+    /**
+     * Lee un objeto JSON plano.
+     *
+     * @param json documento a leer.
+     * @return mapa no modificable de clave a valor, en el orden del documento.
+     * @throws IllegalArgumentException si el documento no es un objeto JSON plano válido.
+     */
+    public static Map<String, String> leerObjetoPlano(String json) {
+
+        LectorJSON lector = new LectorJSON(json == null ? "" : json);
+        Map<String, String> valores = lector.leerObjeto();
+
+        lector.saltarEspacios();
+
+        if (lector.pos != lector.texto.length()) {
+            throw lector.error("contenido tras el objeto");
+        }
+
+        return Collections.unmodifiableMap(valores);
+    }
+
+    private Map<String, String> leerObjeto() {
+
+        Map<String, String> valores = new LinkedHashMap<>();
+
+        esperar('{');
+
+        if (siguienteEs('}')) {
+            return valores;
+        }
+
+        do {
+
+            saltarEspacios();
+            String clave = leerTexto();
+
+            esperar(':');
+            saltarEspacios();
+
+            String valor = leerValor();
+
+            if (valor != null) {
+                valores.put(clave, valor);
+            }
+
+        } while (siguienteEs(','));
+
+        esperar('}');
+        return valores;
+    }
+
+    /**
+     * @return el valor como texto, o {@code null} si es un {@code null} JSON.
+     */
+    private String leerValor() {
+
+        if (pos >= texto.length()) {
+            throw error("falta un valor");
+        }
+
+        char c = texto.charAt(pos);
+
+        if (c == '"') {
+            return leerTexto();
+        }
+
+        if (c == '{' || c == '[') {
+            throw error("no se admiten objetos ni listas anidados");
+        }
+
+        int inicio = pos;
+
+        while (pos < texto.length() && "{}[],:\" \t\r\n".indexOf(texto.charAt(pos)) < 0) {
+            pos++;
+        }
+
+        String literal = texto.substring(inicio, pos);
+
+        if (literal.equals("null")) {
+            return null;
+        }
+
+        if (literal.equals("true") || literal.equals("false") || esNumero(literal)) {
+            return literal;
+        }
+
+        throw error("valor no válido: " + literal);
+    }
+
+    private String leerTexto() {
+
+        if (pos >= texto.length() || texto.charAt(pos) != '"') {
+            throw error("se esperaba un texto entre comillas");
+        }
+
+        pos++;
+        StringBuilder sb = new StringBuilder();
+
+        while (pos < texto.length()) {
+
+            char c = texto.charAt(pos++);
+
+            if (c == '"') {
+                return sb.toString();
+            }
+
+            if (c < 0x20) {
+                throw error("carácter de control sin escapar");
+            }
+
+            if (c != '\\') {
+
+                sb.append(c);
+                continue;
+
+            }
+
+            if (pos >= texto.length()) {
+                break;
+            }
+
+            char escape = texto.charAt(pos++);
+
+            switch (escape) {
+
+                case '"', '\\', '/' -> sb.append(escape);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> sb.append(leerUnicode());
+                default -> throw error("escape no válido: \\" + escape);
+
+            }
+        }
+
+        throw error("texto sin cerrar");
+    }
+
+    private char leerUnicode() {
+
+        if (pos + 4 > texto.length()) {
+            throw error("escape \\u incompleto");
+        }
+
+        try {
+
+            char c = (char) Integer.parseInt(texto.substring(pos, pos + 4), 16);
+            pos += 4;
+
+            return c;
+
+        } catch (NumberFormatException e) {
+            throw error("escape \\u no válido");
+        }
+    }
+
+    private static boolean esNumero(String literal) {
+
+        try {
+
+            Double.parseDouble(literal);
+
+        } catch (NumberFormatException e) {
+            return false;
+        }
+
+        // parseDouble también admite NaN, Infinity o sufijos como 1d, que no son JSON
+        char ultimo = literal.charAt(literal.length() - 1);
+        char primero = literal.charAt(0);
+
+        return Character.isDigit(ultimo) && (Character.isDigit(primero) || primero == '-');
+    }
+
+    private void esperar(char c) {
+
+        saltarEspacios();
+
+        if (pos >= texto.length() || texto.charAt(pos) != c) {
+            throw error("se esperaba '" + c + "'");
+        }
+
+        pos++;
+    }
+
+    private boolean siguienteEs(char c) {
+
+        saltarEspacios();
+
+        if (pos < texto.length() && texto.charAt(pos) == c) {
+
+            pos++;
+            return true;
+
+        }
+
+        return false;
+    }
+
+    private void saltarEspacios() {
+
+        while (pos < texto.length() && Character.isWhitespace(texto.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String motivo) {
+        return new IllegalArgumentException("JSON no válido en la posición " + pos + ": " + motivo);
+    }
+}
@@ -0,0 +1,26 @@
+package com.reservas.io;
+
+import java.time.Duration;
+
+/**
+ * <h1>Progreso de una exportación</h1>
+ *
+ * Instantánea que {@link ExportadorTabla} envía cada {@link ExportadorTabla#FILAS_ENTRE_AVISOS} filas.
+ *
+ * @param filas filas escritas hasta ahora.
+ * @param transcurrido tiempo desde el inicio de la exportación.
+ * @author Diego Regueira
+ * @since 17/10/2026
+ */
+public record ProgresoExportacion(long filas, Duration transcurrido) {
+
+    /**
+     * @return velocidad media de la exportación.
+     */
+    public double filasPorSegundo() {
+
+        long nanos = transcurrido.toNanos();
+        return nanos == 0 ? 0 : filas * 1_000_000_000.0 / nanos;
+
+    }
+}
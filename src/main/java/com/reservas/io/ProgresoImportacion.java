@@ -0,0 +1,25 @@
+package com.reservas.io;
+
+/**
+ * <h1>Progreso de una importación</h1>
+ *
+ * Instantánea que {@link ImportadorCSV} envía tras cada lote.
+ *
+ * @param bytesLeidos bytes del archivo leídos hasta ahora.
+ * @param bytesTotales tamaño del archivo.
+ * @param filasLeidas filas de datos leídas (sin la cabecera).
+ * @param insertadas filas guardadas en la base de datos.
+ * @param rechazadas filas descartadas por errores de validación o de la base de datos.
+ * @author Sofía Abid
+ * @since 17/10/2026
+ */
+public record ProgresoImportacion(long bytesLeidos, long bytesTotales, long filasLeidas, long insertadas,
+                                  long rechazadas) {
+
+    /**
+     * @return parte del archivo procesada, entre 0 y 1.
+     */
+    public double fraccion() {
+        return bytesTotales <= 0 ? 1 : Math.min(1, (double) bytesLeidos / bytesTotales);
+    }
+}
@@ -0,0 +1,25 @@
+package com.reservas.io;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * <h1>Resultado de una exportación</h1>
+ *
+ * @param archivo archivo generado, o {@code null} si la exportación se detuvo (el archivo parcial se borra).
+ * @param filas filas escritas.
+ * @param bytes tamaño del archivo generado.
+ * @param cancelada {@code true} si la exportación se detuvo antes de terminar.
+ * @param duracion tiempo total de la exportación.
+ * @author Diego Regueira
+ * @since 17/10/2026
+ */
+public record ResultadoExportacion(Path archivo, long filas, long bytes, boolean cancelada, Duration duracion) {
+
+    /**
+     * @return velocidad media de la exportación.
+     */
+    public double filasPorSegundo() {
+        return new ProgresoExportacion(filas, duracion).filasPorSegundo();
+    }
+}
@@ -0,0 +1,23 @@
+package com.reservas.io;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * <h1>Resultado de una importación</h1>
+ *
+ * @param filasLeidas filas de datos leídas (sin la cabecera).
+ * @param insertadas filas guardadas en la base de datos.
+ * @param rechazadas filas descartadas.
+ * @param primerosErrores los primeros errores, para mostrarlos en pantalla (como mucho
+ *                        {@link ImportadorCSV#MAX_ERRORES_EN_MEMORIA}).
+ * @param informeErrores archivo CSV con todos los errores, o {@code null} si no hubo ninguno.
+ * @param cancelada {@code true} si la importación se detuvo antes de terminar el archivo.
+ * @param duracion tiempo total de la importación.
+ * @author Sofía Abid
+ * @since 17/10/2026
+ */
+public record ResultadoImportacion(long filasLeidas, long insertadas, long rechazadas,
+                                   List<ErrorImportacion> primerosErrores, Path informeErrores, boolean cancelada,
+                                   Duration duracion) { }
@@ -0,0 +1,53 @@
+package com.reservas.io;
+
+/**
+ * <h1>Tablas que se pueden exportar</h1>
+ *
+ * Cada tabla se exporta completa, con todas sus columnas y ordenada por su clave primaria.
+ *
+ * @author Diego Regueira
+ * @since 17/10/2026
+ */
+public enum TablaExportable {
+
+    CLIENTES("Clientes", "clientes", "id_cliente"),
+
+    PROPIEDADES("Propiedades", "propiedades", "id_propiedad"),
+
+    RESERVAS("Reservas", "reservas", "id_reserva"),
+
+    PAGOS("Pagos", "pagos", "id_pago"),
+
+    VALORACIONES("Valoraciones", "valoraciones", "id_valoracion");
+
+    private final String descripcion;
+    private final String tabla;
+    private final String clave;
+
+    TablaExportable(String descripcion, String tabla, String clave) {
+
+        this.descripcion = descripcion;
+        this.tabla = tabla;
+        this.clave = clave;
+
+    }
+
+    /**
+     * @return consulta que recorre la tabla entera.
+     */
+    String consulta() {
+        return "SELECT * FROM " + tabla + " ORDER BY " + clave;
+    }
+
+    /**
+     * @return nombre de la tabla, usado como nombre de archivo por defecto.
+     */
+    public String tabla() {
+        return tabla;
+    }
+
+    @Override
+    public String toString() {
+        return descripcion;
+    }
+}
@@ -0,0 +1,41 @@
+package com.reservas.io;
+
+/**
+ * <h1>Tipos de datos que se pueden importar</h1>
+ *
+ * @author Sofía Abid
+ * @since 17/10/2026
+ */
+public enum TipoImportacion {
+
+    CLIENTES("Clientes"),
+
+    PROPIEDADES("Propiedades"),
+
+    RESERVAS("Reservas");
+
+    private final String descripcion;
+
+    TipoImportacion(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    /**
+     * @return un destino nuevo para importar este tipo de datos.
+     */
+    public DestinoImportacion<?> destino() {
+
+        return switch (this) {
+
+            case CLIENTES -> new ImportacionClientes();
+            case PROPIEDADES -> new ImportacionPropiedades();
+            case RESERVAS -> new ImportacionReservas();
+
+        };
+    }
+
+    @Override
+    public String toString() {
+        return descripcion;
+    }
+}
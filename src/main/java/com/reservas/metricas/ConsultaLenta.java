@@ -0,0 +1,23 @@
+package com.reservas.metricas;
+
+import java.time.LocalDateTime;
+
+/**
+ * <h1>Consulta lenta</h1>
+ *
+ * Sentencia que ha superado el umbral de {@link MetricasConsultas#getUmbralLentaMs()}.
+ *
+ * @param momento cuándo terminó.
+ * @param operacion operación que la lanzó.
+ * @param duracionMs tiempo de ejecución en milisegundos.
+ * @param sql texto de la sentencia con los parámetros ya sustituidos.
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public record ConsultaLenta(LocalDateTime momento, String operacion, double duracionMs, String sql) {
+
+    @Override
+    public String toString() {
+        return String.format("%s %s (%.1f ms): %s", momento.toLocalTime().withNano(0), operacion, duracionMs, sql);
+    }
+}
@@ -0,0 +1,155 @@
+package com.reservas.metricas;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>Histograma de latencias</h1>
+ *
+ * Histograma de tamaño fijo al estilo de HdrHistogram: registra tiempos en microsegundos sin reservar memoria
+ * y permite calcular percentiles en cualquier momento.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>Los valores menores que {@value #SUBCUBOS} tienen un cubo cada uno. A partir de ahí, cada potencia de dos
+ *     se divide en {@value #SUBCUBOS} cubos, así que el error relativo de un percentil es como mucho del 3 %.</li>
+ *     <li>Los cubos son contadores atómicos: varios hilos pueden registrar a la vez sin bloquearse.</li>
+ *     <li>Los percentiles devuelven el límite superior del cubo, nunca un valor por debajo del real.</li>
+ * </ul>
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public class HistogramaLatencias {
+
+    private static final int BITS_SUBCUBO = 5;
+    private static final int SUBCUBOS = 1 << BITS_SUBCUBO;
+
+    // Potencias de dos de 2^5 a 2^62, más los valores pequeños
+    private static final int CUBOS = (Long.SIZE - 1 - BITS_SUBCUBO + 1) * SUBCUBOS;
+
+    private final AtomicLongArray cubos = new AtomicLongArray(CUBOS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Registra un tiempo.
+     *
+     * @param micros tiempo en microsegundos; los negativos cuentan como cero.
+     */
+    public void registrar(long micros) {
+
+        long valor = Math.max(0, micros);
+
+        cubos.incrementAndGet(indice(valor));
+        total.increment();
+        suma.add(valor);
+        maximo.accumulate(valor);
+
+    }
+
+    /**
+     * @return número de tiempos registrados.
+     */
+    public long total() {
+        return total.sum();
+    }
+
+    /**
+     * @return media de los tiempos registrados en microsegundos ({@code 0} si no hay ninguno).
+     */
+    public double media() {
+
+        long n = total.sum();
+        return n == 0 ? 0 : (double) suma.sum() / n;
+
+    }
+
+    /**
+     * @return mayor tiempo registrado en microsegundos.
+     */
+    public long maximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Calcula un percentil de los tiempos registrados.
+     *
+     * @param percentil percentil entre 0 y 100.
+     * @return el tiempo en microsegundos por debajo del cual queda ese porcentaje de los registros.
+     */
+    public long percentil(double percentil) {
+
+        if (percentil < 0 || percentil > 100) {
+            throw new IllegalArgumentException("El percentil debe estar entre 0 y 100: " + percentil);
+        }
+
+        long n = total.sum();
+
+        if (n == 0) {
+            return 0;
+        }
+
+        long objetivo = Math.max(1, (long) Math.ceil(percentil / 100 * n));
+        long acumulado = 0;
+
+        for (int i = 0; i < CUBOS; i++) {
+
+            acumulado += cubos.get(i);
+
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+
+        return maximo.get();
+    }
+
+    /**
+     * Pone a cero el histograma. Los registros que lleguen durante el reinicio pueden conservarse o perderse.
+     */
+    public void reiniciar() {
+
+        for (int i = 0; i < CUBOS; i++) {
+            cubos.set(i, 0);
+        }
+
+        total.reset();
+        suma.reset();
+        maximo.reset();
+
+    }
+
+    /**
+     * Cubo en el que cae un valor.
+     */
+    static int indice(long valor) {
+
+        if (valor < SUBCUBOS) {
+            return (int) valor;
+        }
+
+        int exponente = Long.SIZE - 1 - Long.numberOfLeadingZeros(valor);
+        int subcubo = (int) (valor >>> (exponente - BITS_SUBCUBO)) & (SUBCUBOS - 1);
+
+        return (exponente - BITS_SUBCUBO + 1) * SUBCUBOS + subcubo;
+    }
+
+    /**
+     * Mayor valor que cae en un cubo.
+     */
+    static long limiteSuperior(int indice) {
+
+        if (indice < SUBCUBOS) {
+            return indice;
+        }
+
+        int exponente = indice / SUBCUBOS + BITS_SUBCUBO - 1;
+        long ancho = 1L << (exponente - BITS_SUBCUBO);
+        long inferior = (long) (SUBCUBOS + indice % SUBCUBOS) << (exponente - BITS_SUBCUBO);
+
+        return inferior + ancho - 1;
+    }
+}
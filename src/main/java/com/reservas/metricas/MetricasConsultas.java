@@ -0,0 +1,255 @@
+package com.reservas.metricas;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * <h1>Métricas de las consultas</h1>
+ *
+ * Registro, por operación, de las sentencias que se ejecutan contra la base de datos: latencia, filas y errores.
+ * Lo alimenta el {@link com.reservas.config.PoolConexiones}, que mide cada sentencia de las conexiones que presta,
+ * así que los DAO no tienen que hacer nada para aparecer.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>La operación es el primer método de la aplicación en la pila al preparar la sentencia, sin contar
+ *     el pool ni las utilidades compartidas: por ejemplo {@code PagoDAO.consultarPagoPorId}.</li>
+ *     <li>Cada operación tiene un {@link HistogramaLatencias}, así que los percentiles no dependen de guardar
+ *     cada tiempo.</li>
+ *     <li>Las sentencias que superan el umbral se escriben en {@code System.err} con los parámetros ya sustituidos
+ *     y se guardan las {@value #MAX_LENTAS} más recientes.</li>
+ *     <li>También se mide la espera para obtener una conexión del pool.</li>
+ * </ul>
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public final class MetricasConsultas {
+
+    public static final int MAX_LENTAS = 50;
+
+    private static final String OTRAS = "otras";
+    private static final String ESPERA_POOL = "Espera de conexión";
+
+    // Clases que no dan nombre a la operación: el pool, las utilidades y los envoltorios de caché
+    private static final Set<String> PAQUETES_IGNORADOS = Set.of("com.reservas.config", "com.reservas.util",
+            "com.reservas.cache", "com.reservas.metricas");
+    private static final Set<String> CLASES_IGNORADAS = Set.of("com.reservas.dao.UtilidadesDAO");
+    private static final Set<String> METODOS_IGNORADOS = Set.of("com.reservas.dao.SeguimientoCambios.leer");
+
+    private static final StackWalker PILA = StackWalker.getInstance();
+
+    private static final Map<String, Metrica> OPERACIONES = new ConcurrentHashMap<>();
+    private static final HistogramaLatencias ESPERAS = new HistogramaLatencias();
+    private static final Deque<ConsultaLenta> LENTAS = new ArrayDeque<>();
+
+    private static volatile long umbralLentaNanos = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private MetricasConsultas() { }
+
+    /**
+     * Fija el tiempo a partir del cual una sentencia se considera lenta.
+     *
+     * @param umbralMs umbral en milisegundos ({@code 0} registra todas).
+     */
+    public static void setUmbralLentaMs(long umbralMs) {
+
+        if (umbralMs < 0) {
+            throw new IllegalArgumentException("El umbral de consulta lenta no puede ser negativo: " + umbralMs);
+        }
+
+        umbralLentaNanos = TimeUnit.MILLISECONDS.toNanos(umbralMs);
+
+    }
+
+    /**
+     * @return umbral de consulta lenta en milisegundos.
+     */
+    public static long getUmbralLentaMs() {
+        return TimeUnit.NANOSECONDS.toMillis(umbralLentaNanos);
+    }
+
+    /**
+     * Busca en la pila el método de la aplicación que está preparando una sentencia.
+     *
+     * @return nombre de la operación, con la forma {@code Clase.metodo}.
+     */
+    public static String operacionActual() {
+
+        return PILA.walk(marcos -> marcos
+                .filter(marco -> marco.getClassName().startsWith("com.reservas."))
+                .filter(marco -> !esIgnorado(marco.getClassName(), marco.getMethodName()))
+                .findFirst()
+                .map(marco -> nombre(marco.getClassName(), marco.getMethodName()))
+                .orElse(OTRAS));
+
+    }
+
+    /**
+     * Registra la ejecución de una sentencia.
+     *
+     * @param operacion operación que la lanza.
+     * @param nanos tiempo de ejecución.
+     * @param error si ha terminado con error.
+     * @param sql texto de la sentencia; solo se pide si es lenta.
+     */
+    public static void registrar(String operacion, long nanos, boolean error, Supplier<String> sql) {
+
+        Metrica metrica = OPERACIONES.computeIfAbsent(operacion, n -> new Metrica());
+
+        metrica.latencias.registrar(TimeUnit.NANOSECONDS.toMicros(nanos));
+
+        if (error) {
+            metrica.errores.increment();
+        }
+
+        if (nanos >= umbralLentaNanos) {
+            registrarLenta(operacion, nanos, sql.get());
+        }
+    }
+
+    /**
+     * Suma filas leídas o modificadas a una operación.
+     *
+     * @param operacion operación que las ha leído o modificado.
+     * @param filas número de filas.
+     */
+    public static void registrarFilas(String operacion, long filas) {
+
+        if (filas > 0) {
+            OPERACIONES.computeIfAbsent(operacion, n -> new Metrica()).filas.add(filas);
+        }
+    }
+
+    /**
+     * Registra el tiempo que se ha esperado por una conexión del pool.
+     *
+     * @param nanos tiempo de espera.
+     */
+    public static void registrarEspera(long nanos) {
+        ESPERAS.registrar(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    /**
+     * @return resumen de cada operación, de mayor a menor tiempo total.
+     */
+    public static List<ResumenOperacion> resumen() {
+
+        List<ResumenOperacion> resultado = new ArrayList<>(OPERACIONES.size());
+
+        OPERACIONES.forEach((operacion, metrica) -> resultado.add(resumir(operacion, metrica.latencias,
+                metrica.errores.sum(), metrica.filas.sum())));
+
+        resultado.sort(Comparator.comparingDouble(ResumenOperacion::totalMs).reversed());
+        return List.copyOf(resultado);
+
+    }
+
+    /**
+     * @return resumen de las esperas por una conexión del pool.
+     */
+    public static ResumenOperacion esperaPool() {
+        return resumir(ESPERA_POOL, ESPERAS, 0, 0);
+    }
+
+    /**
+     * @return las consultas lentas más recientes, de la más nueva a la más antigua.
+     */
+    public static List<ConsultaLenta> consultasLentas() {
+
+        synchronized (LENTAS) {
+            return List.copyOf(LENTAS);
+        }
+    }
+
+    /**
+     * Pone a cero todas las métricas y olvida las consultas lentas.
+     */
+    public static void reiniciar() {
+
+        OPERACIONES.clear();
+        ESPERAS.reiniciar();
+
+        synchronized (LENTAS) {
+            LENTAS.clear();
+        }
+    }
+
+    private static void registrarLenta(String operacion, long nanos, String sql) {
+
+        ConsultaLenta lenta = new ConsultaLenta(LocalDateTime.now(), operacion, nanos / 1_000_000.0, sql);
+
+        System.err.println("Consulta lenta: " + lenta);
+
+        synchronized (LENTAS) {
+
+            LENTAS.addFirst(lenta);
+
+            if (LENTAS.size() > MAX_LENTAS) {
+                LENTAS.removeLast();
+            }
+        }
+    }
+
+    private static ResumenOperacion resumir(String operacion, HistogramaLatencias h, long errores, long filas) {
+
+        return new ResumenOperacion(operacion, h.total(), errores, filas, h.media() / 1000, h.percentil(50) / 1000.0,
+                h.percentil(95) / 1000.0, h.percentil(99) / 1000.0, h.maximo() / 1000.0);
+
+    }
+
+    private static boolean esIgnorado(String clase, String metodo) {
+
+        if (CLASES_IGNORADAS.contains(clase) || METODOS_IGNORADOS.contains(clase + "." + metodo)
+                || metodo.startsWith("lambda$static$")) {
+            return true;
+        }
+
+        int punto = clase.lastIndexOf('.');
+        return PAQUETES_IGNORADOS.contains(clase.substring(0, punto));
+
+    }
+
+    /**
+     * Nombre legible de un método: sin paquete, y en las lambdas el método que las contiene.
+     */
+    private static String nombre(String clase, String metodo) {
+
+        String simple = clase.substring(clase.lastIndexOf('.') + 1);
+        int interna = simple.indexOf('$');
+
+        if (interna >= 0) {
+            simple = simple.substring(0, interna);
+        }
+
+        if (metodo.startsWith("lambda$")) {
+
+            int fin = metodo.indexOf('$', "lambda$".length());
+            metodo = metodo.substring("lambda$".length(), fin < 0 ? metodo.length() : fin);
+
+        }
+
+        return simple + "." + metodo;
+    }
+
+    /**
+     * Contadores de una operación.
+     */
+    private static final class Metrica {
+
+        private final HistogramaLatencias latencias = new HistogramaLatencias();
+        private final LongAdder errores = new LongAdder();
+        private final LongAdder filas = new LongAdder();
+
+    }
+}
@@ -0,0 +1,37 @@
+package com.reservas.metricas;
+
+/**
+ * <h1>Resumen de una operación</h1>
+ *
+ * Instantánea de las métricas de una operación de base de datos. Los tiempos están en milisegundos.
+ *
+ * @param operacion nombre de la operación ({@code Clase.metodo} del DAO que la lanza).
+ * @param llamadas sentencias ejecutadas.
+ * @param errores sentencias que han terminado con error.
+ * @param filas filas leídas o modificadas en total.
+ * @param mediaMs tiempo medio.
+ * @param p50Ms mediana.
+ * @param p95Ms percentil 95.
+ * @param p99Ms percentil 99.
+ * @param maximoMs tiempo máximo.
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public record ResumenOperacion(String operacion, long llamadas, long errores, long filas, double mediaMs, double p50Ms,
+                               double p95Ms, double p99Ms, double maximoMs) {
+
+    /**
+     * @return tiempo total dedicado a la operación en milisegundos.
+     */
+    public double totalMs() {
+        return mediaMs * llamadas;
+    }
+
+    @Override
+    public String toString() {
+
+        return String.format("%s: %d llamadas · %d errores · %d filas · media %.3f ms · p50 %.3f · p95 %.3f · p99 %.3f · máx %.3f",
+                operacion, llamadas, errores, filas, mediaMs, p50Ms, p95Ms, p99Ms, maximoMs);
+
+    }
+}
@@ -0,0 +1,222 @@
+package com.reservas.metricas;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Volcado de métricas</h1>
+ *
+ * Convierte las {@link MetricasConsultas} en texto legible o en JSON, y puede escribirlas periódicamente
+ * en un archivo para consultarlas desde fuera de la aplicación.
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public final class VolcadoMetricas {
+
+    private static ScheduledExecutorService periodico;
+
+    private VolcadoMetricas() { }
+
+    /**
+     * @return las métricas actuales en texto, una operación por línea.
+     */
+    public static String texto() {
+
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("Métricas de consultas (").append(LocalDateTime.now().withNano(0)).append(")\n");
+        sb.append(MetricasConsultas.esperaPool()).append('\n');
+
+        for (ResumenOperacion r : MetricasConsultas.resumen()) {
+            sb.append(r).append('\n');
+        }
+
+        sb.append("Consultas lentas (>= ").append(MetricasConsultas.getUmbralLentaMs()).append(" ms):\n");
+
+        for (ConsultaLenta lenta : MetricasConsultas.consultasLentas()) {
+            sb.append("  ").append(lenta).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * @return las métricas actuales como un objeto JSON.
+     */
+    public static String json() {
+
+        StringBuilder sb = new StringBuilder(4096);
+
+        sb.append("{\"momento\":");
+        textoJSON(sb, LocalDateTime.now().withNano(0).toString());
+        sb.append(",\"umbral_lenta_ms\":").append(MetricasConsultas.getUmbralLentaMs());
+        sb.append(",\"espera_pool\":");
+        operacionJSON(sb, MetricasConsultas.esperaPool());
+        sb.append(",\"operaciones\":[");
+
+        boolean primera = true;
+
+        for (ResumenOperacion r : MetricasConsultas.resumen()) {
+
+            if (!primera) {
+                sb.append(',');
+            }
+
+            operacionJSON(sb, r);
+            primera = false;
+
+        }
+
+        sb.append("],\"consultas_lentas\":[");
+        primera = true;
+
+        for (ConsultaLenta lenta : MetricasConsultas.consultasLentas()) {
+
+            if (!primera) {
+                sb.append(',');
+            }
+
+            sb.append("{\"momento\":");
+            textoJSON(sb, lenta.momento().withNano(0).toString());
+            sb.append(",\"operacion\":");
+            textoJSON(sb, lenta.operacion());
+            sb.append(",\"duracion_ms\":").append(numero(lenta.duracionMs()));
+            sb.append(",\"sql\":");
+            textoJSON(sb, lenta.sql());
+            sb.append('}');
+            primera = false;
+
+        }
+
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    /**
+     * Escribe las métricas en un archivo: JSON si termina en {@code .json} y texto en otro caso.
+     * Se escribe en un temporal y se renombra, así que quien lo lea nunca ve un volcado a medias.
+     *
+     * @param archivo archivo de destino.
+     * @throws IOException si no se puede escribir.
+     */
+    public static void escribir(Path archivo) throws IOException {
+
+        String contenido = archivo.toString().endsWith(".json") ? json() : texto();
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+
+        Files.writeString(temporal, contenido, StandardCharsets.UTF_8);
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    }
+
+    /**
+     * Escribe las métricas en un archivo cada cierto tiempo, en un hilo en segundo plano.
+     * Una llamada posterior sustituye a la anterior.
+     *
+     * @param archivo archivo de destino.
+     * @param segundos intervalo entre volcados.
+     */
+    public static synchronized void programar(Path archivo, long segundos) {
+
+        if (segundos <= 0) {
+            throw new IllegalArgumentException("El intervalo de volcado debe ser positivo: " + segundos);
+        }
+
+        detener();
+
+        periodico = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "volcado-metricas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        periodico.scheduleWithFixedDelay(() -> {
+
+            try {
+
+                escribir(archivo);
+
+            } catch (IOException | RuntimeException e) {
+
+                System.err.println("Error al volcar las métricas en " + archivo + ": " + e.getMessage());
+
+            }
+
+        }, segundos, segundos, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Detiene el volcado periódico, si lo hay.
+     */
+    public static synchronized void detener() {
+
+        if (periodico != null) {
+
+            periodico.shutdownNow();
+            periodico = null;
+
+        }
+    }
+
+    private static void operacionJSON(StringBuilder sb, ResumenOperacion r) {
+
+        sb.append("{\"operacion\":");
+        textoJSON(sb, r.operacion());
+        sb.append(",\"llamadas\":").append(r.llamadas())
+          .append(",\"errores\":").append(r.errores())
+          .append(",\"filas\":").append(r.filas())
+          .append(",\"media_ms\":").append(numero(r.mediaMs()))
+          .append(",\"p50_ms\":").append(numero(r.p50Ms()))
+          .append(",\"p95_ms\":").append(numero(r.p95Ms()))
+          .append(",\"p99_ms\":").append(numero(r.p99Ms()))
+          .append(",\"max_ms\":").append(numero(r.maximoMs()))
+          .append('}');
+
+    }
+
+    private static String numero(double valor) {
+        return String.format(Locale.ROOT, "%.3f", valor);
+    }
+
+    /**
+     * Añade un texto JSON entre comillas, escapando comillas, barras y caracteres de control.
+     */
+    private static void textoJSON(StringBuilder sb, String valor) {
+
+        sb.append('"');
+
+        for (int i = 0; i < valor.length(); i++) {
+
+            char c = valor.charAt(i);
+
+            switch (c) {
+
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+
+        sb.append('"');
+
+    }
+}
@@ -0,0 +1,285 @@
+package com.reservas.precios;
+
+import com.reservas.cache.CacheEntidades;
+import com.reservas.dao.PropiedadDAO;
+import com.reservas.dao.TarifaDAO;
+import com.reservas.model.Propiedad;
+import com.reservas.util.ValorCacheado;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * <h1>Motor de precios de las estancias</h1>
+ *
+ * Calcula el precio de una reserva a partir del precio por noche de la propiedad y de las {@link ReglaPrecio}
+ * de temporada, día de la semana, ocupación, duración de la estancia y número de huéspedes.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>Las reglas que dependen solo de la noche se compilan en una {@link TarifaAnual} por propiedad y año,
+ *     con las sumas acumuladas de sus tarifas. El alojamiento de una estancia es una resta por cada año que toca.</li>
+ *     <li>El descuento por estancia y el suplemento por huésped se aplican después, sobre ese alojamiento.</li>
+ *     <li>Las tarifas compiladas, las reglas y la ocupación de cada ciudad se guardan durante {@link #VIGENCIA}.
+ *     Si cambia el precio por noche de la propiedad, sus tarifas se recompilan en el siguiente presupuesto.</li>
+ * </ul>
+ * Solo el primer presupuesto de una propiedad y año consulta la base de datos; los siguientes se calculan en memoria.
+ *
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+public class MotorPrecios {
+
+    public static final Duration VIGENCIA = Duration.ofMinutes(5);
+
+    private static final int CAPACIDAD_TARIFAS = 2_000;
+
+    private static volatile MotorPrecios instancia;
+
+    private final IntFunction<Propiedad> propiedades;
+    private final BiFunction<String, Integer, double[]> ocupacion;
+    private final ValorCacheado<List<ReglaPrecio>> reglas;
+    private final CacheEntidades<ClaveTarifa, TarifaAnual> tarifas;
+    private final CacheEntidades<ClaveOcupacion, double[]> ocupaciones;
+
+    /**
+     * Crea un motor que obtiene los datos con las funciones indicadas.
+     *
+     * @param propiedades función que devuelve una propiedad por su ID, o {@code null} si no existe.
+     * @param reglas función que devuelve todas las reglas de precio.
+     * @param ocupacion función que devuelve la ocupación de una ciudad en cada noche de un año.
+     */
+    public MotorPrecios(IntFunction<Propiedad> propiedades, Supplier<List<ReglaPrecio>> reglas,
+                        BiFunction<String, Integer, double[]> ocupacion) {
+
+        this.propiedades = propiedades;
+        this.ocupacion = ocupacion;
+        this.reglas = new ValorCacheado<>(VIGENCIA, reglas);
+        this.tarifas = CacheEntidades.crear("Tarifas", CAPACIDAD_TARIFAS, VIGENCIA, UnaryOperator.identity());
+        this.ocupaciones = CacheEntidades.crear("Ocupación por ciudad", CAPACIDAD_TARIFAS, VIGENCIA, UnaryOperator.identity());
+
+    }
+
+    /**
+     * Devuelve el motor compartido por la aplicación, que lee los datos mediante {@link PropiedadDAO} y {@link TarifaDAO}.
+     *
+     * @return la instancia única del motor.
+     */
+    public static MotorPrecios getInstance() {
+
+        if (instancia == null) {
+
+            synchronized (MotorPrecios.class) {
+
+                if (instancia == null) {
+
+                    PropiedadDAO propiedadDAO = new PropiedadDAO();
+                    TarifaDAO tarifaDAO = new TarifaDAO();
+                    instancia = new MotorPrecios(propiedadDAO::buscarPropiedadPorId, tarifaDAO::leerReglas,
+                            tarifaDAO::leerOcupacionCiudad);
+
+                }
+            }
+        }
+
+        return instancia;
+    }
+
+    /**
+     * Calcula el precio de una estancia.
+     *
+     * @param idPropiedad identificador de la propiedad.
+     * @param desde día de entrada.
+     * @param hasta día de salida (su noche no cuenta).
+     * @param personas huéspedes.
+     * @return el presupuesto con su desglose.
+     * @throws IllegalArgumentException si las fechas o los huéspedes no son válidos, o la propiedad no existe.
+     */
+    public Presupuesto presupuestar(int idPropiedad, LocalDate desde, LocalDate hasta, int personas) {
+
+        return presupuestar(buscarPropiedad(idPropiedad), desde, hasta, personas);
+
+    }
+
+    /**
+     * Calcula el precio de una estancia en una propiedad ya leída, sin volver a buscarla. Lo usa la búsqueda de
+     * disponibilidad, que presupuesta cada propiedad libre con el mismo cálculo que la reserva.
+     *
+     * @param propiedad propiedad de la estancia.
+     * @param desde día de entrada.
+     * @param hasta día de salida (su noche no cuenta).
+     * @param personas huéspedes.
+     * @return el presupuesto con su desglose.
+     * @throws IllegalArgumentException si las fechas o los huéspedes no son válidos.
+     */
+    public Presupuesto presupuestar(Propiedad propiedad, LocalDate desde, LocalDate hasta, int personas) {
+
+        if (!hasta.isAfter(desde)) {
+            throw new IllegalArgumentException("La fecha de fin debe ser posterior a la fecha de inicio");
+        }
+
+        if (personas < 1) {
+            throw new IllegalArgumentException("La reserva debe tener al menos una persona");
+        }
+
+        int idPropiedad = propiedad.getIdPropiedad();
+        List<ReglaPrecio> aplicables = reglasDe(idPropiedad);
+
+        long inicio = desde.toEpochDay();
+        long fin = hasta.toEpochDay();
+        int noches = (int) (fin - inicio);
+
+        double alojamiento = 0;
+
+        for (int anio = desde.getYear(); anio <= hasta.minusDays(1).getYear(); anio++) {
+            alojamiento += tarifas(propiedad, anio, aplicables).suma(inicio, fin);
+        }
+
+        double factorEstancia = 1;
+        int tramo = 0;
+        double suplemento = 0;
+
+        for (ReglaPrecio regla : aplicables) {
+
+            if (regla instanceof ReglaPrecio.DescuentoEstancia d && d.minNoches() <= noches && d.minNoches() > tramo) {
+
+                factorEstancia = d.factor();
+                tramo = d.minNoches();
+
+            } else if (regla instanceof ReglaPrecio.SuplementoHuesped s) {
+
+                suplemento = Math.max(suplemento, s.importe(personas, noches));
+
+            }
+        }
+
+        alojamiento = redondear(alojamiento);
+        double descuento = redondear(alojamiento * (1 - factorEstancia));
+        suplemento = redondear(suplemento);
+
+        return new Presupuesto(idPropiedad, desde, hasta, personas, noches, alojamiento, descuento, suplemento,
+                redondear(alojamiento - descuento + suplemento));
+    }
+
+    /**
+     * Devuelve las tarifas de cada noche de un año, compilándolas si no estaban en memoria.
+     *
+     * @param idPropiedad identificador de la propiedad.
+     * @param anio año.
+     * @return las tarifas del año.
+     * @throws IllegalArgumentException si la propiedad no existe.
+     */
+    public TarifaAnual tarifas(int idPropiedad, int anio) {
+
+        return tarifas(buscarPropiedad(idPropiedad), anio, reglasDe(idPropiedad));
+
+    }
+
+    /**
+     * Descarta las tarifas compiladas de una propiedad, por ejemplo tras cambiar sus reglas.
+     *
+     * @param idPropiedad identificador de la propiedad.
+     */
+    public void olvidar(int idPropiedad) {
+
+        tarifas.quitarSi((clave, tarifa) -> clave.idPropiedad() == idPropiedad);
+
+    }
+
+    /**
+     * Descarta todas las reglas, tarifas y ocupaciones guardadas para que se vuelvan a leer.
+     */
+    public void olvidarTodas() {
+
+        reglas.invalidar();
+        tarifas.vaciar();
+        ocupaciones.vaciar();
+
+    }
+
+    private Propiedad buscarPropiedad(int idPropiedad) {
+
+        Propiedad propiedad = propiedades.apply(idPropiedad);
+
+        if (propiedad == null) {
+            throw new IllegalArgumentException("No existe la propiedad " + idPropiedad);
+        }
+
+        return propiedad;
+    }
+
+    /**
+     * Tarifas de la propiedad en el año. Si se compilaron con otro precio por noche, se vuelven a compilar.
+     */
+    private TarifaAnual tarifas(Propiedad propiedad, int anio, List<ReglaPrecio> aplicables) {
+
+        ClaveTarifa clave = new ClaveTarifa(propiedad.getIdPropiedad(), anio);
+        TarifaAnual tarifa = tarifas.obtener(clave, c -> compilar(propiedad, anio, aplicables));
+
+        if (tarifa.precioBase() != propiedad.getPrecio_noche()) {
+
+            tarifa = compilar(propiedad, anio, aplicables);
+            tarifas.poner(clave, tarifa);
+
+        }
+
+        return tarifa;
+    }
+
+    private TarifaAnual compilar(Propiedad propiedad, int anio, List<ReglaPrecio> aplicables) {
+
+        double[] ocupacionCiudad = null;
+
+        if (aplicables.stream().anyMatch(r -> r instanceof ReglaPrecio.RecargoOcupacion)) {
+
+            ocupacionCiudad = ocupaciones.obtener(new ClaveOcupacion(propiedad.getCiudad(), anio),
+                    c -> ocupacion.apply(c.ciudad(), c.anio()));
+
+        }
+
+        return TarifaAnual.compilar(propiedad.getIdPropiedad(), anio, propiedad.getPrecio_noche(), aplicables, ocupacionCiudad);
+    }
+
+    /**
+     * Reglas que se aplican a la propiedad: las suyas y, de cada tipo del que no tenga reglas propias, las generales.
+     */
+    private List<ReglaPrecio> reglasDe(int idPropiedad) {
+
+        List<ReglaPrecio> todas = reglas.get();
+        Set<Class<?>> tiposPropios = new HashSet<>();
+
+        for (ReglaPrecio regla : todas) {
+
+            if (regla.idPropiedad() != null && regla.idPropiedad() == idPropiedad) {
+                tiposPropios.add(regla.getClass());
+            }
+        }
+
+        List<ReglaPrecio> aplicables = new ArrayList<>();
+
+        for (ReglaPrecio regla : todas) {
+
+            if (regla.aplicaA(idPropiedad) && (regla.idPropiedad() != null || !tiposPropios.contains(regla.getClass()))) {
+                aplicables.add(regla);
+            }
+        }
+
+        return aplicables;
+    }
+
+    private static double redondear(double importe) {
+        return Math.round(importe * 100) / 100.0;
+    }
+
+    private record ClaveTarifa(int idPropiedad, int anio) { }
+
+    private record ClaveOcupacion(String ciudad, int anio) { }
+}
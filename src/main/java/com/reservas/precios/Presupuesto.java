@@ -0,0 +1,51 @@
+package com.reservas.precios;
+
+import java.time.LocalDate;
+
+/**
+ * <h1>Presupuesto de una estancia</h1>
+ *
+ * Desglose del precio de una reserva calculado por {@link MotorPrecios}. Todos los importes van en euros y el
+ * total está redondeado a céntimos.
+ *
+ * @param idPropiedad propiedad reservada.
+ * @param desde día de entrada.
+ * @param hasta día de salida (su noche no cuenta).
+ * @param personas huéspedes.
+ * @param noches noches de la estancia.
+ * @param alojamiento suma de las tarifas de cada noche.
+ * @param descuento importe descontado por la duración de la estancia (positivo o cero).
+ * @param suplemento importe de los huéspedes extra.
+ * @param total precio final: alojamiento menos descuento más suplemento.
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+public record Presupuesto(int idPropiedad, LocalDate desde, LocalDate hasta, int personas, int noches,
+                          double alojamiento, double descuento, double suplemento, double total) {
+
+    /**
+     * @return precio medio por noche.
+     */
+    public double mediaNoche() {
+        return noches == 0 ? 0 : total / noches;
+    }
+
+    /**
+     * @return el desglose en una línea, para mostrarlo junto al precio.
+     */
+    @Override
+    public String toString() {
+
+        StringBuilder texto = new StringBuilder(String.format("%d noches: %.2f €", noches, alojamiento));
+
+        if (descuento > 0) {
+            texto.append(String.format(" − %.2f € por estancia", descuento));
+        }
+
+        if (suplemento > 0) {
+            texto.append(String.format(" + %.2f € por huéspedes", suplemento));
+        }
+
+        return texto.toString();
+    }
+}
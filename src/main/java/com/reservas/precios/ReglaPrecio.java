@@ -0,0 +1,176 @@
+package com.reservas.precios;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+
+/**
+ * <h1>Regla de precio</h1>
+ *
+ * Cada regla modifica el precio base por noche de una propiedad ({@code precio_noche}) o el total de una estancia.
+ * Una regla sin propiedad ({@code idPropiedad} nulo) se aplica a todas; si una propiedad tiene reglas propias de un
+ * tipo, las generales de ese mismo tipo dejan de aplicarse a ella.
+ *
+ * <h2>Tipos de reglas:</h2>
+ * <ul>
+ *     <li>{@link Temporada}: multiplica la tarifa de las noches de un periodo.</li>
+ *     <li>{@link DiasSemana}: multiplica la tarifa de las noches que empiezan en ciertos días (fines de semana).</li>
+ *     <li>{@link RecargoOcupacion}: multiplica la tarifa de las noches en que la ciudad está muy ocupada.</li>
+ *     <li>{@link DescuentoEstancia}: multiplica el alojamiento de las estancias largas.</li>
+ *     <li>{@link SuplementoHuesped}: suma un importe por noche por cada huésped extra.</li>
+ * </ul>
+ * Las tres primeras dependen solo de la noche y se compilan en la {@link TarifaAnual} de la propiedad; las dos
+ * últimas dependen de la estancia y se aplican al presupuestar.
+ *
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+public sealed interface ReglaPrecio {
+
+    /**
+     * @return propiedad a la que se aplica la regla, o {@code null} si se aplica a todas.
+     */
+    Integer idPropiedad();
+
+    /**
+     * @param idPropiedad identificador de la propiedad.
+     * @return {@code true} si la regla es general o de esa propiedad.
+     */
+    default boolean aplicaA(int idPropiedad) {
+        return idPropiedad() == null || idPropiedad() == idPropiedad;
+    }
+
+    /**
+     * Temporada: las noches de {@code desde} a {@code hasta}, ambas incluidas, cuestan {@code factor} veces más.
+     * Si varias temporadas cubren la misma noche se aplica la más corta, que es la más concreta.
+     *
+     * @param idPropiedad propiedad, o {@code null} para todas.
+     * @param nombre nombre de la temporada (alta, Semana Santa...).
+     * @param desde primera noche.
+     * @param hasta última noche, incluida.
+     * @param factor multiplicador de la tarifa.
+     */
+    record Temporada(Integer idPropiedad, String nombre, LocalDate desde, LocalDate hasta, double factor) implements ReglaPrecio {
+
+        public Temporada {
+
+            if (desde == null || hasta == null || hasta.isBefore(desde)) {
+                throw new IllegalArgumentException("La temporada " + nombre + " debe tener fechas y terminar después de empezar");
+            }
+
+            comprobarFactor(factor);
+
+        }
+
+        /**
+         * @return número de noches de la temporada.
+         */
+        public long noches() {
+            return ChronoUnit.DAYS.between(desde, hasta) + 1;
+        }
+    }
+
+    /**
+     * Días de la semana: las noches que empiezan en alguno de {@code dias} cuestan {@code factor} veces más.
+     * Si varias reglas incluyen el mismo día se aplica la que tiene menos días.
+     *
+     * @param idPropiedad propiedad, o {@code null} para todas.
+     * @param dias días de entrada de las noches afectadas (viernes y sábado para un fin de semana).
+     * @param factor multiplicador de la tarifa.
+     */
+    record DiasSemana(Integer idPropiedad, Set<DayOfWeek> dias, double factor) implements ReglaPrecio {
+
+        public DiasSemana {
+
+            if (dias == null || dias.isEmpty()) {
+                throw new IllegalArgumentException("La regla de días de la semana no tiene días");
+            }
+
+            comprobarFactor(factor);
+            dias = Set.copyOf(dias);
+
+        }
+    }
+
+    /**
+     * Recargo por ocupación: las noches en que la fracción de propiedades reservadas en la ciudad alcanza
+     * {@code umbral} cuestan {@code factor} veces más. Si se alcanzan varios umbrales se aplica el más alto.
+     *
+     * @param idPropiedad propiedad, o {@code null} para todas.
+     * @param umbral ocupación de la ciudad, entre 0 y 1.
+     * @param factor multiplicador de la tarifa.
+     */
+    record RecargoOcupacion(Integer idPropiedad, double umbral, double factor) implements ReglaPrecio {
+
+        public RecargoOcupacion {
+
+            if (!(umbral >= 0 && umbral <= 1)) {
+                throw new IllegalArgumentException("El umbral de ocupación debe estar entre 0 y 1: " + umbral);
+            }
+
+            comprobarFactor(factor);
+
+        }
+    }
+
+    /**
+     * Descuento por estancia: las estancias de {@code minNoches} o más pagan el alojamiento multiplicado por
+     * {@code factor} (0,9 = un 10 % menos), que no puede pasar de 1. Si se alcanzan varios tramos se aplica el de
+     * más noches.
+     *
+     * @param idPropiedad propiedad, o {@code null} para todas.
+     * @param minNoches noches a partir de las que se aplica.
+     * @param factor multiplicador del alojamiento.
+     */
+    record DescuentoEstancia(Integer idPropiedad, int minNoches, double factor) implements ReglaPrecio {
+
+        public DescuentoEstancia {
+
+            if (minNoches < 1) {
+                throw new IllegalArgumentException("El descuento por estancia necesita al menos una noche: " + minNoches);
+            }
+
+            comprobarFactor(factor);
+
+            if (factor > 1) {
+                throw new IllegalArgumentException("El descuento por estancia no puede encarecer la estancia: " + factor);
+            }
+
+        }
+    }
+
+    /**
+     * Suplemento por huésped: cada huésped por encima de {@code personasIncluidas} paga {@code importeNoche}
+     * euros por noche. Si hay varias reglas se aplica la que da el suplemento mayor.
+     *
+     * @param idPropiedad propiedad, o {@code null} para todas.
+     * @param personasIncluidas huéspedes incluidos en la tarifa.
+     * @param importeNoche euros por noche y huésped extra.
+     */
+    record SuplementoHuesped(Integer idPropiedad, int personasIncluidas, double importeNoche) implements ReglaPrecio {
+
+        public SuplementoHuesped {
+
+            if (personasIncluidas < 0 || !(importeNoche >= 0)) {
+                throw new IllegalArgumentException("El suplemento por huésped no puede ser negativo");
+            }
+        }
+
+        /**
+         * @param personas huéspedes de la reserva.
+         * @param noches noches de la estancia.
+         * @return importe del suplemento.
+         */
+        public double importe(int personas, int noches) {
+            return Math.max(0, personas - personasIncluidas) * importeNoche * noches;
+        }
+    }
+
+    private static void comprobarFactor(double factor) {
+
+        if (!(factor > 0) || Double.isInfinite(factor)) {
+            throw new IllegalArgumentException("El factor de precio debe ser positivo: " + factor);
+        }
+    }
+}
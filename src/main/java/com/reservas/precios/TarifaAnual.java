@@ -0,0 +1,233 @@
+package com.reservas.precios;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <h1>Tarifas de una propiedad durante un año</h1>
+ *
+ * Precio de cada noche del año ya calculado con las reglas de temporada, día de la semana y ocupación, junto con
+ * sus sumas acumuladas. Así, el alojamiento de cualquier estancia dentro del año es una resta de dos posiciones,
+ * sin recorrer las noches ni volver a evaluar las reglas.
+ *
+ * <h2>Características principales:</h2>
+ * <ul>
+ *     <li>{@code tarifas[d]} es el precio de la noche que empieza el día {@code d} del año (0 = 1 de enero).</li>
+ *     <li>{@code acumulado[d]} es la suma de las noches anteriores al día {@code d}; tiene una posición más.</li>
+ *     <li>Es inmutable: se puede compartir entre hilos y guardar en caché.</li>
+ * </ul>
+ *
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+public final class TarifaAnual {
+
+    private final int idPropiedad;
+    private final int anio;
+    private final double precioBase;
+    private final long primerDia;
+    private final double[] tarifas;
+    private final double[] acumulado;
+
+    private TarifaAnual(int idPropiedad, int anio, double precioBase, double[] tarifas) {
+
+        this.idPropiedad = idPropiedad;
+        this.anio = anio;
+        this.precioBase = precioBase;
+        this.primerDia = LocalDate.ofYearDay(anio, 1).toEpochDay();
+        this.tarifas = tarifas;
+        this.acumulado = new double[tarifas.length + 1];
+
+        for (int d = 0; d < tarifas.length; d++) {
+            acumulado[d + 1] = acumulado[d] + tarifas[d];
+        }
+    }
+
+    /**
+     * Calcula la tarifa de cada noche del año aplicando las reglas diarias al precio base.
+     *
+     * @param idPropiedad identificador de la propiedad.
+     * @param anio año.
+     * @param precioBase precio por noche de la propiedad.
+     * @param reglas reglas de temporada, días de la semana y ocupación que se aplican a la propiedad; el resto se ignoran.
+     * @param ocupacion fracción de propiedades reservadas en la ciudad cada noche del año, o {@code null} si no hay
+     *                  recargos por ocupación.
+     * @return las tarifas del año.
+     */
+    static TarifaAnual compilar(int idPropiedad, int anio, double precioBase, List<? extends ReglaPrecio> reglas,
+                                double[] ocupacion) {
+
+        int dias = Year.of(anio).length();
+        double[] temporada = factoresTemporada(anio, dias, reglas);
+        double[] semana = factoresSemana(reglas);
+        List<ReglaPrecio.RecargoOcupacion> recargos = recargosDeMayorAMenor(reglas);
+        int diaSemana = LocalDate.ofYearDay(anio, 1).getDayOfWeek().ordinal();
+
+        double[] tarifas = new double[dias];
+
+        for (int d = 0; d < dias; d++) {
+
+            double tarifa = precioBase * temporada[d] * semana[(diaSemana + d) % 7];
+
+            if (ocupacion != null) {
+                tarifa *= factorOcupacion(recargos, ocupacion[d]);
+            }
+
+            tarifas[d] = tarifa;
+
+        }
+
+        return new TarifaAnual(idPropiedad, anio, precioBase, tarifas);
+    }
+
+    /**
+     * Factor de temporada de cada día del año. Las temporadas se recorren de la más larga a la más corta,
+     * de modo que en los días que comparten gana la más concreta.
+     */
+    private static double[] factoresTemporada(int anio, int dias, List<? extends ReglaPrecio> reglas) {
+
+        double[] factores = new double[dias];
+        Arrays.fill(factores, 1);
+
+        long primero = LocalDate.ofYearDay(anio, 1).toEpochDay();
+        List<ReglaPrecio.Temporada> temporadas = new ArrayList<>();
+
+        for (ReglaPrecio regla : reglas) {
+
+            if (regla instanceof ReglaPrecio.Temporada t) {
+                temporadas.add(t);
+            }
+        }
+
+        temporadas.sort(Comparator.comparingLong(ReglaPrecio.Temporada::noches).reversed());
+
+        for (ReglaPrecio.Temporada t : temporadas) {
+
+            int desde = (int) Math.max(0, t.desde().toEpochDay() - primero);
+            int hasta = (int) Math.min(dias - 1, t.hasta().toEpochDay() - primero);
+
+            for (int d = desde; d <= hasta; d++) {
+                factores[d] = t.factor();
+            }
+        }
+
+        return factores;
+    }
+
+    /**
+     * Factor de cada día de la semana (0 = lunes). En los días con varias reglas gana la que tiene menos días.
+     */
+    private static double[] factoresSemana(List<? extends ReglaPrecio> reglas) {
+
+        double[] factores = {1, 1, 1, 1, 1, 1, 1};
+        int[] diasRegla = new int[7];
+
+        for (ReglaPrecio regla : reglas) {
+
+            if (regla instanceof ReglaPrecio.DiasSemana r) {
+
+                for (DayOfWeek dia : r.dias()) {
+
+                    int i = dia.ordinal();
+
+                    if (diasRegla[i] == 0 || r.dias().size() < diasRegla[i]) {
+
+                        factores[i] = r.factor();
+                        diasRegla[i] = r.dias().size();
+
+                    }
+                }
+            }
+        }
+
+        return factores;
+    }
+
+    private static List<ReglaPrecio.RecargoOcupacion> recargosDeMayorAMenor(List<? extends ReglaPrecio> reglas) {
+
+        List<ReglaPrecio.RecargoOcupacion> recargos = new ArrayList<>();
+
+        for (ReglaPrecio regla : reglas) {
+
+            if (regla instanceof ReglaPrecio.RecargoOcupacion r) {
+                recargos.add(r);
+            }
+        }
+
+        recargos.sort(Comparator.comparingDouble(ReglaPrecio.RecargoOcupacion::umbral).reversed());
+
+        return recargos;
+    }
+
+    private static double factorOcupacion(List<ReglaPrecio.RecargoOcupacion> recargos, double ocupacion) {
+
+        for (ReglaPrecio.RecargoOcupacion r : recargos) {
+
+            if (ocupacion >= r.umbral()) {
+                return r.factor();
+            }
+        }
+
+        return 1;
+    }
+
+    /**
+     * @return identificador de la propiedad.
+     */
+    public int idPropiedad() {
+        return idPropiedad;
+    }
+
+    /**
+     * @return año de las tarifas.
+     */
+    public int anio() {
+        return anio;
+    }
+
+    /**
+     * @return precio por noche de la propiedad con el que se calcularon las tarifas.
+     */
+    public double precioBase() {
+        return precioBase;
+    }
+
+    /**
+     * @param noche día de entrada de la noche; debe pertenecer al año.
+     * @return precio de esa noche.
+     */
+    public double tarifa(LocalDate noche) {
+        return tarifas[dia(noche.toEpochDay())];
+    }
+
+    /**
+     * Suma las noches del año que caen en {@code [desde, hasta)}. Las que quedan fuera del año no cuentan.
+     *
+     * @param desde día de entrada (época Unix en días).
+     * @param hasta día de salida (época Unix en días), cuya noche no cuenta.
+     * @return precio de esas noches.
+     */
+    double suma(long desde, long hasta) {
+
+        int d = (int) Math.max(0, desde - primerDia);
+        int h = (int) Math.min(tarifas.length, hasta - primerDia);
+
+        return h > d ? acumulado[h] - acumulado[d] : 0;
+    }
+
+    private int dia(long epochDay) {
+
+        long d = epochDay - primerDia;
+
+        if (d < 0 || d >= tarifas.length) {
+            throw new IllegalArgumentException("La fecha " + LocalDate.ofEpochDay(epochDay) + " no es del año " + anio);
+        }
+
+        return (int) d;
+    }
+}
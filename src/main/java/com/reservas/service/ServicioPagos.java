@@ -0,0 +1,104 @@
+package com.reservas.service;
+
+import com.reservas.dao.PagoDAO;
+import com.reservas.model.Pago;
+
+import java.time.LocalDateTime;
+
+/**
+ * <h1>Servicio de pagos</h1>
+ *
+ * Registra los cobros de las reservas sin ninguna dependencia de JavaFX, para usarlo desde la interfaz,
+ * desde {@link com.reservas.Consola} o desde procesos por lotes.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>Si no se indica el monto, se cobra el precio total de la reserva.</li>
+ *     <li>La referencia de transacción se asigna al registrar, a partir de los bloques que reserva {@link PagoDAO}.</li>
+ *     <li>Es seguro entre hilos: no guarda estado propio y el generador de referencias ya lo es.</li>
+ * </ul>
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public class ServicioPagos {
+
+    private static volatile ServicioPagos instancia;
+
+    private final PagoDAO pagoDAO;
+
+    /**
+     * @param pagoDAO DAO con el que se guardan los pagos.
+     */
+    public ServicioPagos(PagoDAO pagoDAO) {
+        this.pagoDAO = pagoDAO;
+    }
+
+    /**
+     * @return el servicio compartido por la aplicación.
+     */
+    public static ServicioPagos getInstance() {
+
+        if (instancia == null) {
+
+            synchronized (ServicioPagos.class) {
+
+                if (instancia == null) {
+                    instancia = new ServicioPagos(new PagoDAO());
+                }
+            }
+        }
+
+        return instancia;
+    }
+
+    /**
+     * Registra el cobro del precio total de una reserva.
+     *
+     * @param idReserva reserva que se paga.
+     * @param metodo método de pago.
+     * @param estado estado inicial del pago.
+     * @return el pago guardado, con su ID y su referencia.
+     * @throws IllegalArgumentException si la reserva no existe.
+     */
+    public Pago registrarPago(int idReserva, Pago.MetodoPago metodo, Pago.EstadoPago estado) {
+
+        double monto = pagoDAO.leerMontoDeReserva(idReserva)
+                .orElseThrow(() -> new IllegalArgumentException("No existe la reserva " + idReserva));
+
+        return registrarPago(idReserva, monto, metodo, estado);
+
+    }
+
+    /**
+     * Registra un cobro de una reserva.
+     *
+     * @param idReserva reserva que se paga.
+     * @param monto importe cobrado.
+     * @param metodo método de pago.
+     * @param estado estado inicial del pago.
+     * @return el pago guardado, con su ID y su referencia.
+     * @throws IllegalArgumentException si el monto no es positivo o falta el método o el estado.
+     */
+    public Pago registrarPago(int idReserva, double monto, Pago.MetodoPago metodo, Pago.EstadoPago estado) {
+
+        if (!(monto > 0)) {
+            throw new IllegalArgumentException("El monto debe ser mayor que 0");
+        }
+
+        if (metodo == null || estado == null) {
+            throw new IllegalArgumentException("El método y el estado del pago son obligatorios");
+        }
+
+        Pago pago = new Pago(idReserva, monto, metodo);
+        pago.setEstadoPago(estado);
+        pago.setFechaPago(LocalDateTime.now());
+        pago.setReferenciaTransaccion(pagoDAO.generarSiguienteReferencia());
+
+        if (!pagoDAO.insertarPago(pago)) {
+            throw new RuntimeException("No se ha podido registrar el pago de la reserva " + idReserva);
+        }
+
+        return pago;
+    }
+}
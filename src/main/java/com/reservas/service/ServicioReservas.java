@@ -0,0 +1,159 @@
+package com.reservas.service;
+
+import com.reservas.dao.ReservaDAO;
+import com.reservas.disponibilidad.BuscadorDisponibilidad;
+import com.reservas.disponibilidad.CriteriosBusqueda;
+import com.reservas.disponibilidad.MotorDisponibilidad;
+import com.reservas.disponibilidad.ResultadoBusqueda;
+import com.reservas.model.Reserva;
+import com.reservas.precios.MotorPrecios;
+import com.reservas.precios.Presupuesto;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * <h1>Servicio de reservas</h1>
+ *
+ * Operaciones de negocio sobre las reservas sin ninguna dependencia de JavaFX, para usarlas desde la interfaz,
+ * desde {@link com.reservas.Consola}, desde procesos por lotes o desde pruebas de carga.
+ *
+ * <h2>Operaciones:</h2>
+ * <ul>
+ *     <li>Presupuestar una estancia con {@link MotorPrecios}.</li>
+ *     <li>Buscar propiedades libres y el primer hueco libre de una propiedad.</li>
+ *     <li>Crear una reserva con el precio calculado, comprobando que la propiedad está libre.</li>
+ * </ul>
+ * Es seguro entre hilos: no guarda estado propio y todo lo que comparte (motores e índices en memoria, pool de
+ * conexiones) ya lo es. Los errores de validación se lanzan como {@link IllegalArgumentException}, los solapes
+ * como {@link IllegalStateException} y los fallos de la base de datos como {@link RuntimeException}.
+ *
+ * @author Pablo Armas
+ * @since 17/10/2026
+ */
+public class ServicioReservas {
+
+    private static volatile ServicioReservas instancia;
+
+    private final ReservaDAO reservaDAO;
+    private final MotorPrecios precios;
+    private final MotorDisponibilidad disponibilidad;
+    private final BuscadorDisponibilidad buscador;
+
+    /**
+     * @param reservaDAO DAO con el que se guardan las reservas.
+     * @param precios motor con el que se calculan los precios.
+     * @param disponibilidad motor con el que se buscan huecos libres.
+     * @param buscador buscador de propiedades libres.
+     */
+    public ServicioReservas(ReservaDAO reservaDAO, MotorPrecios precios, MotorDisponibilidad disponibilidad,
+                            BuscadorDisponibilidad buscador) {
+
+        this.reservaDAO = reservaDAO;
+        this.precios = precios;
+        this.disponibilidad = disponibilidad;
+        this.buscador = buscador;
+
+    }
+
+    /**
+     * @return el servicio compartido por la aplicación, sobre los motores compartidos.
+     */
+    public static ServicioReservas getInstance() {
+
+        if (instancia == null) {
+
+            synchronized (ServicioReservas.class) {
+
+                if (instancia == null) {
+
+                    instancia = new ServicioReservas(new ReservaDAO(), MotorPrecios.getInstance(),
+                            MotorDisponibilidad.getInstance(), BuscadorDisponibilidad.getInstance());
+
+                }
+            }
+        }
+
+        return instancia;
+    }
+
+    /**
+     * Calcula el precio de una estancia.
+     *
+     * @param idPropiedad identificador de la propiedad.
+     * @param desde día de entrada.
+     * @param hasta día de salida.
+     * @param personas huéspedes.
+     * @return el presupuesto con su desglose.
+     * @throws IllegalArgumentException si los datos no son válidos o la propiedad no existe.
+     */
+    public Presupuesto presupuestar(int idPropiedad, LocalDate desde, LocalDate hasta, int personas) {
+
+        comprobarFechas(desde, hasta);
+        return precios.presupuestar(idPropiedad, desde, hasta, personas);
+
+    }
+
+    /**
+     * Busca las propiedades libres que cumplen los criterios.
+     *
+     * @param criterios filtros de la búsqueda.
+     * @return lista no modificable de resultados, del más barato al más caro.
+     */
+    public List<ResultadoBusqueda> buscarDisponibilidad(CriteriosBusqueda criterios) {
+
+        return List.copyOf(buscador.buscar(criterios));
+
+    }
+
+    /**
+     * Busca el primer día de entrada con {@code noches} noches libres seguidas en una propiedad.
+     *
+     * @param idPropiedad identificador de la propiedad.
+     * @param desde primer día de entrada posible.
+     * @param noches noches seguidas que se buscan.
+     * @param limite último día de entrada posible.
+     * @return el día de entrada, o vacío si no hay hueco.
+     * @throws IllegalArgumentException si {@code noches} es menor que 1.
+     */
+    public Optional<LocalDate> primerHuecoLibre(int idPropiedad, LocalDate desde, int noches, LocalDate limite) {
+
+        return disponibilidad.primerHuecoLibre(idPropiedad, desde, noches, limite);
+
+    }
+
+    /**
+     * Crea una reserva pendiente con el precio calculado por {@link MotorPrecios}.
+     *
+     * @param idCliente cliente que reserva.
+     * @param idPropiedad propiedad reservada.
+     * @param desde día de entrada.
+     * @param hasta día de salida.
+     * @param personas huéspedes.
+     * @return la reserva guardada, con su ID.
+     * @throws IllegalArgumentException si los datos no son válidos o la propiedad no existe.
+     * @throws IllegalStateException si la propiedad ya está reservada alguna de esas noches.
+     */
+    public Reserva crearReserva(int idCliente, int idPropiedad, LocalDate desde, LocalDate hasta, int personas) {
+
+        Presupuesto presupuesto = presupuestar(idPropiedad, desde, hasta, personas);
+
+        Reserva reserva = new Reserva(idCliente, idPropiedad, Date.valueOf(desde), Date.valueOf(hasta), personas,
+                Reserva.EstadoReserva.PENDIENTE, presupuesto.total(), null);
+
+        if (reservaDAO.aniadirReserva(reserva) != 1) {
+            throw new RuntimeException("No se ha podido guardar la reserva");
+        }
+
+        return reserva;
+    }
+
+    private static void comprobarFechas(LocalDate desde, LocalDate hasta) {
+
+        if (desde == null || hasta == null) {
+            throw new IllegalArgumentException("Las fechas de entrada y salida son obligatorias");
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.reservas.util;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * <h1>Canal de consultas de una vista</h1>
+ *
+ * Ejecuta en segundo plano las cargas de datos de una vista, garantizando que solo la más reciente
+ * llega a la interfaz: al lanzar una consulta nueva se cancela la anterior y su resultado se descarta.
+ * <p>
+ * Expone además una propiedad {@code cargando} para mostrar un indicador mientras hay una consulta en curso.
+ * Todos los métodos deben llamarse desde el hilo de JavaFX.
+ * </p>
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public class CanalConsulta {
+
+    private final ReadOnlyBooleanWrapper cargando = new ReadOnlyBooleanWrapper(false);
+    private CompletableFuture<?> actual;
+    private long generacion = 0;
+
+    /**
+     * Ejecuta una consulta sustituyendo a la que estuviera en curso.
+     *
+     * @param consulta operación que accede a la base de datos.
+     * @param alTerminar acción a ejecutar en el hilo de JavaFX con el resultado.
+     * @param alFallar acción a ejecutar en el hilo de JavaFX con la causa del error.
+     * @param <T> tipo del resultado.
+     * @return futuro con el resultado de la consulta.
+     */
+    public <T> CompletableFuture<T> ejecutar(Callable<T> consulta, Consumer<? super T> alTerminar,
+                                             Consumer<Throwable> alFallar) {
+
+        cancelar();
+
+        long miGeneracion = ++generacion;
+        cargando.set(true);
+
+        CompletableFuture<T> futuro = EjecutorConsultas.enSegundoPlano(consulta);
+        actual = futuro;
+
+        futuro.whenComplete((valor, error) -> Platform.runLater(() -> {
+
+            if (miGeneracion != generacion) {
+                return;
+            }
+
+            actual = null;
+            cargando.set(false);
+
+            if (error == null) {
+
+                alTerminar.accept(valor);
+
+            } else if (!(error instanceof CancellationException)) {
+
+                alFallar.accept(EjecutorConsultas.causa(error));
+
+            }
+
+        }));
+
+        return futuro;
+    }
+
+    /**
+     * Cancela la consulta en curso, si la hay. Su resultado ya no llegará a la interfaz; si ya se estaba
+     * ejecutando, termina sin interrumpirse y conserva su conexión.
+     */
+    public void cancelar() {
+
+        if (actual != null) {
+
+            generacion++;
+            actual.cancel(false);
+            actual = null;
+            cargando.set(false);
+
+        }
+    }
+
+    /**
+     * Indica si hay una consulta en curso.
+     *
+     * @return propiedad de solo lectura con el estado de carga.
+     */
+    public ReadOnlyBooleanProperty cargandoProperty() {
+        return cargando.getReadOnlyProperty();
+    }
+
+    public boolean isCargando() {
+        return cargando.get();
+    }
+
+    /**
+     * Muestra un indicador de progreso en la tabla mientras el canal está cargando,
+     * restaurando su marcador de posición y cursor al terminar.
+     *
+     * @param tabla tabla asociada a las consultas del canal.
+     */
+    public void vincularIndicador(TableView<?> tabla) {
+
+        Node marcadorOriginal = tabla.getPlaceholder();
+        Cursor cursorOriginal = tabla.getCursor();
+        ProgressIndicator indicador = new ProgressIndicator();
+        indicador.setMaxSize(48, 48);
+
+        cargando.addListener((obs, antes, ahora) -> {
+
+            tabla.setPlaceholder(ahora ? indicador : marcadorOriginal);
+            tabla.setCursor(ahora ? Cursor.WAIT : cursorOriginal);
+
+        });
+    }
+}
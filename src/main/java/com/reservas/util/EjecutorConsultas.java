@@ -0,0 +1,141 @@
+package com.reservas.util;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * <h1>Ejecutor de consultas en segundo plano</h1>
+ *
+ * Ejecuta las llamadas a los DAO fuera del hilo de JavaFX, de forma que la interfaz no se congela
+ * mientras dura el viaje de ida y vuelta a la base de datos.
+ * <p>
+ * Cada consulta se ejecuta en su propio hilo virtual; los resultados se devuelven al hilo de JavaFX
+ * con {@link Platform#runLater(Runnable)} antes de tocar cualquier control.
+ * </p>
+ *
+ * <h2>Formas de uso:</h2>
+ * <ul>
+ *     <li>{@link #enSegundoPlano(Callable)}: devuelve un {@link CompletableFuture} cancelable.</li>
+ *     <li>{@link #ejecutar(Callable, Consumer, Consumer)}: ejecuta y entrega el resultado o el error en el hilo de JavaFX.</li>
+ *     <li>{@link #ejecutarTarea(Task)}: lanza una {@link Task} de JavaFX (con progreso y mensajes).</li>
+ * </ul>
+ * Para cargas que se sustituyen unas a otras (recargar una tabla) se usa {@link CanalConsulta}.
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public final class EjecutorConsultas {
+
+    private static final ExecutorService HILOS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("consulta-", 0).factory());
+
+    private EjecutorConsultas() { }
+
+    /**
+     * Ejecuta una consulta en un hilo virtual.
+     * <p>Cancelar el futuro evita que la consulta empiece si aún no lo ha hecho; si ya está en marcha, termina y su
+     * resultado se descarta. El hilo no se interrumpe: interrumpir un hilo virtual bloqueado en el socket cierra la
+     * conexión, que volvería rota al pool.</p>
+     *
+     * @param consulta operación que accede a la base de datos.
+     * @param <T> tipo del resultado.
+     * @return futuro con el resultado de la consulta.
+     */
+    public static <T> CompletableFuture<T> enSegundoPlano(Callable<T> consulta) {
+
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+
+        Future<?> tarea = HILOS.submit(() -> {
+
+            try {
+                resultado.complete(consulta.call());
+            } catch (Throwable e) {
+                resultado.completeExceptionally(e);
+            }
+
+        });
+
+        resultado.whenComplete((valor, error) -> {
+
+            if (resultado.isCancelled()) {
+                tarea.cancel(false);
+            }
+
+        });
+
+        return resultado;
+    }
+
+    /**
+     * Ejecuta una consulta en segundo plano y entrega el resultado (o el error) en el hilo de JavaFX.
+     *
+     * @param consulta operación que accede a la base de datos.
+     * @param alTerminar acción a ejecutar en el hilo de JavaFX con el resultado.
+     * @param alFallar acción a ejecutar en el hilo de JavaFX con la causa del error.
+     * @param <T> tipo del resultado.
+     * @return futuro con el resultado de la consulta.
+     */
+    public static <T> CompletableFuture<T> ejecutar(Callable<T> consulta, Consumer<? super T> alTerminar,
+                                                    Consumer<Throwable> alFallar) {
+
+        CompletableFuture<T> futuro = enSegundoPlano(consulta);
+
+        futuro.whenComplete((valor, error) -> Platform.runLater(() -> {
+
+            if (error == null) {
+
+                alTerminar.accept(valor);
+
+            } else if (!(error instanceof CancellationException)) {
+
+                alFallar.accept(causa(error));
+
+            }
+
+        }));
+
+        return futuro;
+    }
+
+    /**
+     * Lanza una {@link Task} de JavaFX en un hilo virtual. Sus manejadores
+     * ({@code setOnSucceeded}, {@code setOnFailed}...) ya se ejecutan en el hilo de JavaFX.
+     *
+     * @param tarea tarea a ejecutar.
+     * @param <T> tipo del resultado de la tarea.
+     * @return la misma tarea, para encadenar la configuración.
+     */
+    public static <T> Task<T> ejecutarTarea(Task<T> tarea) {
+
+        HILOS.submit(tarea);
+        return tarea;
+
+    }
+
+    /**
+     * Obtiene la causa real de un error envuelto por los futuros.
+     *
+     * @param error excepción recibida.
+     * @return causa original.
+     */
+    public static Throwable causa(Throwable error) {
+
+        Throwable actual = error;
+
+        while ((actual instanceof CompletionException || actual instanceof ExecutionException) && actual.getCause() != null) {
+            actual = actual.getCause();
+        }
+
+        return actual;
+    }
+}
@@ -0,0 +1,353 @@
+package com.reservas.util;
+
+import com.reservas.config.DataBaseConnection;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.image.Image;
+import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <h1>Fábrica de vistas</h1>
+ *
+ * Punto único para cargar las vistas FXML y abrir ventanas, de forma que abrir un formulario no tenga que
+ * volver a leer archivos ni decodificar imágenes.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>Las plantillas FXML se leen una sola vez y se guardan en memoria; cada carga crea sus propios nodos
+ *     y su propio controlador a partir de esa copia.</li>
+ *     <li>Las imágenes se decodifican una sola vez y se comparten entre todas las ventanas.</li>
+ *     <li>{@link #precargar()} hace todo lo anterior al arrancar, en segundo plano, y además carga las clases
+ *     de los controles y controladores que usan las vistas y abre la primera conexión con la base de datos.</li>
+ *     <li>Las ventanas de gestión se abren con {@link #abrirUnica}: si ya hay una abierta, se trae al frente
+ *     en lugar de crear otra. Al cerrarse se descarta, porque sus controladores se desuscriben al ocultarse.</li>
+ * </ul>
+ * Los formularios no se reutilizan: cada uno guarda el estado de una edición, así que siempre se cargan de nuevo.
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public final class FabricaVistas {
+
+    private static final String RUTA_VISTAS = "/com/reservas/";
+    private static final String ICONO = "/images/IconoPrincipal.png";
+
+    private static final List<String> VISTAS = List.of(
+            "main-view.fxml", "clientes-view.fxml", "clientes-form-view.fxml", "propiedades-view.fxml",
+            "propiedades-form-view.fxml", "reservas-view.fxml", "reservas-form-view.fxml", "disponibilidad-view.fxml",
+            "pagos-view.fxml", "pagos-form-view.fxml", "valoraciones-view.fxml", "valoraciones-form-view.fxml",
+            "importar-view.fxml", "exportar-view.fxml", "diagnostico-view.fxml", "analitica-view.fxml",
+            "calendario-view.fxml");
+    private static final List<String> IMAGENES = List.of(ICONO, "/images/iconoInicio.png");
+
+    private static final Map<String, byte[]> PLANTILLAS = new ConcurrentHashMap<>();
+    private static final Map<String, Image> IMAGENES_CARGADAS = new ConcurrentHashMap<>();
+
+    // Solo se usa desde el hilo de JavaFX
+    private static final Map<String, Stage> ABIERTAS = new HashMap<>();
+
+    private FabricaVistas() { }
+
+    /**
+     * Vista recién cargada: su nodo raíz y su controlador.
+     *
+     * @param raiz nodo raíz de la vista.
+     * @param controlador controlador creado por el {@link FXMLLoader}.
+     * @param <C> tipo del controlador.
+     */
+    public record Vista<C>(Parent raiz, C controlador) { }
+
+    /**
+     * Carga una vista a partir de su plantilla en memoria.
+     *
+     * @param fxml nombre del archivo dentro de {@code /com/reservas/}, por ejemplo {@code pagos-form-view.fxml}.
+     * @param <C> tipo del controlador.
+     * @return la vista con sus nodos y su controlador.
+     * @throws IOException si la vista no existe o no se puede cargar.
+     */
+    public static <C> Vista<C> cargar(String fxml) throws IOException {
+
+        URL ubicacion = FabricaVistas.class.getResource(RUTA_VISTAS + fxml);
+
+        if (ubicacion == null) {
+            throw new IOException("No existe la vista " + fxml);
+        }
+
+        byte[] plantilla;
+
+        try {
+            plantilla = PLANTILLAS.computeIfAbsent(fxml, f -> leer(ubicacion));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        // La ubicación sigue haciendo falta para resolver las rutas relativas de la vista
+        FXMLLoader loader = new FXMLLoader(ubicacion);
+        Parent raiz = loader.load(new ByteArrayInputStream(plantilla));
+
+        return new Vista<>(raiz, loader.getController());
+    }
+
+    /**
+     * Devuelve una imagen de los recursos, decodificada una sola vez.
+     *
+     * @param ruta ruta absoluta del recurso, por ejemplo {@code /images/iconoInicio.png}.
+     * @return la imagen compartida.
+     */
+    public static Image imagen(String ruta) {
+
+        return IMAGENES_CARGADAS.computeIfAbsent(ruta, r ->
+                new Image(Objects.requireNonNull(FabricaVistas.class.getResourceAsStream(r), "No existe la imagen " + r)));
+
+    }
+
+    /**
+     * @return el icono de la aplicación.
+     */
+    public static Image icono() {
+        return imagen(ICONO);
+    }
+
+    /**
+     * Crea una ventana con la vista, el título y el icono de la aplicación, sin mostrarla.
+     *
+     * @param raiz nodo raíz de la vista.
+     * @param titulo título de la ventana.
+     * @return la ventana.
+     */
+    public static Stage ventana(Parent raiz, String titulo) {
+
+        Stage stage = new Stage();
+        stage.setScene(new Scene(raiz));
+        stage.setTitle(titulo);
+        stage.getIcons().add(icono());
+
+        return stage;
+    }
+
+    /**
+     * Abre una vista en su propia ventana, o trae al frente la que ya esté abierta con esa vista.
+     *
+     * @param fxml nombre del archivo de la vista.
+     * @param titulo título de la ventana.
+     * @param <C> tipo del controlador.
+     * @return el controlador de la ventana nueva, o {@code null} si ya estaba abierta.
+     * @throws IOException si la vista no se puede cargar.
+     */
+    public static <C> C abrirUnica(String fxml, String titulo) throws IOException {
+
+        Stage abierta = ABIERTAS.get(fxml);
+
+        if (abierta != null) {
+
+            abierta.setIconified(false);
+            abierta.toFront();
+            abierta.requestFocus();
+            return null;
+
+        }
+
+        Vista<C> vista = cargar(fxml);
+        Stage stage = ventana(vista.raiz(), titulo);
+
+        ABIERTAS.put(fxml, stage);
+        stage.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> ABIERTAS.remove(fxml, stage));
+        stage.show();
+
+        return vista.controlador();
+    }
+
+    /**
+     * Prepara las vistas en un hilo en segundo plano para que la primera apertura de cada ventana sea rápida,
+     * y escribe el {@link InformeArranque} al terminar.
+     */
+    public static void precargar() {
+
+        Thread.ofPlatform().daemon().name("precarga-vistas").start(() -> {
+
+            long inicio = System.nanoTime();
+
+            for (String fxml : VISTAS) {
+
+                try {
+
+                    PLANTILLAS.computeIfAbsent(fxml, f -> leer(FabricaVistas.class.getResource(RUTA_VISTAS + f)));
+
+                } catch (RuntimeException e) {
+
+                    System.err.println("No se ha podido precargar " + fxml + ": " + e.getMessage());
+
+                }
+            }
+
+            InformeArranque.registrar("Plantillas FXML (" + VISTAS.size() + ")", System.nanoTime() - inicio);
+            inicio = System.nanoTime();
+
+            int clases = cargarClases();
+
+            InformeArranque.registrar("Clases de las vistas (" + clases + ")", System.nanoTime() - inicio);
+            inicio = System.nanoTime();
+
+            try {
+
+                IMAGENES.forEach(FabricaVistas::imagen);
+
+            } catch (RuntimeException e) {
+
+                System.err.println("No se han podido precargar las imágenes: " + e.getMessage());
+
+            }
+
+            InformeArranque.registrar("Imágenes (" + IMAGENES.size() + ")", System.nanoTime() - inicio);
+            inicio = System.nanoTime();
+
+            try (Connection con = DataBaseConnection.getInstance().conectarBD()) {
+
+                InformeArranque.registrar(con != null ? "Primera conexión" : "Primera conexión (fallida)", System.nanoTime() - inicio);
+
+            } catch (Exception e) {
+
+                System.err.println("No se ha podido abrir la conexión al arrancar: " + e.getMessage());
+
+            }
+
+            System.out.println(InformeArranque.texto());
+
+        });
+    }
+
+    /**
+     * Carga las clases de los elementos y controladores de todas las vistas, sin inicializarlas.
+     * Crear los nodos de verdad fuera del hilo de JavaFX no es seguro y ejecutaría los {@code initialize},
+     * así que se recorren las plantillas como XML y se resuelven los nombres con sus {@code <?import?>}.
+     *
+     * @return número de clases cargadas.
+     */
+    private static int cargarClases() {
+
+        Set<String> clases = new TreeSet<>();
+        XMLInputFactory fabrica = XMLInputFactory.newFactory();
+
+        for (String fxml : VISTAS) {
+
+            byte[] plantilla = PLANTILLAS.get(fxml);
+
+            if (plantilla == null) {
+                continue;
+            }
+
+            List<String> importaciones = new ArrayList<>();
+
+            try (InputStream entrada = new ByteArrayInputStream(plantilla)) {
+
+                XMLStreamReader xml = fabrica.createXMLStreamReader(entrada);
+
+                while (xml.hasNext()) {
+
+                    int evento = xml.next();
+
+                    if (evento == XMLStreamReader.PROCESSING_INSTRUCTION && "import".equals(xml.getPITarget())) {
+
+                        importaciones.add(xml.getPIData().trim());
+
+                    } else if (evento == XMLStreamReader.START_ELEMENT) {
+
+                        String nombre = xml.getLocalName();
+
+                        if (Character.isUpperCase(nombre.charAt(0))) {
+                            resolver(nombre, importaciones, clases);
+                        }
+
+                        String controlador = xml.getAttributeValue(null, "controller");
+
+                        if (controlador != null && cargarClase(controlador)) {
+                            clases.add(controlador);
+                        }
+                    }
+                }
+
+                xml.close();
+
+            } catch (IOException | XMLStreamException e) {
+
+                System.err.println("No se ha podido precargar " + fxml + ": " + e.getMessage());
+
+            }
+        }
+
+        return clases.size();
+    }
+
+    /**
+     * Busca la clase de un elemento entre las importaciones de la vista y la carga.
+     */
+    private static void resolver(String nombre, List<String> importaciones, Set<String> clases) {
+
+        for (String importacion : importaciones) {
+
+            String candidata;
+
+            if (importacion.endsWith(".*")) {
+                candidata = importacion.substring(0, importacion.length() - 1) + nombre;
+            } else if (importacion.endsWith("." + nombre)) {
+                candidata = importacion;
+            } else {
+                continue;
+            }
+
+            if (clases.contains(candidata) || cargarClase(candidata)) {
+
+                clases.add(candidata);
+                return;
+
+            }
+        }
+    }
+
+    private static boolean cargarClase(String nombre) {
+
+        try {
+
+            Class.forName(nombre, false, FabricaVistas.class.getClassLoader());
+            return true;
+
+        } catch (ClassNotFoundException | LinkageError e) {
+
+            return false;
+
+        }
+    }
+
+    private static byte[] leer(URL ubicacion) {
+
+        try (InputStream entrada = ubicacion.openStream()) {
+
+            return entrada.readAllBytes();
+
+        } catch (IOException e) {
+
+            throw new UncheckedIOException(e);
+
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.reservas.util;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * <h1>Fuente de datos paginada por clave</h1>
+ *
+ * Abstrae las consultas de paginación por clave ({@code WHERE id > ? ORDER BY id LIMIT ?}) que ofrece cada DAO,
+ * para que {@link ListaPaginada} pueda cargar páginas sin conocer la tabla concreta.
+ *
+ * @param <T> tipo de las filas.
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public interface FuentePaginada<T> {
+
+    /**
+     * Lee las filas cuya clave es mayor que {@code despuesDeId}, en orden ascendente de clave.
+     *
+     * @param despuesDeId última clave de la página anterior ({@code 0} para la primera página).
+     * @param limite número máximo de filas a devolver.
+     * @return filas de la página.
+     */
+    List<T> leerPagina(int despuesDeId, int limite);
+
+    /**
+     * Obtiene la clave situada {@code salto} filas por detrás de {@code despuesDeId}, recorriendo solo el índice
+     * de la clave primaria. Permite saltar a una página lejana sin leer las filas intermedias.
+     *
+     * @param despuesDeId clave de partida.
+     * @param salto número de filas a saltar ({@code 0} devuelve la primera clave mayor que la de partida).
+     * @return la clave encontrada, o {@code -1} si no hay tantas filas.
+     */
+    int idTrasSaltar(int despuesDeId, int salto);
+
+    /**
+     * Crea una fuente a partir de las dos consultas de un DAO.
+     *
+     * @param pagina consulta que lee una página a partir de una clave y un límite.
+     * @param saltar consulta que obtiene la clave tras saltar un número de filas.
+     * @param <T> tipo de las filas.
+     * @return la fuente que delega en ambas consultas.
+     */
+    static <T> FuentePaginada<T> de(BiFunction<Integer, Integer, List<T>> pagina, IntBinaryOperator saltar) {
+
+        return new FuentePaginada<>() {
+
+            @Override
+            public List<T> leerPagina(int despuesDeId, int limite) {
+                return pagina.apply(despuesDeId, limite);
+            }
+
+            @Override
+            public int idTrasSaltar(int despuesDeId, int salto) {
+                return saltar.applyAsInt(despuesDeId, salto);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.reservas.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * <h1>Generador de referencias por bloques</h1>
+ *
+ * Reparte números únicos (por ejemplo, las referencias de transacción {@code TXN001}, {@code TXN002}...)
+ * reservando en la base de datos bloques de números consecutivos y entregándolos después desde memoria.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>Cada bloque se reserva con una sola consulta (un {@code nextval} de una secuencia cuyo incremento es
+ *     el tamaño del bloque). Dos equipos nunca reciben el mismo bloque, así que las referencias no se repiten.</li>
+ *     <li>Dentro de un bloque, cada número se obtiene con un {@link AtomicLong} sin bloqueos ni consultas.</li>
+ *     <li>Solo al agotarse el bloque un hilo reserva el siguiente; los demás esperan a que termine.</li>
+ *     <li>Los números de un bloque que no llegan a usarse (al cerrar la aplicación) se pierden: las referencias
+ *     son únicas y crecientes dentro de cada equipo, pero puede haber huecos.</li>
+ * </ul>
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public class GeneradorReferencias {
+
+    private final String formato;
+    private final Supplier<Bloque> reserva;
+
+    private volatile Asignacion actual = new Asignacion(new Bloque(0, 0));
+
+    /**
+     * @param formato formato de {@link String#format} con un único {@code %d} para el número, p. ej. {@code "TXN%03d"}.
+     * @param reserva función que reserva un bloque nuevo en la base de datos.
+     */
+    public GeneradorReferencias(String formato, Supplier<Bloque> reserva) {
+
+        this.formato = formato;
+        this.reserva = reserva;
+
+    }
+
+    /**
+     * @return la siguiente referencia con el formato indicado.
+     */
+    public String siguiente() {
+        return String.format(formato, siguienteNumero());
+    }
+
+    /**
+     * Devuelve el siguiente número libre. Solo consulta la base de datos cuando el bloque actual se ha agotado.
+     *
+     * @return número único.
+     */
+    public long siguienteNumero() {
+
+        while (true) {
+
+            Asignacion asignacion = actual;
+            long numero = asignacion.siguiente.getAndIncrement();
+
+            if (numero < asignacion.fin) {
+                return numero;
+            }
+
+            renovar(asignacion);
+
+        }
+    }
+
+    /**
+     * Sustituye el bloque agotado por uno nuevo, salvo que otro hilo ya lo haya hecho.
+     */
+    private synchronized void renovar(Asignacion agotada) {
+
+        if (actual != agotada) {
+            return;
+        }
+
+        Bloque bloque = reserva.get();
+
+        if (bloque.tamano() <= 0) {
+            throw new IllegalStateException("El bloque de referencias reservado está vacío");
+        }
+
+        actual = new Asignacion(bloque);
+
+    }
+
+    /**
+     * Rango de números reservado en la base de datos: desde {@code inicio} hasta {@code inicio + tamano - 1}.
+     *
+     * @param inicio primer número del bloque.
+     * @param tamano cantidad de números del bloque.
+     */
+    public record Bloque(long inicio, long tamano) { }
+
+    private static final class Asignacion {
+
+        private final AtomicLong siguiente;
+        private final long fin;
+
+        Asignacion(Bloque bloque) {
+
+            this.siguiente = new AtomicLong(bloque.inicio());
+            this.fin = bloque.inicio() + bloque.tamano();
+
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.reservas.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <h1>Informe de arranque</h1>
+ *
+ * Tiempos de las fases del arranque de la aplicación: desde que arranca el proceso hasta que se ve la ventana
+ * principal, y lo que tarda la precarga de {@link FabricaVistas} en segundo plano.
+ *
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public final class InformeArranque {
+
+    private static final List<Fase> FASES = new ArrayList<>();
+
+    private InformeArranque() { }
+
+    /**
+     * Fase del arranque.
+     *
+     * @param nombre descripción de la fase.
+     * @param milisegundos duración de la fase.
+     */
+    public record Fase(String nombre, double milisegundos) {
+
+        @Override
+        public String toString() {
+            return String.format("%-32s %9.1f ms", nombre, milisegundos);
+        }
+    }
+
+    /**
+     * Registra la duración de una fase.
+     *
+     * @param fase descripción de la fase.
+     * @param nanos duración en nanosegundos.
+     */
+    public static synchronized void registrar(String fase, long nanos) {
+        FASES.add(new Fase(fase, nanos / 1_000_000.0));
+    }
+
+    /**
+     * Registra el tiempo transcurrido desde que arrancó el proceso, si el sistema lo informa.
+     *
+     * @param fase descripción del momento, por ejemplo "Ventana principal visible".
+     */
+    public static void registrarDesdeInicio(String fase) {
+
+        ProcessHandle.current().info().startInstant().ifPresent(inicio ->
+                registrar(fase + " (desde el inicio)", Duration.between(inicio, Instant.now()).toNanos()));
+
+    }
+
+    /**
+     * @return las fases registradas, en orden.
+     */
+    public static synchronized List<Fase> fases() {
+        return List.copyOf(FASES);
+    }
+
+    /**
+     * @return el informe en texto, una fase por línea.
+     */
+    public static String texto() {
+
+        StringBuilder sb = new StringBuilder("Arranque:");
+
+        for (Fase fase : fases()) {
+            sb.append("\n  ").append(fase);
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,508 @@
+package com.reservas.util;
+
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.ToIntFunction;
+
+/**
+ * <h1>Lista observable paginada bajo demanda</h1>
+ *
+ * Lista de solo lectura para respaldar un {@link TableView} sin cargar la tabla entera en memoria.
+ * <p>
+ * Conoce el número total de filas, pero solo mantiene en memoria unas pocas páginas. Cuando la tabla pide una fila
+ * de una página que no está cargada, devuelve {@code null}, la solicita en segundo plano mediante paginación por clave
+ * y notifica el cambio al llegar. Las páginas más alejadas de la zona visible se descartan.
+ * </p>
+ *
+ * <h2>Características principales:</h2>
+ * <ul>
+ *     <li>Paginación por clave: cada página se lee con {@code WHERE id > ? ORDER BY id LIMIT ?}, sin {@code OFFSET}.</li>
+ *     <li>Los saltos a páginas lejanas solo recorren el índice de la clave primaria.</li>
+ *     <li>Precarga de la página siguiente al acercarse al final de la actual.</li>
+ *     <li>Memoria acotada a {@code maxPaginas * tamPagina} filas.</li>
+ *     <li>Los cambios leídos con {@link com.reservas.dao.SeguimientoCambios} se aplican en su sitio con
+ *     {@link #aplicarCambios}, sin perder la selección ni la posición de la tabla.</li>
+ * </ul>
+ * Debe usarse desde el hilo de JavaFX. Las celdas y manejadores de la tabla deben tolerar filas {@code null}
+ * mientras su página se está cargando.
+ *
+ * @param <T> tipo de las filas.
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public class ListaPaginada<T> extends ObservableListBase<T> {
+
+    public static final int TAM_PAGINA = 100;
+    public static final int MAX_PAGINAS = 10;
+
+    private final FuentePaginada<T> fuente;
+    private final ToIntFunction<T> clave;
+    private final int tamPagina;
+    private final int maxPaginas;
+
+    private final Map<Integer, List<T>> paginas = new HashMap<>();
+    private final TreeMap<Integer, Integer> limites = new TreeMap<>();
+    private final Set<Integer> solicitadas = new HashSet<>();
+    private final Set<Integer> incompletas = new HashSet<>();
+
+    private int tamano = 0;
+    private int paginaActual = 0;
+    private long generacion = 0;
+
+    /**
+     * Crea una lista vacía con páginas de {@value #TAM_PAGINA} filas y como máximo {@value #MAX_PAGINAS} páginas en memoria.
+     *
+     * @param fuente consultas de paginación del DAO.
+     * @param clave función que devuelve la clave primaria de una fila.
+     */
+    public ListaPaginada(FuentePaginada<T> fuente, ToIntFunction<T> clave) {
+        this(fuente, clave, TAM_PAGINA, MAX_PAGINAS);
+    }
+
+    /**
+     * Crea una lista vacía. Hay que llamar a {@link #reiniciar(int)} con el total de filas para empezar a cargar.
+     *
+     * @param fuente consultas de paginación del DAO.
+     * @param clave función que devuelve la clave primaria de una fila.
+     * @param tamPagina filas por página.
+     * @param maxPaginas páginas que se mantienen en memoria como máximo.
+     */
+    public ListaPaginada(FuentePaginada<T> fuente, ToIntFunction<T> clave, int tamPagina, int maxPaginas) {
+
+        if (tamPagina < 1 || maxPaginas < 2) {
+            throw new IllegalArgumentException("Tamaño de página o número de páginas no válido");
+        }
+
+        this.fuente = fuente;
+        this.clave = clave;
+        this.tamPagina = tamPagina;
+        this.maxPaginas = maxPaginas;
+
+    }
+
+    /**
+     * Descarta todas las páginas cargadas y fija el nuevo número total de filas.
+     * Las cargas de páginas que sigan en curso se ignorarán al terminar.
+     *
+     * @param total número total de filas de la tabla.
+     */
+    public void reiniciar(int total) {
+
+        descartarTodo();
+
+        int anterior = tamano;
+        tamano = Math.max(total, 0);
+
+        beginChange();
+
+        if (anterior > 0) {
+            nextRemove(0, Collections.nCopies(anterior, null));
+        }
+
+        if (tamano > 0) {
+            nextAdd(0, tamano);
+        }
+
+        endChange();
+
+    }
+
+    /**
+     * Aplica en su sitio las filas insertadas, modificadas y borradas, sin descartar las páginas visibles, para que
+     * la tabla conserve la selección y la posición de desplazamiento.
+     * <p>
+     * Solo se conoce la posición de los cambios que caen dentro del tramo de páginas cargadas alrededor de la zona
+     * visible: ahí cada fila se sustituye, se inserta o se quita una a una. Los cambios fuera de ese tramo solo
+     * ajustan el número de filas y se verán al cargar sus páginas. Si los cambios no cuadran con el total recibido,
+     * la lista se recarga con {@link #reiniciar(int)}.
+     * </p>
+     *
+     * @param modificadas filas insertadas o modificadas, ordenadas por clave.
+     * @param borradas claves de las filas borradas.
+     * @param total número total de filas tras los cambios.
+     * @return {@code true} si los cambios se han aplicado en su sitio; {@code false} si se ha recargado la lista.
+     */
+    public boolean aplicarCambios(List<T> modificadas, Collection<Integer> borradas, int total) {
+
+        int primera = paginaActual;
+        int ultima = paginaActual;
+
+        if (!paginas.containsKey(paginaActual)) {
+
+            // No hay nada visible cargado: basta con ajustar el número de filas
+            descartarTodo();
+
+            beginChange();
+            ajustarTamano(tamano, total);
+            endChange();
+
+            return true;
+
+        }
+
+        while (paginas.containsKey(primera - 1)) {
+            primera--;
+        }
+
+        while (paginas.containsKey(ultima + 1)) {
+            ultima++;
+        }
+
+        List<T> ventana = new ArrayList<>();
+
+        for (int p = primera; p <= ultima; p++) {
+
+            List<T> filas = paginas.get(p);
+
+            if (p < ultima && filas.size() < tamPagina) {
+
+                reiniciar(total);
+                return false;
+
+            }
+
+            ventana.addAll(filas);
+
+        }
+
+        int inicio = primera * tamPagina;
+        int filasVentana = ventana.size();
+        boolean alPrincipio = inicio == 0;
+        boolean alFinal = inicio + filasVentana >= tamano;
+        int antes = 0;
+
+        List<Edicion<T>> ediciones = new ArrayList<>();
+
+        for (int id : new TreeSet<>(borradas)) {
+
+            int pos = buscar(ventana, id);
+
+            if (pos >= 0) {
+
+                ediciones.add(new Edicion<>(TipoEdicion.BAJA, inicio + antes + pos, ventana.remove(pos)));
+
+            } else if (-pos - 1 == 0 && !alPrincipio) {
+
+                // Borrada antes del tramo cargado: el tramo se desplaza una fila hacia arriba
+                antes--;
+                ediciones.add(new Edicion<>(TipoEdicion.BAJA, inicio + antes, null));
+
+            }
+        }
+
+        for (T fila : modificadas) {
+
+            int pos = buscar(ventana, clave.applyAsInt(fila));
+
+            if (pos >= 0) {
+
+                ediciones.add(new Edicion<>(TipoEdicion.CAMBIO, inicio + antes + pos, ventana.set(pos, fila)));
+                continue;
+
+            }
+
+            int hueco = -pos - 1;
+            boolean fuera = hueco == 0 && !alPrincipio || hueco == ventana.size() && !alFinal;
+
+            if (!fuera) {
+
+                ventana.add(hueco, fila);
+                ediciones.add(new Edicion<>(TipoEdicion.ALTA, inicio + antes + hueco, null));
+
+            }
+        }
+
+        int nuevoInicio = inicio + antes;
+        int tamanoEditado = tamano + antes + ventana.size() - filasVentana;
+        int filasDespues = tamanoEditado - nuevoInicio - ventana.size();
+
+        if (nuevoInicio < 0 || alFinal && total != tamanoEditado || filasDespues + total - tamanoEditado < 0) {
+
+            reiniciar(total);
+            return false;
+
+        }
+
+        generacion++;
+        solicitadas.clear();
+        incompletas.clear();
+        paginas.clear();
+
+        // Las claves anteriores al tramo solo siguen valiendo si no ha cambiado nada delante de él
+        if (antes != 0) {
+            limites.clear();
+        } else {
+            limites.tailMap(primera, false).clear();
+        }
+
+        limites.put(0, 0);
+        tamano = total;
+        colocar(ventana, nuevoInicio, alFinal);
+
+        beginChange();
+
+        for (Edicion<T> edicion : ediciones) {
+
+            switch (edicion.tipo()) {
+
+                case ALTA -> nextAdd(edicion.indice(), edicion.indice() + 1);
+                case BAJA -> nextRemove(edicion.indice(), edicion.anterior());
+                case CAMBIO -> nextSet(edicion.indice(), edicion.anterior());
+
+            }
+        }
+
+        ajustarTamano(tamanoEditado, total);
+        endChange();
+
+        return true;
+
+    }
+
+    /**
+     * Asigna la lista a la tabla y desactiva la ordenación por columnas,
+     * que no es compatible con una lista de solo lectura ordenada por clave.
+     *
+     * @param tabla tabla que mostrará la lista.
+     */
+    public void vincular(TableView<T> tabla) {
+
+        tabla.getColumns().forEach(columna -> columna.setSortable(false));
+        tabla.setItems(this);
+
+    }
+
+    @Override
+    public T get(int index) {
+
+        if (index < 0 || index >= tamano) {
+            throw new IndexOutOfBoundsException("Índice " + index + " fuera de rango (" + tamano + ")");
+        }
+
+        int pagina = index / tamPagina;
+        int desplazamiento = index % tamPagina;
+        paginaActual = pagina;
+
+        if (desplazamiento >= tamPagina * 3 / 4 && (pagina + 1) * tamPagina < tamano) {
+            solicitar(pagina + 1);
+        }
+
+        List<T> filas = paginas.get(pagina);
+
+        if (filas == null || incompletas.contains(pagina)) {
+            solicitar(pagina);
+        }
+
+        if (filas == null) {
+            return null;
+        }
+
+        return desplazamiento < filas.size() ? filas.get(desplazamiento) : null;
+    }
+
+    @Override
+    public int size() {
+        return tamano;
+    }
+
+    /**
+     * Solicita en segundo plano la carga de una página si no está cargada ni pedida.
+     */
+    private void solicitar(int pagina) {
+
+        if (paginas.containsKey(pagina) && !incompletas.contains(pagina) || !solicitadas.add(pagina)) {
+            return;
+        }
+
+        long miGeneracion = generacion;
+        Map.Entry<Integer, Integer> conocido = limites.floorEntry(pagina);
+        int paginaConocida = conocido.getKey();
+        int claveConocida = conocido.getValue();
+
+        EjecutorConsultas.ejecutar(() -> {
+
+            int despuesDe = claveConocida;
+
+            if (paginaConocida < pagina) {
+                despuesDe = fuente.idTrasSaltar(claveConocida, (pagina - paginaConocida) * tamPagina - 1);
+            }
+
+            List<T> filas = despuesDe == -1 ? List.<T>of() : fuente.leerPagina(despuesDe, tamPagina);
+            return new PaginaCargada<>(pagina, despuesDe, filas);
+
+        }, cargada -> {
+
+            if (miGeneracion == generacion) {
+                aplicar(cargada);
+            }
+
+        }, error -> {
+
+            if (miGeneracion == generacion) {
+                solicitadas.remove(pagina);
+            }
+
+            System.err.println("Error al cargar la página " + pagina + ": " + error.getMessage());
+
+        });
+    }
+
+    /**
+     * Guarda una página recibida, descarta las más alejadas y notifica a la tabla.
+     */
+    private void aplicar(PaginaCargada<T> cargada) {
+
+        solicitadas.remove(cargada.pagina());
+        incompletas.remove(cargada.pagina());
+
+        if (cargada.despuesDe() != -1) {
+            limites.put(cargada.pagina(), cargada.despuesDe());
+        }
+
+        List<T> filas = cargada.filas();
+
+        if (filas.size() == tamPagina) {
+            limites.put(cargada.pagina() + 1, clave.applyAsInt(filas.get(filas.size() - 1)));
+        }
+
+        paginas.put(cargada.pagina(), filas);
+        descartarLejanas();
+
+        int inicio = cargada.pagina() * tamPagina;
+        int fin = Math.min(inicio + filas.size(), tamano);
+
+        if (inicio >= fin) {
+            return;
+        }
+
+        beginChange();
+
+        for (int i = inicio; i < fin; i++) {
+            nextSet(i, null);
+        }
+
+        endChange();
+
+    }
+
+    /**
+     * Elimina de memoria las páginas más lejanas a la última consultada.
+     */
+    private void descartarLejanas() {
+
+        while (paginas.size() > maxPaginas) {
+
+            int masLejana = paginas.keySet().stream()
+                    .max((a, b) -> Integer.compare(Math.abs(a - paginaActual), Math.abs(b - paginaActual)))
+                    .orElseThrow();
+
+            paginas.remove(masLejana);
+            incompletas.remove(masLejana);
+
+        }
+    }
+
+    /**
+     * Descarta todas las páginas y claves conocidas. Las cargas en curso se ignorarán al terminar.
+     */
+    private void descartarTodo() {
+
+        generacion++;
+        paginas.clear();
+        solicitadas.clear();
+        incompletas.clear();
+        limites.clear();
+        limites.put(0, 0);
+
+    }
+
+    /**
+     * Notifica, dentro de un cambio ya empezado, las filas añadidas o quitadas al final de la lista.
+     */
+    private void ajustarTamano(int anterior, int total) {
+
+        tamano = Math.max(total, 0);
+
+        if (tamano > anterior) {
+            nextAdd(anterior, tamano);
+        } else if (tamano < anterior) {
+            nextRemove(tamano, Collections.nCopies(anterior - tamano, null));
+        }
+    }
+
+    /**
+     * Vuelve a repartir en páginas un tramo de filas consecutivas que empieza en la posición {@code inicio}.
+     * Una página a la que le faltan filas del principio se descarta; si le faltan del final, se conserva
+     * para seguir mostrándola y se vuelve a pedir entera.
+     */
+    private void colocar(List<T> tramo, int inicio, boolean hastaElFinal) {
+
+        for (int p = (inicio + tamPagina - 1) / tamPagina; p * tamPagina < inicio + tramo.size(); p++) {
+
+            int desde = p * tamPagina - inicio;
+            int hasta = Math.min(desde + tamPagina, tramo.size());
+
+            paginas.put(p, new ArrayList<>(tramo.subList(desde, hasta)));
+
+            if (desde > 0) {
+                limites.put(p, clave.applyAsInt(tramo.get(desde - 1)));
+            }
+
+            if (hasta - desde == tamPagina) {
+                limites.put(p + 1, clave.applyAsInt(tramo.get(hasta - 1)));
+            } else if (!hastaElFinal) {
+                incompletas.add(p);
+            }
+        }
+    }
+
+    /**
+     * Búsqueda binaria por clave en un tramo ordenado.
+     *
+     * @return La posición de la fila, o {@code -(punto de inserción) - 1} si no está.
+     */
+    private int buscar(List<T> tramo, int id) {
+
+        int bajo = 0;
+        int alto = tramo.size() - 1;
+
+        while (bajo <= alto) {
+
+            int medio = (bajo + alto) >>> 1;
+            int actual = clave.applyAsInt(tramo.get(medio));
+
+            if (actual < id) {
+                bajo = medio + 1;
+            } else if (actual > id) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+
+        return -(bajo + 1);
+    }
+
+    /**
+     * Página leída en segundo plano junto a la clave desde la que se leyó.
+     */
+    private record PaginaCargada<T>(int pagina, int despuesDe, List<T> filas) { }
+
+    private enum TipoEdicion { ALTA, BAJA, CAMBIO }
+
+    /**
+     * Cambio sobre una fila, con su posición en el momento de aplicarlo y la fila anterior si la había.
+     */
+    private record Edicion<T>(TipoEdicion tipo, int indice, T anterior) { }
+}
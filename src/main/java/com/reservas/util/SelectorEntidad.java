@@ -0,0 +1,285 @@
+package com.reservas.util;
+
+import com.reservas.busqueda.CatalogoOpciones;
+import com.reservas.busqueda.OpcionEntidad;
+import javafx.animation.PauseTransition;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+import javafx.util.StringConverter;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <h1>Lista de selección con búsqueda</h1>
+ *
+ * Convierte un {@link ComboBox} en un selector de clientes, propiedades o reservas que se rellena mientras el
+ * usuario escribe, con las páginas de un {@link CatalogoOpciones}. Las opciones se muestran por su nombre; el
+ * formulario solo trabaja con el ID elegido.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>Al crearse pide la primera página; abrir un formulario cuesta una consulta acotada, o ninguna si el
+ *     catálogo ya la tenía, sea cual sea el tamaño de la tabla.</li>
+ *     <li>Lo escrito filtra las opciones tras una breve pausa, para no consultar en cada pulsación.</li>
+ *     <li>Al llegar al final de la lista desplegable se añade la página siguiente, que ya se había pedido en
+ *     segundo plano al mostrar la anterior.</li>
+ * </ul>
+ * Todos los métodos deben llamarse desde el hilo de JavaFX.
+ *
+ * @author Jaime Pérez
+ * @since 17/10/2026
+ */
+public class SelectorEntidad {
+
+    private static final Duration PAUSA = Duration.millis(200);
+
+    private final ComboBox<OpcionEntidad> combo;
+    private final CatalogoOpciones catalogo;
+    private final CanalConsulta canalBusqueda = new CanalConsulta();
+    private final CanalConsulta canalSiguiente = new CanalConsulta();
+    private final PauseTransition pausa = new PauseTransition(PAUSA);
+    private final ReadOnlyObjectWrapper<Integer> id = new ReadOnlyObjectWrapper<>();
+
+    private String texto = "";
+    private boolean completa = false;
+    private boolean ajustando = false;
+
+    /**
+     * @param combo lista desplegable del formulario; pasa a ser editable.
+     * @param catalogo catálogo del que se sacan las opciones.
+     */
+    public SelectorEntidad(ComboBox<OpcionEntidad> combo, CatalogoOpciones catalogo) {
+
+        this.combo = combo;
+        this.catalogo = catalogo;
+
+        combo.setEditable(true);
+        combo.setConverter(new StringConverter<>() {
+
+            @Override
+            public String toString(OpcionEntidad opcion) {
+                return opcion == null ? "" : opcion.etiqueta();
+            }
+
+            @Override
+            public OpcionEntidad fromString(String escrito) {
+                return buscarEtiqueta(escrito);
+            }
+        });
+
+        combo.setCellFactory(lista -> new CeldaOpcion());
+        combo.valueProperty().addListener((obs, antes, opcion) -> id.set(opcion == null ? null : opcion.id()));
+
+        combo.getEditor().textProperty().addListener((obs, antes, escrito) -> {
+
+            // Al elegir una opción el editor muestra su etiqueta: eso no es una búsqueda
+            if (ajustando || buscarEtiqueta(escrito) != null) {
+                return;
+            }
+
+            pausa.setOnFinished(e -> buscar(escrito));
+            pausa.playFromStart();
+
+        });
+
+        buscar("");
+
+    }
+
+    /**
+     * @return ID de la opción elegida, o {@code null} si no hay ninguna.
+     */
+    public Integer getId() {
+        return id.get();
+    }
+
+    /**
+     * @return propiedad con el ID de la opción elegida.
+     */
+    public ReadOnlyObjectProperty<Integer> idProperty() {
+        return id.getReadOnlyProperty();
+    }
+
+    /**
+     * Elige la opción de un ID, por ejemplo al abrir un formulario de edición. Si no está en la lista, se muestra
+     * el ID mientras se consulta su etiqueta.
+     *
+     * @param nuevo ID a elegir, o {@code null} para dejar la lista sin opción.
+     */
+    public void setId(Integer nuevo) {
+
+        if (nuevo == null) {
+
+            ajustar(() -> combo.setValue(null));
+            return;
+
+        }
+
+        OpcionEntidad enLista = combo.getItems().stream().filter(o -> o.id() == nuevo).findFirst().orElse(null);
+
+        if (enLista != null) {
+
+            ajustar(() -> combo.setValue(enLista));
+            return;
+
+        }
+
+        ajustar(() -> combo.setValue(new OpcionEntidad(nuevo, "#" + nuevo)));
+
+        EjecutorConsultas.ejecutar(() -> catalogo.opcion(nuevo), opcion -> {
+
+            if (opcion != null && Objects.equals(id.get(), nuevo)) {
+                ajustar(() -> combo.setValue(opcion));
+            }
+
+        }, this::avisarError);
+
+    }
+
+    /**
+     * Pide la primera página de opciones que coinciden con lo escrito.
+     */
+    private void buscar(String escrito) {
+
+        String buscado = escrito == null ? "" : escrito.trim();
+        texto = buscado;
+
+        canalSiguiente.cancelar();
+        canalBusqueda.ejecutar(() -> catalogo.pagina(buscado, 0), pagina -> mostrar(pagina, false), this::avisarError);
+
+    }
+
+    /**
+     * Añade la página siguiente a la lista, si la hay y no se está pidiendo ya.
+     */
+    private void cargarSiguiente() {
+
+        List<OpcionEntidad> opciones = combo.getItems();
+
+        if (completa || opciones.isEmpty() || canalBusqueda.isCargando() || canalSiguiente.isCargando()) {
+            return;
+        }
+
+        String buscado = texto;
+        int ultimo = opciones.get(opciones.size() - 1).id();
+
+        canalSiguiente.ejecutar(() -> catalogo.pagina(buscado, ultimo), pagina -> {
+
+            if (buscado.equals(texto)) {
+                mostrar(pagina, true);
+            }
+
+        }, this::avisarError);
+
+    }
+
+    /**
+     * Pone (o añade) una página en la lista sin perder lo escrito ni la opción elegida, y pide la siguiente.
+     */
+    private void mostrar(List<OpcionEntidad> pagina, boolean anadir) {
+
+        TextField editor = combo.getEditor();
+        String escrito = editor.getText();
+        int cursor = editor.getCaretPosition();
+        OpcionEntidad elegida = combo.getValue();
+
+        ajustar(() -> {
+
+            if (anadir) {
+                combo.getItems().addAll(pagina);
+            } else {
+                combo.getItems().setAll(pagina);
+            }
+
+            if (combo.getValue() != elegida) {
+                combo.setValue(elegida);
+            }
+
+            if (!Objects.equals(editor.getText(), escrito)) {
+
+                editor.setText(escrito);
+                editor.positionCaret(cursor);
+
+            }
+        });
+
+        completa = pagina.size() < CatalogoOpciones.PAGINA;
+
+        if (!completa) {
+            catalogo.precargar(texto, pagina.get(pagina.size() - 1).id());
+        }
+
+        // La lista desplegable no cambia de tamaño sola al cambiar las opciones
+        if (!anadir && editor.isFocused() && !pagina.isEmpty()) {
+
+            combo.hide();
+            combo.show();
+
+        }
+    }
+
+    /**
+     * @return la opción de la lista con esa etiqueta, la elegida si es la suya, o {@code null} si no hay ninguna.
+     */
+    private OpcionEntidad buscarEtiqueta(String escrito) {
+
+        OpcionEntidad elegida = combo.getValue();
+
+        if (escrito == null || escrito.isBlank()) {
+            return null;
+        }
+
+        if (elegida != null && elegida.etiqueta().equals(escrito)) {
+            return elegida;
+        }
+
+        return combo.getItems().stream().filter(o -> o.etiqueta().equals(escrito)).findFirst().orElse(null);
+    }
+
+    /**
+     * Ejecuta un cambio de la lista sin que cuente como algo escrito por el usuario.
+     */
+    private void ajustar(Runnable cambio) {
+
+        ajustando = true;
+
+        try {
+
+            cambio.run();
+
+        } finally {
+
+            ajustando = false;
+
+        }
+    }
+
+    private void avisarError(Throwable error) {
+
+        System.err.println("Error al cargar las opciones: " + error.getMessage());
+        combo.setPromptText("No se han podido cargar las opciones");
+
+    }
+
+    /**
+     * Celda de la lista desplegable. Cuando se muestra la última, pide la página siguiente.
+     */
+    private final class CeldaOpcion extends ListCell<OpcionEntidad> {
+
+        @Override
+        protected void updateItem(OpcionEntidad opcion, boolean vacia) {
+
+            super.updateItem(opcion, vacia);
+            setText(vacia || opcion == null ? null : opcion.etiqueta());
+
+            if (!vacia && getIndex() == combo.getItems().size() - 1) {
+                cargarSiguiente();
+            }
+        }
+    }
+}
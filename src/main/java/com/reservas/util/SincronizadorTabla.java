@@ -0,0 +1,128 @@
+package com.reservas.util;
+
+import com.reservas.dao.Cambios;
+import com.reservas.dao.SeguimientoCambios;
+
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * <h1>Sincronizador de una tabla paginada</h1>
+ *
+ * Mantiene al día una {@link ListaPaginada} pidiendo a la base de datos solo lo que ha cambiado desde la última
+ * lectura, con {@link SeguimientoCambios}.
+ *
+ * <h2>Funcionamiento:</h2>
+ * <ul>
+ *     <li>{@link #recargar} lee la marca de cambios y los totales de la vista, y vuelve a empezar la lista.</li>
+ *     <li>{@link #refrescar} lee los cambios desde la marca y los totales, y los aplica a la lista en su sitio.
+ *     Si aún no hay marca o hay demasiados cambios, recarga la lista.</li>
+ *     <li>Las consultas van por el {@link CanalConsulta} de la vista, así que una carga nueva sustituye a la anterior.</li>
+ * </ul>
+ * Debe usarse desde el hilo de JavaFX.
+ *
+ * @param <T> tipo de las filas.
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public class SincronizadorTabla<T> {
+
+    private final ListaPaginada<T> lista;
+    private final CanalConsulta canal;
+    private final LongFunction<Cambios<T>> cambios;
+
+    private long marca = -1;
+
+    /**
+     * @param lista lista mostrada en la tabla.
+     * @param canal canal de consultas de la vista.
+     * @param cambios consulta de cambios del DAO, por ejemplo {@code reservaDAO::leerCambiosReservas}.
+     */
+    public SincronizadorTabla(ListaPaginada<T> lista, CanalConsulta canal, LongFunction<Cambios<T>> cambios) {
+
+        this.lista = lista;
+        this.canal = canal;
+        this.cambios = cambios;
+
+    }
+
+    /**
+     * Recarga la lista completa.
+     *
+     * @param totales consulta de los totales que muestra la vista.
+     * @param total obtiene de los totales el número de filas de la tabla.
+     * @param alTerminar acción a ejecutar en el hilo de JavaFX con los totales, una vez actualizada la lista.
+     * @param alFallar acción a ejecutar en el hilo de JavaFX si falla la consulta.
+     * @param <R> tipo de los totales.
+     */
+    public <R> void recargar(Callable<R> totales, ToIntFunction<R> total, Consumer<R> alTerminar,
+                             Consumer<Throwable> alFallar) {
+
+        // Si esta carga se sustituye antes de terminar, el siguiente refresco debe recargar
+        marca = -1;
+
+        canal.ejecutar(() -> {
+
+            long nueva = SeguimientoCambios.marcaActual();
+            return new Lectura<T, R>(null, nueva, totales.call());
+
+        }, lectura -> {
+
+            marca = lectura.marca();
+            lista.reiniciar(total.applyAsInt(lectura.totales()));
+            alTerminar.accept(lectura.totales());
+
+        }, alFallar);
+    }
+
+    /**
+     * Aplica a la lista los cambios desde la última lectura.
+     *
+     * @param totales consulta de los totales que muestra la vista.
+     * @param total obtiene de los totales el número de filas de la tabla.
+     * @param alTerminar acción a ejecutar en el hilo de JavaFX con los totales, una vez actualizada la lista.
+     * @param alFallar acción a ejecutar en el hilo de JavaFX si falla la consulta.
+     * @param <R> tipo de los totales.
+     */
+    public <R> void refrescar(Callable<R> totales, ToIntFunction<R> total, Consumer<R> alTerminar,
+                              Consumer<Throwable> alFallar) {
+
+        if (marca < 0) {
+
+            recargar(totales, total, alTerminar, alFallar);
+            return;
+
+        }
+
+        long desde = marca;
+
+        canal.ejecutar(() -> {
+
+            Cambios<T> leidos = cambios.apply(desde);
+            return new Lectura<>(leidos, leidos.marca(), totales.call());
+
+        }, lectura -> {
+
+            Cambios<T> leidos = lectura.cambios();
+            int filas = total.applyAsInt(lectura.totales());
+
+            marca = lectura.marca();
+
+            if (leidos.desbordado()) {
+                lista.reiniciar(filas);
+            } else if (!leidos.vacio() || filas != lista.size()) {
+                lista.aplicarCambios(leidos.modificadas(), leidos.borradas(), filas);
+            }
+
+            alTerminar.accept(lectura.totales());
+
+        }, alFallar);
+    }
+
+    /**
+     * Resultado de una lectura en segundo plano: los cambios (si se han pedido), la marca nueva y los totales.
+     */
+    private record Lectura<T, R>(Cambios<T> cambios, long marca, R totales) { }
+}
@@ -0,0 +1,79 @@
+package com.reservas.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * <h1>Utilidades de texto</h1>
+ *
+ * Normalización común de los textos que se comparan en las búsquedas en memoria (ciudades, países, nombres).
+ *
+ * @author Jaime Pérez
+ * @since 17/10/2026
+ */
+public final class Textos {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}");
+
+    private Textos() { }
+
+    /**
+     * Pasa el texto a minúsculas y sin tildes, para que "Málaga", "malaga" y " MÁLAGA " coincidan.
+     *
+     * @param texto texto original; puede ser {@code null}.
+     * @return texto normalizado, o cadena vacía si era {@code null}.
+     */
+    public static String normalizar(String texto) {
+
+        if (texto == null) {
+            return "";
+        }
+
+        String limpio = texto.strip();
+
+        // La mayoría de textos no llevan tildes: se evita descomponer y aplicar la expresión regular
+        if (esAscii(limpio)) {
+            return limpio.toLowerCase(Locale.ROOT);
+        }
+
+        String descompuesto = Normalizer.normalize(limpio, Normalizer.Form.NFD);
+        return MARCAS_DIACRITICAS.matcher(descompuesto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param texto texto a limpiar.
+     * @return solo los dígitos del texto (por ejemplo, un teléfono sin {@code +} ni espacios).
+     */
+    public static String soloDigitos(String texto) {
+
+        if (texto == null) {
+            return "";
+        }
+
+        StringBuilder sb = new StringBuilder(texto.length());
+
+        for (int i = 0; i < texto.length(); i++) {
+
+            char c = texto.charAt(i);
+
+            if (c >= '0' && c <= '9') {
+                sb.append(c);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private static boolean esAscii(String texto) {
+
+        for (int i = 0; i < texto.length(); i++) {
+
+            if (texto.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
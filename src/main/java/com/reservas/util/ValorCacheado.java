@@ -0,0 +1,72 @@
+package com.reservas.util;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * <h1>Valor calculado con caducidad</h1>
+ *
+ * Guarda el resultado de una consulta costosa de repetir (recuentos, totales agregados) durante un tiempo
+ * limitado. Mientras no caduque, las lecturas devuelven el valor guardado sin volver a consultar.
+ *
+ * <h2>Características principales:</h2>
+ * <ul>
+ *     <li>El valor se calcula la primera vez que se pide y al caducar.</li>
+ *     <li>{@link #invalidar()} obliga a recalcularlo en la siguiente lectura (por ejemplo, tras una escritura).</li>
+ *     <li>Es seguro usarlo desde varios hilos; solo un hilo recalcula a la vez.</li>
+ * </ul>
+ *
+ * @param <T> tipo del valor.
+ * @author Daniel Hernando
+ * @since 17/10/2026
+ */
+public class ValorCacheado<T> {
+
+    private final Supplier<T> calculo;
+    private final long duracionNanos;
+
+    private T valor;
+    private long caducaEn;
+    private boolean valido = false;
+
+    /**
+     * @param duracion tiempo durante el que el valor se considera vigente.
+     * @param calculo función que obtiene el valor actualizado.
+     */
+    public ValorCacheado(Duration duracion, Supplier<T> calculo) {
+
+        this.duracionNanos = duracion.toNanos();
+        this.calculo = calculo;
+
+    }
+
+    /**
+     * Devuelve el valor guardado o lo recalcula si ha caducado o se ha invalidado.
+     *
+     * @return el valor vigente.
+     */
+    public synchronized T get() {
+
+        long ahora = System.nanoTime();
+
+        if (!valido || ahora - caducaEn >= 0) {
+
+            valor = calculo.get();
+            caducaEn = ahora + duracionNanos;
+            valido = true;
+
+        }
+
+        return valor;
+    }
+
+    /**
+     * Descarta el valor guardado para que la siguiente lectura lo recalcule.
+     */
+    public synchronized void invalidar() {
+
+        valido = false;
+        valor = null;
+
+    }
+}
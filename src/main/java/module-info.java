@@ -9,9 +9,13 @@ module com.example.reservavacaciones {
             requires org.kordamp.ikonli.javafx;
             requires org.kordamp.bootstrapfx.core;
             requires com.almasb.fxgl.all;
+            requires eu.hansolo.tilesfx;
 
     requires java.dotenv;
     requires java.sql;
+    requires jdk.httpserver;
+    requires java.xml;
+    requires org.postgresql.jdbc;
     requires javafx.graphics;
 //    requires com.example.reservavacaciones;
 //    requires com.example.reservavacaciones;
@@ -21,4 +25,6 @@ module com.example.reservavacaciones {
     exports com.reservas;
     exports com.reservas.controller;
     exports com.reservas.model;
+    exports com.reservas.service;
+    exports com.reservas.api;
 }
\ No newline at end of file